@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package com.expediagroup.apiary.extensions.events.metastore.event;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -42,6 +43,12 @@ public class ApiaryAddPartitionEvent extends ApiaryListenerEvent {
     }
   }
 
+  ApiaryAddPartitionEvent(ApiaryAddPartitionEvent event, List<Partition> partitions, Map<String, String> parameters) {
+    super(event, parameters);
+    table = event.table;
+    this.partitions = partitions;
+  }
+
   @Override
   public String getDatabaseName() {
     return table.getDbName();
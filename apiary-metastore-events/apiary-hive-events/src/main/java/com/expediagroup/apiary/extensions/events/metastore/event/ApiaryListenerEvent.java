@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,12 @@ public abstract class ApiaryListenerEvent implements Serializable {
     environmentContext = event.getEnvironmentContext();
   }
 
+  protected ApiaryListenerEvent(ApiaryListenerEvent event, Map<String, String> parameters) {
+    status = event.status;
+    this.parameters = parameters;
+    environmentContext = event.environmentContext;
+  }
+
   public EventType getEventType() {
     return EventType.forClass(this.getClass());
   }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,10 @@ package com.expediagroup.apiary.extensions.events.metastore.event;
 
 public enum CustomEventParameters {
 
-  HIVE_VERSION("hive.version");
+  HIVE_VERSION("hive.version"),
+  CHUNK_ID("apiary.chunk.id"),
+  CHUNK_INDEX("apiary.chunk.index"),
+  CHUNK_COUNT("apiary.chunk.count");
 
   private final String varname;
 
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.event;
+
+import static com.expediagroup.apiary.extensions.events.metastore.event.CustomEventParameters.CHUNK_COUNT;
+import static com.expediagroup.apiary.extensions.events.metastore.event.CustomEventParameters.CHUNK_ID;
+import static com.expediagroup.apiary.extensions.events.metastore.event.CustomEventParameters.CHUNK_INDEX;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+/**
+ * Splits {@link ApiaryAddPartitionEvent} and {@link ApiaryDropPartitionEvent} events into smaller events that carry
+ * consecutive ranges of the original partitions, and merges them back. Every chunk keeps the table, status and
+ * environment context of the original event and records its position with the {@link CustomEventParameters#CHUNK_ID},
+ * {@link CustomEventParameters#CHUNK_INDEX} and {@link CustomEventParameters#CHUNK_COUNT} parameters.
+ */
+public final class EventChunks {
+
+  private EventChunks() {}
+
+  public static boolean isSplittable(ApiaryListenerEvent event) {
+    return event instanceof ApiaryAddPartitionEvent || event instanceof ApiaryDropPartitionEvent;
+  }
+
+  public static boolean isChunk(ApiaryListenerEvent event) {
+    return isSplittable(event)
+        && event.getParameters() != null
+        && event.getParameters().containsKey(CHUNK_ID.varname());
+  }
+
+  public static int partitionCount(ApiaryListenerEvent event) {
+    List<Partition> partitions = partitions(event);
+    return partitions == null ? 0 : partitions.size();
+  }
+
+  public static String chunkId(ApiaryListenerEvent event) {
+    return event.getParameters().get(CHUNK_ID.varname());
+  }
+
+  public static int chunkIndex(ApiaryListenerEvent event) {
+    return Integer.parseInt(event.getParameters().get(CHUNK_INDEX.varname()));
+  }
+
+  public static int chunkCount(ApiaryListenerEvent event) {
+    return Integer.parseInt(event.getParameters().get(CHUNK_COUNT.varname()));
+  }
+
+  /**
+   * Splits the partitions of {@code event} into {@code chunkCount} events of roughly the same size, in order.
+   */
+  public static List<ApiaryListenerEvent> split(ApiaryListenerEvent event, int chunkCount) {
+    List<Partition> partitions = partitions(event);
+    if (chunkCount < 1 || chunkCount > partitions.size()) {
+      throw new IllegalArgumentException(
+          "Cannot split " + partitions.size() + " partitions into " + chunkCount + " chunks");
+    }
+    String chunkId = UUID.randomUUID().toString();
+    List<ApiaryListenerEvent> chunks = new ArrayList<>(chunkCount);
+    for (int i = 0; i < chunkCount; i++) {
+      int from = (int) ((long) partitions.size() * i / chunkCount);
+      int to = (int) ((long) partitions.size() * (i + 1) / chunkCount);
+      Map<String, String> parameters = new LinkedHashMap<>();
+      if (event.getParameters() != null) {
+        parameters.putAll(event.getParameters());
+      }
+      parameters.put(CHUNK_ID.varname(), chunkId);
+      parameters.put(CHUNK_INDEX.varname(), Integer.toString(i));
+      parameters.put(CHUNK_COUNT.varname(), Integer.toString(chunkCount));
+      chunks.add(copy(event, new ArrayList<>(partitions.subList(from, to)), parameters));
+    }
+    return chunks;
+  }
+
+  /**
+   * Merges chunks produced by {@link #split(ApiaryListenerEvent, int)} into a single event, ordering the partitions by
+   * chunk index. The chunk parameters are removed from the merged event.
+   */
+  public static ApiaryListenerEvent merge(List<? extends ApiaryListenerEvent> chunks) {
+    if (chunks.isEmpty()) {
+      throw new IllegalArgumentException("There are no chunks to merge");
+    }
+    List<ApiaryListenerEvent> ordered = new ArrayList<>(chunks);
+    ordered.sort(Comparator.comparingInt(EventChunks::chunkIndex));
+    List<Partition> partitions = new ArrayList<>();
+    for (ApiaryListenerEvent chunk : ordered) {
+      partitions.addAll(partitions(chunk));
+    }
+    ApiaryListenerEvent first = ordered.get(0);
+    Map<String, String> parameters = new LinkedHashMap<>(first.getParameters());
+    parameters.remove(CHUNK_ID.varname());
+    parameters.remove(CHUNK_INDEX.varname());
+    parameters.remove(CHUNK_COUNT.varname());
+    return copy(first, partitions, parameters);
+  }
+
+  private static List<Partition> partitions(ApiaryListenerEvent event) {
+    if (event instanceof ApiaryAddPartitionEvent) {
+      return ((ApiaryAddPartitionEvent) event).getPartitions();
+    }
+    if (event instanceof ApiaryDropPartitionEvent) {
+      return ((ApiaryDropPartitionEvent) event).getPartitions();
+    }
+    throw new IllegalArgumentException("Events of type " + event.getEventType() + " cannot be split");
+  }
+
+  private static ApiaryListenerEvent copy(
+      ApiaryListenerEvent event,
+      List<Partition> partitions,
+      Map<String, String> parameters) {
+    if (event instanceof ApiaryAddPartitionEvent) {
+      return new ApiaryAddPartitionEvent((ApiaryAddPartitionEvent) event, partitions, parameters);
+    }
+    return new ApiaryDropPartitionEvent((ApiaryDropPartitionEvent) event, partitions, parameters);
+  }
+
+}
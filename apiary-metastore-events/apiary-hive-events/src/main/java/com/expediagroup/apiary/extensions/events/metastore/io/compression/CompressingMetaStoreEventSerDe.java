@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.compression;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
+
+/**
+ * Compresses the payloads of another {@link MetaStoreEventSerDe} inside a {@link CompressionEnvelope}. Payloads
+ * smaller than {@code minBytes}, or that do not get smaller when compressed, are written as they are. Both kinds of
+ * payload can be read back.
+ */
+public class CompressingMetaStoreEventSerDe implements MetaStoreEventSerDe {
+  private static final Logger log = LoggerFactory.getLogger(CompressingMetaStoreEventSerDe.class);
+
+  private final MetaStoreEventSerDe delegate;
+  private final CompressionCodec codec;
+  private final int minBytes;
+
+  public CompressingMetaStoreEventSerDe(MetaStoreEventSerDe delegate, CompressionCodec codec, int minBytes) {
+    this.delegate = delegate;
+    this.codec = codec;
+    this.minBytes = minBytes;
+  }
+
+  @Override
+  public byte[] marshal(ApiaryListenerEvent listenerEvent) throws SerDeException {
+    byte[] payload = delegate.marshal(listenerEvent);
+    if (payload.length < minBytes) {
+      return payload;
+    }
+    byte[] compressed = CompressionEnvelope.compress(payload, codec);
+    log.debug("Compressed payload from {} to {} bytes with {}", payload.length, compressed.length, codec);
+    return compressed.length < payload.length ? compressed : payload;
+  }
+
+  @Override
+  public <T extends ApiaryListenerEvent> T unmarshal(byte[] payload) throws SerDeException {
+    return delegate.unmarshal(CompressionEnvelope.decompressIfNeeded(payload));
+  }
+
+}
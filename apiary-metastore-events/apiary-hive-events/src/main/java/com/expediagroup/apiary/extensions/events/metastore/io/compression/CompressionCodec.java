@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.jpountz.lz4.LZ4Factory;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Compression algorithms supported by {@link CompressionEnvelope}. The LZ4 and ZSTD codecs need {@code lz4-java} and
+ * {@code zstd-jni} on the classpath; both are shipped with the Kafka clients.
+ */
+public enum CompressionCodec {
+
+  GZIP((byte) 1) {
+    @Override
+    byte[] compress(byte[] payload) throws IOException {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(payload.length / 2);
+      try (OutputStream out = new GZIPOutputStream(buffer)) {
+        out.write(payload);
+      }
+      return buffer.toByteArray();
+    }
+
+    @Override
+    byte[] decompress(byte[] payload, int offset, int length, int originalLength) throws IOException {
+      byte[] decompressed = new byte[originalLength];
+      try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload, offset, length))) {
+        int read = 0;
+        while (read < originalLength) {
+          int count = in.read(decompressed, read, originalLength - read);
+          if (count < 0) {
+            throw new IOException("Compressed payload is shorter than expected");
+          }
+          read += count;
+        }
+      }
+      return decompressed;
+    }
+  },
+
+  LZ4((byte) 2) {
+    @Override
+    byte[] compress(byte[] payload) {
+      return LZ4Factory.fastestInstance().fastCompressor().compress(payload);
+    }
+
+    @Override
+    byte[] decompress(byte[] payload, int offset, int length, int originalLength) {
+      return LZ4Factory.fastestInstance().safeDecompressor().decompress(payload, offset, length, originalLength);
+    }
+  },
+
+  ZSTD((byte) 3) {
+    private static final int LEVEL = 3;
+
+    @Override
+    byte[] compress(byte[] payload) {
+      return Zstd.compress(payload, LEVEL);
+    }
+
+    @Override
+    byte[] decompress(byte[] payload, int offset, int length, int originalLength) throws IOException {
+      byte[] decompressed = new byte[originalLength];
+      long size = Zstd.decompressByteArray(decompressed, 0, originalLength, payload, offset, length);
+      if (Zstd.isError(size)) {
+        throw new IOException("Unable to decompress payload: " + Zstd.getErrorName(size));
+      }
+      if (size != originalLength) {
+        throw new IOException("Compressed payload is shorter than expected");
+      }
+      return decompressed;
+    }
+  };
+
+  private final byte id;
+
+  CompressionCodec(byte id) {
+    this.id = id;
+  }
+
+  byte id() {
+    return id;
+  }
+
+  abstract byte[] compress(byte[] payload) throws IOException;
+
+  abstract byte[] decompress(byte[] payload, int offset, int length, int originalLength) throws IOException;
+
+  static CompressionCodec forId(byte id) {
+    for (CompressionCodec codec : values()) {
+      if (codec.id == id) {
+        return codec;
+      }
+    }
+    throw new IllegalArgumentException("Unknown compression codec id " + id);
+  }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.compression;
+
+import java.io.IOException;
+
+import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
+
+/**
+ * Wraps compressed payloads with a small header so readers can tell them apart from plain payloads. The header is a
+ * magic byte, the envelope version, the {@link CompressionCodec} id and the length of the original payload as a big
+ * endian int. Neither JSON nor Thrift payloads can start with the magic byte.
+ */
+public final class CompressionEnvelope {
+
+  static final byte MAGIC = (byte) 0xC5;
+  static final byte VERSION = 1;
+  static final int HEADER_LENGTH = 7;
+
+  private static final int MAX_ORIGINAL_LENGTH = 128 * 1024 * 1024;
+
+  private CompressionEnvelope() {}
+
+  public static boolean isCompressed(byte[] payload) {
+    return payload != null && payload.length > 0 && payload[0] == MAGIC;
+  }
+
+  public static byte[] compress(byte[] payload, CompressionCodec codec) throws SerDeException {
+    try {
+      byte[] compressed = codec.compress(payload);
+      byte[] envelope = new byte[HEADER_LENGTH + compressed.length];
+      envelope[0] = MAGIC;
+      envelope[1] = VERSION;
+      envelope[2] = codec.id();
+      envelope[3] = (byte) (payload.length >>> 24);
+      envelope[4] = (byte) (payload.length >>> 16);
+      envelope[5] = (byte) (payload.length >>> 8);
+      envelope[6] = (byte) payload.length;
+      System.arraycopy(compressed, 0, envelope, HEADER_LENGTH, compressed.length);
+      return envelope;
+    } catch (IOException | RuntimeException e) {
+      throw new SerDeException("Unable to compress payload with " + codec, e);
+    }
+  }
+
+  public static byte[] decompress(byte[] payload) throws SerDeException {
+    if (!isCompressed(payload) || payload.length < HEADER_LENGTH) {
+      throw new SerDeException("Payload is not a compression envelope");
+    }
+    if (payload[1] != VERSION) {
+      throw new SerDeException("Unsupported compression envelope version " + payload[1]);
+    }
+    int originalLength = (payload[3] & 0xFF) << 24 | (payload[4] & 0xFF) << 16 | (payload[5] & 0xFF) << 8
+        | payload[6] & 0xFF;
+    if (originalLength < 0 || originalLength > MAX_ORIGINAL_LENGTH) {
+      throw new SerDeException("Invalid original payload length " + originalLength);
+    }
+    CompressionCodec codec;
+    try {
+      codec = CompressionCodec.forId(payload[2]);
+    } catch (IllegalArgumentException e) {
+      throw new SerDeException(e.getMessage(), e);
+    }
+    try {
+      return codec.decompress(payload, HEADER_LENGTH, payload.length - HEADER_LENGTH, originalLength);
+    } catch (IOException | RuntimeException e) {
+      throw new SerDeException("Unable to decompress payload with " + codec, e);
+    }
+  }
+
+  /**
+   * @return the original payload if {@code payload} is a compression envelope, otherwise {@code payload} itself
+   */
+  public static byte[] decompressIfNeeded(byte[] payload) throws SerDeException {
+    return isCompressed(payload) ? decompress(payload) : payload;
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,17 @@
 package com.expediagroup.apiary.extensions.events.metastore.io.jackson;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.thrift.TBase;
-import org.apache.thrift.TFieldIdEnum;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.ThriftStructMetadata.FieldMetadata;
 
 @SuppressWarnings("rawtypes")
 public class JacksonThriftSerializer<T extends TBase> extends StdSerializer<T> {
@@ -36,20 +38,79 @@ public class JacksonThriftSerializer<T extends TBase> extends StdSerializer<T> {
 
   @Override
   public void serialize(T t, JsonGenerator generator, SerializerProvider serializers) throws IOException {
-    TFieldIdEnum[] fields = ThriftSerDeUtils.fields(t.getClass());
+    FieldMetadata[] fields = ThriftStructMetadata.forClass(t.getClass()).fields();
     if (fields == null) {
       throw new SerDeException("Unable to read TBase fields from class " + handledType().getName());
     }
     serialize(t, fields, generator, serializers);
   }
 
-  private void serialize(T t, TFieldIdEnum[] fields, JsonGenerator generator, SerializerProvider serializers)
+  private void serialize(T t, FieldMetadata[] fields, JsonGenerator generator, SerializerProvider serializers)
     throws IOException {
     generator.writeStartObject();
-    for (TFieldIdEnum fieldId : fields) {
-      Object value = t.getFieldValue(fieldId);
-      String name = fieldId.getFieldName();
-      generator.writeObjectField(name, value);
+    for (FieldMetadata field : fields) {
+      Object value = t.getFieldValue(field.id);
+      generator.writeFieldName(field.name);
+      if (value == null) {
+        generator.writeNull();
+        continue;
+      }
+      switch (field.kind) {
+      case STRING:
+        generator.writeString((String) value);
+        break;
+      case BOOLEAN:
+        generator.writeBoolean((Boolean) value);
+        break;
+      case BYTE:
+        generator.writeNumber(((Byte) value).intValue());
+        break;
+      case SHORT:
+        generator.writeNumber((Short) value);
+        break;
+      case INT:
+        generator.writeNumber((Integer) value);
+        break;
+      case LONG:
+        generator.writeNumber((Long) value);
+        break;
+      case DOUBLE:
+        generator.writeNumber((Double) value);
+        break;
+      case STRING_LIST:
+        writeStringList((List<String>) value, generator);
+        break;
+      case STRING_MAP:
+        writeStringMap((Map<String, String>) value, generator);
+        break;
+      default:
+        serializers.defaultSerializeValue(value, generator);
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeStringList(List<String> values, JsonGenerator generator) throws IOException {
+    generator.writeStartArray();
+    for (String value : values) {
+      if (value == null) {
+        generator.writeNull();
+      } else {
+        generator.writeString(value);
+      }
+    }
+    generator.writeEndArray();
+  }
+
+  private static void writeStringMap(Map<String, String> values, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    for (Map.Entry<String, String> entry : values.entrySet()) {
+      generator.writeFieldName(entry.getKey());
+      if (entry.getValue() == null) {
+        generator.writeNull();
+      } else {
+        generator.writeString(entry.getValue());
+      }
     }
     generator.writeEndObject();
   }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,19 +17,21 @@ package com.expediagroup.apiary.extensions.events.metastore.io.jackson;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.apache.hadoop.hive.metastore.api.SkewedInfo;
-import org.apache.hadoop.hive.metastore.events.CreateTableEvent;
-import org.apache.hadoop.hive.metastore.events.ListenerEvent;
 import org.apache.thrift.TBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
 import com.expediagroup.apiary.extensions.events.metastore.event.EventType;
@@ -39,6 +41,8 @@ import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
 public class JsonMetaStoreEventSerDe implements MetaStoreEventSerDe {
   private static final Logger log = LoggerFactory.getLogger(JsonMetaStoreEventSerDe.class);
 
+  private static final String EVENT_TYPE = "eventType";
+
   private final ObjectMapper mapper;
 
   public JsonMetaStoreEventSerDe() {
@@ -48,6 +52,7 @@ public class JsonMetaStoreEventSerDe implements MetaStoreEventSerDe {
     mapper = new ObjectMapper();
     mapper.configure(FAIL_ON_UNKNOWN_PROPERTIES, false);
     mapper.registerModule(thriftModule);
+    mapper.addMixIn(ApiaryListenerEvent.class, EventTypeFirstMixIn.class);
   }
 
   private void registerSerializers(SimpleModule module) {
@@ -75,55 +80,52 @@ public class JsonMetaStoreEventSerDe implements MetaStoreEventSerDe {
     }
   }
 
+  /**
+   * Decodes the payload in a single pass: the parser reads fields up to {@code eventType}, which is written first by
+   * {@link #marshal(ApiaryListenerEvent)}, and then hands the rest of the stream to the deserializer of the concrete
+   * event class. Any fields found before {@code eventType}, as in payloads written by older versions, are buffered as
+   * tokens and replayed so they are not parsed again.
+   */
   @Override
   public <T extends ApiaryListenerEvent> T unmarshal(byte[] payload) throws SerDeException {
     try {
       if (log.isDebugEnabled()) {
         log.debug("Marshalled event is: {}", new String(payload));
       }
-      ByteArrayInputStream buffer = new ByteArrayInputStream(payload);
-      // As we don't know the type in advance we can only deserialize the event twice:
-      // 1. Create a dummy object just to find out the type
-      T genericEvent = mapper.readerFor(HeplerApiaryListenerEvent.class).readValue(buffer);
-      log.debug("Umarshal event of type: {}", genericEvent.getEventType());
-      // 2. Deserialize the actual object
-      buffer.reset();
-      T event = mapper.readerFor(genericEvent.getEventType().eventClass()).readValue(buffer);
-      log.debug("Unmarshalled event is: {}", event);
-      return event;
+      try (JsonParser parser = mapper.getFactory().createParser(payload)) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+          throw new SerDeException("Payload is not a JSON object");
+        }
+        TokenBuffer preceding = new TokenBuffer(parser);
+        preceding.writeStartObject();
+        EventType eventType = null;
+        while (eventType == null && parser.nextToken() == JsonToken.FIELD_NAME) {
+          String fieldName = parser.getCurrentName();
+          parser.nextToken();
+          if (EVENT_TYPE.equals(fieldName)) {
+            eventType = EventType.valueOf(parser.getText());
+          } else {
+            preceding.writeFieldName(fieldName);
+            preceding.copyCurrentStructure(parser);
+          }
+        }
+        if (eventType == null) {
+          throw new SerDeException("Payload does not contain field " + EVENT_TYPE);
+        }
+        log.debug("Unmarshal event of type: {}", eventType);
+        JsonParser eventParser = JsonParserSequence.createFlattened(preceding.asParser(parser), parser);
+        T event = mapper.readerFor(eventType.eventClass()).readValue(eventParser);
+        log.debug("Unmarshalled event is: {}", event);
+        return event;
+      }
+    } catch (SerDeException e) {
+      throw e;
     } catch (Exception e) {
       throw new SerDeException("Unable to unmarshal event from payload", e);
     }
   }
 
-  static class HeplerApiaryListenerEvent extends ApiaryListenerEvent {
-    private static final long serialVersionUID = 1L;
-    private static final ListenerEvent DUMMY_EVENT = new CreateTableEvent(null, false, null);
-
-    private EventType eventType;
-
-    HeplerApiaryListenerEvent() {
-      super(DUMMY_EVENT);
-    }
-
-    @Override
-    public EventType getEventType() {
-      return eventType;
-    }
-
-    public void setEventType(EventType eventType) {
-      this.eventType = eventType;
-    }
-
-    @Override
-    public String getDatabaseName() {
-      return null;
-    }
-
-    @Override
-    public String getTableName() {
-      return null;
-    }
-  }
+  @JsonPropertyOrder({ EVENT_TYPE })
+  abstract static class EventTypeFirstMixIn {}
 
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.jackson;
+
+import java.util.Map;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TFieldIdEnum;
+import org.apache.thrift.meta_data.FieldMetaData;
+import org.apache.thrift.meta_data.FieldValueMetaData;
+import org.apache.thrift.meta_data.ListMetaData;
+import org.apache.thrift.meta_data.MapMetaData;
+import org.apache.thrift.protocol.TType;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Field ids, pre-encoded JSON names and value kinds of a Thrift struct class, resolved once per class and shared by all
+ * {@link JacksonThriftSerializer} instances.
+ */
+final class ThriftStructMetadata {
+
+  enum Kind {
+    STRING,
+    BOOLEAN,
+    BYTE,
+    SHORT,
+    INT,
+    LONG,
+    DOUBLE,
+    STRING_LIST,
+    STRING_MAP,
+    OTHER
+  }
+
+  static final class FieldMetadata {
+    final TFieldIdEnum id;
+    final SerializableString name;
+    final Kind kind;
+
+    private FieldMetadata(TFieldIdEnum id, Kind kind) {
+      this.id = id;
+      this.kind = kind;
+      name = new SerializedString(id.getFieldName());
+    }
+  }
+
+  private static final ClassValue<ThriftStructMetadata> CACHE = new ClassValue<ThriftStructMetadata>() {
+    @Override
+    protected ThriftStructMetadata computeValue(Class<?> type) {
+      return new ThriftStructMetadata((Class<? extends TBase<?, ?>>) type);
+    }
+  };
+
+  static ThriftStructMetadata forClass(Class<?> clazz) {
+    return CACHE.get(clazz);
+  }
+
+  private final FieldMetadata[] fields;
+
+  private ThriftStructMetadata(Class<? extends TBase<?, ?>> clazz) {
+    TFieldIdEnum[] fieldIds = ThriftSerDeUtils.fields(clazz);
+    if (fieldIds == null) {
+      fields = null;
+      return;
+    }
+    Map<? extends TFieldIdEnum, FieldMetaData> metaData = FieldMetaData.getStructMetaDataMap(clazz);
+    fields = new FieldMetadata[fieldIds.length];
+    for (int i = 0; i < fieldIds.length; i++) {
+      FieldMetaData fieldMetaData = metaData == null ? null : metaData.get(fieldIds[i]);
+      Kind kind = fieldMetaData == null ? Kind.OTHER : kind(fieldMetaData.valueMetaData);
+      fields[i] = new FieldMetadata(fieldIds[i], kind);
+    }
+  }
+
+  /**
+   * @return the fields in declaration order, or {@code null} if the class does not declare a {@link TFieldIdEnum}
+   */
+  FieldMetadata[] fields() {
+    return fields;
+  }
+
+  private static Kind kind(FieldValueMetaData valueMetaData) {
+    switch (valueMetaData.type) {
+    case TType.STRING:
+      return valueMetaData.isBinary() ? Kind.OTHER : Kind.STRING;
+    case TType.BOOL:
+      return Kind.BOOLEAN;
+    case TType.BYTE:
+      return Kind.BYTE;
+    case TType.I16:
+      return Kind.SHORT;
+    case TType.I32:
+      return Kind.INT;
+    case TType.I64:
+      return Kind.LONG;
+    case TType.DOUBLE:
+      return Kind.DOUBLE;
+    case TType.LIST:
+      return isString(((ListMetaData) valueMetaData).elemMetaData) ? Kind.STRING_LIST : Kind.OTHER;
+    case TType.MAP:
+      MapMetaData mapMetaData = (MapMetaData) valueMetaData;
+      return isString(mapMetaData.keyMetaData) && isString(mapMetaData.valueMetaData) ? Kind.STRING_MAP : Kind.OTHER;
+    default:
+      return Kind.OTHER;
+    }
+  }
+
+  private static boolean isString(FieldValueMetaData valueMetaData) {
+    return valueMetaData.type == TType.STRING && !valueMetaData.isBinary();
+  }
+
+}
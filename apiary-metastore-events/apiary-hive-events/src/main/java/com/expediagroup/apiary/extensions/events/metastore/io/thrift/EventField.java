@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.thrift;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TMap;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TType;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+
+/**
+ * A field of an {@link ApiaryListenerEvent} as it is written on the wire: a Thrift field id and type, and the member
+ * of the event class it is read from and written to. Null values are not written.
+ */
+final class EventField {
+
+  private enum Kind {
+    BOOL(TType.BOOL),
+    STRING(TType.STRING),
+    STRING_LIST(TType.LIST),
+    STRING_MAP(TType.MAP),
+    STRUCT(TType.STRUCT),
+    STRUCT_LIST(TType.LIST);
+
+    private final byte type;
+
+    Kind(byte type) {
+      this.type = type;
+    }
+  }
+
+  static EventField bool(short id, Class<? extends ApiaryListenerEvent> eventClass, String name) {
+    return new EventField(id, eventClass, name, Kind.BOOL, null);
+  }
+
+  static EventField string(short id, Class<? extends ApiaryListenerEvent> eventClass, String name) {
+    return new EventField(id, eventClass, name, Kind.STRING, null);
+  }
+
+  static EventField stringList(short id, Class<? extends ApiaryListenerEvent> eventClass, String name) {
+    return new EventField(id, eventClass, name, Kind.STRING_LIST, null);
+  }
+
+  static EventField stringMap(short id, Class<? extends ApiaryListenerEvent> eventClass, String name) {
+    return new EventField(id, eventClass, name, Kind.STRING_MAP, null);
+  }
+
+  static EventField struct(
+      short id,
+      Class<? extends ApiaryListenerEvent> eventClass,
+      String name,
+      Class<? extends TBase<?, ?>> structClass) {
+    return new EventField(id, eventClass, name, Kind.STRUCT, structClass);
+  }
+
+  static EventField structList(
+      short id,
+      Class<? extends ApiaryListenerEvent> eventClass,
+      String name,
+      Class<? extends TBase<?, ?>> structClass) {
+    return new EventField(id, eventClass, name, Kind.STRUCT_LIST, structClass);
+  }
+
+  private final TField tField;
+  private final Kind kind;
+  private final Field member;
+  private final Class<? extends TBase<?, ?>> structClass;
+
+  private EventField(
+      short id,
+      Class<? extends ApiaryListenerEvent> eventClass,
+      String name,
+      Kind kind,
+      Class<? extends TBase<?, ?>> structClass) {
+    tField = new TField(name, kind.type, id);
+    this.kind = kind;
+    this.structClass = structClass;
+    try {
+      member = eventClass.getDeclaredField(name);
+    } catch (NoSuchFieldException e) {
+      throw new IllegalArgumentException("Class " + eventClass.getName() + " has no field " + name, e);
+    }
+    member.setAccessible(true);
+  }
+
+  short id() {
+    return tField.id;
+  }
+
+  byte type() {
+    return tField.type;
+  }
+
+  @SuppressWarnings("unchecked")
+  void write(TProtocol protocol, ApiaryListenerEvent event) throws TException, IllegalAccessException {
+    Object value = member.get(event);
+    if (value == null) {
+      return;
+    }
+    protocol.writeFieldBegin(tField);
+    switch (kind) {
+    case BOOL:
+      protocol.writeBool((Boolean) value);
+      break;
+    case STRING:
+      protocol.writeString((String) value);
+      break;
+    case STRING_LIST:
+      List<String> strings = (List<String>) value;
+      protocol.writeListBegin(new TList(TType.STRING, strings.size()));
+      for (String string : strings) {
+        protocol.writeString(string);
+      }
+      protocol.writeListEnd();
+      break;
+    case STRING_MAP:
+      Map<String, String> map = (Map<String, String>) value;
+      protocol.writeMapBegin(new TMap(TType.STRING, TType.STRING, map.size()));
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        protocol.writeString(entry.getKey());
+        protocol.writeString(entry.getValue());
+      }
+      protocol.writeMapEnd();
+      break;
+    case STRUCT:
+      ((TBase<?, ?>) value).write(protocol);
+      break;
+    case STRUCT_LIST:
+      List<TBase<?, ?>> structs = (List<TBase<?, ?>>) value;
+      protocol.writeListBegin(new TList(TType.STRUCT, structs.size()));
+      for (TBase<?, ?> struct : structs) {
+        struct.write(protocol);
+      }
+      protocol.writeListEnd();
+      break;
+    default:
+      throw new IllegalStateException("Unknown field kind " + kind);
+    }
+    protocol.writeFieldEnd();
+  }
+
+  void read(TProtocol protocol, ApiaryListenerEvent event) throws TException, ReflectiveOperationException {
+    Object value;
+    switch (kind) {
+    case BOOL:
+      value = protocol.readBool();
+      break;
+    case STRING:
+      value = protocol.readString();
+      break;
+    case STRING_LIST:
+      TList stringList = protocol.readListBegin();
+      List<String> strings = new ArrayList<>(stringList.size);
+      for (int i = 0; i < stringList.size; i++) {
+        strings.add(protocol.readString());
+      }
+      protocol.readListEnd();
+      value = strings;
+      break;
+    case STRING_MAP:
+      TMap stringMap = protocol.readMapBegin();
+      Map<String, String> map = new HashMap<>(2 * stringMap.size);
+      for (int i = 0; i < stringMap.size; i++) {
+        map.put(protocol.readString(), protocol.readString());
+      }
+      protocol.readMapEnd();
+      value = map;
+      break;
+    case STRUCT:
+      value = readStruct(protocol);
+      break;
+    case STRUCT_LIST:
+      TList structList = protocol.readListBegin();
+      List<TBase<?, ?>> structs = new ArrayList<>(structList.size);
+      for (int i = 0; i < structList.size; i++) {
+        structs.add(readStruct(protocol));
+      }
+      protocol.readListEnd();
+      value = structs;
+      break;
+    default:
+      throw new IllegalStateException("Unknown field kind " + kind);
+    }
+    member.set(event, value);
+  }
+
+  private TBase<?, ?> readStruct(TProtocol protocol) throws TException, ReflectiveOperationException {
+    TBase<?, ?> struct = structClass.getDeclaredConstructor().newInstance();
+    struct.read(protocol);
+    return struct;
+  }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.thrift;
+
+import static com.expediagroup.apiary.extensions.events.metastore.io.thrift.EventField.bool;
+import static com.expediagroup.apiary.extensions.events.metastore.io.thrift.EventField.string;
+import static com.expediagroup.apiary.extensions.events.metastore.io.thrift.EventField.stringList;
+import static com.expediagroup.apiary.extensions.events.metastore.io.thrift.EventField.stringMap;
+import static com.expediagroup.apiary.extensions.events.metastore.io.thrift.EventField.struct;
+import static com.expediagroup.apiary.extensions.events.metastore.io.thrift.EventField.structList;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hive.metastore.api.EnvironmentContext;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TProtocolUtil;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TIOStreamTransport;
+import org.apache.thrift.transport.TMemoryInputTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryAddPartitionEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryAlterPartitionEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryAlterTableEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryCreateTableEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryDropPartitionEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryDropTableEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryInsertEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventType;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
+
+/**
+ * Encodes events with the Thrift compact protocol. Metastore objects such as {@link Table} and {@link Partition} are
+ * written with their own generated Thrift code instead of being walked reflectively.
+ * <p>
+ * A payload starts with a magic byte and the format version, followed by the name of the {@link EventType} and a
+ * Thrift struct with the fields of the event. Fields are identified by id, so unknown fields are skipped and
+ * missing fields are left unset when reading.
+ */
+public class ThriftMetaStoreEventSerDe implements MetaStoreEventSerDe {
+  private static final Logger log = LoggerFactory.getLogger(ThriftMetaStoreEventSerDe.class);
+
+  static final byte MAGIC = (byte) 0xAE;
+  static final byte VERSION = 1;
+
+  private static final int HEADER_LENGTH = 2;
+  private static final TStruct EVENT_STRUCT = new TStruct("ApiaryListenerEvent");
+  private static final Map<EventType, EventSchema> SCHEMAS = schemas();
+
+  private static Map<EventType, EventSchema> schemas() {
+    Map<EventType, EventSchema> schemas = new EnumMap<>(EventType.class);
+    schemas.put(EventType.ON_CREATE_TABLE, new EventSchema(ApiaryCreateTableEvent.class,
+        struct((short) 10, ApiaryCreateTableEvent.class, "table", Table.class)));
+    schemas.put(EventType.ON_ALTER_TABLE, new EventSchema(ApiaryAlterTableEvent.class,
+        struct((short) 10, ApiaryAlterTableEvent.class, "oldTable", Table.class),
+        struct((short) 11, ApiaryAlterTableEvent.class, "newTable", Table.class)));
+    schemas.put(EventType.ON_DROP_TABLE, new EventSchema(ApiaryDropTableEvent.class,
+        struct((short) 10, ApiaryDropTableEvent.class, "table", Table.class),
+        bool((short) 11, ApiaryDropTableEvent.class, "deleteData")));
+    schemas.put(EventType.ON_ADD_PARTITION, new EventSchema(ApiaryAddPartitionEvent.class,
+        struct((short) 10, ApiaryAddPartitionEvent.class, "table", Table.class),
+        structList((short) 11, ApiaryAddPartitionEvent.class, "partitions", Partition.class)));
+    schemas.put(EventType.ON_ALTER_PARTITION, new EventSchema(ApiaryAlterPartitionEvent.class,
+        struct((short) 10, ApiaryAlterPartitionEvent.class, "table", Table.class),
+        struct((short) 11, ApiaryAlterPartitionEvent.class, "oldPartition", Partition.class),
+        struct((short) 12, ApiaryAlterPartitionEvent.class, "newPartition", Partition.class)));
+    schemas.put(EventType.ON_DROP_PARTITION, new EventSchema(ApiaryDropPartitionEvent.class,
+        struct((short) 10, ApiaryDropPartitionEvent.class, "table", Table.class),
+        structList((short) 11, ApiaryDropPartitionEvent.class, "partitions", Partition.class),
+        bool((short) 12, ApiaryDropPartitionEvent.class, "deleteData")));
+    schemas.put(EventType.ON_INSERT, new EventSchema(ApiaryInsertEvent.class,
+        string((short) 10, ApiaryInsertEvent.class, "databaseName"),
+        string((short) 11, ApiaryInsertEvent.class, "tableName"),
+        stringMap((short) 12, ApiaryInsertEvent.class, "partitionKeyValues"),
+        stringList((short) 13, ApiaryInsertEvent.class, "files"),
+        stringList((short) 14, ApiaryInsertEvent.class, "fileChecksums")));
+    for (EventType eventType : EventType.values()) {
+      if (!schemas.containsKey(eventType)) {
+        throw new IllegalStateException("No Thrift schema defined for event type " + eventType);
+      }
+    }
+    return Collections.unmodifiableMap(schemas);
+  }
+
+  @Override
+  public byte[] marshal(ApiaryListenerEvent listenerEvent) throws SerDeException {
+    try {
+      log.debug("Marshalling event: {}", listenerEvent);
+      EventType eventType = listenerEvent.getEventType();
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      buffer.write(MAGIC);
+      buffer.write(VERSION);
+      TProtocol protocol = new TCompactProtocol(new TIOStreamTransport(buffer));
+      protocol.writeString(eventType.name());
+      protocol.writeStructBegin(EVENT_STRUCT);
+      for (EventField field : SCHEMAS.get(eventType).fields) {
+        field.write(protocol, listenerEvent);
+      }
+      protocol.writeFieldStop();
+      protocol.writeStructEnd();
+      byte[] bytes = buffer.toByteArray();
+      log.debug("Marshalled event is {} bytes", bytes.length);
+      return bytes;
+    } catch (Exception e) {
+      throw new SerDeException("Unable to marshal event " + listenerEvent, e);
+    }
+  }
+
+  @Override
+  public <T extends ApiaryListenerEvent> T unmarshal(byte[] payload) throws SerDeException {
+    if (payload.length < HEADER_LENGTH || payload[0] != MAGIC) {
+      throw new SerDeException("Payload is not a Thrift encoded event");
+    }
+    if (payload[1] != VERSION) {
+      throw new SerDeException("Unsupported Thrift event format version " + payload[1]);
+    }
+    try {
+      TProtocol protocol = new TCompactProtocol(
+          new TMemoryInputTransport(payload, HEADER_LENGTH, payload.length - HEADER_LENGTH));
+      EventType eventType = EventType.valueOf(protocol.readString());
+      log.debug("Unmarshal event of type: {}", eventType);
+      EventSchema schema = SCHEMAS.get(eventType);
+      ApiaryListenerEvent event = schema.constructor.newInstance();
+      protocol.readStructBegin();
+      while (true) {
+        TField tField = protocol.readFieldBegin();
+        if (tField.type == TType.STOP) {
+          break;
+        }
+        EventField field = schema.fieldsById.get(tField.id);
+        if (field != null && field.type() == tField.type) {
+          field.read(protocol, event);
+        } else {
+          TProtocolUtil.skip(protocol, tField.type);
+        }
+        protocol.readFieldEnd();
+      }
+      protocol.readStructEnd();
+      log.debug("Unmarshalled event is: {}", event);
+      return (T) event;
+    } catch (Exception e) {
+      throw new SerDeException("Unable to unmarshal event from payload", e);
+    }
+  }
+
+  private static final class EventSchema {
+    private final Constructor<? extends ApiaryListenerEvent> constructor;
+    private final List<EventField> fields;
+    private final Map<Short, EventField> fieldsById = new HashMap<>();
+
+    private EventSchema(Class<? extends ApiaryListenerEvent> eventClass, EventField... eventFields) {
+      try {
+        constructor = eventClass.getDeclaredConstructor();
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException("Class " + eventClass.getName() + " has no default constructor", e);
+      }
+      constructor.setAccessible(true);
+      EventField[] allFields = new EventField[eventFields.length + 3];
+      allFields[0] = bool((short) 1, ApiaryListenerEvent.class, "status");
+      allFields[1] = stringMap((short) 2, ApiaryListenerEvent.class, "parameters");
+      allFields[2] = struct((short) 3, ApiaryListenerEvent.class, "environmentContext", EnvironmentContext.class);
+      System.arraycopy(eventFields, 0, allFields, 3, eventFields.length);
+      fields = Arrays.asList(allFields);
+      for (EventField field : fields) {
+        fieldsById.put(field.id(), field);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.spool;
+
+/**
+ * When the {@link SegmentedSpool} forces appended records to disk.
+ */
+public enum FsyncPolicy {
+
+  /** Force the segment after every append. Slowest, but no acknowledged record is lost on power failure. */
+  ALWAYS,
+  /** Force the segment when the configured interval has elapsed since the last force. */
+  INTERVAL,
+  /** Leave flushing to the operating system. Records survive a process crash but not a power failure. */
+  NEVER
+
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the messages that could not be delivered to a sink in a {@link SegmentedSpool} on local disk and replays them,
+ * in order, once the sink accepts messages again. While the spool holds messages new messages are spooled too, so they
+ * cannot overtake the ones waiting to be replayed.
+ * <p>
+ * Only failures that may succeed on a later attempt are spooled. A message rejected for good, for example because it
+ * is too large, is logged and counted as {@link Event#UNDELIVERABLE} both when it first fails and when it fails on
+ * replay, so that it never blocks the messages behind it. Messages are written to disk by a background thread, so
+ * reporting a failure from a client I/O thread never waits for the disk.
+ *
+ * @param <T> the type of the messages
+ */
+public class MessageSpool<T> implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(MessageSpool.class);
+
+  private static final long INITIAL_BACKOFF_MS = 100L;
+  private static final long CLOSE_TIMEOUT_MS = 10000L;
+
+  /**
+   * Converts messages to and from spool records.
+   */
+  public interface Codec<T> {
+    byte[] encode(T message) throws IOException;
+
+    T decode(byte[] record) throws IOException;
+  }
+
+  /**
+   * Sends a replayed message, returning only once the message has been delivered.
+   */
+  public interface Sink<T> {
+    void send(T message) throws Exception;
+  }
+
+  /**
+   * What happened to a message, reported so that it can be counted.
+   */
+  public enum Event {
+    /** The message was written to the spool. */
+    SPOOLED,
+    /** The message could not be written to the spool, or could not be read back from it. */
+    DROPPED,
+    /** The sink rejected the message with an error that retrying won't fix. */
+    UNDELIVERABLE,
+    /** The message was delivered from the spool. */
+    REPLAYED
+  }
+
+  private final SegmentedSpool spool;
+  private final Codec<T> codec;
+  private final Predicate<Throwable> retriable;
+  private final long maxBackoffMs;
+  private final Consumer<Event> metrics;
+  private final ExecutorService appender;
+  private final AtomicInteger pendingAppends = new AtomicInteger();
+  private SpoolReplayer replayer;
+
+  /**
+   * @param retriable tells whether a failure may succeed if the message is sent again
+   * @param metrics receives every {@link Event}
+   */
+  public MessageSpool(
+      SegmentedSpool spool,
+      Codec<T> codec,
+      Predicate<Throwable> retriable,
+      long maxBackoffMs,
+      Consumer<Event> metrics) {
+    this.spool = spool;
+    this.codec = codec;
+    this.retriable = retriable;
+    this.maxBackoffMs = maxBackoffMs;
+    this.metrics = metrics;
+    appender = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "apiary-spool-appender");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts replaying spooled messages, including the ones left by a previous process, to the given sink.
+   */
+  public synchronized void start(Sink<T> sink) {
+    if (replayer != null) {
+      throw new IllegalStateException("Spool replay has already started");
+    }
+    replayer = new SpoolReplayer(spool, record -> replay(record, sink), INITIAL_BACKOFF_MS, maxBackoffMs);
+    replayer.start();
+  }
+
+  /**
+   * @return {@code true} if messages are waiting in the spool or about to be written to it
+   */
+  public boolean hasPendingMessages() {
+    return pendingAppends.get() > 0 || !spool.isEmpty();
+  }
+
+  public long pendingMessages() {
+    return pendingAppends.get() + spool.pendingRecords();
+  }
+
+  /**
+   * Spools a message from a background thread, in the order messages are handed to this method. A message that cannot
+   * be spooled is logged and counted as dropped.
+   */
+  public void append(T message) {
+    pendingAppends.incrementAndGet();
+    try {
+      appender.execute(() -> {
+        try {
+          write(message);
+        } finally {
+          pendingAppends.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pendingAppends.decrementAndGet();
+      log.error("Spool is closed, dropping message {}", message);
+      metrics.accept(Event.DROPPED);
+    }
+  }
+
+  /**
+   * Spools a message that the sink failed to deliver if the failure is retriable, drops it otherwise.
+   */
+  public void failed(T message, Throwable cause) {
+    if (isRetriable(cause)) {
+      append(message);
+    } else {
+      undeliverable(message, cause);
+    }
+  }
+
+  public boolean isRetriable(Throwable cause) {
+    return retriable.test(unwrap(cause));
+  }
+
+  /**
+   * Stops accepting messages, waits for the pending ones to be written and stops replaying.
+   */
+  @Override
+  public synchronized void close() {
+    appender.shutdown();
+    try {
+      if (!appender.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        log.warn("Spool closed with {} messages not written", pendingAppends.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (replayer != null) {
+      replayer.close();
+    }
+    spool.close();
+  }
+
+  private void write(T message) {
+    try {
+      if (spool.append(codec.encode(message))) {
+        metrics.accept(Event.SPOOLED);
+        return;
+      }
+      log.error("Spool is full, dropping message {}", message);
+    } catch (IOException | RuntimeException e) {
+      log.error("Unable to spool message {}", message, e);
+    }
+    metrics.accept(Event.DROPPED);
+  }
+
+  private void replay(byte[] record, Sink<T> sink) throws Exception {
+    T message;
+    try {
+      message = codec.decode(record);
+    } catch (IOException | RuntimeException e) {
+      log.error("Dropping spooled message that cannot be read", e);
+      metrics.accept(Event.DROPPED);
+      return;
+    }
+    try {
+      sink.send(message);
+    } catch (InterruptedException e) {
+      throw e;
+    } catch (Exception e) {
+      if (isRetriable(e)) {
+        throw e;
+      }
+      undeliverable(message, e);
+      return;
+    }
+    metrics.accept(Event.REPLAYED);
+  }
+
+  private void undeliverable(T message, Throwable cause) {
+    log.error("Dropping message {} that cannot be delivered", message, cause);
+    metrics.accept(Event.UNDELIVERABLE);
+  }
+
+  private static Throwable unwrap(Throwable cause) {
+    while (cause instanceof ExecutionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+}
@@ -0,0 +1,491 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.spool;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of opaque records kept in memory-mapped segment files, used to hold on to events while their sink
+ * is unavailable. Each segment starts with a magic number and a version and is followed by records made of a length, a
+ * CRC32 of the record and the record itself. When a record does not fit in the current segment a new segment is
+ * created, and a segment is deleted once all its records have been committed. The read position is kept in a
+ * checkpoint file so that a restarted process carries on where it stopped.
+ * <p>
+ * On startup every segment is scanned and truncated at the first record with an invalid length or checksum, which is
+ * what a write interrupted by a crash looks like. Records are delivered at least once: a record read but not committed
+ * before the process stops is read again after a restart, and so may be a record committed just before a crash since
+ * the checkpoint is only forced to disk on close. The checkpoint file is locked while the spool is open, so a directory
+ * can only be used by one spool at a time.
+ */
+public class SegmentedSpool implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(SegmentedSpool.class);
+
+  static final int MAGIC = 0x41505359;
+  static final int VERSION = 1;
+  static final int SEGMENT_HEADER_BYTES = 8;
+  static final int RECORD_HEADER_BYTES = 8;
+  static final String SEGMENT_SUFFIX = ".segment";
+  static final String CHECKPOINT_FILE = "checkpoint";
+
+  private static final int CHECKPOINT_BYTES = 16;
+  private static final int MIN_SEGMENTS = 2;
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final int maxSegments;
+  private final FsyncPolicy fsyncPolicy;
+  private final long fsyncIntervalNanos;
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+  private FileChannel checkpointChannel;
+  private MappedByteBuffer checkpoint;
+  private Segment writeSegment;
+  private Segment readSegment;
+  private int readPosition;
+  private long pendingRecords;
+  private long lastForceNanos;
+  private boolean dirty;
+  private boolean closed;
+
+  /**
+   * Opens the spool in the given directory, recovering any segments left by a previous process.
+   *
+   * @param segmentBytes size of each segment file
+   * @param maxBytes disk space the segments may use, at least two segments are always allowed
+   * @param fsyncIntervalMs how often segments are forced to disk with {@link FsyncPolicy#INTERVAL}
+   */
+  public SegmentedSpool(Path directory, int segmentBytes, long maxBytes, FsyncPolicy fsyncPolicy, long fsyncIntervalMs)
+    throws IOException {
+    if (segmentBytes <= SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES) {
+      throw new IllegalArgumentException(
+          "Segment size must be greater than " + (SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES) + " bytes");
+    }
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.fsyncPolicy = fsyncPolicy;
+    fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+    maxSegments = (int) Math.max(MIN_SEGMENTS, Math.min(Integer.MAX_VALUE, maxBytes / segmentBytes));
+
+    Files.createDirectories(directory);
+    try {
+      checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), CREATE, READ, WRITE);
+      lock();
+      checkpoint = checkpointChannel.map(READ_WRITE, 0, CHECKPOINT_BYTES);
+      recover();
+    } catch (IOException | RuntimeException e) {
+      closeQuietly();
+      throw e;
+    }
+    lastForceNanos = System.nanoTime();
+  }
+
+  /**
+   * Appends a record at the end of the spool.
+   *
+   * @return {@code false} if the spool has reached its size limit and the record was not stored
+   * @throws IllegalArgumentException if the record is empty or does not fit in a segment
+   */
+  public synchronized boolean append(byte[] record) throws IOException {
+    checkOpen();
+    if (record.length == 0) {
+      throw new IllegalArgumentException("Cannot spool an empty record");
+    }
+    int size = RECORD_HEADER_BYTES + record.length;
+    if (size > segmentBytes - SEGMENT_HEADER_BYTES) {
+      throw new IllegalArgumentException(
+          "Record of " + record.length + " bytes does not fit in a spool segment of " + segmentBytes + " bytes");
+    }
+    if (writeSegment.remaining() < size) {
+      if (segments.size() >= maxSegments) {
+        return false;
+      }
+      roll();
+    }
+    writeSegment.append(record);
+    pendingRecords++;
+    dirty = true;
+    if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+      force();
+    } else {
+      forceIfDue();
+    }
+    notifyAll();
+    return true;
+  }
+
+  /**
+   * Returns the oldest record that has not been committed yet, without consuming it.
+   *
+   * @return the record or {@code null} if the spool is empty
+   */
+  public synchronized byte[] peek() {
+    checkOpen();
+    while (readPosition >= readSegment.writePosition) {
+      if (readSegment == writeSegment) {
+        return null;
+      }
+      Segment exhausted = readSegment;
+      readSegment = segments.higherEntry(exhausted.id).getValue();
+      readPosition = SEGMENT_HEADER_BYTES;
+      writeCheckpoint();
+      segments.remove(exhausted.id);
+      exhausted.delete();
+    }
+    return readSegment.read(readPosition);
+  }
+
+  /**
+   * Waits up to the given time for a record to become available and returns it without consuming it.
+   *
+   * @return the record or {@code null} if the spool is still empty
+   */
+  public synchronized byte[] poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    byte[] record = peek();
+    while (record == null) {
+      forceIfDue();
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      record = peek();
+    }
+    return record;
+  }
+
+  /**
+   * Consumes the record returned by the last {@link #peek()} or {@link #poll(long, TimeUnit)}.
+   *
+   * @throws IllegalStateException if the spool is empty
+   */
+  public synchronized void commit() {
+    if (peek() == null) {
+      throw new IllegalStateException("There is no spooled record to commit");
+    }
+    readPosition += RECORD_HEADER_BYTES + readSegment.length(readPosition);
+    pendingRecords--;
+    writeCheckpoint();
+  }
+
+  public synchronized long pendingRecords() {
+    return pendingRecords;
+  }
+
+  public synchronized boolean isEmpty() {
+    return pendingRecords == 0;
+  }
+
+  int segmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Forces the segments and the checkpoint to disk and releases the files. The memory mappings are released when they
+   * are garbage collected.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (writeSegment != null) {
+      writeSegment.buffer.force();
+    }
+    if (checkpoint != null) {
+      checkpoint.force();
+    }
+    closeQuietly();
+    notifyAll();
+  }
+
+  private void recover() throws IOException {
+    for (Map.Entry<Long, Path> entry : segmentFiles().entrySet()) {
+      Segment segment = Segment.open(entry.getValue(), entry.getKey());
+      if (segment == null) {
+        log.warn("Deleting spool segment {} with an invalid header", entry.getValue());
+        Files.delete(entry.getValue());
+      } else {
+        segments.put(segment.id, segment);
+      }
+    }
+    if (segments.isEmpty()) {
+      createSegment(0L);
+    }
+    writeSegment = segments.lastEntry().getValue();
+
+    readSegment = segments.firstEntry().getValue();
+    readPosition = SEGMENT_HEADER_BYTES;
+    long checkpointSegment = checkpoint.getLong(0);
+    int checkpointPosition = checkpoint.getInt(8);
+    if (checkpoint.getInt(12) == checkpointChecksum(checkpointSegment, checkpointPosition)) {
+      Segment segment = segments.get(checkpointSegment);
+      if (segment != null && checkpointPosition >= SEGMENT_HEADER_BYTES
+          && checkpointPosition <= segment.writePosition) {
+        readSegment = segment;
+        readPosition = checkpointPosition;
+      }
+    }
+    for (Segment consumed : new ArrayList<>(segments.headMap(readSegment.id).values())) {
+      segments.remove(consumed.id);
+      consumed.delete();
+    }
+    for (Segment segment : segments.values()) {
+      pendingRecords += segment.countRecords(segment == readSegment ? readPosition : SEGMENT_HEADER_BYTES);
+    }
+    writeCheckpoint();
+    if (pendingRecords > 0) {
+      log.info("Recovered {} spooled records from {}", pendingRecords, directory);
+    }
+  }
+
+  private void lock() throws IOException {
+    try {
+      if (checkpointChannel.tryLock() == null) {
+        throw new IOException("Spool " + directory + " is used by another process");
+      }
+    } catch (OverlappingFileLockException e) {
+      throw new IOException("Spool " + directory + " is already open", e);
+    }
+  }
+
+  private TreeMap<Long, Path> segmentFiles() throws IOException {
+    TreeMap<Long, Path> files = new TreeMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        try {
+          files.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), path);
+        } catch (NumberFormatException e) {
+          log.warn("Ignoring unexpected file {} in spool directory", path);
+        }
+      }
+    }
+    return files;
+  }
+
+  private void roll() throws IOException {
+    writeSegment.buffer.force();
+    createSegment(writeSegment.id + 1);
+    writeSegment = segments.lastEntry().getValue();
+  }
+
+  private void createSegment(long id) throws IOException {
+    Path path = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+    segments.put(id, Segment.create(path, id, segmentBytes));
+  }
+
+  private void forceIfDue() {
+    if (dirty && fsyncPolicy == FsyncPolicy.INTERVAL && System.nanoTime() - lastForceNanos >= fsyncIntervalNanos) {
+      force();
+    }
+  }
+
+  private void force() {
+    writeSegment.buffer.force();
+    lastForceNanos = System.nanoTime();
+    dirty = false;
+  }
+
+  private void writeCheckpoint() {
+    checkpoint.putLong(0, readSegment.id);
+    checkpoint.putInt(8, readPosition);
+    checkpoint.putInt(12, checkpointChecksum(readSegment.id, readPosition));
+  }
+
+  private static int checkpointChecksum(long segment, int position) {
+    CRC32 crc = new CRC32();
+    crc.update(ByteBuffer.allocate(12).putLong(segment).putInt(position).array());
+    return (int) crc.getValue();
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Spool " + directory + " has been closed");
+    }
+  }
+
+  private void closeQuietly() {
+    for (Segment segment : segments.values()) {
+      segment.close();
+    }
+    if (checkpointChannel != null) {
+      try {
+        checkpointChannel.close();
+      } catch (IOException e) {
+        log.warn("Unable to close spool checkpoint in {}", directory, e);
+      }
+    }
+  }
+
+  private static final class Segment {
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition = SEGMENT_HEADER_BYTES;
+
+    private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.buffer = buffer;
+    }
+
+    static Segment create(Path path, long id, int size) throws IOException {
+      FileChannel channel = FileChannel.open(path, CREATE_NEW, READ, WRITE);
+      MappedByteBuffer buffer = channel.map(READ_WRITE, 0, size);
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      buffer.force();
+      return new Segment(id, path, channel, buffer);
+    }
+
+    /**
+     * @return the recovered segment or {@code null} if the file is not a spool segment
+     */
+    static Segment open(Path path, long id) throws IOException {
+      FileChannel channel = FileChannel.open(path, READ, WRITE);
+      long size = channel.size();
+      if (size < SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES || size > Integer.MAX_VALUE) {
+        channel.close();
+        return null;
+      }
+      MappedByteBuffer buffer = channel.map(READ_WRITE, 0, size);
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+        channel.close();
+        return null;
+      }
+      Segment segment = new Segment(id, path, channel, buffer);
+      segment.recover();
+      return segment;
+    }
+
+    int remaining() {
+      return buffer.capacity() - writePosition;
+    }
+
+    void append(byte[] record) {
+      ByteBuffer target = buffer.duplicate();
+      target.position(writePosition + RECORD_HEADER_BYTES);
+      target.put(record);
+      CRC32 crc = new CRC32();
+      crc.update(record);
+      buffer.putInt(writePosition + 4, (int) crc.getValue());
+      // the length goes last so a record is only visible once it is complete
+      buffer.putInt(writePosition, record.length);
+      writePosition += RECORD_HEADER_BYTES + record.length;
+    }
+
+    int length(int position) {
+      return buffer.getInt(position);
+    }
+
+    byte[] read(int position) {
+      byte[] record = new byte[length(position)];
+      ByteBuffer source = buffer.duplicate();
+      source.position(position + RECORD_HEADER_BYTES);
+      source.get(record);
+      return record;
+    }
+
+    long countRecords(int from) {
+      long count = 0;
+      for (int position = from; position < writePosition; position += RECORD_HEADER_BYTES + length(position)) {
+        count++;
+      }
+      return count;
+    }
+
+    void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        log.warn("Unable to close spool segment {}", path, e);
+      }
+    }
+
+    void delete() {
+      close();
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        log.warn("Unable to delete spool segment {}", path, e);
+      }
+    }
+
+    private void recover() {
+      int position = SEGMENT_HEADER_BYTES;
+      while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+        int length = buffer.getInt(position);
+        if (length == 0) {
+          break;
+        }
+        if (length < 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES
+            || buffer.getInt(position + 4) != checksum(position + RECORD_HEADER_BYTES, length)) {
+          log.warn("Truncating spool segment {} at offset {} after an incomplete or corrupt record", path, position);
+          clear(position);
+          break;
+        }
+        position += RECORD_HEADER_BYTES + length;
+      }
+      writePosition = position;
+    }
+
+    private int checksum(int offset, int length) {
+      ByteBuffer source = buffer.duplicate();
+      source.position(offset);
+      source.limit(offset + length);
+      CRC32 crc = new CRC32();
+      crc.update(source);
+      return (int) crc.getValue();
+    }
+
+    private void clear(int from) {
+      ByteBuffer target = buffer.duplicate();
+      target.position(from);
+      byte[] zeros = new byte[Math.min(4096, target.remaining())];
+      while (target.hasRemaining()) {
+        target.put(zeros, 0, Math.min(zeros.length, target.remaining()));
+      }
+      buffer.force();
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.spool;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains a {@link SegmentedSpool} in order from a background thread. A record is only committed once the sink has
+ * accepted it. When the sink fails the same record is retried with an exponential backoff, so later records never
+ * overtake it.
+ */
+public class SpoolReplayer implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(SpoolReplayer.class);
+
+  private static final long POLL_TIMEOUT_MS = 200L;
+  private static final long CLOSE_TIMEOUT_MS = 10000L;
+
+  /**
+   * Receives the replayed records. Implementations must only return once the record has been delivered, and should
+   * return normally for a record that can never be delivered so that it does not block the spool.
+   */
+  public interface Sink {
+    void send(byte[] record) throws Exception;
+  }
+
+  private final SegmentedSpool spool;
+  private final Sink sink;
+  private final long initialBackoffMs;
+  private final long maxBackoffMs;
+  private final Thread replayer;
+  private volatile boolean running = true;
+
+  public SpoolReplayer(SegmentedSpool spool, Sink sink, long initialBackoffMs, long maxBackoffMs) {
+    this.spool = spool;
+    this.sink = sink;
+    this.initialBackoffMs = Math.max(1L, initialBackoffMs);
+    this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    replayer = new Thread(this::replay, "apiary-spool-replayer");
+    replayer.setDaemon(true);
+  }
+
+  public void start() {
+    replayer.start();
+  }
+
+  /**
+   * Stops replaying. A record being sent when the replayer stops is left in the spool and sent again later.
+   */
+  @Override
+  public void close() {
+    running = false;
+    replayer.interrupt();
+    try {
+      replayer.join(CLOSE_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void replay() {
+    long backoffMs = initialBackoffMs;
+    try {
+      while (running) {
+        byte[] record = spool.poll(POLL_TIMEOUT_MS, MILLISECONDS);
+        if (record == null) {
+          continue;
+        }
+        try {
+          sink.send(record);
+        } catch (InterruptedException e) {
+          throw e;
+        } catch (Exception e) {
+          log.warn("Unable to replay spooled record, retrying in {}ms", backoffMs, e);
+          MILLISECONDS.sleep(backoffMs);
+          backoffMs = Math.min(maxBackoffMs, backoffMs * 2);
+          continue;
+        }
+        spool.commit();
+        backoffMs = initialBackoffMs;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      if (running) {
+        log.error("Spool replayer stopped", e);
+      }
+    }
+  }
+
+}
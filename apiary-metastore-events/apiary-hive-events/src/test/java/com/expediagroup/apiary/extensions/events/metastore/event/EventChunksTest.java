@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import static com.expediagroup.apiary.extensions.events.metastore.event.CustomEventParameters.CHUNK_COUNT;
+import static com.expediagroup.apiary.extensions.events.metastore.event.CustomEventParameters.CHUNK_ID;
+import static com.expediagroup.apiary.extensions.events.metastore.event.CustomEventParameters.CHUNK_INDEX;
+import static com.expediagroup.apiary.extensions.events.metastore.io.SerDeTestUtils.createEnvironmentContext;
+import static com.expediagroup.apiary.extensions.events.metastore.io.SerDeTestUtils.createPartition;
+import static com.expediagroup.apiary.extensions.events.metastore.io.SerDeTestUtils.createTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.events.AddPartitionEvent;
+import org.apache.hadoop.hive.metastore.events.CreateTableEvent;
+import org.apache.hadoop.hive.metastore.events.DropPartitionEvent;
+import org.junit.Test;
+
+public class EventChunksTest {
+
+  private static List<Partition> partitions(int count) {
+    List<Partition> partitions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      partitions.add(createPartition("value_" + i));
+    }
+    return partitions;
+  }
+
+  private static ApiaryAddPartitionEvent addPartitionEvent(List<Partition> partitions) {
+    AddPartitionEvent event = new AddPartitionEvent(createTable(), partitions, true, null);
+    event.putParameter("key", "value");
+    event.setEnvironmentContext(createEnvironmentContext());
+    return new ApiaryAddPartitionEvent(event);
+  }
+
+  @Test
+  public void splitAddPartitionEvent() {
+    List<Partition> partitions = partitions(5);
+    ApiaryAddPartitionEvent event = addPartitionEvent(partitions);
+
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 2);
+
+    assertThat(chunks).hasSize(2);
+    String chunkId = EventChunks.chunkId(chunks.get(0));
+    for (int i = 0; i < chunks.size(); i++) {
+      ApiaryAddPartitionEvent chunk = (ApiaryAddPartitionEvent) chunks.get(i);
+      assertThat(EventChunks.isChunk(chunk)).isTrue();
+      assertThat(EventChunks.chunkId(chunk)).isEqualTo(chunkId);
+      assertThat(EventChunks.chunkIndex(chunk)).isEqualTo(i);
+      assertThat(EventChunks.chunkCount(chunk)).isEqualTo(2);
+      assertThat(chunk.getParameters()).containsEntry("key", "value");
+      assertThat(chunk.getTable()).isEqualTo(event.getTable());
+      assertThat(chunk.getStatus()).isTrue();
+      assertThat(chunk.getEnvironmentContext()).isEqualTo(event.getEnvironmentContext());
+    }
+    assertThat(((ApiaryAddPartitionEvent) chunks.get(0)).getPartitions()).isEqualTo(partitions.subList(0, 2));
+    assertThat(((ApiaryAddPartitionEvent) chunks.get(1)).getPartitions()).isEqualTo(partitions.subList(2, 5));
+  }
+
+  @Test
+  public void splitDropPartitionEvent() {
+    List<Partition> partitions = partitions(3);
+    DropPartitionEvent dropPartitionEvent = mock(DropPartitionEvent.class);
+    when(dropPartitionEvent.getTable()).thenReturn(createTable());
+    when(dropPartitionEvent.getDeleteData()).thenReturn(true);
+    when(dropPartitionEvent.getPartitionIterator()).thenReturn(partitions.iterator());
+    ApiaryDropPartitionEvent event = new ApiaryDropPartitionEvent(dropPartitionEvent);
+
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 3);
+
+    assertThat(chunks).hasSize(3);
+    for (int i = 0; i < chunks.size(); i++) {
+      ApiaryDropPartitionEvent chunk = (ApiaryDropPartitionEvent) chunks.get(i);
+      assertThat(chunk.getDeleteData()).isTrue();
+      assertThat(chunk.getPartitions()).containsExactly(partitions.get(i));
+    }
+  }
+
+  @Test
+  public void mergeRestoresOriginalEvent() {
+    ApiaryAddPartitionEvent event = addPartitionEvent(partitions(10));
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 3);
+    Collections.reverse(chunks);
+
+    ApiaryListenerEvent merged = EventChunks.merge(chunks);
+
+    assertThat(merged).isEqualTo(event);
+    assertThat(EventChunks.isChunk(merged)).isFalse();
+    assertThat(merged.getParameters())
+        .doesNotContainKeys(CHUNK_ID.varname(), CHUNK_INDEX.varname(), CHUNK_COUNT.varname());
+  }
+
+  @Test
+  public void notAChunk() {
+    assertThat(EventChunks.isChunk(addPartitionEvent(partitions(1)))).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void tooManyChunks() {
+    EventChunks.split(addPartitionEvent(partitions(2)), 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void eventCannotBeSplit() {
+    ApiaryCreateTableEvent event = new ApiaryCreateTableEvent(new CreateTableEvent(createTable(), true, null));
+    EventChunks.split(event, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void mergeNoChunks() {
+    EventChunks.merge(Collections.<ApiaryListenerEvent> emptyList());
+  }
+
+}
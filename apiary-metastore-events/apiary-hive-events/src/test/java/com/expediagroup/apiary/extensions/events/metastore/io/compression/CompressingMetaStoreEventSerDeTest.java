@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.io.AbstractMetaStoreEventSerDeTest;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.JsonMetaStoreEventSerDe;
+
+public class CompressingMetaStoreEventSerDeTest extends AbstractMetaStoreEventSerDeTest {
+
+  private final JsonMetaStoreEventSerDe jsonSerDe = new JsonMetaStoreEventSerDe();
+  private final CompressingMetaStoreEventSerDe serDe = new CompressingMetaStoreEventSerDe(jsonSerDe,
+      CompressionCodec.GZIP, 0);
+
+  @Override
+  protected MetaStoreEventSerDe serDe() {
+    return serDe;
+  }
+
+  @Test
+  public void payloadIsNotLargerThanUncompressed() {
+    assertThat(serDe.marshal(event).length).isLessThanOrEqualTo(jsonSerDe.marshal(event).length);
+  }
+
+  @Test
+  public void smallPayloadIsNotCompressed() {
+    CompressingMetaStoreEventSerDe thresholdSerDe = new CompressingMetaStoreEventSerDe(jsonSerDe,
+        CompressionCodec.GZIP, Integer.MAX_VALUE);
+    assertThat(thresholdSerDe.marshal(event)).isEqualTo(jsonSerDe.marshal(event));
+  }
+
+  @Test
+  public void unmarshalUncompressedPayload() {
+    ApiaryListenerEvent processedEvent = serDe.unmarshal(jsonSerDe.marshal(event));
+    assertThat(processedEvent).isNotSameAs(event).isEqualTo(event);
+  }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.compression;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
+
+@RunWith(Parameterized.class)
+public class CompressionEnvelopeTest {
+
+  private static final byte[] PAYLOAD = payload();
+
+  private static byte[] payload() {
+    StringBuilder json = new StringBuilder("{\"partitions\":[");
+    for (int i = 0; i < 1000; i++) {
+      json.append("{\"values\":[\"").append(i).append("\"],\"location\":\"s3://bucket/table/part=").append(i);
+      json.append("\"},");
+    }
+    return json.append("{}]}").toString().getBytes(UTF_8);
+  }
+
+  @Parameters(name = "{index}: {0}")
+  public static CompressionCodec[] data() {
+    return CompressionCodec.values();
+  }
+
+  public @Parameter CompressionCodec codec;
+
+  @Test
+  public void roundTrip() {
+    byte[] compressed = CompressionEnvelope.compress(PAYLOAD, codec);
+    assertThat(CompressionEnvelope.isCompressed(compressed)).isTrue();
+    assertThat(compressed.length).isLessThan(PAYLOAD.length);
+    assertThat(CompressionEnvelope.decompress(compressed)).isEqualTo(PAYLOAD);
+  }
+
+  @Test
+  public void emptyPayload() {
+    byte[] compressed = CompressionEnvelope.compress(new byte[0], codec);
+    assertThat(CompressionEnvelope.decompress(compressed)).isEmpty();
+  }
+
+  @Test
+  public void plainPayloadIsReturnedAsIs() {
+    assertThat(CompressionEnvelope.isCompressed(PAYLOAD)).isFalse();
+    assertThat(CompressionEnvelope.decompressIfNeeded(PAYLOAD)).isSameAs(PAYLOAD);
+  }
+
+  @Test(expected = SerDeException.class)
+  public void unsupportedVersion() {
+    byte[] compressed = CompressionEnvelope.compress(PAYLOAD, codec);
+    compressed[1] = CompressionEnvelope.VERSION + 1;
+    CompressionEnvelope.decompress(compressed);
+  }
+
+  @Test(expected = SerDeException.class)
+  public void unknownCodec() {
+    byte[] compressed = CompressionEnvelope.compress(PAYLOAD, codec);
+    compressed[2] = Byte.MAX_VALUE;
+    CompressionEnvelope.decompress(compressed);
+  }
+
+  @Test(expected = SerDeException.class)
+  public void truncatedPayload() {
+    byte[] compressed = CompressionEnvelope.compress(PAYLOAD, codec);
+    CompressionEnvelope.decompress(Arrays.copyOf(compressed, compressed.length / 2));
+  }
+
+  @Test(expected = SerDeException.class)
+  public void invalidOriginalLength() {
+    byte[] compressed = CompressionEnvelope.compress(PAYLOAD, codec);
+    compressed[3] = (byte) 0x7F;
+    CompressionEnvelope.decompress(compressed);
+  }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.jackson;
+
+import static com.expediagroup.apiary.extensions.events.metastore.io.SerDeTestUtils.createTable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TFieldIdEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Serializes a table with 500 columns with {@link JacksonThriftSerializer} and with a copy of its previous
+ * implementation, which resolved the Thrift fields of every struct reflectively and wrote every value through
+ * {@link JsonGenerator#writeObjectField(String, Object)}. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.expediagroup.apiary.extensions.events.metastore.io.jackson.JacksonThriftSerializerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonThriftSerializerBenchmark {
+
+  private static final int COLUMNS = 500;
+
+  private ObjectMapper cachedMapper;
+  private ObjectMapper reflectiveMapper;
+  private Table table;
+
+  @Setup
+  public void setup() {
+    FieldSchema[] columns = new FieldSchema[COLUMNS];
+    for (int i = 0; i < COLUMNS; i++) {
+      columns[i] = new FieldSchema("column_" + i, "string", "comment of column " + i);
+    }
+    table = createTable(columns);
+    cachedMapper = mapper(new JacksonThriftSerializer<>(TBase.class));
+    reflectiveMapper = mapper(new ReflectiveThriftSerializer());
+  }
+
+  private static ObjectMapper mapper(StdSerializer<TBase> thriftSerializer) {
+    SimpleModule thriftModule = new SimpleModule("ThriftModule");
+    thriftModule.addSerializer(new SkewedInfoSerializer());
+    thriftModule.addSerializer(thriftSerializer);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModule(thriftModule);
+    return mapper;
+  }
+
+  @Benchmark
+  public byte[] cachedMetadata() throws Exception {
+    return cachedMapper.writeValueAsBytes(table);
+  }
+
+  @Benchmark
+  public byte[] reflectiveMetadata() throws Exception {
+    return reflectiveMapper.writeValueAsBytes(table);
+  }
+
+  @SuppressWarnings("rawtypes")
+  static class ReflectiveThriftSerializer extends StdSerializer<TBase> {
+    private static final long serialVersionUID = 1L;
+
+    ReflectiveThriftSerializer() {
+      super(TBase.class);
+    }
+
+    @Override
+    public void serialize(TBase t, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+      generator.writeStartObject();
+      for (TFieldIdEnum fieldId : ThriftSerDeUtils.fields(t.getClass())) {
+        generator.writeObjectField(fieldId.getFieldName(), t.getFieldValue(fieldId));
+      }
+      generator.writeEndObject();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JacksonThriftSerializerBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,11 +15,24 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.io.jackson;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
 import com.expediagroup.apiary.extensions.events.metastore.io.AbstractMetaStoreEventSerDeTest;
 import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
 
 public class JsonMetaStoreEventSerDeTest extends AbstractMetaStoreEventSerDeTest {
 
+  private final ObjectMapper mapper = new ObjectMapper();
   private final JsonMetaStoreEventSerDe serDe = new JsonMetaStoreEventSerDe();
 
   @Override
@@ -27,4 +40,32 @@ public class JsonMetaStoreEventSerDeTest extends AbstractMetaStoreEventSerDeTest
     return serDe;
   }
 
+  @Test
+  public void eventTypeIsWrittenFirst() throws Exception {
+    JsonNode json = mapper.readTree(serDe.marshal(event));
+    assertThat(json.fieldNames().next()).isEqualTo("eventType");
+  }
+
+  @Test
+  public void unmarshalPayloadWithEventTypeLast() throws Exception {
+    ObjectNode json = (ObjectNode) mapper.readTree(serDe.marshal(event));
+    JsonNode eventType = json.remove("eventType");
+    json.set("eventType", eventType);
+
+    ApiaryListenerEvent processedEvent = serDe.unmarshal(mapper.writeValueAsBytes(json));
+    assertThat(processedEvent).isNotSameAs(event).isEqualTo(event);
+  }
+
+  @Test(expected = SerDeException.class)
+  public void unmarshalPayloadWithoutEventType() throws Exception {
+    ObjectNode json = (ObjectNode) mapper.readTree(serDe.marshal(event));
+    json.remove("eventType");
+    serDe.unmarshal(mapper.writeValueAsBytes(json));
+  }
+
+  @Test(expected = SerDeException.class)
+  public void unmarshalPayloadNotAnObject() {
+    serDe.unmarshal("[]".getBytes(UTF_8));
+  }
+
 }
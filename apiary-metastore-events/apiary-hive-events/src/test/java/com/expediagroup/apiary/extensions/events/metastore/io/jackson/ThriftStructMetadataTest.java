@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.jackson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Test;
+
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.ThriftStructMetadata.FieldMetadata;
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.ThriftStructMetadata.Kind;
+
+public class ThriftStructMetadataTest {
+
+  @Test
+  public void metadataIsCachedPerClass() {
+    assertThat(ThriftStructMetadata.forClass(Table.class)).isSameAs(ThriftStructMetadata.forClass(Table.class));
+  }
+
+  @Test
+  public void fieldsInDeclarationOrder() {
+    FieldMetadata[] fields = ThriftStructMetadata.forClass(Table.class).fields();
+    assertThat(fields).hasSize(Table._Fields.values().length);
+    for (int i = 0; i < fields.length; i++) {
+      assertThat(fields[i].id).isEqualTo(Table._Fields.values()[i]);
+      assertThat(fields[i].name.getValue()).isEqualTo(Table._Fields.values()[i].getFieldName());
+    }
+  }
+
+  @Test
+  public void fieldKinds() {
+    Map<String, Kind> kinds = new HashMap<>();
+    for (FieldMetadata field : ThriftStructMetadata.forClass(Table.class).fields()) {
+      kinds.put(field.name.getValue(), field.kind);
+    }
+    assertThat(kinds.get("tableName")).isEqualTo(Kind.STRING);
+    assertThat(kinds.get("createTime")).isEqualTo(Kind.INT);
+    assertThat(kinds.get("temporary")).isEqualTo(Kind.BOOLEAN);
+    assertThat(kinds.get("parameters")).isEqualTo(Kind.STRING_MAP);
+    assertThat(kinds.get("sd")).isEqualTo(Kind.OTHER);
+    assertThat(kinds.get("partitionKeys")).isEqualTo(Kind.OTHER);
+  }
+
+  @Test
+  public void invalidTBase() {
+    assertThat(ThriftStructMetadata.forClass(InvalidTBase.class).fields()).isNull();
+  }
+
+}
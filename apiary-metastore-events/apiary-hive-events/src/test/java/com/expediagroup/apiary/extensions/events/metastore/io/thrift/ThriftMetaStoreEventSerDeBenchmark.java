@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.thrift;
+
+import static com.expediagroup.apiary.extensions.events.metastore.io.SerDeTestUtils.createEnvironmentContext;
+import static com.expediagroup.apiary.extensions.events.metastore.io.SerDeTestUtils.createPartition;
+import static com.expediagroup.apiary.extensions.events.metastore.io.SerDeTestUtils.createTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.events.AddPartitionEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryAddPartitionEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.JsonMetaStoreEventSerDe;
+
+/**
+ * Compares the latency of {@link ThriftMetaStoreEventSerDe} and {@link JsonMetaStoreEventSerDe} when marshalling and
+ * unmarshalling ADD_PARTITION events. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.expediagroup.apiary.extensions.events.metastore.io.thrift.ThriftMetaStoreEventSerDeBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThriftMetaStoreEventSerDeBenchmark {
+
+  @Param({ "1", "100", "10000" })
+  public int partitions;
+
+  private final ThriftMetaStoreEventSerDe thriftSerDe = new ThriftMetaStoreEventSerDe();
+  private final JsonMetaStoreEventSerDe jsonSerDe = new JsonMetaStoreEventSerDe();
+  private ApiaryAddPartitionEvent event;
+  private byte[] thriftPayload;
+  private byte[] jsonPayload;
+
+  @Setup
+  public void setup() {
+    List<Partition> partitionList = new ArrayList<>(partitions);
+    for (int i = 0; i < partitions; i++) {
+      partitionList.add(createPartition("value_" + i));
+    }
+    AddPartitionEvent addPartitionEvent = new AddPartitionEvent(createTable(), partitionList, true, null);
+    addPartitionEvent.setEnvironmentContext(createEnvironmentContext());
+    event = new ApiaryAddPartitionEvent(addPartitionEvent);
+    thriftPayload = thriftSerDe.marshal(event);
+    jsonPayload = jsonSerDe.marshal(event);
+  }
+
+  @Benchmark
+  public byte[] thriftMarshal() {
+    return thriftSerDe.marshal(event);
+  }
+
+  @Benchmark
+  public byte[] jsonMarshal() {
+    return jsonSerDe.marshal(event);
+  }
+
+  @Benchmark
+  public ApiaryListenerEvent thriftUnmarshal() {
+    return thriftSerDe.unmarshal(thriftPayload);
+  }
+
+  @Benchmark
+  public ApiaryListenerEvent jsonUnmarshal() {
+    return jsonSerDe.unmarshal(jsonPayload);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ThriftMetaStoreEventSerDeBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.io.thrift;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TIOStreamTransport;
+import org.junit.Test;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.io.AbstractMetaStoreEventSerDeTest;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.JsonMetaStoreEventSerDe;
+
+public class ThriftMetaStoreEventSerDeTest extends AbstractMetaStoreEventSerDeTest {
+
+  private final ThriftMetaStoreEventSerDe serDe = new ThriftMetaStoreEventSerDe();
+
+  @Override
+  protected MetaStoreEventSerDe serDe() {
+    return serDe;
+  }
+
+  @Test
+  public void payloadStartsWithHeader() {
+    byte[] payload = serDe.marshal(event);
+    assertThat(payload[0]).isEqualTo(ThriftMetaStoreEventSerDe.MAGIC);
+    assertThat(payload[1]).isEqualTo(ThriftMetaStoreEventSerDe.VERSION);
+  }
+
+  @Test
+  public void payloadIsSmallerThanJson() {
+    assertThat(serDe.marshal(event).length).isLessThan(new JsonMetaStoreEventSerDe().marshal(event).length);
+  }
+
+  @Test
+  public void unknownFieldsAreSkipped() throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    buffer.write(ThriftMetaStoreEventSerDe.MAGIC);
+    buffer.write(ThriftMetaStoreEventSerDe.VERSION);
+    TProtocol protocol = new TCompactProtocol(new TIOStreamTransport(buffer));
+    protocol.writeString(event.getEventType().name());
+    protocol.writeStructBegin(new TStruct("ApiaryListenerEvent"));
+    protocol.writeFieldBegin(new TField("unknown", TType.STRING, (short) 99));
+    protocol.writeString("value");
+    protocol.writeFieldEnd();
+    protocol.writeFieldBegin(new TField("status", TType.BOOL, (short) 1));
+    protocol.writeBool(true);
+    protocol.writeFieldEnd();
+    protocol.writeFieldStop();
+    protocol.writeStructEnd();
+
+    ApiaryListenerEvent processedEvent = serDe.unmarshal(buffer.toByteArray());
+    assertThat(processedEvent.getEventType()).isEqualTo(event.getEventType());
+    assertThat(processedEvent.getStatus()).isTrue();
+    assertThat(processedEvent.getParameters()).isNull();
+  }
+
+  @Test(expected = SerDeException.class)
+  public void unmarshalJsonPayload() {
+    serDe.unmarshal(new JsonMetaStoreEventSerDe().marshal(event));
+  }
+
+  @Test(expected = SerDeException.class)
+  public void unmarshalUnsupportedVersion() {
+    byte[] payload = serDe.marshal(event);
+    payload[1] = ThriftMetaStoreEventSerDe.VERSION + 1;
+    serDe.unmarshal(payload);
+  }
+
+  @Test(expected = SerDeException.class)
+  public void unmarshalTruncatedPayload() {
+    byte[] payload = serDe.marshal(event);
+    byte[] truncated = new byte[payload.length / 2];
+    System.arraycopy(payload, 0, truncated, 0, truncated.length);
+    serDe.unmarshal(truncated);
+  }
+
+}
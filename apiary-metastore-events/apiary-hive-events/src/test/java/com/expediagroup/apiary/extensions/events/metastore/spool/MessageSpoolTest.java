@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.spool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MessageSpoolTest {
+
+  private static final MessageSpool.Codec<String> CODEC = new MessageSpool.Codec<String>() {
+    @Override
+    public byte[] encode(String message) {
+      return message.getBytes(UTF_8);
+    }
+
+    @Override
+    public String decode(byte[] record) {
+      return new String(record, UTF_8);
+    }
+  };
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private final List<String> delivered = new CopyOnWriteArrayList<>();
+  private final List<MessageSpool.Event> events = new CopyOnWriteArrayList<>();
+  private MessageSpool<String> spool;
+
+  @Before
+  public void init() throws IOException {
+    SegmentedSpool segmentedSpool = new SegmentedSpool(temp.getRoot().toPath(), 4096, 1024 * 1024, FsyncPolicy.NEVER,
+        0L);
+    spool = new MessageSpool<>(segmentedSpool, CODEC, cause -> !(cause instanceof IllegalArgumentException), 10L,
+        events::add);
+  }
+
+  @After
+  public void close() {
+    spool.close();
+  }
+
+  @Test
+  public void replaysInOrder() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      spool.append("message_" + i);
+    }
+    assertThat(spool.hasPendingMessages()).isTrue();
+    awaitEvents(3);
+    spool.start(delivered::add);
+
+    awaitEmptySpool();
+    assertThat(delivered).containsExactly("message_0", "message_1", "message_2");
+    assertThat(events)
+        .containsExactly(MessageSpool.Event.SPOOLED, MessageSpool.Event.SPOOLED, MessageSpool.Event.SPOOLED,
+            MessageSpool.Event.REPLAYED, MessageSpool.Event.REPLAYED, MessageSpool.Event.REPLAYED);
+  }
+
+  @Test
+  public void undeliverableMessagesAreSkippedOnReplay() throws Exception {
+    spool.append("too_large");
+    spool.append("message_1");
+    spool.start(message -> {
+      if (message.equals("too_large")) {
+        throw new IllegalArgumentException("Message is too large");
+      }
+      delivered.add(message);
+    });
+
+    awaitEmptySpool();
+    assertThat(delivered).containsExactly("message_1");
+    assertThat(events).contains(MessageSpool.Event.UNDELIVERABLE);
+  }
+
+  @Test
+  public void retriableFailuresAreRetriedOnReplay() throws Exception {
+    spool.append("message_0");
+    spool.start(message -> {
+      if (delivered.size() < 2) {
+        delivered.add("failed");
+        throw new IllegalStateException("Sink is unavailable");
+      }
+      delivered.add(message);
+    });
+
+    awaitEmptySpool();
+    assertThat(delivered).containsExactly("failed", "failed", "message_0");
+  }
+
+  @Test
+  public void onlyRetriableFailuresAreSpooled() throws Exception {
+    spool.failed("message_0", new IllegalArgumentException("Message is too large"));
+    spool.failed("message_1", new ExecutionException(new IllegalStateException("Sink is unavailable")));
+    awaitEvents(2);
+
+    assertThat(events).containsExactly(MessageSpool.Event.UNDELIVERABLE, MessageSpool.Event.SPOOLED);
+    assertThat(spool.pendingMessages()).isEqualTo(1L);
+  }
+
+  @Test
+  public void messagesAreDroppedAfterClose() {
+    spool.close();
+    spool.append("message_0");
+
+    assertThat(events).containsExactly(MessageSpool.Event.DROPPED);
+    assertThat(spool.hasPendingMessages()).isFalse();
+  }
+
+  private void awaitEvents(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000L;
+    while (events.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertThat(events).hasSize(count);
+  }
+
+  private void awaitEmptySpool() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000L;
+    while (spool.hasPendingMessages() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertThat(spool.hasPendingMessages()).isFalse();
+  }
+
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.spool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentedSpoolTest {
+
+  private static final int SEGMENT_BYTES = 1024;
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private Path directory;
+  private SegmentedSpool spool;
+
+  @Before
+  public void init() throws IOException {
+    directory = temp.getRoot().toPath().resolve("spool");
+    spool = open();
+  }
+
+  @After
+  public void close() {
+    spool.close();
+  }
+
+  @Test
+  public void typical() throws IOException {
+    assertThat(spool.isEmpty()).isTrue();
+    assertThat(spool.peek()).isNull();
+
+    assertThat(spool.append(record(0))).isTrue();
+    assertThat(spool.append(record(1))).isTrue();
+    assertThat(spool.pendingRecords()).isEqualTo(2L);
+
+    assertThat(spool.peek()).isEqualTo(record(0));
+    assertThat(spool.peek()).isEqualTo(record(0));
+    spool.commit();
+    assertThat(spool.peek()).isEqualTo(record(1));
+    spool.commit();
+    assertThat(spool.isEmpty()).isTrue();
+    assertThat(spool.peek()).isNull();
+  }
+
+  @Test
+  public void rollsAndDeletesConsumedSegments() throws IOException {
+    for (int i = 0; i < 50; i++) {
+      assertThat(spool.append(record(i))).isTrue();
+    }
+    assertThat(spool.segmentCount()).isGreaterThan(1);
+
+    for (int i = 0; i < 50; i++) {
+      assertThat(spool.peek()).isEqualTo(record(i));
+      spool.commit();
+    }
+    assertThat(spool.peek()).isNull();
+    assertThat(spool.segmentCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void recoversPendingRecordsOnRestart() throws IOException {
+    for (int i = 0; i < 50; i++) {
+      spool.append(record(i));
+    }
+    for (int i = 0; i < 20; i++) {
+      spool.peek();
+      spool.commit();
+    }
+    spool.close();
+
+    spool = open();
+    assertThat(spool.pendingRecords()).isEqualTo(30L);
+    for (int i = 20; i < 50; i++) {
+      assertThat(spool.peek()).isEqualTo(record(i));
+      spool.commit();
+    }
+    assertThat(spool.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void truncatesCorruptRecordOnRestart() throws IOException {
+    spool.append(record(0));
+    spool.append(record(1));
+    spool.close();
+
+    int secondRecord = SegmentedSpool.SEGMENT_HEADER_BYTES + SegmentedSpool.RECORD_HEADER_BYTES + record(0).length;
+    try (RandomAccessFile file = new RandomAccessFile(segment(0L), "rw")) {
+      file.seek(secondRecord + SegmentedSpool.RECORD_HEADER_BYTES);
+      file.write('X');
+    }
+
+    spool = open();
+    assertThat(spool.pendingRecords()).isEqualTo(1L);
+    assertThat(spool.peek()).isEqualTo(record(0));
+    spool.commit();
+    assertThat(spool.peek()).isNull();
+
+    spool.append(record(2));
+    assertThat(spool.peek()).isEqualTo(record(2));
+  }
+
+  @Test
+  public void ignoresInvalidCheckpoint() throws IOException {
+    spool.append(record(0));
+    spool.peek();
+    spool.commit();
+    spool.close();
+    try (RandomAccessFile file = new RandomAccessFile(directory.resolve(SegmentedSpool.CHECKPOINT_FILE).toFile(),
+        "rw")) {
+      file.seek(8);
+      file.writeInt(12345);
+    }
+
+    spool = open();
+    assertThat(spool.peek()).isEqualTo(record(0));
+  }
+
+  @Test
+  public void rejectsRecordsWhenFull() throws IOException {
+    spool.close();
+    spool = new SegmentedSpool(directory, SEGMENT_BYTES, 2 * SEGMENT_BYTES, FsyncPolicy.NEVER, 0L);
+    int appended = 0;
+    while (spool.append(record(appended))) {
+      appended++;
+    }
+    assertThat(appended).isGreaterThan(0);
+    assertThat(spool.pendingRecords()).isEqualTo((long) appended);
+    assertThat(spool.segmentCount()).isEqualTo(2);
+  }
+
+  @Test(expected = IOException.class)
+  public void directoryCanOnlyBeOpenedOnce() throws IOException {
+    open();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsRecordLargerThanSegment() throws IOException {
+    spool.append(new byte[SEGMENT_BYTES]);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void commitWithoutRecord() {
+    spool.commit();
+  }
+
+  @Test
+  public void appendAfterClose() throws IOException {
+    spool.close();
+    try {
+      spool.append(record(0));
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).contains("closed");
+    }
+  }
+
+  private SegmentedSpool open() throws IOException {
+    return new SegmentedSpool(directory, SEGMENT_BYTES, 100 * SEGMENT_BYTES, FsyncPolicy.ALWAYS, 0L);
+  }
+
+  private File segment(long id) {
+    return directory.resolve(String.format("%020d%s", id, SegmentedSpool.SEGMENT_SUFFIX)).toFile();
+  }
+
+  private static byte[] record(int i) {
+    return ("{\"eventType\":\"ADD_PARTITION\",\"index\":" + i + ",\"padding\":\"0123456789012345678901234567\"}")
+        .getBytes(UTF_8);
+  }
+
+}
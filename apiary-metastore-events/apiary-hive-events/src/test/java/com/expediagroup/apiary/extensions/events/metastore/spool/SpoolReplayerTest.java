@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.spool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpoolReplayerTest {
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private final List<String> delivered = new CopyOnWriteArrayList<>();
+  private SegmentedSpool spool;
+  private SpoolReplayer replayer;
+
+  @Before
+  public void init() throws IOException {
+    spool = new SegmentedSpool(temp.getRoot().toPath(), 4096, 1024 * 1024, FsyncPolicy.NEVER, 0L);
+  }
+
+  @After
+  public void close() {
+    if (replayer != null) {
+      replayer.close();
+    }
+    spool.close();
+  }
+
+  @Test
+  public void replaysInOrder() throws Exception {
+    replayer = new SpoolReplayer(spool, record -> delivered.add(new String(record, UTF_8)), 1L, 10L);
+    replayer.start();
+    for (int i = 0; i < 100; i++) {
+      spool.append(("message_" + i).getBytes(UTF_8));
+    }
+
+    awaitEmptySpool();
+    assertThat(delivered).hasSize(100);
+    for (int i = 0; i < 100; i++) {
+      assertThat(delivered.get(i)).isEqualTo("message_" + i);
+    }
+  }
+
+  @Test
+  public void retriesFailedRecords() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    replayer = new SpoolReplayer(spool, record -> {
+      if (attempts.incrementAndGet() <= 3) {
+        throw new IllegalStateException("Sink is unavailable");
+      }
+      delivered.add(new String(record, UTF_8));
+    }, 1L, 10L);
+    spool.append("message_0".getBytes(UTF_8));
+    spool.append("message_1".getBytes(UTF_8));
+    replayer.start();
+
+    awaitEmptySpool();
+    assertThat(attempts.get()).isEqualTo(5);
+    assertThat(delivered).containsExactly("message_0", "message_1");
+  }
+
+  @Test
+  public void closeLeavesUndeliveredRecords() throws Exception {
+    replayer = new SpoolReplayer(spool, record -> {
+      throw new IllegalStateException("Sink is unavailable");
+    }, 1L, 10L);
+    spool.append("message_0".getBytes(UTF_8));
+    replayer.start();
+    replayer.close();
+
+    assertThat(spool.pendingRecords()).isEqualTo(1L);
+    assertThat(spool.peek()).isEqualTo("message_0".getBytes(UTF_8));
+  }
+
+  private void awaitEmptySpool() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000L;
+    while (!spool.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertThat(spool.isEmpty()).isTrue();
+  }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.listener;
+
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.booleanProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.intProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.MAX_REQUEST_SIZE;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PAYLOAD_CHUNKING_ENABLED;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventChunks;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+
+/**
+ * Marshals events into payloads that fit in a single Kafka request. ADD_PARTITION and DROP_PARTITION events whose
+ * payload is larger than {@code max.request.size} are split with {@link EventChunks}, doubling the number of chunks
+ * until every chunk fits or carries a single partition.
+ */
+class EventChunker {
+  private static final Logger log = LoggerFactory.getLogger(EventChunker.class);
+
+  // Room left for the record and batch headers added by the producer
+  static final int RECORD_OVERHEAD_BYTES = 1024;
+
+  private final MetaStoreEventSerDe eventSerDe;
+  private final boolean enabled;
+  private final int maxPayloadBytes;
+
+  EventChunker(MetaStoreEventSerDe eventSerDe, Configuration config) {
+    this(eventSerDe, booleanProperty(config, PAYLOAD_CHUNKING_ENABLED),
+        intProperty(config, MAX_REQUEST_SIZE) - RECORD_OVERHEAD_BYTES);
+  }
+
+  @VisibleForTesting
+  EventChunker(MetaStoreEventSerDe eventSerDe, boolean enabled, int maxPayloadBytes) {
+    this.eventSerDe = eventSerDe;
+    this.enabled = enabled;
+    this.maxPayloadBytes = maxPayloadBytes;
+  }
+
+  List<byte[]> marshal(ApiaryListenerEvent event) {
+    byte[] payload = eventSerDe.marshal(event);
+    if (!enabled || payload.length <= maxPayloadBytes || !EventChunks.isSplittable(event)) {
+      return Collections.singletonList(payload);
+    }
+    int partitionCount = EventChunks.partitionCount(event);
+    if (partitionCount < 2) {
+      return Collections.singletonList(payload);
+    }
+    int chunkCount = (int) Math.min(partitionCount, payload.length / maxPayloadBytes + 1);
+    while (true) {
+      List<byte[]> payloads = split(event, chunkCount, chunkCount == partitionCount);
+      if (payloads != null) {
+        log
+            .info("Split {} event of {} bytes for table {} into {} chunks", event.getEventType(), payload.length,
+                event.getQualifiedTableName(), payloads.size());
+        return payloads;
+      }
+      chunkCount = Math.min(partitionCount, chunkCount * 2);
+    }
+  }
+
+  /**
+   * @return the payloads of the chunks, or {@code null} if a chunk is too large and {@code force} is {@code false}
+   */
+  private List<byte[]> split(ApiaryListenerEvent event, int chunkCount, boolean force) {
+    List<byte[]> payloads = new ArrayList<>(chunkCount);
+    for (ApiaryListenerEvent chunk : EventChunks.split(event, chunkCount)) {
+      byte[] payload = eventSerDe.marshal(chunk);
+      if (payload.length > maxPayloadBytes && !force) {
+        return null;
+      }
+      payloads.add(payload);
+    }
+    return payloads;
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,11 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.kafka.listener;
 
-import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.stringProperty;
-import static com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe.serDeForClassName;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.listener.ListenerUtils.error;
-import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SERDE_CLASS;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.listener.ListenerUtils.serDe;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.metastore.MetaStoreEventListener;
@@ -55,10 +56,10 @@ public class KafkaMetaStoreEventListener extends MetaStoreEventListener {
   private final MetaStoreEventSerDe eventSerDe;
   private final KafkaMessageSender kafkaMessageSender;
   private final ApiaryListenerEventFactory apiaryListenerEventFactory;
+  private final EventChunker eventChunker;
 
   public KafkaMetaStoreEventListener(Configuration config) {
-    this(config, new ApiaryListenerEventFactory(), serDeForClassName(stringProperty(config, SERDE_CLASS)),
-      new KafkaMessageSender(config));
+    this(config, new ApiaryListenerEventFactory(), serDe(config), new KafkaMessageSender(config));
   }
 
   @VisibleForTesting
@@ -71,6 +72,7 @@ public class KafkaMetaStoreEventListener extends MetaStoreEventListener {
     this.eventSerDe = eventSerDe;
     this.apiaryListenerEventFactory = apiaryListenerEventFactory;
     this.kafkaMessageSender = kafkaMessageSender;
+    eventChunker = new EventChunker(eventSerDe, config);
   }
 
   private KafkaMessage withPayload(ApiaryListenerEvent event) {
@@ -79,9 +81,24 @@ public class KafkaMetaStoreEventListener extends MetaStoreEventListener {
       .database(event.getDatabaseName())
       .table(event.getTableName())
       .payload(eventSerDe.marshal(event))
+      .eventType(event.getEventType())
       .build();
   }
 
+  private List<KafkaMessage> withPayloads(ApiaryListenerEvent event) {
+    List<KafkaMessage> messages = new ArrayList<>();
+    for (byte[] payload : eventChunker.marshal(event)) {
+      messages.add(KafkaMessage
+        .builder()
+        .database(event.getDatabaseName())
+        .table(event.getTableName())
+        .payload(payload)
+        .eventType(event.getEventType())
+        .build());
+    }
+    return messages;
+  }
+
   @Override
   public void onCreateTable(CreateTableEvent tableEvent) {
     log.debug("Create table event received");
@@ -116,7 +133,9 @@ public class KafkaMetaStoreEventListener extends MetaStoreEventListener {
   public void onAddPartition(AddPartitionEvent partitionEvent) {
     log.debug("Add partition event received");
     try {
-      kafkaMessageSender.send(withPayload(apiaryListenerEventFactory.create(partitionEvent)));
+      for (KafkaMessage message : withPayloads(apiaryListenerEventFactory.create(partitionEvent))) {
+        kafkaMessageSender.send(message);
+      }
     } catch (Exception e) {
       error(e);
     }
@@ -126,7 +145,9 @@ public class KafkaMetaStoreEventListener extends MetaStoreEventListener {
   public void onDropPartition(DropPartitionEvent partitionEvent) {
     log.debug("Drop partition event received");
     try {
-      kafkaMessageSender.send(withPayload(apiaryListenerEventFactory.create(partitionEvent)));
+      for (KafkaMessage message : withPayloads(apiaryListenerEventFactory.create(partitionEvent))) {
+        kafkaMessageSender.send(message);
+      }
     } catch (Exception e) {
       error(e);
     }
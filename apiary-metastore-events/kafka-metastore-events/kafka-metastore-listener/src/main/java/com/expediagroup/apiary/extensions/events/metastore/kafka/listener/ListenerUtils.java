@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,20 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.kafka.listener;
 
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.intProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.stringProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe.serDeForClassName;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PAYLOAD_COMPRESSION;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PAYLOAD_COMPRESSION_MIN_BYTES;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SERDE_CLASS;
+
+import org.apache.hadoop.conf.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.compression.CompressingMetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.compression.CompressionCodec;
 import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.HiveMetricsHelper;
 import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.MetricsConstant;
 
@@ -35,4 +46,18 @@ public final class ListenerUtils {
     HiveMetricsHelper.incrementCounter(MetricsConstant.LISTENER_FAILURES);
   }
 
+  /**
+   * Creates the {@link MetaStoreEventSerDe} configured with {@code serde.class}, wrapped in a
+   * {@link CompressingMetaStoreEventSerDe} when {@code payload.compression} is not {@code none}.
+   */
+  public static MetaStoreEventSerDe serDe(Configuration config) {
+    MetaStoreEventSerDe serDe = serDeForClassName(stringProperty(config, SERDE_CLASS));
+    String compression = stringProperty(config, PAYLOAD_COMPRESSION).trim();
+    if ("none".equalsIgnoreCase(compression)) {
+      return serDe;
+    }
+    CompressionCodec codec = CompressionCodec.valueOf(compression.toUpperCase());
+    return new CompressingMetaStoreEventSerDe(serDe, codec, intProperty(config, PAYLOAD_COMPRESSION_MIN_BYTES));
+  }
+
 }
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.intProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.longProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.MAX_PENDING_MESSAGES;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PENDING_MESSAGES_TIMEOUT_MS;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.events.metastore.kafka.listener.ListenerUtils;
+import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.HiveMetricsHelper;
+import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.MetricsConstant;
+
+/**
+ * Follows the messages handed to the producer until the broker acknowledges them. Acknowledged and failed messages are
+ * counted in {@link MetricsConstant#LISTENER_SUCCESSES} and {@link MetricsConstant#LISTENER_FAILURES}, and the time
+ * from send to acknowledgement is recorded in a {@link MetricsConstant#SEND_LATENCY_MS} histogram per event type.
+ * <p>
+ * When {@code max.pending.messages} is set, at most that many messages can be waiting for an acknowledgement. Sending
+ * another one waits up to {@code pending.messages.timeout.ms} and then fails, so a slow broker shows up as rejected
+ * messages instead of an ever growing producer buffer.
+ */
+class DeliveryTracker {
+  private static final Logger log = LoggerFactory.getLogger(DeliveryTracker.class);
+
+  private final Semaphore permits;
+  private final int maxPendingMessages;
+  private final long timeoutMs;
+  private final AtomicInteger pendingMessages = new AtomicInteger();
+
+  DeliveryTracker(Configuration conf) {
+    this(intProperty(conf, MAX_PENDING_MESSAGES), longProperty(conf, PENDING_MESSAGES_TIMEOUT_MS));
+  }
+
+  /**
+   * @param maxPendingMessages maximum number of messages waiting for an acknowledgement, unlimited if not positive
+   */
+  DeliveryTracker(int maxPendingMessages, long timeoutMs) {
+    this.maxPendingMessages = maxPendingMessages;
+    this.timeoutMs = timeoutMs;
+    permits = maxPendingMessages > 0 ? new Semaphore(maxPendingMessages) : null;
+    HiveMetricsHelper.addGauge(MetricsConstant.PENDING_MESSAGES, pendingMessages::get);
+  }
+
+  /**
+   * Registers a message that is about to be sent, waiting for a slot if there are too many pending messages.
+   *
+   * @throws IllegalStateException if no slot becomes available in time
+   */
+  Delivery start(KafkaMessage message) {
+    return start(message, null);
+  }
+
+  /**
+   * Same as {@link #start(KafkaMessage)}, handing the message and the error to {@code onFailure} if Kafka reports that
+   * it could not be delivered. {@code onFailure} runs on the producer I/O thread and must not block.
+   */
+  Delivery start(KafkaMessage message, BiConsumer<KafkaMessage, Exception> onFailure) {
+    if (permits != null) {
+      boolean acquired;
+      try {
+        acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(
+            "Interrupted while waiting to send message for " + message.getQualifiedTableName(), e);
+      }
+      if (!acquired) {
+        HiveMetricsHelper.incrementCounter(MetricsConstant.REJECTED_MESSAGES);
+        throw new IllegalStateException("Too many messages waiting for Kafka acknowledgement (" + maxPendingMessages
+            + "), rejecting message for " + message.getQualifiedTableName());
+      }
+    }
+    pendingMessages.incrementAndGet();
+    return new Delivery(message, onFailure);
+  }
+
+  int pendingMessages() {
+    return pendingMessages.get();
+  }
+
+  static String latencyMetric(KafkaMessage message) {
+    if (message.getEventType() == null) {
+      return MetricsConstant.SEND_LATENCY_MS;
+    }
+    return MetricsConstant.SEND_LATENCY_MS + "_" + message.getEventType().name().toLowerCase();
+  }
+
+  class Delivery implements Callback {
+    private final KafkaMessage message;
+    private final BiConsumer<KafkaMessage, Exception> onFailure;
+    private final String latencyMetric;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private Delivery(KafkaMessage message, BiConsumer<KafkaMessage, Exception> onFailure) {
+      this.message = message;
+      this.onFailure = onFailure;
+      latencyMetric = latencyMetric(message);
+    }
+
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception exception) {
+      if (!release()) {
+        return;
+      }
+      HiveMetricsHelper.updateHistogram(latencyMetric, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      if (exception == null) {
+        ListenerUtils.success();
+      } else {
+        log.error("Failed to send message for {} to Kafka", message.getQualifiedTableName(), exception);
+        HiveMetricsHelper.incrementCounter(MetricsConstant.LISTENER_FAILURES);
+        if (onFailure != null) {
+          onFailure.accept(message, exception);
+        }
+      }
+    }
+
+    /**
+     * Releases the slot of a message the producer did not accept, without recording any metric. The caller is
+     * expected to report the failure.
+     */
+    void abort() {
+      release();
+    }
+
+    private boolean release() {
+      if (!completed.compareAndSet(false, true)) {
+        return false;
+      }
+      pendingMessages.decrementAndGet();
+      if (permits != null) {
+        permits.release();
+      }
+      return true;
+    }
+  }
+
+}
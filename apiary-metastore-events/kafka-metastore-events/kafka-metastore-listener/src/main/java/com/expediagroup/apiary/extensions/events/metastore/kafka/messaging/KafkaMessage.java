@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
 import static com.expediagroup.apiary.extensions.events.metastore.common.Preconditions.checkNotEmpty;
 import static com.expediagroup.apiary.extensions.events.metastore.common.Preconditions.checkNotNull;
 
+import com.expediagroup.apiary.extensions.events.metastore.event.EventType;
+
 public class KafkaMessage {
 
   public static class Builder {
@@ -25,6 +27,7 @@ public class KafkaMessage {
     private String table;
     private long timestamp = System.currentTimeMillis();
     private byte[] payload;
+    private EventType eventType;
 
     private Builder() {}
 
@@ -48,10 +51,15 @@ public class KafkaMessage {
       return this;
     }
 
+    public Builder eventType(EventType eventType) {
+      this.eventType = eventType;
+      return this;
+    }
+
     public KafkaMessage build() {
       return new KafkaMessage(checkNotEmpty(database, "Parameter 'database' is required").trim(),
           checkNotEmpty(table, "Parameter 'table' is required").trim(), timestamp,
-          checkNotNull(payload, "Parameter 'payload' is required"));
+          checkNotNull(payload, "Parameter 'payload' is required"), eventType);
     }
   }
 
@@ -63,12 +71,14 @@ public class KafkaMessage {
   private final String table;
   private final long timestamp;
   private final byte[] payload;
+  private final EventType eventType;
 
-  private KafkaMessage(String database, String table, long timestamp, byte[] payload) {
+  private KafkaMessage(String database, String table, long timestamp, byte[] payload, EventType eventType) {
     this.database = database;
     this.table = table;
     this.timestamp = timestamp;
     this.payload = payload;
+    this.eventType = eventType;
   }
 
   public String getQualifiedTableName() {
@@ -91,4 +101,16 @@ public class KafkaMessage {
     return payload;
   }
 
+  /**
+   * @return the type of the event carried by this message, or {@code null} if it is not known
+   */
+  public EventType getEventType() {
+    return eventType;
+  }
+
+  @Override
+  public String toString() {
+    return "KafkaMessage{table=" + getQualifiedTableName() + ", eventType=" + eventType + "}";
+  }
+
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.intProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.longProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.common.PropertyUtils.stringProperty;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_DIRECTORY;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_FSYNC_INTERVAL_MS;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_FSYNC_POLICY;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_MAX_BYTES;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_REPLAY_MAX_BACKOFF_MS;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_SEGMENT_BYTES;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.EventType;
+import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.HiveMetricsHelper;
+import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.MetricsConstant;
+import com.expediagroup.apiary.extensions.events.metastore.spool.FsyncPolicy;
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
+import com.expediagroup.apiary.extensions.events.metastore.spool.SegmentedSpool;
+
+/**
+ * Creates the {@link MessageSpool} that keeps the messages that could not be handed to Kafka on local disk until the
+ * broker accepts messages again. Messages that fail after the producer accepted them are spooled when the failure is
+ * reported, behind any message sent in the meantime. Only retriable Kafka errors are spooled: a message the broker
+ * rejects for good, such as a record that is too large, is dropped.
+ */
+final class KafkaMessageSpool {
+  private static final Logger log = LoggerFactory.getLogger(KafkaMessageSpool.class);
+
+  private static final byte FORMAT_VERSION = 1;
+
+  static final MessageSpool.Codec<KafkaMessage> CODEC = new MessageSpool.Codec<KafkaMessage>() {
+    @Override
+    public byte[] encode(KafkaMessage message) throws IOException {
+      return KafkaMessageSpool.encode(message);
+    }
+
+    @Override
+    public KafkaMessage decode(byte[] record) throws IOException {
+      return KafkaMessageSpool.decode(record);
+    }
+  };
+
+  private static final Map<MessageSpool.Event, String> COUNTERS = new EnumMap<>(MessageSpool.Event.class);
+
+  static {
+    COUNTERS.put(MessageSpool.Event.SPOOLED, MetricsConstant.SPOOLED_MESSAGES);
+    COUNTERS.put(MessageSpool.Event.DROPPED, MetricsConstant.SPOOL_DROPPED_MESSAGES);
+    COUNTERS.put(MessageSpool.Event.UNDELIVERABLE, MetricsConstant.UNDELIVERABLE_MESSAGES);
+    COUNTERS.put(MessageSpool.Event.REPLAYED, MetricsConstant.REPLAYED_MESSAGES);
+  }
+
+  private KafkaMessageSpool() {}
+
+  /**
+   * @param name subdirectory of {@code spool.directory} used by this sender
+   * @return the spool or {@code null} if {@code spool.directory} is not set or the spool cannot be opened
+   */
+  static MessageSpool<KafkaMessage> fromConfiguration(Configuration conf, String name) {
+    String directory = stringProperty(conf, SPOOL_DIRECTORY);
+    if (StringUtils.isBlank(directory)) {
+      return null;
+    }
+    try {
+      SegmentedSpool spool = new SegmentedSpool(Paths.get(directory, name), intProperty(conf, SPOOL_SEGMENT_BYTES),
+          longProperty(conf, SPOOL_MAX_BYTES),
+          FsyncPolicy.valueOf(stringProperty(conf, SPOOL_FSYNC_POLICY).trim().toUpperCase()),
+          longProperty(conf, SPOOL_FSYNC_INTERVAL_MS));
+      MessageSpool<KafkaMessage> messageSpool = create(spool, longProperty(conf, SPOOL_REPLAY_MAX_BACKOFF_MS));
+      Runtime.getRuntime().addShutdownHook(new Thread(messageSpool::close, "apiary-spool-shutdown"));
+      return messageSpool;
+    } catch (IOException e) {
+      log.error("Unable to open spool in {}, messages will not be spooled", directory, e);
+      return null;
+    }
+  }
+
+  static MessageSpool<KafkaMessage> create(SegmentedSpool spool, long maxBackoffMs) {
+    MessageSpool<KafkaMessage> messageSpool = new MessageSpool<>(spool, CODEC, KafkaMessageSpool::isRetriable,
+        maxBackoffMs, event -> HiveMetricsHelper.incrementCounter(COUNTERS.get(event)));
+    HiveMetricsHelper.addGauge(MetricsConstant.SPOOL_PENDING_MESSAGES, messageSpool::pendingMessages);
+    return messageSpool;
+  }
+
+  /**
+   * Errors reported by Kafka are only worth retrying when Kafka says so. Anything else, like a send rejected because
+   * too many messages are waiting for an acknowledgement, is retried.
+   */
+  static boolean isRetriable(Throwable cause) {
+    return cause instanceof RetriableException || !(cause instanceof KafkaException);
+  }
+
+  static byte[] encode(KafkaMessage message) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.getPayload().length + 128);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT_VERSION);
+      out.writeUTF(message.getDatabase());
+      out.writeUTF(message.getTable());
+      out.writeLong(message.getTimestamp());
+      out.writeUTF(message.getEventType() == null ? "" : message.getEventType().name());
+      out.writeInt(message.getPayload().length);
+      out.write(message.getPayload());
+    }
+    return bytes.toByteArray();
+  }
+
+  static KafkaMessage decode(byte[] record) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      byte version = in.readByte();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported spooled message version " + version);
+      }
+      KafkaMessage.Builder builder = KafkaMessage.builder().database(in.readUTF()).table(in.readUTF());
+      builder.timestamp(in.readLong());
+      String eventType = in.readUTF();
+      if (!eventType.isEmpty()) {
+        builder.eventType(EventType.valueOf(eventType));
+      }
+      byte[] payload = new byte[in.readInt()];
+      in.readFully(payload);
+      return builder.payload(payload).build();
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,7 +30,18 @@ public enum KafkaProducerProperty implements Property {
   BUFFER_MEMORY("buffer.memory", 33554432L),
   SERDE_CLASS("serde.class", JsonMetaStoreEventSerDe.class.getName()),
   COMPRESSION_TYPE("compression.type", "none"),
-  MAX_REQUEST_SIZE("max.request.size", 1048576);
+  MAX_REQUEST_SIZE("max.request.size", 1048576),
+  PAYLOAD_COMPRESSION("payload.compression", "none"),
+  PAYLOAD_COMPRESSION_MIN_BYTES("payload.compression.min.bytes", 1024),
+  PAYLOAD_CHUNKING_ENABLED("payload.chunking.enabled", true),
+  MAX_PENDING_MESSAGES("max.pending.messages", 0),
+  PENDING_MESSAGES_TIMEOUT_MS("pending.messages.timeout.ms", 1000L),
+  SPOOL_DIRECTORY("spool.directory", null),
+  SPOOL_SEGMENT_BYTES("spool.segment.bytes", 67108864),
+  SPOOL_MAX_BYTES("spool.max.bytes", 1073741824L),
+  SPOOL_FSYNC_POLICY("spool.fsync.policy", "interval"),
+  SPOOL_FSYNC_INTERVAL_MS("spool.fsync.interval.ms", 1000L),
+  SPOOL_REPLAY_MAX_BACKOFF_MS("spool.replay.max.backoff.ms", 30000L);
 
   static final String HADOOP_CONF_PREFIX = "com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.";
 
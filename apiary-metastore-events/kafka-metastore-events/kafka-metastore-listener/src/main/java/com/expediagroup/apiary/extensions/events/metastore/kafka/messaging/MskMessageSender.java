@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,15 +22,20 @@ import static com.expediagroup.apiary.extensions.events.metastore.kafka.messagin
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.HADOOP_CONF_PREFIX;
 
 import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
 /**
  * Sends messages to a Kafka topic. Note that in order to preserve the
  * order of the events the topic must have only single partition.
@@ -42,22 +47,78 @@ public class MskMessageSender {
   private final KafkaProducer<Long, byte[]> producer;
   private final String topic;
   private final int numberOfPartitions;
+  private final DeliveryTracker deliveryTracker;
+  private final MessageSpool<KafkaMessage> spool;
 
   public MskMessageSender(Configuration conf) {
-    this(topic(conf), new KafkaProducer<>(mskProperties(conf)));
+    this(topic(conf), new KafkaProducer<>(mskProperties(conf)), new DeliveryTracker(conf),
+        KafkaMessageSpool.fromConfiguration(conf, "msk"));
   }
 
   @VisibleForTesting
   MskMessageSender(String topic, KafkaProducer<Long, byte[]> producer) {
+    this(topic, producer, new DeliveryTracker(0, 0L));
+  }
+
+  @VisibleForTesting
+  MskMessageSender(String topic, KafkaProducer<Long, byte[]> producer, DeliveryTracker deliveryTracker) {
+    this(topic, producer, deliveryTracker, null);
+  }
+
+  @VisibleForTesting
+  MskMessageSender(
+      String topic,
+      KafkaProducer<Long, byte[]> producer,
+      DeliveryTracker deliveryTracker,
+      MessageSpool<KafkaMessage> spool) {
     this.producer = producer;
     this.topic = topic;
+    this.deliveryTracker = deliveryTracker;
+    this.spool = spool;
     this.numberOfPartitions = producer.partitionsFor(topic).size();
     log.debug("ID_DEBUG: PARTITIONS_1, partitions: {} for topic: {}", numberOfPartitions, topic);
+    if (spool != null) {
+      spool.start(this::replay);
+    }
   }
 
+  /**
+   * Hands the message to the producer. When a spool is configured, messages that cannot be sent because of a retriable
+   * error are spooled instead of failing, and so are all messages sent while the spool is not empty. Messages rejected
+   * for good are dropped.
+   */
   public void send(KafkaMessage kafkaMessage) {
+    if (spool == null) {
+      send(kafkaMessage, null);
+      return;
+    }
+    if (spool.hasPendingMessages()) {
+      spool.append(kafkaMessage);
+      return;
+    }
+    try {
+      send(kafkaMessage, spool::failed);
+    } catch (RuntimeException e) {
+      log.warn("Unable to send message for {} to Kafka", kafkaMessage.getQualifiedTableName(), e);
+      spool.failed(kafkaMessage, e);
+    }
+  }
+
+  private Future<RecordMetadata> send(KafkaMessage kafkaMessage, BiConsumer<KafkaMessage, Exception> onFailure) {
     int partition = Math.abs(kafkaMessage.getQualifiedTableName().hashCode() % numberOfPartitions);
-    producer.send(new ProducerRecord<>(topic, partition, kafkaMessage.getTimestamp(), kafkaMessage.getPayload()));
+    DeliveryTracker.Delivery delivery = deliveryTracker.start(kafkaMessage, onFailure);
+    try {
+      return producer
+          .send(new ProducerRecord<>(topic, partition, kafkaMessage.getTimestamp(), kafkaMessage.getPayload()),
+              delivery);
+    } catch (RuntimeException e) {
+      delivery.abort();
+      throw e;
+    }
+  }
+
+  private void replay(KafkaMessage kafkaMessage) throws Exception {
+    send(kafkaMessage, null).get();
   }
 
   @VisibleForTesting
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ import java.util.Optional;
 
 import org.apache.hadoop.hive.common.metrics.common.Metrics;
 import org.apache.hadoop.hive.common.metrics.common.MetricsFactory;
+import org.apache.hadoop.hive.common.metrics.common.MetricsVariable;
+import org.apache.hadoop.hive.common.metrics.metrics2.CodahaleMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,4 +39,30 @@ public class HiveMetricsHelper {
     return Optional.empty();
   }
 
+  /**
+   * Records {@code value} in the histogram {@code name}. Histograms are only supported by {@link CodahaleMetrics}, the
+   * value is ignored with other metrics implementations.
+   */
+  public static void updateHistogram(String name, long value) {
+    try {
+      Metrics metrics = MetricsFactory.getInstance();
+      if (metrics instanceof CodahaleMetrics) {
+        ((CodahaleMetrics) metrics).getMetricRegistry().histogram(name).update(value);
+      }
+    } catch (Exception e) {
+      log.warn("Unable to update histogram {}", name, e);
+    }
+  }
+
+  public static void addGauge(String name, MetricsVariable<?> variable) {
+    try {
+      Metrics metrics = MetricsFactory.getInstance();
+      if (metrics != null) {
+        metrics.addGauge(name, variable);
+      }
+    } catch (Exception e) {
+      log.warn("Unable to register gauge {}", name, e);
+    }
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,14 @@ public final class MetricsConstant {
 
   public static final String LISTENER_FAILURES = "kafka_listener_failures";
   public static final String LISTENER_SUCCESSES = "kafka_listener_successes";
+  public static final String SEND_LATENCY_MS = "kafka_listener_send_latency_ms";
+  public static final String PENDING_MESSAGES = "kafka_listener_pending_messages";
+  public static final String REJECTED_MESSAGES = "kafka_listener_rejected_messages";
+  public static final String SPOOLED_MESSAGES = "kafka_listener_spooled_messages";
+  public static final String SPOOL_PENDING_MESSAGES = "kafka_listener_spool_pending_messages";
+  public static final String SPOOL_DROPPED_MESSAGES = "kafka_listener_spool_dropped_messages";
+  public static final String REPLAYED_MESSAGES = "kafka_listener_replayed_messages";
+  public static final String UNDELIVERABLE_MESSAGES = "kafka_listener_undeliverable_messages";
 
   private MetricsConstant() {}
 
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.listener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.events.AddPartitionEvent;
+import org.apache.hadoop.hive.metastore.events.CreateTableEvent;
+import org.junit.Test;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryAddPartitionEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryCreateTableEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventChunks;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.JsonMetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty;
+
+public class EventChunkerTest {
+
+  private final MetaStoreEventSerDe serDe = new JsonMetaStoreEventSerDe();
+
+  private static Table table() {
+    Table table = new Table();
+    table.setDbName("db");
+    table.setTableName("tbl");
+    return table;
+  }
+
+  private static ApiaryAddPartitionEvent addPartitionEvent(int partitionCount) {
+    List<Partition> partitions = new ArrayList<>(partitionCount);
+    for (int i = 0; i < partitionCount; i++) {
+      StorageDescriptor sd = new StorageDescriptor();
+      sd.setLocation("s3://bucket/db/tbl/part=value_" + i);
+      partitions.add(new Partition(Collections.singletonList("value_" + i), "db", "tbl", 0, 0, sd, null));
+    }
+    return new ApiaryAddPartitionEvent(new AddPartitionEvent(table(), partitions, true, null));
+  }
+
+  private static List<List<String>> partitionValues(ApiaryListenerEvent event) {
+    List<List<String>> values = new ArrayList<>();
+    for (Partition partition : ((ApiaryAddPartitionEvent) event).getPartitions()) {
+      values.add(partition.getValues());
+    }
+    return values;
+  }
+
+  @Test
+  public void smallEventIsNotSplit() {
+    ApiaryAddPartitionEvent event = addPartitionEvent(10);
+    EventChunker chunker = new EventChunker(serDe, new Configuration());
+
+    List<byte[]> payloads = chunker.marshal(event);
+
+    assertThat(payloads).hasSize(1);
+    ApiaryListenerEvent unmarshalled = serDe.unmarshal(payloads.get(0));
+    assertThat(EventChunks.isChunk(unmarshalled)).isFalse();
+    assertThat(partitionValues(unmarshalled)).isEqualTo(partitionValues(event));
+  }
+
+  @Test
+  public void oversizedEventIsSplit() {
+    ApiaryAddPartitionEvent event = addPartitionEvent(100);
+    int maxPayloadBytes = serDe.marshal(event).length / 4;
+    EventChunker chunker = new EventChunker(serDe, true, maxPayloadBytes);
+
+    List<byte[]> payloads = chunker.marshal(event);
+
+    assertThat(payloads.size()).isGreaterThan(4);
+    List<ApiaryListenerEvent> chunks = new ArrayList<>();
+    for (byte[] payload : payloads) {
+      assertThat(payload.length).isLessThanOrEqualTo(maxPayloadBytes);
+      ApiaryListenerEvent chunk = serDe.unmarshal(payload);
+      assertThat(EventChunks.isChunk(chunk)).isTrue();
+      assertThat(EventChunks.chunkCount(chunk)).isEqualTo(payloads.size());
+      chunks.add(chunk);
+    }
+    assertThat(partitionValues(EventChunks.merge(chunks))).isEqualTo(partitionValues(event));
+  }
+
+  @Test
+  public void partitionsLargerThanTheLimitAreSentOnePerChunk() {
+    ApiaryAddPartitionEvent event = addPartitionEvent(3);
+    EventChunker chunker = new EventChunker(serDe, true, 10);
+
+    assertThat(chunker.marshal(event)).hasSize(3);
+  }
+
+  @Test
+  public void chunkingDisabled() {
+    Configuration config = new Configuration();
+    config.setBoolean(KafkaProducerProperty.PAYLOAD_CHUNKING_ENABLED.key(), false);
+    config.setInt(KafkaProducerProperty.MAX_REQUEST_SIZE.key(), EventChunker.RECORD_OVERHEAD_BYTES + 10);
+    EventChunker chunker = new EventChunker(serDe, config);
+
+    assertThat(chunker.marshal(addPartitionEvent(3))).hasSize(1);
+  }
+
+  @Test
+  public void otherEventsAreNotSplit() {
+    ApiaryCreateTableEvent event = new ApiaryCreateTableEvent(new CreateTableEvent(table(), true, null));
+    EventChunker chunker = new EventChunker(serDe, true, 10);
+
+    assertThat(chunker.marshal(event)).hasSize(1);
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,10 @@ import org.junit.Test;
 
 import com.codahale.metrics.Counter;
 
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.compression.CompressingMetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.jackson.JsonMetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty;
 import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.MetricsConstant;
 
 public class ListenerUtilsTest {
@@ -68,4 +72,23 @@ public class ListenerUtilsTest {
     assertThat(events).extracting("renderedMessage").containsExactly("Error in Kafka Listener");
   }
 
+  @Test
+  public void serDeWithoutCompression() {
+    MetaStoreEventSerDe serDe = ListenerUtils.serDe(conf);
+    assertThat(serDe).isInstanceOf(JsonMetaStoreEventSerDe.class);
+  }
+
+  @Test
+  public void serDeWithCompression() {
+    conf.set(KafkaProducerProperty.PAYLOAD_COMPRESSION.key(), "gzip");
+    MetaStoreEventSerDe serDe = ListenerUtils.serDe(conf);
+    assertThat(serDe).isInstanceOf(CompressingMetaStoreEventSerDe.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void serDeWithUnknownCompression() {
+    conf.set(KafkaProducerProperty.PAYLOAD_COMPRESSION.key(), "snappy");
+    ListenerUtils.serDe(conf);
+  }
+
 }
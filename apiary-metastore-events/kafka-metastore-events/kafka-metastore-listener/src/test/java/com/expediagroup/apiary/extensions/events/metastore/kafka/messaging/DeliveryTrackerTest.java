@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import org.apache.hadoop.hive.common.metrics.common.MetricsFactory;
+import org.apache.hadoop.hive.common.metrics.metrics2.CodahaleMetrics;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.EventType;
+import com.expediagroup.apiary.extensions.events.metastore.kafka.metrics.MetricsConstant;
+
+public class DeliveryTrackerTest {
+
+  private final KafkaMessage message = KafkaMessage
+      .builder()
+      .database("db")
+      .table("tbl")
+      .payload(new byte[] { 1 })
+      .eventType(EventType.ON_ADD_PARTITION)
+      .build();
+
+  private MetricRegistry registry;
+
+  @Before
+  public void init() throws Exception {
+    MetricsFactory.close();
+    MetricsFactory.init(new HiveConf());
+    registry = ((CodahaleMetrics) MetricsFactory.getInstance()).getMetricRegistry();
+  }
+
+  @Test
+  public void successfulDelivery() {
+    DeliveryTracker tracker = new DeliveryTracker(0, 0L);
+    DeliveryTracker.Delivery delivery = tracker.start(message);
+    assertThat(tracker.pendingMessages()).isEqualTo(1);
+
+    delivery.onCompletion(null, null);
+
+    assertThat(tracker.pendingMessages()).isZero();
+    assertThat(registry.counter(MetricsConstant.LISTENER_SUCCESSES).getCount()).isEqualTo(1L);
+    assertThat(registry.counter(MetricsConstant.LISTENER_FAILURES).getCount()).isZero();
+    assertThat(registry.histogram("kafka_listener_send_latency_ms_on_add_partition").getCount()).isEqualTo(1L);
+  }
+
+  @Test
+  public void failedDelivery() {
+    DeliveryTracker tracker = new DeliveryTracker(0, 0L);
+
+    tracker.start(message).onCompletion(null, new RuntimeException("boom"));
+
+    assertThat(tracker.pendingMessages()).isZero();
+    assertThat(registry.counter(MetricsConstant.LISTENER_SUCCESSES).getCount()).isZero();
+    assertThat(registry.counter(MetricsConstant.LISTENER_FAILURES).getCount()).isEqualTo(1L);
+  }
+
+  @Test
+  public void completionIsRecordedOnce() {
+    DeliveryTracker tracker = new DeliveryTracker(0, 0L);
+    DeliveryTracker.Delivery delivery = tracker.start(message);
+
+    delivery.onCompletion(null, null);
+    delivery.onCompletion(null, null);
+
+    assertThat(tracker.pendingMessages()).isZero();
+    assertThat(registry.counter(MetricsConstant.LISTENER_SUCCESSES).getCount()).isEqualTo(1L);
+  }
+
+  @Test
+  public void rejectsMessagesOverTheLimit() {
+    DeliveryTracker tracker = new DeliveryTracker(1, 0L);
+    DeliveryTracker.Delivery delivery = tracker.start(message);
+    try {
+      tracker.start(message);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertThat(registry.counter(MetricsConstant.REJECTED_MESSAGES).getCount()).isEqualTo(1L);
+    }
+    assertThat(tracker.pendingMessages()).isEqualTo(1);
+
+    delivery.onCompletion(null, null);
+    tracker.start(message);
+    assertThat(tracker.pendingMessages()).isEqualTo(1);
+  }
+
+  @Test
+  public void abortReleasesWithoutRecording() {
+    DeliveryTracker tracker = new DeliveryTracker(1, 0L);
+
+    tracker.start(message).abort();
+
+    assertThat(tracker.pendingMessages()).isZero();
+    assertThat(registry.counter(MetricsConstant.LISTENER_FAILURES).getCount()).isZero();
+    tracker.start(message);
+  }
+
+  @Test
+  public void latencyMetricWithoutEventType() {
+    KafkaMessage untyped = KafkaMessage.builder().database("db").table("tbl").payload(new byte[] { 1 }).build();
+    assertThat(DeliveryTracker.latencyMetric(untyped)).isEqualTo(MetricsConstant.SEND_LATENCY_MS);
+  }
+
+}
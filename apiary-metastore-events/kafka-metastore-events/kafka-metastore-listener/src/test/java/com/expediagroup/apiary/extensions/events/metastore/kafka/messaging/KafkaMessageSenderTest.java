@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,26 +36,41 @@ import static com.expediagroup.apiary.extensions.events.metastore.kafka.messagin
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.TOPIC_NAME;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.LongSerializer;
 import org.datanucleus.store.types.wrappers.List;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.expediagroup.apiary.extensions.events.metastore.spool.FsyncPolicy;
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
+import com.expediagroup.apiary.extensions.events.metastore.spool.SegmentedSpool;
 
 @RunWith(MockitoJUnitRunner.class)
 public class KafkaMessageSenderTest {
 
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
   private @Captor ArgumentCaptor<ProducerRecord> producerRecordCaptor;
+  private @Captor ArgumentCaptor<Callback> callbackCaptor;
+  private @Mock MessageSpool<KafkaMessage> spool;
   private @Mock KafkaMessage kafkaMessage;
   private @Mock KafkaProducer<Long, byte[]> producer;
   private @Mock List<PartitionInfo> partitionInfoList;
@@ -66,13 +85,114 @@ public class KafkaMessageSenderTest {
     when(partitionInfoList.size()).thenReturn(5);
     KafkaMessageSender kafkaMessageSender = new KafkaMessageSender("topic", producer);
     kafkaMessageSender.send(kafkaMessage);
-    verify(producer).send(producerRecordCaptor.capture());
+    verify(producer).send(producerRecordCaptor.capture(), any(Callback.class));
     ProducerRecord record = producerRecordCaptor.getValue();
     assertThat(record.topic()).isEqualToIgnoringCase("topic");
     assertThat(record.partition()).isEqualTo(1);
     assertThat(record.value()).isEqualTo(payload);
   }
 
+  @Test
+  public void sendFailureReleasesPendingMessage() {
+    when(kafkaMessage.getQualifiedTableName()).thenReturn("database.table");
+    when(kafkaMessage.getPayload()).thenReturn(new byte[] { 1 });
+    when(producer.partitionsFor("topic")).thenReturn(partitionInfoList);
+    when(partitionInfoList.size()).thenReturn(5);
+    doThrow(new KafkaException("boom")).when(producer).send(any(ProducerRecord.class), any(Callback.class));
+    DeliveryTracker deliveryTracker = new DeliveryTracker(1, 0L);
+    KafkaMessageSender kafkaMessageSender = new KafkaMessageSender("topic", producer, deliveryTracker);
+    try {
+      kafkaMessageSender.send(kafkaMessage);
+      fail("Expected KafkaException");
+    } catch (KafkaException e) {
+      assertThat(e.getMessage()).isEqualTo("boom");
+    }
+    assertThat(deliveryTracker.pendingMessages()).isZero();
+  }
+
+  @Test
+  public void sendFailureIsSpooled() {
+    when(kafkaMessage.getQualifiedTableName()).thenReturn("database.table");
+    when(kafkaMessage.getPayload()).thenReturn(new byte[] { 1 });
+    when(producer.partitionsFor("topic")).thenReturn(partitionInfoList);
+    when(partitionInfoList.size()).thenReturn(5);
+    TimeoutException timeout = new TimeoutException("boom");
+    doThrow(timeout).when(producer).send(any(ProducerRecord.class), any(Callback.class));
+    KafkaMessageSender kafkaMessageSender = new KafkaMessageSender("topic", producer, new DeliveryTracker(0, 0L),
+        spool);
+    kafkaMessageSender.send(kafkaMessage);
+    verify(spool).start(any(MessageSpool.Sink.class));
+    verify(spool).failed(kafkaMessage, timeout);
+  }
+
+  @Test
+  public void deliveryFailureIsSpooled() {
+    when(kafkaMessage.getQualifiedTableName()).thenReturn("database.table");
+    when(kafkaMessage.getPayload()).thenReturn(new byte[] { 1 });
+    when(producer.partitionsFor("topic")).thenReturn(partitionInfoList);
+    when(partitionInfoList.size()).thenReturn(5);
+    KafkaMessageSender kafkaMessageSender = new KafkaMessageSender("topic", producer, new DeliveryTracker(0, 0L),
+        spool);
+    kafkaMessageSender.send(kafkaMessage);
+    verify(producer).send(any(ProducerRecord.class), callbackCaptor.capture());
+    verify(spool, never()).failed(any(KafkaMessage.class), any(Exception.class));
+
+    TimeoutException timeout = new TimeoutException("boom");
+    callbackCaptor.getValue().onCompletion(null, timeout);
+    verify(spool).failed(kafkaMessage, timeout);
+  }
+
+  @Test
+  public void messagesAreSpooledWhileSpoolIsNotEmpty() {
+    when(producer.partitionsFor("topic")).thenReturn(partitionInfoList);
+    when(spool.hasPendingMessages()).thenReturn(true);
+    KafkaMessageSender kafkaMessageSender = new KafkaMessageSender("topic", producer, new DeliveryTracker(0, 0L),
+        spool);
+    kafkaMessageSender.send(kafkaMessage);
+    verify(spool).append(kafkaMessage);
+    verify(producer, never()).send(any(ProducerRecord.class), any(Callback.class));
+  }
+
+  @Test
+  public void undeliverableMessagesDoNotBlockLaterMessages() throws Exception {
+    when(producer.partitionsFor("topic")).thenReturn(partitionInfoList);
+    when(partitionInfoList.size()).thenReturn(1);
+    CopyOnWriteArrayList<String> delivered = new CopyOnWriteArrayList<>();
+    when(producer.send(any(ProducerRecord.class), any(Callback.class))).thenAnswer(invocation -> {
+      ProducerRecord<Long, byte[]> record = invocation.getArgument(0);
+      Callback callback = invocation.getArgument(1);
+      CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+      if (record.value().length > 1) {
+        RecordTooLargeException tooLarge = new RecordTooLargeException("too large");
+        callback.onCompletion(null, tooLarge);
+        future.completeExceptionally(tooLarge);
+      } else {
+        delivered.add("message_" + record.value()[0]);
+        callback.onCompletion(null, null);
+        future.complete(null);
+      }
+      return future;
+    });
+    MessageSpool<KafkaMessage> realSpool = KafkaMessageSpool
+        .create(new SegmentedSpool(temp.getRoot().toPath(), 4096, 1024 * 1024, FsyncPolicy.NEVER, 0L), 10L);
+    try {
+      // a record too large for the broker is spooled ahead of a valid one by an older version
+      realSpool.append(message(new byte[] { 0, 0 }));
+      realSpool.append(message(new byte[] { 1 }));
+      KafkaMessageSender kafkaMessageSender = new KafkaMessageSender("topic", producer, new DeliveryTracker(0, 0L),
+          realSpool);
+      awaitEmptySpool(realSpool);
+
+      kafkaMessageSender.send(message(new byte[] { 2, 2 }));
+      kafkaMessageSender.send(message(new byte[] { 3 }));
+
+      assertThat(realSpool.hasPendingMessages()).isFalse();
+      assertThat(delivered).containsExactly("message_1", "message_3");
+    } finally {
+      realSpool.close();
+    }
+  }
+
   @Test
   public void populateKafkaPropertiesFromHadoop() {
     conf.set(BOOTSTRAP_SERVERS.key(), "broker");
@@ -106,4 +226,16 @@ public class KafkaMessageSenderTest {
     topic(conf);
   }
 
+  private static KafkaMessage message(byte[] payload) {
+    return KafkaMessage.builder().database("database").table("table").payload(payload).build();
+  }
+
+  private static void awaitEmptySpool(MessageSpool<KafkaMessage> spool) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000L;
+    while (spool.hasPendingMessages() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertThat(spool.hasPendingMessages()).isFalse();
+  }
+
 }
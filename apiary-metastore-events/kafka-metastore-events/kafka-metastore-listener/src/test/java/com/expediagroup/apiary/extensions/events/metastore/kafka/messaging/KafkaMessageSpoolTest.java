@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_DIRECTORY;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.EventType;
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
+
+public class KafkaMessageSpoolTest {
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private MessageSpool<KafkaMessage> spool;
+
+  @After
+  public void close() {
+    if (spool != null) {
+      spool.close();
+    }
+  }
+
+  @Test
+  public void encodeAndDecode() throws IOException {
+    KafkaMessage message = message("table", EventType.ON_ADD_PARTITION);
+    KafkaMessage decoded = KafkaMessageSpool.decode(KafkaMessageSpool.encode(message));
+    assertThat(decoded.getDatabase()).isEqualTo("database");
+    assertThat(decoded.getTable()).isEqualTo("table");
+    assertThat(decoded.getTimestamp()).isEqualTo(123L);
+    assertThat(decoded.getEventType()).isEqualTo(EventType.ON_ADD_PARTITION);
+    assertThat(decoded.getPayload()).isEqualTo(new byte[] { 1, 2, 3 });
+  }
+
+  @Test
+  public void encodeAndDecodeWithoutEventType() throws IOException {
+    KafkaMessage decoded = KafkaMessageSpool.decode(KafkaMessageSpool.encode(message("table", null)));
+    assertThat(decoded.getEventType()).isNull();
+  }
+
+  @Test(expected = IOException.class)
+  public void decodeUnknownVersion() throws IOException {
+    byte[] record = KafkaMessageSpool.encode(message("table", null));
+    record[0] = 99;
+    KafkaMessageSpool.decode(record);
+  }
+
+  @Test
+  public void retriableErrors() {
+    assertThat(KafkaMessageSpool.isRetriable(new TimeoutException("timeout"))).isTrue();
+    assertThat(KafkaMessageSpool.isRetriable(new IllegalStateException("Too many messages"))).isTrue();
+    assertThat(KafkaMessageSpool.isRetriable(new RecordTooLargeException("too large"))).isFalse();
+    assertThat(KafkaMessageSpool.isRetriable(new KafkaException("boom"))).isFalse();
+  }
+
+  @Test
+  public void spoolIsDisabledByDefault() {
+    assertThat(KafkaMessageSpool.fromConfiguration(new Configuration(), "kafka")).isNull();
+  }
+
+  @Test
+  public void spoolFromConfiguration() {
+    Configuration conf = new Configuration();
+    conf.set(SPOOL_DIRECTORY.key(), temp.getRoot().getAbsolutePath());
+    spool = KafkaMessageSpool.fromConfiguration(conf, "kafka");
+    assertThat(spool).isNotNull();
+    assertThat(spool.hasPendingMessages()).isFalse();
+    assertThat(temp.getRoot().toPath().resolve("kafka")).isDirectory();
+  }
+
+  private static KafkaMessage message(String table, EventType eventType) {
+    return KafkaMessage
+        .builder()
+        .database("database")
+        .table(table)
+        .timestamp(123L)
+        .eventType(eventType)
+        .payload(new byte[] { 1, 2, 3 })
+        .build();
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,9 +25,20 @@ import static com.expediagroup.apiary.extensions.events.metastore.kafka.messagin
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.COMPRESSION_TYPE;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.LINGER_MS;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.MAX_PENDING_MESSAGES;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.MAX_REQUEST_SIZE;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PAYLOAD_CHUNKING_ENABLED;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PAYLOAD_COMPRESSION;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PAYLOAD_COMPRESSION_MIN_BYTES;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.PENDING_MESSAGES_TIMEOUT_MS;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.RETRIES;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SERDE_CLASS;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_DIRECTORY;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_FSYNC_INTERVAL_MS;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_FSYNC_POLICY;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_MAX_BYTES;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_REPLAY_MAX_BACKOFF_MS;
+import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.SPOOL_SEGMENT_BYTES;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaProducerProperty.TOPIC_NAME;
 
 import org.junit.Test;
@@ -42,7 +53,7 @@ public class KafkaProducerPropertyTest {
 
   @Test
   public void numberOfProperties() {
-    assertThat(KafkaProducerProperty.values().length).isEqualTo(12);
+    assertThat(KafkaProducerProperty.values().length).isEqualTo(23);
   }
 
   @Test
@@ -131,4 +142,81 @@ public class KafkaProducerPropertyTest {
     assertThat(MAX_REQUEST_SIZE.defaultValue()).isEqualTo(1048576);
   }
 
+  @Test
+  public void payloadCompression() {
+    assertThat(PAYLOAD_COMPRESSION.unprefixedKey()).isEqualTo("payload.compression");
+    assertThat(PAYLOAD_COMPRESSION.key()).isEqualTo(prefixedKey("payload.compression"));
+    assertThat(PAYLOAD_COMPRESSION.defaultValue()).isEqualTo("none");
+  }
+
+  @Test
+  public void payloadCompressionMinBytes() {
+    assertThat(PAYLOAD_COMPRESSION_MIN_BYTES.unprefixedKey()).isEqualTo("payload.compression.min.bytes");
+    assertThat(PAYLOAD_COMPRESSION_MIN_BYTES.key()).isEqualTo(prefixedKey("payload.compression.min.bytes"));
+    assertThat(PAYLOAD_COMPRESSION_MIN_BYTES.defaultValue()).isEqualTo(1024);
+  }
+
+  @Test
+  public void payloadChunkingEnabled() {
+    assertThat(PAYLOAD_CHUNKING_ENABLED.unprefixedKey()).isEqualTo("payload.chunking.enabled");
+    assertThat(PAYLOAD_CHUNKING_ENABLED.key()).isEqualTo(prefixedKey("payload.chunking.enabled"));
+    assertThat(PAYLOAD_CHUNKING_ENABLED.defaultValue()).isEqualTo(true);
+  }
+
+  @Test
+  public void maxPendingMessages() {
+    assertThat(MAX_PENDING_MESSAGES.unprefixedKey()).isEqualTo("max.pending.messages");
+    assertThat(MAX_PENDING_MESSAGES.key()).isEqualTo(prefixedKey("max.pending.messages"));
+    assertThat(MAX_PENDING_MESSAGES.defaultValue()).isEqualTo(0);
+  }
+
+  @Test
+  public void pendingMessagesTimeoutMs() {
+    assertThat(PENDING_MESSAGES_TIMEOUT_MS.unprefixedKey()).isEqualTo("pending.messages.timeout.ms");
+    assertThat(PENDING_MESSAGES_TIMEOUT_MS.key()).isEqualTo(prefixedKey("pending.messages.timeout.ms"));
+    assertThat(PENDING_MESSAGES_TIMEOUT_MS.defaultValue()).isEqualTo(1000L);
+  }
+
+  @Test
+  public void spoolDirectory() {
+    assertThat(SPOOL_DIRECTORY.unprefixedKey()).isEqualTo("spool.directory");
+    assertThat(SPOOL_DIRECTORY.key()).isEqualTo(prefixedKey("spool.directory"));
+    assertThat(SPOOL_DIRECTORY.defaultValue()).isNull();
+  }
+
+  @Test
+  public void spoolSegmentBytes() {
+    assertThat(SPOOL_SEGMENT_BYTES.unprefixedKey()).isEqualTo("spool.segment.bytes");
+    assertThat(SPOOL_SEGMENT_BYTES.key()).isEqualTo(prefixedKey("spool.segment.bytes"));
+    assertThat(SPOOL_SEGMENT_BYTES.defaultValue()).isEqualTo(67108864);
+  }
+
+  @Test
+  public void spoolMaxBytes() {
+    assertThat(SPOOL_MAX_BYTES.unprefixedKey()).isEqualTo("spool.max.bytes");
+    assertThat(SPOOL_MAX_BYTES.key()).isEqualTo(prefixedKey("spool.max.bytes"));
+    assertThat(SPOOL_MAX_BYTES.defaultValue()).isEqualTo(1073741824L);
+  }
+
+  @Test
+  public void spoolFsyncPolicy() {
+    assertThat(SPOOL_FSYNC_POLICY.unprefixedKey()).isEqualTo("spool.fsync.policy");
+    assertThat(SPOOL_FSYNC_POLICY.key()).isEqualTo(prefixedKey("spool.fsync.policy"));
+    assertThat(SPOOL_FSYNC_POLICY.defaultValue()).isEqualTo("interval");
+  }
+
+  @Test
+  public void spoolFsyncIntervalMs() {
+    assertThat(SPOOL_FSYNC_INTERVAL_MS.unprefixedKey()).isEqualTo("spool.fsync.interval.ms");
+    assertThat(SPOOL_FSYNC_INTERVAL_MS.key()).isEqualTo(prefixedKey("spool.fsync.interval.ms"));
+    assertThat(SPOOL_FSYNC_INTERVAL_MS.defaultValue()).isEqualTo(1000L);
+  }
+
+  @Test
+  public void spoolReplayMaxBackoffMs() {
+    assertThat(SPOOL_REPLAY_MAX_BACKOFF_MS.unprefixedKey()).isEqualTo("spool.replay.max.backoff.ms");
+    assertThat(SPOOL_REPLAY_MAX_BACKOFF_MS.key()).isEqualTo(prefixedKey("spool.replay.max.backoff.ms"));
+    assertThat(SPOOL_REPLAY_MAX_BACKOFF_MS.defaultValue()).isEqualTo(30000L);
+  }
+
 }
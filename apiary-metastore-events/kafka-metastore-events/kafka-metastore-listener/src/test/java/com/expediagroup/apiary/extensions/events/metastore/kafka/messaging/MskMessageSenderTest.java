@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +27,7 @@ import static com.expediagroup.apiary.extensions.events.metastore.kafka.messagin
 import java.util.Properties;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.PartitionInfo;
@@ -61,7 +63,7 @@ public class MskMessageSenderTest {
     when(partitionInfoList.size()).thenReturn(5);
     MskMessageSender kafkaMessageSender = new MskMessageSender("topic", producer);
     kafkaMessageSender.send(kafkaMessage);
-    verify(producer).send(producerRecordCaptor.capture());
+    verify(producer).send(producerRecordCaptor.capture(), any(Callback.class));
     ProducerRecord record = producerRecordCaptor.getValue();
     assertThat(record.topic()).isEqualToIgnoringCase("topic");
     assertThat(record.partition()).isEqualTo(1);
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package com.expediagroup.apiary.extensions.events.metastore.kafka.metrics;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.apache.hadoop.hive.common.metrics.common.MetricsFactory;
+import org.apache.hadoop.hive.common.metrics.metrics2.CodahaleMetrics;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.junit.Before;
 import org.junit.Test;
@@ -51,4 +52,23 @@ public class HiveMetricsHelperTest {
     assertThat(HiveMetricsHelper.incrementCounter("name")).isNotPresent();
   }
 
+  @Test
+  public void updateHistogram() throws Exception {
+    conf.setVar(HiveConf.ConfVars.HIVE_METRICS_CLASS, "org.apache.hadoop.hive.common.metrics.metrics2.CodahaleMetrics");
+    MetricsFactory.init(conf);
+    HiveMetricsHelper.updateHistogram("name", 5L);
+    HiveMetricsHelper.updateHistogram("name", 7L);
+    CodahaleMetrics metrics = (CodahaleMetrics) MetricsFactory.getInstance();
+    assertThat(metrics.getMetricRegistry().histogram("name").getCount()).isEqualTo(2L);
+  }
+
+  @Test
+  public void addGauge() throws Exception {
+    conf.setVar(HiveConf.ConfVars.HIVE_METRICS_CLASS, "org.apache.hadoop.hive.common.metrics.metrics2.CodahaleMetrics");
+    MetricsFactory.init(conf);
+    HiveMetricsHelper.addGauge("gauge", () -> 3);
+    CodahaleMetrics metrics = (CodahaleMetrics) MetricsFactory.getInstance();
+    assertThat(metrics.getMetricRegistry().getGauges().get("gauge").getValue()).isEqualTo(3);
+  }
+
 }
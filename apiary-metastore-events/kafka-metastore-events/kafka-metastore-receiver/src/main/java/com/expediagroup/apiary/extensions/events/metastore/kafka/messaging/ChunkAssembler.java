@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventChunks;
+
+/**
+ * Collects the chunks of ADD_PARTITION and DROP_PARTITION events split by the listener and merges them once every
+ * chunk has been read. While an event is being assembled the later events of its table, chunks of other events
+ * included, are held back and only returned once it is complete, so the events of a table keep their order. Chunks
+ * read more than once, or after their event has been completed, are ignored.
+ * <p>
+ * An incomplete event is logged, counted in {@link #droppedEvents()} and dropped, as handing it on would lose the
+ * partitions of its missing chunks silently, when:
+ * <ul>
+ * <li>it has been assembled for longer than {@code expiryMillis}, as its missing chunks were most likely lost;</li>
+ * <li>more than {@code maxHeldEventsPerTable} events of its table are held back behind it;</li>
+ * <li>it is the oldest one and more than {@code maxPendingEvents} events are being assembled.</li>
+ * </ul>
+ * The events held back behind a dropped event are then released. Expired events are dropped whenever an event is
+ * added, and by {@link #expire()}.
+ */
+class ChunkAssembler {
+  private static final Logger log = LoggerFactory.getLogger(ChunkAssembler.class);
+
+  static final int DEFAULT_MAX_PENDING_EVENTS = 100;
+  static final int DEFAULT_MAX_HELD_EVENTS_PER_TABLE = 1000;
+  static final long DEFAULT_EXPIRY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final int MAX_COMPLETED_EVENTS = 1000;
+
+  private final int maxPendingEvents;
+  private final int maxHeldEventsPerTable;
+  private final long expiryNanos;
+  private final LongSupplier nanoClock;
+  // oldest first
+  private final Map<String, PendingEvent> pending = new LinkedHashMap<>();
+  private final Map<String, Deque<ApiaryListenerEvent>> heldEvents = new HashMap<>();
+  private final Set<String> completed = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+      return size() > MAX_COMPLETED_EVENTS;
+    }
+  });
+  private long droppedEvents;
+
+  ChunkAssembler() {
+    this(DEFAULT_MAX_PENDING_EVENTS);
+  }
+
+  ChunkAssembler(int maxPendingEvents) {
+    this(maxPendingEvents, DEFAULT_MAX_HELD_EVENTS_PER_TABLE, DEFAULT_EXPIRY_MILLIS, System::nanoTime);
+  }
+
+  ChunkAssembler(int maxPendingEvents, int maxHeldEventsPerTable, long expiryMillis, LongSupplier nanoClock) {
+    this.maxPendingEvents = maxPendingEvents;
+    this.maxHeldEventsPerTable = maxHeldEventsPerTable;
+    expiryNanos = TimeUnit.MILLISECONDS.toNanos(expiryMillis);
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * @return the events that can be handled after adding {@code event}, in order: usually none or {@code event} itself,
+   *         or the merged event followed by the events held back behind it. The events released by dropping expired
+   *         events come first.
+   */
+  List<ApiaryListenerEvent> add(ApiaryListenerEvent event) {
+    List<ApiaryListenerEvent> ready = new ArrayList<>();
+    expire(ready);
+    add(event, ready);
+    return ready;
+  }
+
+  /**
+   * Drops the events that have been assembled for longer than the expiry time.
+   *
+   * @return the events released by dropping them, in order
+   */
+  List<ApiaryListenerEvent> expire() {
+    List<ApiaryListenerEvent> ready = new ArrayList<>();
+    expire(ready);
+    return ready;
+  }
+
+  private void expire(List<ApiaryListenerEvent> ready) {
+    long now = nanoClock.getAsLong();
+    while (!pending.isEmpty()) {
+      Map.Entry<String, PendingEvent> eldest = pending.entrySet().iterator().next();
+      if (now - eldest.getValue().startNanos < expiryNanos) {
+        return;
+      }
+      drop(eldest.getKey(), "it expired", ready);
+    }
+  }
+
+  private void add(ApiaryListenerEvent event, List<ApiaryListenerEvent> ready) {
+    String table = event.getQualifiedTableName();
+    if (!EventChunks.isChunk(event)) {
+      if (heldEvents.containsKey(table)) {
+        hold(table, event, ready);
+      } else {
+        ready.add(event);
+      }
+      return;
+    }
+    String chunkId = EventChunks.chunkId(event);
+    if (completed.contains(chunkId)) {
+      log.debug("Ignoring chunk {} of event {} which has already been completed", EventChunks.chunkIndex(event),
+          chunkId);
+      return;
+    }
+    PendingEvent pendingEvent = pending.get(chunkId);
+    if (pendingEvent == null) {
+      if (heldEvents.containsKey(table)) {
+        // another event of the table is being assembled
+        hold(table, event, ready);
+        return;
+      }
+      pendingEvent = new PendingEvent(table, nanoClock.getAsLong());
+      pending.put(chunkId, pendingEvent);
+      heldEvents.put(table, new ArrayDeque<>());
+    }
+    pendingEvent.chunks.putIfAbsent(EventChunks.chunkIndex(event), event);
+    if (pendingEvent.chunks.size() >= EventChunks.chunkCount(event)) {
+      pending.remove(chunkId);
+      completed.add(chunkId);
+      ready.add(EventChunks.merge(new ArrayList<>(pendingEvent.chunks.values())));
+      release(table, ready);
+    } else if (pending.size() > maxPendingEvents) {
+      drop(pending.keySet().iterator().next(), "too many events are being assembled", ready);
+    }
+  }
+
+  private void hold(String table, ApiaryListenerEvent event, List<ApiaryListenerEvent> ready) {
+    Deque<ApiaryListenerEvent> held = heldEvents.get(table);
+    held.add(event);
+    if (held.size() > maxHeldEventsPerTable) {
+      for (Map.Entry<String, PendingEvent> entry : pending.entrySet()) {
+        if (entry.getValue().table.equals(table)) {
+          drop(entry.getKey(), "too many events of its table are held back", ready);
+          return;
+        }
+      }
+    }
+  }
+
+  private void drop(String chunkId, String reason, List<ApiaryListenerEvent> ready) {
+    PendingEvent incomplete = pending.remove(chunkId);
+    completed.add(chunkId);
+    droppedEvents++;
+    ApiaryListenerEvent first = incomplete.chunks.values().iterator().next();
+    log
+        .warn("Dropping incomplete {} event {} for table {} with {} of {} chunks as {}", first.getEventType(), chunkId,
+            incomplete.table, incomplete.chunks.size(), EventChunks.chunkCount(first), reason);
+    release(incomplete.table, ready);
+  }
+
+  private void release(String table, List<ApiaryListenerEvent> ready) {
+    Deque<ApiaryListenerEvent> held = heldEvents.remove(table);
+    if (held != null) {
+      for (ApiaryListenerEvent event : held) {
+        add(event, ready);
+      }
+    }
+  }
+
+  /**
+   * @return {@code true} if an event of {@code qualifiedTableName} is being assembled, so its later events are held
+   *         back
+   */
+  boolean isAssembling(String qualifiedTableName) {
+    return heldEvents.containsKey(qualifiedTableName);
+  }
+
+  /**
+   * Forgets the event of {@code qualifiedTableName} being assembled and the events held back behind it without
+   * counting it as dropped, when its records are to be read again, for instance by the new owner of their partition.
+   */
+  void discard(String qualifiedTableName) {
+    if (heldEvents.remove(qualifiedTableName) != null) {
+      pending.values().removeIf(pendingEvent -> pendingEvent.table.equals(qualifiedTableName));
+    }
+  }
+
+  int pendingEvents() {
+    return pending.size();
+  }
+
+  /**
+   * @return the number of incomplete events dropped so far
+   */
+  long droppedEvents() {
+    return droppedEvents;
+  }
+
+  private static final class PendingEvent {
+    private final String table;
+    private final long startNanos;
+    private final Map<Integer, ApiaryListenerEvent> chunks = new TreeMap<>();
+
+    private PendingEvent(String table, long startNanos) {
+      this.table = table;
+      this.startNanos = startNanos;
+    }
+  }
+
+}
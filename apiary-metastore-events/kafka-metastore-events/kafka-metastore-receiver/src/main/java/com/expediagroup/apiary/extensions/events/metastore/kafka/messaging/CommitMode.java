@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+/**
+ * How a {@link KafkaMessageReader} commits the offsets of the events it has read.
+ */
+public enum CommitMode {
+
+  /** Kafka commits offsets in the background as configured by {@code enable.auto.commit}. */
+  AUTO,
+  /** The reader commits the offsets of processed events and waits for the commit to complete. */
+  SYNC,
+  /** The reader commits the offsets of processed events without waiting for the commit to complete. */
+  ASYNC
+
+}
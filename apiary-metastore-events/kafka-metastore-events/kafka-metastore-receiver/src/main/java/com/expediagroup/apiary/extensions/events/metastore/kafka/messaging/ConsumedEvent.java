@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+
+/**
+ * An event read from Kafka together with the position of the record it was read from. When chunks are reassembled the
+ * position is the one of the last chunk.
+ */
+public final class ConsumedEvent {
+
+  private final ApiaryListenerEvent event;
+  private final String topic;
+  private final int partition;
+  private final long offset;
+
+  ConsumedEvent(ApiaryListenerEvent event, String topic, int partition, long offset) {
+    this.event = event;
+    this.topic = topic;
+    this.partition = partition;
+    this.offset = offset;
+  }
+
+  public ApiaryListenerEvent getEvent() {
+    return event;
+  }
+
+  public String getTopic() {
+    return topic;
+  }
+
+  public int getPartition() {
+    return partition;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  @Override
+  public String toString() {
+    return "ConsumedEvent [topic=" + topic + ", partition=" + partition + ", offset=" + offset + ", event=" + event
+        + "]";
+  }
+
+}
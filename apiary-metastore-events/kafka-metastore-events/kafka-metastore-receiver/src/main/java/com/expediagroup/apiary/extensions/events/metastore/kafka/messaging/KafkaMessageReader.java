@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,49 +16,192 @@
 package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
 
 import static org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG;
 import static org.apache.kafka.clients.consumer.ConsumerConfig.GROUP_ID_CONFIG;
+import static org.apache.kafka.clients.consumer.ConsumerConfig.MAX_POLL_RECORDS_CONFIG;
 
 import static com.expediagroup.apiary.extensions.events.metastore.common.Preconditions.checkNotEmpty;
 
 import java.io.Closeable;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
 
 import com.google.common.annotations.VisibleForTesting;
 
 import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
 import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.compression.CompressionEnvelope;
 import com.expediagroup.apiary.extensions.events.metastore.io.jackson.JsonMetaStoreEventSerDe;
 
 public class KafkaMessageReader implements Iterator<ApiaryListenerEvent>, Closeable {
 
-  private static final Duration POLL_TIMEOUT = Duration.ofMinutes(5);
+  static final Duration DEFAULT_POLL_TIMEOUT = Duration.ofMinutes(5);
+  static final int DEFAULT_MAX_BATCH_SIZE = 500;
 
   private KafkaConsumer<Long, byte[]> consumer;
   private MetaStoreEventSerDe eventSerDe;
   private Iterator<ConsumerRecord<Long, byte[]>> records;
+  private final ChunkAssembler chunkAssembler;
+  private final Deque<ConsumedEvent> assembledEvents = new ArrayDeque<>();
+  private final Duration pollTimeout;
+  private final int maxBatchSize;
+  private final OffsetCommitter committer;
 
-  private KafkaMessageReader(String topicName, MetaStoreEventSerDe eventSerDe, Properties consumerProperties) {
-    this(topicName, eventSerDe, new KafkaConsumer(consumerProperties));
+  @VisibleForTesting
+  KafkaMessageReader(String topicName, MetaStoreEventSerDe eventSerDe, KafkaConsumer<Long, byte[]> consumer) {
+    this(topicName, eventSerDe, consumer, null);
   }
 
   @VisibleForTesting
-  KafkaMessageReader(String topicName, MetaStoreEventSerDe eventSerDe, KafkaConsumer<Long, byte[]> consumer) {
+  KafkaMessageReader(
+      String topicName,
+      MetaStoreEventSerDe eventSerDe,
+      KafkaConsumer<Long, byte[]> consumer,
+      ChunkAssembler chunkAssembler) {
+    this(topicName, eventSerDe, consumer, chunkAssembler, DEFAULT_POLL_TIMEOUT, DEFAULT_MAX_BATCH_SIZE);
+  }
+
+  @VisibleForTesting
+  KafkaMessageReader(
+      String topicName,
+      MetaStoreEventSerDe eventSerDe,
+      KafkaConsumer<Long, byte[]> consumer,
+      ChunkAssembler chunkAssembler,
+      Duration pollTimeout,
+      int maxBatchSize) {
+    this(topicName, eventSerDe, consumer, chunkAssembler, pollTimeout, maxBatchSize,
+        new OffsetCommitter(consumer, chunkAssembler));
+  }
+
+  @VisibleForTesting
+  KafkaMessageReader(
+      String topicName,
+      MetaStoreEventSerDe eventSerDe,
+      KafkaConsumer<Long, byte[]> consumer,
+      ChunkAssembler chunkAssembler,
+      Duration pollTimeout,
+      int maxBatchSize,
+      OffsetCommitter committer) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Maximum batch size must be at least 1");
+    }
     this.eventSerDe = eventSerDe;
     this.consumer = consumer;
-    this.consumer.subscribe(Collections.singletonList(topicName));
+    this.chunkAssembler = chunkAssembler;
+    this.pollTimeout = pollTimeout;
+    this.maxBatchSize = maxBatchSize;
+    this.committer = committer;
+    this.consumer.subscribe(Collections.singletonList(topicName), committer);
   }
 
+  /**
+   * Returns the next event, polling Kafka until one is available. The events returned by previous calls are considered
+   * processed and their offsets may be committed, depending on the {@link CommitMode}.
+   */
   @Override
   public ApiaryListenerEvent next() {
-    readRecordsIfNeeded();
-    ConsumerRecord<Long, byte[]> next = records.next();
-    return eventSerDe.unmarshal(next.value());
+    maybeCommit();
+    ConsumedEvent next;
+    while ((next = nextBufferedEvent()) == null) {
+      records = consumer.poll(pollTimeout).iterator();
+    }
+    committer.returned(next);
+    return next.getEvent();
+  }
+
+  /**
+   * Polls Kafka once, waiting up to the configured poll timeout, and returns the events read. See
+   * {@link #poll(Duration)}.
+   */
+  public List<ConsumedEvent> poll() {
+    return poll(pollTimeout);
+  }
+
+  /**
+   * Returns up to the configured maximum batch size events together with their positions. Records left over by a
+   * previous call are returned first, otherwise Kafka is polled once waiting up to {@code timeout} for records. The
+   * list is empty if no records arrived in time, or if all the records read were chunks of events not yet complete.
+   * The events returned by previous calls are considered processed and their offsets may be committed, depending on
+   * the {@link CommitMode}.
+   */
+  public List<ConsumedEvent> poll(Duration timeout) {
+    maybeCommit();
+    ConsumedEvent next = nextBufferedEvent();
+    if (next == null) {
+      records = consumer.poll(timeout).iterator();
+      next = nextBufferedEvent();
+    }
+    List<ConsumedEvent> batch = new ArrayList<>();
+    while (next != null) {
+      batch.add(next);
+      committer.returned(next);
+      if (batch.size() >= maxBatchSize) {
+        break;
+      }
+      next = nextBufferedEvent();
+    }
+    return batch;
+  }
+
+  /**
+   * Synchronously commits the offsets of all the events returned so far, whatever the {@link CommitMode}. Nothing is
+   * committed while events released together with the last one returned are still waiting to be returned.
+   */
+  public void commit() {
+    if (assembledEvents.isEmpty()) {
+      committer.commit(true);
+    }
+  }
+
+  /**
+   * @return the number of chunked events dropped because some of their chunks were never read, always 0 when chunks
+   *         are not reassembled
+   */
+  public long droppedChunkedEvents() {
+    return chunkAssembler == null ? 0L : chunkAssembler.droppedEvents();
+  }
+
+  private void maybeCommit() {
+    // the events released with a merged event share its offset, committing it would skip the ones not returned yet
+    if (assembledEvents.isEmpty()) {
+      committer.maybeCommit(records == null || !records.hasNext());
+    }
+  }
+
+  /**
+   * Decodes the next record of the last poll, returns {@code null} once they have all been read. With chunk reassembly
+   * the events of a table read while one of its events is being assembled are held back until it is complete, then
+   * returned with the position of the record that completed it.
+   */
+  private ConsumedEvent nextBufferedEvent() {
+    while (assembledEvents.isEmpty()) {
+      if (records == null || !records.hasNext()) {
+        return null;
+      }
+      ConsumerRecord<Long, byte[]> record = records.next();
+      // Payloads written with payload.compression enabled carry a compression envelope, anything else is passed as is
+      ApiaryListenerEvent event = eventSerDe.unmarshal(CompressionEnvelope.decompressIfNeeded(record.value()));
+      if (chunkAssembler == null) {
+        return new ConsumedEvent(event, record.topic(), record.partition(), record.offset());
+      }
+      for (ApiaryListenerEvent ready : chunkAssembler.add(event)) {
+        assembledEvents.add(new ConsumedEvent(ready, record.topic(), record.partition(), record.offset()));
+      }
+      committer
+          .read(new TopicPartition(record.topic(), record.partition()), record.offset(),
+              event.getQualifiedTableName());
+    }
+    return assembledEvents.poll();
   }
 
   @Override
@@ -71,15 +214,17 @@ public class KafkaMessageReader implements Iterator<ApiaryListenerEvent>, Closea
     throw new UnsupportedOperationException("Cannot remove message from Kafka topic");
   }
 
+  /**
+   * Commits the offsets of the events returned so far, unless disabled with
+   * {@link KafkaMessageReaderBuilder#withCommitOnClose(boolean)} or events released with the last one returned are
+   * still waiting to be returned, and closes the consumer.
+   */
   @Override
   public void close() {
-    consumer.close();
-  }
-
-  private void readRecordsIfNeeded() {
-    while (records == null || !records.hasNext()) {
-      records = consumer.poll(POLL_TIMEOUT).iterator();
+    if (assembledEvents.isEmpty()) {
+      committer.close();
     }
+    consumer.close();
   }
 
   public static final class KafkaMessageReaderBuilder {
@@ -89,6 +234,15 @@ public class KafkaMessageReader implements Iterator<ApiaryListenerEvent>, Closea
     private String groupId = "apiary-kafka-metastore-receiver-";
     private MetaStoreEventSerDe metaStoreEventSerDe = new JsonMetaStoreEventSerDe();
     private Properties consumerProperties = new Properties();
+    private boolean reassembleChunks = false;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int maxPendingRecordsPerPartition = 1000;
+    private Duration pollTimeout = DEFAULT_POLL_TIMEOUT;
+    private Integer maxBatchSize;
+    private CommitMode commitMode = CommitMode.AUTO;
+    private int commitEveryEvents = 0;
+    private Duration commitInterval = Duration.ZERO;
+    private boolean commitOnClose = true;
 
     private KafkaMessageReaderBuilder(String bootstrapServers, String topicName, String applicationName) {
       this.bootstrapServers = bootstrapServers;
@@ -114,14 +268,120 @@ public class KafkaMessageReader implements Iterator<ApiaryListenerEvent>, Closea
       return this;
     }
 
+    /**
+     * Merges the chunks of ADD_PARTITION and DROP_PARTITION events split by the listener back into the original event.
+     * When disabled, which is the default, every chunk is returned as a separate event.
+     */
+    public KafkaMessageReaderBuilder withChunkReassembly(boolean reassembleChunks) {
+      this.reassembleChunks = reassembleChunks;
+      return this;
+    }
+
+    /**
+     * How long {@link KafkaMessageReader#poll()} waits for records and {@link KafkaMessageReader#next()} waits before
+     * polling again, defaults to 5 minutes.
+     */
+    public KafkaMessageReaderBuilder withPollTimeout(Duration pollTimeout) {
+      this.pollTimeout = pollTimeout;
+      return this;
+    }
+
+    /**
+     * Maximum number of events returned by {@link KafkaMessageReader#poll()}, defaults to
+     * {@value KafkaMessageReader#DEFAULT_MAX_BATCH_SIZE}. Also sets {@code max.poll.records}.
+     */
+    public KafkaMessageReaderBuilder withMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /**
+     * How offsets are committed, defaults to {@link CommitMode#AUTO}. Any other mode disables
+     * {@code enable.auto.commit} and only commits the offsets of events that have been processed.
+     */
+    public KafkaMessageReaderBuilder withCommitMode(CommitMode commitMode) {
+      this.commitMode = commitMode;
+      return this;
+    }
+
+    /**
+     * Commits offsets once {@code commitEveryEvents} events have been processed. When neither this nor
+     * {@link #withCommitInterval(Duration)} is set, offsets are committed once the events of a poll are processed.
+     */
+    public KafkaMessageReaderBuilder withCommitEvery(int commitEveryEvents) {
+      this.commitEveryEvents = commitEveryEvents;
+      return this;
+    }
+
+    /**
+     * Commits offsets once {@code commitInterval} has elapsed since the last commit.
+     */
+    public KafkaMessageReaderBuilder withCommitInterval(Duration commitInterval) {
+      this.commitInterval = commitInterval;
+      return this;
+    }
+
+    /**
+     * Whether {@link KafkaMessageReader#close()} commits the offsets of the events processed so far, defaults to
+     * {@code true}. Has no effect with {@link CommitMode#AUTO}.
+     */
+    public KafkaMessageReaderBuilder withCommitOnClose(boolean commitOnClose) {
+      this.commitOnClose = commitOnClose;
+      return this;
+    }
+
+    /**
+     * Number of threads handling events in a {@link ParallelKafkaMessageReader}, defaults to the number of available
+     * processors.
+     */
+    public KafkaMessageReaderBuilder withWorkers(int workers) {
+      this.workers = workers;
+      return this;
+    }
+
+    /**
+     * Number of records of a partition a {@link ParallelKafkaMessageReader} may hold before pausing the partition,
+     * defaults to 1000.
+     */
+    public KafkaMessageReaderBuilder withMaxPendingRecordsPerPartition(int maxPendingRecordsPerPartition) {
+      this.maxPendingRecordsPerPartition = maxPendingRecordsPerPartition;
+      return this;
+    }
+
     public KafkaMessageReader build() {
+      KafkaConsumer<Long, byte[]> consumer = new KafkaConsumer<>(buildConsumerProperties());
+      ChunkAssembler chunkAssembler = reassembleChunks ? new ChunkAssembler() : null;
+      OffsetCommitter committer = new OffsetCommitter(consumer, commitMode, commitEveryEvents, commitInterval,
+          commitOnClose, chunkAssembler);
+      return new KafkaMessageReader(topicName, metaStoreEventSerDe, consumer, chunkAssembler, pollTimeout,
+          maxBatchSize != null ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE, committer);
+    }
+
+    /**
+     * Builds a reader that hands events to {@code handler} on a pool of worker threads. Offsets are committed by the
+     * reader once events have been handled, so {@code enable.auto.commit} is always disabled.
+     */
+    public ParallelKafkaMessageReader buildParallel(ParallelKafkaMessageReader.EventHandler handler) {
+      Properties props = buildConsumerProperties();
+      props.put(ENABLE_AUTO_COMMIT_CONFIG, "false");
+      return new ParallelKafkaMessageReader(topicName, metaStoreEventSerDe, new KafkaConsumer<>(props), handler,
+          workers, maxPendingRecordsPerPartition, reassembleChunks);
+    }
+
+    private Properties buildConsumerProperties() {
       Properties props = new Properties();
       props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
       props.put(GROUP_ID_CONFIG, groupId);
       props.put("key.deserializer", "org.apache.kafka.common.serialization.LongDeserializer");
       props.put("value.deserializer", "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+      if (maxBatchSize != null) {
+        props.put(MAX_POLL_RECORDS_CONFIG, maxBatchSize.toString());
+      }
+      if (commitMode != CommitMode.AUTO) {
+        props.put(ENABLE_AUTO_COMMIT_CONFIG, "false");
+      }
       consumerProperties.forEach((key, value) -> props.merge(key, value, (v1, v2) -> v1));
-      return new KafkaMessageReader(topicName, metaStoreEventSerDe, props);
+      return props;
     }
   }
 }
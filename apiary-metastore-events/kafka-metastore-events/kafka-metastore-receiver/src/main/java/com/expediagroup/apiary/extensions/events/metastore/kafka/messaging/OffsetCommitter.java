@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Commits the offsets of the events returned by a {@link KafkaMessageReader}. An event counts as processed once the
+ * caller asks the reader for more events, commits or closes the reader, so an offset is never committed before its
+ * event has been handled. Offsets are committed every {@code commitEveryEvents} events, every {@code commitInterval}
+ * or, when neither is set, once all the records of a poll have been processed. The offsets of revoked partitions are
+ * committed before they are given up, so after a rebalance only events returned since the last commit are read again.
+ * <p>
+ * With chunk reassembly the offset committed for a partition never moves past the first record of an event that is
+ * still being assembled, nor past the events of its table held back behind it, so they are read again after a
+ * restart. The other partitions are committed as usual. When partitions are revoked or lost, the events of their
+ * tables being assembled are discarded, as they are read again by the new owner of the partitions.
+ */
+class OffsetCommitter implements ConsumerRebalanceListener {
+  private static final Logger log = LoggerFactory.getLogger(OffsetCommitter.class);
+
+  private final Consumer<Long, byte[]> consumer;
+  private final CommitMode mode;
+  private final int commitEveryEvents;
+  private final long commitIntervalMs;
+  private final boolean commitOnClose;
+  private final ChunkAssembler chunkAssembler;
+  private final Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+  // offset of the first record of each table whose events are held back by the chunk assembler, by partition
+  private final Map<TopicPartition, Map<String, Long>> assemblingTables = new HashMap<>();
+  private int uncommittedEvents;
+  private long lastCommitMs = System.currentTimeMillis();
+
+  OffsetCommitter(Consumer<Long, byte[]> consumer, ChunkAssembler chunkAssembler) {
+    this(consumer, CommitMode.AUTO, 0, Duration.ZERO, false, chunkAssembler);
+  }
+
+  OffsetCommitter(
+      Consumer<Long, byte[]> consumer,
+      CommitMode mode,
+      int commitEveryEvents,
+      Duration commitInterval,
+      boolean commitOnClose,
+      ChunkAssembler chunkAssembler) {
+    this.consumer = consumer;
+    this.mode = mode;
+    this.commitEveryEvents = commitEveryEvents;
+    commitIntervalMs = commitInterval.toMillis();
+    this.commitOnClose = commitOnClose;
+    this.chunkAssembler = chunkAssembler;
+  }
+
+  /**
+   * Records that {@code event} has been returned to the caller.
+   */
+  void returned(ConsumedEvent event) {
+    processed
+        .put(new TopicPartition(event.getTopic(), event.getPartition()), new OffsetAndMetadata(event.getOffset() + 1));
+    uncommittedEvents++;
+  }
+
+  /**
+   * Records that the record at {@code offset} of {@code partition}, holding an event of {@code qualifiedTableName},
+   * has been added to the chunk assembler.
+   */
+  void read(TopicPartition partition, long offset, String qualifiedTableName) {
+    if (chunkAssembler == null) {
+      return;
+    }
+    Map<String, Long> tables = assemblingTables.get(partition);
+    if (tables != null) {
+      tables.keySet().removeIf(table -> !chunkAssembler.isAssembling(table));
+    }
+    if (chunkAssembler.isAssembling(qualifiedTableName)) {
+      assemblingTables.computeIfAbsent(partition, p -> new LinkedHashMap<>()).putIfAbsent(qualifiedTableName, offset);
+    }
+  }
+
+  /**
+   * Commits the offsets of the events returned so far if a commit is due.
+   *
+   * @param endOfBatch whether all the records of the last poll have been returned
+   */
+  void maybeCommit(boolean endOfBatch) {
+    if (mode == CommitMode.AUTO || uncommittedEvents == 0) {
+      return;
+    }
+    boolean due;
+    if (commitEveryEvents <= 0 && commitIntervalMs <= 0) {
+      due = endOfBatch;
+    } else {
+      due = commitEveryEvents > 0 && uncommittedEvents >= commitEveryEvents
+          || commitIntervalMs > 0 && System.currentTimeMillis() - lastCommitMs >= commitIntervalMs;
+    }
+    if (due) {
+      commit(mode == CommitMode.SYNC);
+    }
+  }
+
+  /**
+   * Commits the offsets of the events returned so far. The partitions held back by chunk reassembly are committed up
+   * to their first record still being assembled and committed again once it is complete.
+   */
+  void commit(boolean sync) {
+    if (processed.isEmpty()) {
+      return;
+    }
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    processed.forEach((partition, offset) -> offsets.put(partition, committableOffset(partition, offset)));
+    if (sync) {
+      consumer.commitSync(offsets);
+    } else {
+      consumer.commitAsync(offsets, (committed, e) -> {
+        if (e != null) {
+          log.warn("Unable to commit offsets {}", committed, e);
+        }
+      });
+    }
+    // the partitions held back by chunk reassembly stay processed until their events are complete
+    processed.entrySet().removeIf(entry -> offsets.get(entry.getKey()) == entry.getValue());
+    uncommittedEvents = 0;
+    lastCommitMs = System.currentTimeMillis();
+  }
+
+  void close() {
+    if (mode != CommitMode.AUTO && commitOnClose) {
+      try {
+        commit(true);
+      } catch (RuntimeException e) {
+        log.warn("Unable to commit offsets on close", e);
+      }
+    }
+  }
+
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (TopicPartition partition : partitions) {
+      OffsetAndMetadata offset = processed.remove(partition);
+      if (offset != null) {
+        offsets.put(partition, committableOffset(partition, offset));
+      }
+    }
+    discardAssembly(partitions);
+    if (mode != CommitMode.AUTO && !offsets.isEmpty()) {
+      try {
+        consumer.commitSync(offsets);
+      } catch (RuntimeException e) {
+        log.warn("Unable to commit offsets of revoked partitions {}", offsets, e);
+      }
+    }
+  }
+
+  @Override
+  public void onPartitionsAssigned(Collection<TopicPartition> partitions) {}
+
+  @Override
+  public void onPartitionsLost(Collection<TopicPartition> partitions) {
+    // the partitions already belong to another consumer, their offsets can no longer be committed
+    processed.keySet().removeAll(partitions);
+    discardAssembly(partitions);
+  }
+
+  /**
+   * @return {@code processed}, or the offset of the first record of {@code partition} still being assembled if it is
+   *         lower
+   */
+  private OffsetAndMetadata committableOffset(TopicPartition partition, OffsetAndMetadata processed) {
+    Map<String, Long> tables = assemblingTables.get(partition);
+    if (tables == null) {
+      return processed;
+    }
+    tables.keySet().removeIf(table -> !chunkAssembler.isAssembling(table));
+    if (tables.isEmpty()) {
+      assemblingTables.remove(partition);
+      return processed;
+    }
+    long firstAssembling = Collections.min(tables.values());
+    return firstAssembling < processed.offset() ? new OffsetAndMetadata(firstAssembling) : processed;
+  }
+
+  private void discardAssembly(Collection<TopicPartition> partitions) {
+    for (TopicPartition partition : partitions) {
+      Map<String, Long> tables = assemblingTables.remove(partition);
+      if (tables != null) {
+        tables.keySet().forEach(chunkAssembler::discard);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,400 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+import com.expediagroup.apiary.extensions.events.metastore.io.compression.CompressionEnvelope;
+
+/**
+ * Reads events from Kafka and hands them to an {@link EventHandler} on a pool of worker threads. The records of a topic
+ * partition are always decoded and handled by the same worker, one at a time and in offset order. Since the listeners
+ * partition messages by qualified table name the events of a table are handled in the order they were produced, while
+ * different partitions are handled in parallel.
+ * <p>
+ * Offsets are committed by the reader, never automatically: the offset of a record is only committed once its event
+ * has been handled. A partition is paused when {@code maxPendingRecords} of its records are waiting to be handled and
+ * resumed once half of them are done, so a slow handler slows down consumption instead of filling up memory. When
+ * partitions are revoked the reader waits for their pending records before committing and giving them up.
+ * <p>
+ * When chunks are reassembled the committed offset of a partition never moves past the first chunk of an event that
+ * is still being assembled, nor past the events of its table held back behind it, so they are read again after a
+ * restart or a rebalance. The events handled after that chunk are then handled again too. Events that are still
+ * incomplete once the {@link ChunkAssembler} expires them are dropped, even when no more records arrive on their
+ * partition, and the committed offset moves on.
+ * <p>
+ * If the handler throws, the reader stops handling events, commits the offsets of the events handled so far and
+ * {@link #run()} throws. The failed event is read again the next time the consumer group reads the partition.
+ */
+public class ParallelKafkaMessageReader implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(ParallelKafkaMessageReader.class);
+
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+  private static final long REVOKE_TIMEOUT_MS = 30000L;
+  private static final long CLOSE_TIMEOUT_MS = 30000L;
+
+  /**
+   * Handles the events read from Kafka. Called from the worker threads, at most once at a time for a given partition.
+   */
+  public interface EventHandler {
+    void handle(ApiaryListenerEvent event) throws Exception;
+  }
+
+  private final String topicName;
+  private final MetaStoreEventSerDe eventSerDe;
+  private final Consumer<Long, byte[]> consumer;
+  private final EventHandler handler;
+  private final int maxPendingRecords;
+  private final ExecutorService[] workers;
+  private final Supplier<ChunkAssembler> chunkAssemblers;
+  private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+  private final AtomicReference<Exception> failure = new AtomicReference<>();
+  private volatile boolean running = true;
+
+  ParallelKafkaMessageReader(
+      String topicName,
+      MetaStoreEventSerDe eventSerDe,
+      Consumer<Long, byte[]> consumer,
+      EventHandler handler,
+      int workerCount,
+      int maxPendingRecords,
+      boolean reassembleChunks) {
+    this(topicName, eventSerDe, consumer, handler, workerCount, maxPendingRecords,
+        reassembleChunks ? ChunkAssembler::new : null);
+  }
+
+  /**
+   * @param chunkAssemblers creates the chunk assembler of each partition, {@code null} to disable chunk reassembly
+   */
+  ParallelKafkaMessageReader(
+      String topicName,
+      MetaStoreEventSerDe eventSerDe,
+      Consumer<Long, byte[]> consumer,
+      EventHandler handler,
+      int workerCount,
+      int maxPendingRecords,
+      Supplier<ChunkAssembler> chunkAssemblers) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("Number of workers must be at least 1");
+    }
+    if (maxPendingRecords < 1) {
+      throw new IllegalArgumentException("Maximum pending records must be at least 1");
+    }
+    this.topicName = topicName;
+    this.eventSerDe = eventSerDe;
+    this.consumer = consumer;
+    this.handler = handler;
+    this.maxPendingRecords = maxPendingRecords;
+    this.chunkAssemblers = chunkAssemblers;
+    workers = new ExecutorService[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      String name = "apiary-kafka-reader-worker-" + i;
+      workers[i] = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Consumes the topic until {@link #close()} is called or the handler fails, then waits for the pending events,
+   * commits the offsets of the handled ones and closes the consumer.
+   *
+   * @throws IllegalStateException if the handler failed
+   */
+  public void run() {
+    try {
+      consumer.subscribe(Collections.singletonList(topicName), new RebalanceListener());
+      while (running && failure.get() == null) {
+        try {
+          for (ConsumerRecord<Long, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+            dispatch(record);
+          }
+        } catch (WakeupException e) {
+          continue;
+        }
+        resumePartitions();
+        expireChunks();
+        commit(false);
+      }
+    } finally {
+      shutdownWorkers();
+      commitOnClose();
+      consumer.close();
+    }
+    Exception e = failure.get();
+    if (e != null) {
+      throw new IllegalStateException("Unable to handle event from topic " + topicName, e);
+    }
+  }
+
+  /**
+   * Asks a running reader to stop. {@link #run()} returns once the pending events have been handled.
+   */
+  @Override
+  public void close() {
+    running = false;
+    consumer.wakeup();
+  }
+
+  private void dispatch(ConsumerRecord<Long, byte[]> record) {
+    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+    PartitionState state = partitions
+        .computeIfAbsent(partition, p -> new PartitionState(chunkAssemblers == null ? null : chunkAssemblers.get()));
+    if (state.pending.incrementAndGet() >= maxPendingRecords && !state.paused) {
+      consumer.pause(Collections.singleton(partition));
+      state.paused = true;
+    }
+    worker(partition).execute(() -> handle(record, state));
+  }
+
+  private ExecutorService worker(TopicPartition partition) {
+    return workers[Math.floorMod(partition.partition(), workers.length)];
+  }
+
+  private void handle(ConsumerRecord<Long, byte[]> record, PartitionState state) {
+    try {
+      if (failure.get() != null) {
+        return;
+      }
+      ApiaryListenerEvent event = eventSerDe.unmarshal(CompressionEnvelope.decompressIfNeeded(record.value()));
+      state.readOffset = record.offset() + 1;
+      if (state.chunkAssembler != null) {
+        for (ApiaryListenerEvent ready : state.chunkAssembler.add(event)) {
+          handler.handle(ready);
+        }
+        String table = event.getQualifiedTableName();
+        if (state.chunkAssembler.isAssembling(table)) {
+          state.assemblingTables.putIfAbsent(table, record.offset());
+        }
+        updateNextOffset(state);
+      } else {
+        handler.handle(event);
+        state.nextOffset = state.readOffset;
+      }
+    } catch (Exception e) {
+      log.error("Unable to handle record {} of partition {}-{}", record.offset(), record.topic(), record.partition(),
+          e);
+      fail(e);
+    } finally {
+      state.pending.decrementAndGet();
+    }
+  }
+
+  /**
+   * Asks the workers to drop the expired events of the partitions that have events being assembled.
+   */
+  private void expireChunks() {
+    for (Map.Entry<TopicPartition, PartitionState> entry : partitions.entrySet()) {
+      PartitionState state = entry.getValue();
+      if (state.assembling && state.expiryScheduled.compareAndSet(false, true)) {
+        worker(entry.getKey()).execute(() -> expire(state));
+      }
+    }
+  }
+
+  private void expire(PartitionState state) {
+    state.expiryScheduled.set(false);
+    try {
+      if (failure.get() != null) {
+        return;
+      }
+      for (ApiaryListenerEvent ready : state.chunkAssembler.expire()) {
+        handler.handle(ready);
+      }
+      updateNextOffset(state);
+    } catch (Exception e) {
+      log.error("Unable to handle events released by expired chunks", e);
+      fail(e);
+    }
+  }
+
+  private void updateNextOffset(PartitionState state) {
+    state.assemblingTables.keySet().removeIf(t -> !state.chunkAssembler.isAssembling(t));
+    state.assembling = !state.assemblingTables.isEmpty();
+    // tables are added in offset order, the first one has the lowest offset
+    state.nextOffset = state.assemblingTables.isEmpty()
+        ? state.readOffset
+        : state.assemblingTables.values().iterator().next();
+  }
+
+  private void fail(Exception e) {
+    if (failure.compareAndSet(null, e)) {
+      consumer.wakeup();
+    }
+  }
+
+  private void resumePartitions() {
+    List<TopicPartition> resumed = new ArrayList<>();
+    for (Map.Entry<TopicPartition, PartitionState> entry : partitions.entrySet()) {
+      PartitionState state = entry.getValue();
+      if (state.paused && state.pending.get() <= maxPendingRecords / 2) {
+        state.paused = false;
+        resumed.add(entry.getKey());
+      }
+    }
+    if (!resumed.isEmpty()) {
+      consumer.resume(resumed);
+    }
+  }
+
+  private void commit(boolean sync) {
+    commit(partitions.keySet(), sync);
+  }
+
+  private void commit(Collection<TopicPartition> topicPartitions, boolean sync) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (TopicPartition partition : topicPartitions) {
+      PartitionState state = partitions.get(partition);
+      // synchronous commits repeat the last asynchronous one in case it failed
+      if (state != null && (state.nextOffset > state.committedOffset || sync && state.nextOffset >= 0)) {
+        offsets.put(partition, new OffsetAndMetadata(state.nextOffset));
+      }
+    }
+    if (offsets.isEmpty()) {
+      return;
+    }
+    if (sync) {
+      consumer.commitSync(offsets);
+      markCommitted(offsets);
+    } else {
+      markCommitted(offsets);
+      consumer.commitAsync(offsets, (committed, e) -> {
+        if (e != null) {
+          log.warn("Unable to commit offsets {}", committed, e);
+        }
+      });
+    }
+  }
+
+  private void markCommitted(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    offsets.forEach((partition, offset) -> {
+      PartitionState state = partitions.get(partition);
+      if (state != null) {
+        state.committedOffset = offset.offset();
+      }
+    });
+  }
+
+  private void commitOnClose() {
+    try {
+      commit(true);
+    } catch (WakeupException e) {
+      // the wakeup was meant for poll, the next commit is not interrupted
+      commitOnClose();
+    } catch (RuntimeException e) {
+      log.warn("Unable to commit offsets on close", e);
+    }
+  }
+
+  private void shutdownWorkers() {
+    for (ExecutorService worker : workers) {
+      worker.shutdown();
+    }
+    try {
+      for (ExecutorService worker : workers) {
+        if (!worker.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+          log.warn("Timed out waiting for pending events to be handled");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void awaitPending(Collection<TopicPartition> topicPartitions) {
+    long deadline = System.currentTimeMillis() + REVOKE_TIMEOUT_MS;
+    for (TopicPartition partition : topicPartitions) {
+      PartitionState state = partitions.get(partition);
+      while (state != null && state.pending.get() > 0 && failure.get() == null) {
+        if (System.currentTimeMillis() > deadline) {
+          log.warn("Giving up partition {} with {} events still being handled", partition, state.pending.get());
+          return;
+        }
+        try {
+          Thread.sleep(10L);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private class RebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> revoked) {
+      awaitPending(revoked);
+      try {
+        commit(revoked, true);
+      } catch (RuntimeException e) {
+        log.warn("Unable to commit offsets of revoked partitions {}", revoked, e);
+      }
+      partitions.keySet().removeAll(revoked);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> assigned) {}
+  }
+
+  private static final class PartitionState {
+    private final AtomicInteger pending = new AtomicInteger();
+    // only used by the worker handling the partition, dropped with the partition when it is revoked
+    private final ChunkAssembler chunkAssembler;
+    // offset of the first record of each table whose events are held back by the assembler
+    private final Map<String, Long> assemblingTables = new LinkedHashMap<>();
+    private final AtomicBoolean expiryScheduled = new AtomicBoolean();
+    private volatile boolean assembling;
+    private long readOffset;
+    private volatile long nextOffset = -1L;
+    private long committedOffset = -1L;
+    private boolean paused;
+
+    private PartitionState(ChunkAssembler chunkAssembler) {
+      this.chunkAssembler = chunkAssembler;
+    }
+  }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.events.AddPartitionEvent;
+import org.junit.Test;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryAddPartitionEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventChunks;
+
+public class ChunkAssemblerTest {
+
+  static ApiaryAddPartitionEvent addPartitionEvent(int partitionCount) {
+    return addPartitionEvent("tbl", partitionCount);
+  }
+
+  static ApiaryAddPartitionEvent addPartitionEvent(String tableName, int partitionCount) {
+    Table table = new Table();
+    table.setDbName("db");
+    table.setTableName(tableName);
+    List<Partition> partitions = new ArrayList<>(partitionCount);
+    for (int i = 0; i < partitionCount; i++) {
+      Partition partition = new Partition();
+      partition.setValues(Collections.singletonList("value_" + i));
+      partitions.add(partition);
+    }
+    return new ApiaryAddPartitionEvent(new AddPartitionEvent(table, partitions, true, null));
+  }
+
+  private final AtomicLong nanoClock = new AtomicLong();
+  private final ChunkAssembler assembler = new ChunkAssembler(1);
+
+  @Test
+  public void mergesCompleteEvent() {
+    ApiaryAddPartitionEvent event = addPartitionEvent(6);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 3);
+
+    assertThat(assembler.add(chunks.get(2))).isEmpty();
+    assertThat(assembler.add(chunks.get(0))).isEmpty();
+    List<ApiaryListenerEvent> assembled = assembler.add(chunks.get(1));
+
+    assertThat(assembled).containsExactly(event);
+    assertThat(assembler.pendingEvents()).isZero();
+  }
+
+  @Test
+  public void duplicateChunksAreIgnored() {
+    List<ApiaryListenerEvent> chunks = EventChunks.split(addPartitionEvent(4), 2);
+
+    assertThat(assembler.add(chunks.get(0))).isEmpty();
+    assertThat(assembler.add(chunks.get(0))).isEmpty();
+    assertThat(assembler.add(chunks.get(1))).hasSize(1);
+  }
+
+  @Test
+  public void lateChunksOfCompletedEventAreIgnored() {
+    List<ApiaryListenerEvent> chunks = EventChunks.split(addPartitionEvent(4), 2);
+
+    assertThat(assembler.add(chunks.get(0))).isEmpty();
+    assertThat(assembler.add(chunks.get(1))).hasSize(1);
+    assertThat(assembler.add(chunks.get(0))).isEmpty();
+    assertThat(assembler.pendingEvents()).isZero();
+    assertThat(assembler.isAssembling("db.tbl")).isFalse();
+  }
+
+  @Test
+  public void eventsOfTableAreHeldBackUntilEventIsComplete() {
+    ApiaryAddPartitionEvent event = addPartitionEvent(4);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 2);
+    ApiaryAddPartitionEvent later = addPartitionEvent(1);
+    ApiaryAddPartitionEvent otherTable = addPartitionEvent("other", 1);
+
+    assertThat(assembler.add(chunks.get(0))).isEmpty();
+    assertThat(assembler.isAssembling("db.tbl")).isTrue();
+    assertThat(assembler.add(later)).isEmpty();
+    assertThat(assembler.add(otherTable)).containsExactly(otherTable);
+    assertThat(assembler.add(chunks.get(1))).containsExactly(event, later);
+    assertThat(assembler.isAssembling("db.tbl")).isFalse();
+  }
+
+  @Test
+  public void chunksOfLaterEventAreHeldBack() {
+    ApiaryAddPartitionEvent first = addPartitionEvent(4);
+    ApiaryAddPartitionEvent second = addPartitionEvent(6);
+    List<ApiaryListenerEvent> firstChunks = EventChunks.split(first, 2);
+    List<ApiaryListenerEvent> secondChunks = EventChunks.split(second, 2);
+
+    assertThat(assembler.add(firstChunks.get(0))).isEmpty();
+    assertThat(assembler.add(secondChunks.get(0))).isEmpty();
+    assertThat(assembler.add(secondChunks.get(1))).isEmpty();
+    assertThat(assembler.pendingEvents()).isEqualTo(1);
+    assertThat(assembler.add(firstChunks.get(1))).containsExactly(first, second);
+  }
+
+  @Test
+  public void dropsOldestIncompleteEventWhenFull() {
+    List<ApiaryListenerEvent> first = EventChunks.split(addPartitionEvent("first", 4), 2);
+    List<ApiaryListenerEvent> second = EventChunks.split(addPartitionEvent("second", 4), 2);
+    ApiaryAddPartitionEvent held = addPartitionEvent("first", 1);
+
+    assertThat(assembler.add(first.get(0))).isEmpty();
+    assertThat(assembler.add(held)).isEmpty();
+    assertThat(assembler.add(second.get(0))).containsExactly(held);
+    assertThat(assembler.pendingEvents()).isEqualTo(1);
+    assertThat(assembler.droppedEvents()).isEqualTo(1L);
+    assertThat(assembler.add(first.get(1))).isEmpty();
+  }
+
+  @Test
+  public void dropsExpiredIncompleteEvent() {
+    ChunkAssembler chunkAssembler = new ChunkAssembler(100, 100, 1000L, nanoClock::get);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(addPartitionEvent(4), 2);
+    ApiaryAddPartitionEvent held = addPartitionEvent(1);
+
+    assertThat(chunkAssembler.add(chunks.get(0))).isEmpty();
+    assertThat(chunkAssembler.add(held)).isEmpty();
+    nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999L));
+    assertThat(chunkAssembler.expire()).isEmpty();
+
+    nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1L));
+    assertThat(chunkAssembler.expire()).containsExactly(held);
+    assertThat(chunkAssembler.isAssembling("db.tbl")).isFalse();
+    assertThat(chunkAssembler.droppedEvents()).isEqualTo(1L);
+    assertThat(chunkAssembler.add(chunks.get(1))).isEmpty();
+  }
+
+  @Test
+  public void expiredEventsAreDroppedWhenAddingEvents() {
+    ChunkAssembler chunkAssembler = new ChunkAssembler(100, 100, 1000L, nanoClock::get);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(addPartitionEvent(4), 2);
+    ApiaryAddPartitionEvent later = addPartitionEvent(1);
+
+    assertThat(chunkAssembler.add(chunks.get(0))).isEmpty();
+    nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1L));
+    assertThat(chunkAssembler.add(later)).containsExactly(later);
+    assertThat(chunkAssembler.pendingEvents()).isZero();
+  }
+
+  @Test
+  public void dropsIncompleteEventWhenTooManyEventsAreHeldBack() {
+    ChunkAssembler chunkAssembler = new ChunkAssembler(100, 2, 1000L, nanoClock::get);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(addPartitionEvent(4), 2);
+    ApiaryAddPartitionEvent first = addPartitionEvent(1);
+    ApiaryAddPartitionEvent second = addPartitionEvent(2);
+    ApiaryAddPartitionEvent third = addPartitionEvent(3);
+
+    assertThat(chunkAssembler.add(chunks.get(0))).isEmpty();
+    assertThat(chunkAssembler.add(first)).isEmpty();
+    assertThat(chunkAssembler.add(second)).isEmpty();
+    assertThat(chunkAssembler.add(third)).containsExactly(first, second, third);
+    assertThat(chunkAssembler.isAssembling("db.tbl")).isFalse();
+    assertThat(chunkAssembler.droppedEvents()).isEqualTo(1L);
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,8 +15,13 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
 
+import static java.util.stream.Collectors.toList;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -24,12 +29,15 @@ import static org.mockito.Mockito.when;
 import static com.expediagroup.apiary.extensions.events.metastore.kafka.messaging.KafkaMessageReader.KafkaMessageReaderBuilder;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,9 +48,13 @@ import org.mockito.junit.MockitoJUnitRunner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryAddPartitionEvent;
 import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventChunks;
 import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
 import com.expediagroup.apiary.extensions.events.metastore.io.SerDeException;
+import com.expediagroup.apiary.extensions.events.metastore.io.compression.CompressionCodec;
+import com.expediagroup.apiary.extensions.events.metastore.io.compression.CompressionEnvelope;
 
 @RunWith(MockitoJUnitRunner.class)
 public class KafkaMessageReaderTest {
@@ -88,6 +100,123 @@ public class KafkaMessageReaderTest {
     verify(serDe).unmarshal(MESSAGE_CONTENT);
   }
 
+  @Test
+  public void nextDecompressesCompressedRecords() {
+    when(message.value()).thenReturn(CompressionEnvelope.compress(MESSAGE_CONTENT, CompressionCodec.GZIP));
+    assertThat(reader.next()).isSameAs(event);
+    verify(serDe).unmarshal(MESSAGE_CONTENT);
+  }
+
+  @Test
+  public void nextReassemblesChunks() {
+    ApiaryAddPartitionEvent event = ChunkAssemblerTest.addPartitionEvent(4);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 2);
+    List<ConsumerRecord<Long, byte[]>> records = new ArrayList<>();
+    for (int i = 0; i < chunks.size(); i++) {
+      byte[] payload = ("chunk_" + i).getBytes();
+      when(serDe.unmarshal(payload)).thenReturn(chunks.get(i));
+      records.add(new ConsumerRecord<>(TOPIC_NAME, PARTITION, i, 0L, payload));
+    }
+    when(consumer.poll(any(Duration.class)))
+        .thenReturn(new ConsumerRecords<>(ImmutableMap.of(new TopicPartition(TOPIC_NAME, PARTITION), records)));
+    reader = new KafkaMessageReader(TOPIC_NAME, serDe, consumer, new ChunkAssembler());
+
+    assertThat(reader.next()).isEqualTo(event);
+  }
+
+  @Test
+  public void nextReturnsChunksWithoutReassembly() {
+    List<ApiaryListenerEvent> chunks = EventChunks.split(ChunkAssemblerTest.addPartitionEvent(4), 2);
+    when(serDe.unmarshal(MESSAGE_CONTENT)).thenReturn(chunks.get(0));
+
+    assertThat(reader.next()).isSameAs(chunks.get(0));
+  }
+
+  @Test
+  public void pollReturnsEventsWithTheirPositions() {
+    ApiaryListenerEvent otherEvent = mock(ApiaryListenerEvent.class);
+    when(serDe.unmarshal("other".getBytes())).thenReturn(otherEvent);
+    when(consumer.poll(Duration.ofSeconds(1))).thenReturn(records(MESSAGE_CONTENT, "other".getBytes()));
+    reader = new KafkaMessageReader(TOPIC_NAME, serDe, consumer, null, Duration.ofSeconds(1), 10);
+
+    List<ConsumedEvent> batch = reader.poll();
+    assertThat(batch.stream().map(ConsumedEvent::getEvent).collect(toList())).containsExactly(event, otherEvent);
+    assertThat(batch.stream().map(ConsumedEvent::getOffset).collect(toList())).containsExactly(0L, 1L);
+    assertThat(batch.stream().map(ConsumedEvent::getPartition).collect(toList())).containsExactly(PARTITION, PARTITION);
+    assertThat(batch.stream().map(ConsumedEvent::getTopic).collect(toList())).containsExactly(TOPIC_NAME, TOPIC_NAME);
+  }
+
+  @Test
+  public void pollIsLimitedToMaxBatchSize() {
+    when(consumer.poll(any(Duration.class))).thenReturn(records(MESSAGE_CONTENT, MESSAGE_CONTENT, MESSAGE_CONTENT));
+    reader = new KafkaMessageReader(TOPIC_NAME, serDe, consumer, null, Duration.ofSeconds(1), 2);
+
+    assertThat(reader.poll().stream().map(ConsumedEvent::getOffset).collect(toList())).containsExactly(0L, 1L);
+    assertThat(reader.poll().stream().map(ConsumedEvent::getOffset).collect(toList())).containsExactly(2L);
+    verify(consumer).poll(any(Duration.class));
+  }
+
+  @Test
+  public void pollReturnsEmptyBatchOnTimeout() {
+    when(consumer.poll(Duration.ofMillis(100))).thenReturn(ConsumerRecords.empty());
+
+    assertThat(reader.poll(Duration.ofMillis(100))).isEmpty();
+    verify(consumer).poll(Duration.ofMillis(100));
+  }
+
+  @Test
+  public void pollReassemblesChunks() {
+    ApiaryAddPartitionEvent event = ChunkAssemblerTest.addPartitionEvent(4);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 2);
+    byte[][] payloads = new byte[chunks.size()][];
+    for (int i = 0; i < chunks.size(); i++) {
+      payloads[i] = ("chunk_" + i).getBytes();
+      when(serDe.unmarshal(payloads[i])).thenReturn(chunks.get(i));
+    }
+    when(consumer.poll(any(Duration.class))).thenReturn(records(payloads));
+    reader = new KafkaMessageReader(TOPIC_NAME, serDe, consumer, new ChunkAssembler(), Duration.ofSeconds(1), 10);
+
+    List<ConsumedEvent> batch = reader.poll();
+    assertThat(batch.stream().map(ConsumedEvent::getEvent).collect(toList())).containsExactly(event);
+    assertThat(batch.get(0).getOffset()).isEqualTo(chunks.size() - 1L);
+  }
+
+  @Test
+  public void pollHoldsBackEventsOfTableUntilChunkedEventIsComplete() {
+    ApiaryAddPartitionEvent event = ChunkAssemblerTest.addPartitionEvent(4);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(event, 2);
+    ApiaryAddPartitionEvent later = ChunkAssemblerTest.addPartitionEvent(1);
+    when(serDe.unmarshal("chunk_0".getBytes())).thenReturn(chunks.get(0));
+    when(serDe.unmarshal("later".getBytes())).thenReturn(later);
+    when(serDe.unmarshal("chunk_1".getBytes())).thenReturn(chunks.get(1));
+    when(consumer.poll(any(Duration.class)))
+        .thenReturn(records("chunk_0".getBytes(), "later".getBytes(), "chunk_1".getBytes()));
+    reader = new KafkaMessageReader(TOPIC_NAME, serDe, consumer, new ChunkAssembler(), Duration.ofSeconds(1), 10);
+
+    List<ConsumedEvent> batch = reader.poll();
+    assertThat(batch.stream().map(ConsumedEvent::getEvent).collect(toList())).containsExactly(event, later);
+    assertThat(batch.stream().map(ConsumedEvent::getOffset).collect(toList())).containsExactly(2L, 2L);
+    assertThat(reader.droppedChunkedEvents()).isZero();
+  }
+
+  @Test
+  public void pollCommitsPreviousBatch() {
+    when(consumer.poll(any(Duration.class))).thenReturn(records(MESSAGE_CONTENT, MESSAGE_CONTENT));
+    reader = new KafkaMessageReader(TOPIC_NAME, serDe, consumer, null, Duration.ofSeconds(1), 10,
+        new OffsetCommitter(consumer, CommitMode.SYNC, 0, Duration.ZERO, true, null));
+
+    reader.poll();
+    verify(consumer, never()).commitSync(anyMap());
+    reader.poll();
+    verify(consumer)
+        .commitSync(Collections.singletonMap(new TopicPartition(TOPIC_NAME, PARTITION), new OffsetAndMetadata(2L)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidMaxBatchSize() {
+    new KafkaMessageReader(TOPIC_NAME, serDe, consumer, null, Duration.ofSeconds(1), 0);
+  }
+
   @Test(expected = UnsupportedOperationException.class)
   public void remove() {
     reader.remove();
@@ -146,4 +275,12 @@ public class KafkaMessageReaderTest {
         .build();
   }
 
+  private static ConsumerRecords<Long, byte[]> records(byte[]... payloads) {
+    List<ConsumerRecord<Long, byte[]>> records = new ArrayList<>();
+    for (int i = 0; i < payloads.length; i++) {
+      records.add(new ConsumerRecord<>(TOPIC_NAME, PARTITION, i, 0L, payloads[i]));
+    }
+    return new ConsumerRecords<>(ImmutableMap.of(new TopicPartition(TOPIC_NAME, PARTITION), records));
+  }
+
 }
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventChunks;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OffsetCommitterTest {
+
+  private static final String TOPIC_NAME = "topic";
+  private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC_NAME, 0);
+  private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC_NAME, 1);
+
+  private @Mock Consumer<Long, byte[]> consumer;
+  private @Mock ApiaryListenerEvent event;
+
+  @Test
+  public void autoModeDoesNotCommit() {
+    OffsetCommitter committer = new OffsetCommitter(consumer, null);
+    committer.returned(consumedEvent(0, 0L));
+    committer.maybeCommit(true);
+    committer.close();
+
+    verifyZeroInteractions(consumer);
+  }
+
+  @Test
+  public void commitOnceBatchIsProcessed() {
+    OffsetCommitter committer = committer(CommitMode.SYNC, 0, Duration.ZERO);
+    committer.returned(consumedEvent(0, 0L));
+    committer.returned(consumedEvent(0, 1L));
+    committer.returned(consumedEvent(1, 7L));
+    committer.maybeCommit(false);
+    verify(consumer, never()).commitSync(anyMap());
+
+    committer.maybeCommit(true);
+    verify(consumer).commitSync(offsets(PARTITION_0, 2L, PARTITION_1, 8L));
+  }
+
+  @Test
+  public void asyncCommit() {
+    OffsetCommitter committer = committer(CommitMode.ASYNC, 0, Duration.ZERO);
+    committer.returned(consumedEvent(0, 0L));
+    committer.maybeCommit(true);
+
+    verify(consumer).commitAsync(eq(Collections.singletonMap(PARTITION_0, new OffsetAndMetadata(1L))),
+        any(OffsetCommitCallback.class));
+  }
+
+  @Test
+  public void commitEveryEvents() {
+    OffsetCommitter committer = committer(CommitMode.SYNC, 2, Duration.ZERO);
+    committer.returned(consumedEvent(0, 0L));
+    committer.maybeCommit(true);
+    verify(consumer, never()).commitSync(anyMap());
+
+    committer.returned(consumedEvent(0, 1L));
+    committer.maybeCommit(false);
+    verify(consumer).commitSync(Collections.singletonMap(PARTITION_0, new OffsetAndMetadata(2L)));
+  }
+
+  @Test
+  public void commitInterval() throws InterruptedException {
+    OffsetCommitter committer = committer(CommitMode.SYNC, 0, Duration.ofMillis(1));
+    committer.returned(consumedEvent(0, 0L));
+    Thread.sleep(5L);
+    committer.maybeCommit(false);
+
+    verify(consumer).commitSync(Collections.singletonMap(PARTITION_0, new OffsetAndMetadata(1L)));
+  }
+
+  @Test
+  public void commitOnClose() {
+    OffsetCommitter committer = committer(CommitMode.ASYNC, 100, Duration.ZERO);
+    committer.returned(consumedEvent(0, 0L));
+    committer.close();
+
+    verify(consumer).commitSync(Collections.singletonMap(PARTITION_0, new OffsetAndMetadata(1L)));
+  }
+
+  @Test
+  public void commitOnCloseDisabled() {
+    OffsetCommitter committer = new OffsetCommitter(consumer, CommitMode.SYNC, 0, Duration.ZERO, false, null);
+    committer.returned(consumedEvent(0, 0L));
+    committer.close();
+
+    verifyZeroInteractions(consumer);
+  }
+
+  @Test
+  public void revokedPartitionsAreCommitted() {
+    OffsetCommitter committer = committer(CommitMode.SYNC, 100, Duration.ZERO);
+    committer.returned(consumedEvent(0, 0L));
+    committer.returned(consumedEvent(1, 0L));
+    committer.onPartitionsRevoked(Collections.singletonList(PARTITION_1));
+    verify(consumer).commitSync(Collections.singletonMap(PARTITION_1, new OffsetAndMetadata(1L)));
+
+    committer.commit(true);
+    verify(consumer).commitSync(Collections.singletonMap(PARTITION_0, new OffsetAndMetadata(1L)));
+  }
+
+  @Test
+  public void lostPartitionsAreNotCommitted() {
+    OffsetCommitter committer = committer(CommitMode.SYNC, 100, Duration.ZERO);
+    committer.returned(consumedEvent(1, 0L));
+    committer.onPartitionsLost(Collections.singletonList(PARTITION_1));
+    committer.commit(true);
+
+    verifyZeroInteractions(consumer);
+  }
+
+  @Test
+  public void commitStopsAtFirstRecordBeingAssembled() {
+    ChunkAssembler chunkAssembler = new ChunkAssembler();
+    OffsetCommitter committer = new OffsetCommitter(consumer, CommitMode.SYNC, 0, Duration.ZERO, true, chunkAssembler);
+    List<ApiaryListenerEvent> chunks = EventChunks.split(ChunkAssemblerTest.addPartitionEvent(4), 2);
+    chunkAssembler.add(chunks.get(0));
+    committer.read(PARTITION_0, 3L, "db.tbl");
+    committer.returned(consumedEvent(0, 4L));
+    committer.returned(consumedEvent(1, 7L));
+    committer.maybeCommit(true);
+    verify(consumer).commitSync(offsets(PARTITION_0, 3L, PARTITION_1, 8L));
+
+    chunkAssembler.add(chunks.get(1));
+    committer.read(PARTITION_0, 5L, "db.tbl");
+    committer.returned(consumedEvent(0, 5L));
+    committer.maybeCommit(true);
+    verify(consumer).commitSync(Collections.singletonMap(PARTITION_0, new OffsetAndMetadata(6L)));
+  }
+
+  @Test
+  public void revokedPartitionsDiscardTheirEventsBeingAssembled() {
+    ChunkAssembler chunkAssembler = new ChunkAssembler();
+    OffsetCommitter committer = new OffsetCommitter(consumer, CommitMode.SYNC, 0, Duration.ZERO, true, chunkAssembler);
+    chunkAssembler.add(EventChunks.split(ChunkAssemblerTest.addPartitionEvent(4), 2).get(0));
+    committer.read(PARTITION_1, 3L, "db.tbl");
+    committer.returned(consumedEvent(1, 4L));
+    committer.onPartitionsRevoked(Collections.singletonList(PARTITION_1));
+
+    verify(consumer).commitSync(Collections.singletonMap(PARTITION_1, new OffsetAndMetadata(3L)));
+    assertThat(chunkAssembler.isAssembling("db.tbl")).isFalse();
+    assertThat(chunkAssembler.pendingEvents()).isZero();
+  }
+
+  private OffsetCommitter committer(CommitMode mode, int commitEveryEvents, Duration commitInterval) {
+    return new OffsetCommitter(consumer, mode, commitEveryEvents, commitInterval, true, null);
+  }
+
+  private ConsumedEvent consumedEvent(int partition, long offset) {
+    return new ConsumedEvent(event, TOPIC_NAME, partition, offset);
+  }
+
+  private static Map<TopicPartition, OffsetAndMetadata> offsets(
+      TopicPartition partition0,
+      long offset0,
+      TopicPartition partition1,
+      long offset1) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    offsets.put(partition0, new OffsetAndMetadata(offset0));
+    offsets.put(partition1, new OffsetAndMetadata(offset1));
+    return offsets;
+  }
+
+}
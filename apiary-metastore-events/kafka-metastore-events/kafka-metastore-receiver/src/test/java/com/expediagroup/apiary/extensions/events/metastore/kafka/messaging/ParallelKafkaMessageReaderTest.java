@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.kafka.messaging;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.expediagroup.apiary.extensions.events.metastore.event.ApiaryListenerEvent;
+import com.expediagroup.apiary.extensions.events.metastore.event.EventChunks;
+import com.expediagroup.apiary.extensions.events.metastore.io.MetaStoreEventSerDe;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ParallelKafkaMessageReaderTest {
+
+  private static final String TOPIC_NAME = "topic";
+  private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC_NAME, 0);
+  private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC_NAME, 1);
+
+  private @Mock MetaStoreEventSerDe serDe;
+
+  private final RecordingConsumer consumer = new RecordingConsumer();
+  private final Map<String, ApiaryListenerEvent> events = new ConcurrentHashMap<>();
+  private final Map<ApiaryListenerEvent, String> names = new ConcurrentHashMap<>();
+  private final Map<Integer, List<String>> handled = new ConcurrentHashMap<>();
+  private final AtomicInteger handledCount = new AtomicInteger();
+  private ParallelKafkaMessageReader reader;
+
+  @Before
+  public void init() {
+    when(serDe.unmarshal(any()))
+        .thenAnswer(invocation -> events.get(new String((byte[]) invocation.getArgument(0), UTF_8)));
+    Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+    beginningOffsets.put(PARTITION_0, 0L);
+    beginningOffsets.put(PARTITION_1, 0L);
+    consumer.updateBeginningOffsets(beginningOffsets);
+  }
+
+  @Test(timeout = 10000L)
+  public void eventsOfAPartitionAreHandledInOrder() {
+    consumer.schedulePollTask(() -> {
+      consumer.rebalance(Arrays.asList(PARTITION_0, PARTITION_1));
+      addRecords(PARTITION_0, 5);
+      addRecords(PARTITION_1, 5);
+    });
+    reader = newReader(2, 100, event -> record(event, 10));
+    reader.run();
+
+    assertThat(handled.get(0)).containsExactly("0-0", "0-1", "0-2", "0-3", "0-4");
+    assertThat(handled.get(1)).containsExactly("1-0", "1-1", "1-2", "1-3", "1-4");
+    assertThat(consumer.committed).containsEntry(PARTITION_0, 5L).containsEntry(PARTITION_1, 5L);
+  }
+
+  @Test(timeout = 10000L)
+  public void busyPartitionsArePaused() {
+    CountDownLatch release = new CountDownLatch(1);
+    List<Set<TopicPartition>> paused = new CopyOnWriteArrayList<>();
+    consumer.schedulePollTask(() -> {
+      consumer.rebalance(Collections.singletonList(PARTITION_0));
+      addRecords(PARTITION_0, 5);
+    });
+    consumer.schedulePollTask(() -> {
+      paused.add(consumer.paused());
+      release.countDown();
+    });
+    reader = newReader(1, 2, event -> {
+      release.await();
+      record(event, 5);
+    });
+    reader.run();
+
+    assertThat(paused).containsExactly(Collections.singleton(PARTITION_0));
+    assertThat(handled.get(0)).containsExactly("0-0", "0-1", "0-2", "0-3", "0-4");
+    assertThat(consumer.committed).containsEntry(PARTITION_0, 5L);
+  }
+
+  @Test(timeout = 10000L)
+  public void handlerFailureStopsReader() {
+    consumer.schedulePollTask(() -> {
+      consumer.rebalance(Collections.singletonList(PARTITION_0));
+      addRecords(PARTITION_0, 5);
+    });
+    reader = newReader(1, 100, event -> {
+      if (names.get(event).equals("0-2")) {
+        throw new IllegalArgumentException("Unable to handle event");
+      }
+      record(event, 5);
+    });
+    try {
+      reader.run();
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    assertThat(handled.get(0)).containsExactly("0-0", "0-1");
+    assertThat(consumer.committed).containsEntry(PARTITION_0, 2L);
+    assertThat(consumer.closed()).isTrue();
+  }
+
+  @Test(timeout = 10000L)
+  public void offsetOfIncompleteChunkIsNotCommitted() {
+    List<ApiaryListenerEvent> chunks = EventChunks.split(ChunkAssemblerTest.addPartitionEvent(4), 2);
+    consumer.schedulePollTask(() -> {
+      consumer.rebalance(Collections.singletonList(PARTITION_0));
+      addRecord(PARTITION_0, 0, "0-0", mock(ApiaryListenerEvent.class));
+      addRecord(PARTITION_0, 1, "0-1", chunks.get(0));
+      addRecord(PARTITION_0, 2, "0-2", mock(ApiaryListenerEvent.class));
+    });
+    reader = new ParallelKafkaMessageReader(TOPIC_NAME, serDe, consumer, event -> record(event, 2), 1, 100, true);
+    reader.run();
+
+    assertThat(handled.get(0)).containsExactly("0-0", "0-2");
+    assertThat(consumer.committed).containsEntry(PARTITION_0, 1L);
+  }
+
+  @Test(timeout = 10000L)
+  public void offsetOfCompleteChunksIsCommitted() {
+    List<ApiaryListenerEvent> chunks = EventChunks.split(ChunkAssemblerTest.addPartitionEvent(4), 2);
+    consumer.schedulePollTask(() -> {
+      consumer.rebalance(Collections.singletonList(PARTITION_0));
+      addRecord(PARTITION_0, 0, "0-0", chunks.get(0));
+      addRecord(PARTITION_0, 1, "0-1", mock(ApiaryListenerEvent.class));
+      addRecord(PARTITION_0, 2, "0-2", chunks.get(1));
+    });
+    reader = new ParallelKafkaMessageReader(TOPIC_NAME, serDe, consumer, event -> {
+      names.putIfAbsent(event, "0-merged");
+      record(event, 2);
+    }, 1, 100, true);
+    reader.run();
+
+    assertThat(handled.get(0)).containsExactly("0-1", "0-merged");
+    assertThat(consumer.committed).containsEntry(PARTITION_0, 3L);
+  }
+
+  @Test(timeout = 10000L)
+  public void offsetMovesOnOnceIncompleteChunksExpire() {
+    List<ApiaryListenerEvent> chunks = EventChunks.split(ChunkAssemblerTest.addPartitionEvent(4), 2);
+    consumer.schedulePollTask(() -> {
+      consumer.rebalance(Collections.singletonList(PARTITION_0));
+      addRecord(PARTITION_0, 0, "0-0", chunks.get(0));
+      addRecord(PARTITION_0, 1, "0-1", ChunkAssemblerTest.addPartitionEvent(1));
+    });
+    reader = new ParallelKafkaMessageReader(TOPIC_NAME, serDe, consumer, event -> record(event, 1), 1, 100,
+        () -> new ChunkAssembler(100, 100, 50L, System::nanoTime));
+    reader.run();
+
+    assertThat(handled.get(0)).containsExactly("0-1");
+    assertThat(consumer.committed).containsEntry(PARTITION_0, 2L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidNumberOfWorkers() {
+    newReader(0, 100, event -> {});
+  }
+
+  private ParallelKafkaMessageReader newReader(
+      int workers,
+      int maxPendingRecords,
+      ParallelKafkaMessageReader.EventHandler handler) {
+    return new ParallelKafkaMessageReader(TOPIC_NAME, serDe, consumer, handler, workers, maxPendingRecords, false);
+  }
+
+  private void addRecords(TopicPartition partition, int count) {
+    for (int i = 0; i < count; i++) {
+      addRecord(partition, i, partition.partition() + "-" + i, mock(ApiaryListenerEvent.class));
+    }
+  }
+
+  private void addRecord(TopicPartition partition, long offset, String name, ApiaryListenerEvent event) {
+    events.put(name, event);
+    names.put(event, name);
+    consumer.addRecord(new ConsumerRecord<>(TOPIC_NAME, partition.partition(), offset, 0L, name.getBytes(UTF_8)));
+  }
+
+  private void record(ApiaryListenerEvent event, int expected) {
+    String name = names.get(event);
+    int partition = Integer.parseInt(name.substring(0, name.indexOf('-')));
+    handled.computeIfAbsent(partition, p -> new CopyOnWriteArrayList<>()).add(name);
+    if (handledCount.incrementAndGet() == expected) {
+      reader.close();
+    }
+  }
+
+  private static class RecordingConsumer extends MockConsumer<Long, byte[]> {
+    private final Map<TopicPartition, Long> committed = new ConcurrentHashMap<>();
+
+    RecordingConsumer() {
+      super(OffsetResetStrategy.EARLIEST);
+    }
+
+    @Override
+    public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+      super.commitSync(offsets);
+      offsets.forEach((partition, offset) -> committed.put(partition, offset.offset()));
+    }
+
+    @Override
+    public synchronized void commitAsync(
+        Map<TopicPartition, OffsetAndMetadata> offsets,
+        OffsetCommitCallback callback) {
+      super.commitAsync(offsets, callback);
+      offsets.forEach((partition, offset) -> committed.put(partition, offset.offset()));
+    }
+  }
+
+}
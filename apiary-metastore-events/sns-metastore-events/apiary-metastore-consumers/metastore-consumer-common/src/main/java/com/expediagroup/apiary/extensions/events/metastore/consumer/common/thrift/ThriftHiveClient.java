@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,22 @@ public class ThriftHiveClient {
   }
 
   public ThriftHiveClient(String hiveMetaStoreUris, String hiveMetastoreClientSocketTimeout) {
+    this(createHiveConf(hiveMetaStoreUris, hiveMetastoreClientSocketTimeout));
+  }
+
+  /**
+   * Connects with an existing configuration. {@link HiveMetaStoreClient} takes a copy of it, so the same instance can
+   * be shared by several clients.
+   */
+  public ThriftHiveClient(HiveConf hiveConf) {
+    try {
+      this.client = new HiveMetaStoreClient(hiveConf);
+    } catch (Exception e) {
+      throw new HiveClientException("Error creating Hive metastore client", e);
+    }
+  }
+
+  static HiveConf createHiveConf(String hiveMetaStoreUris, String hiveMetastoreClientSocketTimeout) {
     try {
       HiveConf hiveConf = new HiveConf();
       hiveConf.setVar(HiveConf.ConfVars.METASTOREURIS, hiveMetaStoreUris);
@@ -42,8 +58,7 @@ public class ThriftHiveClient {
         hiveConf.setVar(
             HiveConf.ConfVars.METASTORE_CLIENT_SOCKET_TIMEOUT, hiveMetastoreClientSocketTimeout);
       }
-
-      this.client = new HiveMetaStoreClient(hiveConf);
+      return hiveConf;
     } catch (Exception e) {
       throw new HiveClientException("Error creating Hive metastore client", e);
     }
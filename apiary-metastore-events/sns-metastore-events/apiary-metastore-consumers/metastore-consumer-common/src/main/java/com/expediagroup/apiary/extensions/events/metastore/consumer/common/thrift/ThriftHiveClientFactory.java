@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,24 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+
+/**
+ * Creates {@link ThriftHiveClient} instances. The {@link HiveConf} of each URI and timeout is built once and shared by
+ * all the clients created afterwards, as building it loads and parses the Hadoop and Hive configuration files.
+ */
 public class ThriftHiveClientFactory {
 
+  private final Map<String, HiveConf> hiveConfs = new ConcurrentHashMap<>();
+
   public ThriftHiveClient newInstance(String thriftConnectionUri, String thriftConnectionTimeout) {
-    return new ThriftHiveClient(thriftConnectionUri, thriftConnectionTimeout);
+    HiveConf hiveConf = hiveConfs
+        .computeIfAbsent(thriftConnectionUri + "|" + thriftConnectionTimeout,
+            key -> ThriftHiveClient.createHiveConf(thriftConnectionUri, thriftConnectionTimeout));
+    return new ThriftHiveClient(hiveConf);
   }
 
 }
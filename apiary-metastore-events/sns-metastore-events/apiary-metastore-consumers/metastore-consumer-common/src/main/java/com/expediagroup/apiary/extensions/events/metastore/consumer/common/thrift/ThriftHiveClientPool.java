@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift;
+
+import java.io.Closeable;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.events.metastore.consumer.common.exception.HiveClientException;
+
+/**
+ * Keeps Hive Metastore Thrift connections open between uses, so that a long lived process such as a warm Lambda
+ * container pays for the Thrift handshake once rather than on every request. A connection that has been idle for longer
+ * than the validation interval is checked with a single cheap call before it is handed out, and replaced if the check
+ * fails.
+ */
+public class ThriftHiveClientPool implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(ThriftHiveClientPool.class);
+
+  public static final long DEFAULT_VALIDATION_INTERVAL_MILLIS = 10000L;
+
+  private final ThriftHiveClientFactory thriftHiveClientFactory;
+  private final String thriftConnectionUri;
+  private final String thriftConnectionTimeout;
+  private final int maxIdleConnections;
+  private final long validationIntervalNanos;
+  private final Deque<IdleConnection> idleConnections = new ConcurrentLinkedDeque<>();
+  private final AtomicLong connectionsOpened = new AtomicLong();
+  private final AtomicLong reconnects = new AtomicLong();
+  private final AtomicLong totalHandshakeMillis = new AtomicLong();
+  private volatile long lastHandshakeMillis;
+
+  public ThriftHiveClientPool(
+      ThriftHiveClientFactory thriftHiveClientFactory,
+      String thriftConnectionUri,
+      String thriftConnectionTimeout,
+      int maxIdleConnections) {
+    this(thriftHiveClientFactory, thriftConnectionUri, thriftConnectionTimeout, maxIdleConnections,
+        DEFAULT_VALIDATION_INTERVAL_MILLIS);
+  }
+
+  public ThriftHiveClientPool(
+      ThriftHiveClientFactory thriftHiveClientFactory,
+      String thriftConnectionUri,
+      String thriftConnectionTimeout,
+      int maxIdleConnections,
+      long validationIntervalMillis) {
+    this.thriftHiveClientFactory = thriftHiveClientFactory;
+    this.thriftConnectionUri = thriftConnectionUri;
+    this.thriftConnectionTimeout = thriftConnectionTimeout;
+    this.maxIdleConnections = maxIdleConnections;
+    validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(validationIntervalMillis);
+  }
+
+  /**
+   * Returns an open connection, reusing an idle one when possible. The caller must hand it back with
+   * {@link #release(IMetaStoreClient)} or {@link #invalidate(IMetaStoreClient)}.
+   *
+   * @throws HiveClientException if a new connection cannot be established
+   */
+  public IMetaStoreClient borrow() {
+    IdleConnection idle;
+    while ((idle = idleConnections.pollFirst()) != null) {
+      if (System.nanoTime() - idle.releasedAt < validationIntervalNanos || isValid(idle.client)) {
+        return idle.client;
+      }
+      log.info("Discarding stale Thrift connection to {}", thriftConnectionUri);
+      reconnects.incrementAndGet();
+      closeQuietly(idle.client);
+    }
+    return connect();
+  }
+
+  /**
+   * Hands back a healthy connection. It is kept for later use unless the pool already holds enough idle connections.
+   */
+  public void release(IMetaStoreClient client) {
+    if (idleConnections.size() < maxIdleConnections) {
+      idleConnections.offerFirst(new IdleConnection(client, System.nanoTime()));
+    } else {
+      closeQuietly(client);
+    }
+  }
+
+  /**
+   * Hands back a connection that failed, closing it so that the next {@link #borrow()} reconnects.
+   */
+  public void invalidate(IMetaStoreClient client) {
+    reconnects.incrementAndGet();
+    closeQuietly(client);
+  }
+
+  public int idleConnections() {
+    return idleConnections.size();
+  }
+
+  public long connectionsOpened() {
+    return connectionsOpened.get();
+  }
+
+  /**
+   * Number of connections found broken, either when validated or when invalidated by the caller.
+   */
+  public long reconnects() {
+    return reconnects.get();
+  }
+
+  public long lastHandshakeMillis() {
+    return lastHandshakeMillis;
+  }
+
+  public long totalHandshakeMillis() {
+    return totalHandshakeMillis.get();
+  }
+
+  @Override
+  public void close() {
+    IdleConnection idle;
+    while ((idle = idleConnections.pollFirst()) != null) {
+      closeQuietly(idle.client);
+    }
+  }
+
+  private IMetaStoreClient connect() {
+    long start = System.nanoTime();
+    ThriftHiveClient thriftHiveClient = thriftHiveClientFactory
+        .newInstance(thriftConnectionUri, thriftConnectionTimeout);
+    long handshakeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    lastHandshakeMillis = handshakeMillis;
+    totalHandshakeMillis.addAndGet(handshakeMillis);
+    connectionsOpened.incrementAndGet();
+    log.info("Opened Thrift connection to {} in {}ms", thriftConnectionUri, handshakeMillis);
+    return thriftHiveClient.getMetaStoreClient();
+  }
+
+  private boolean isValid(IMetaStoreClient client) {
+    try {
+      client.getMetaConf(HiveConf.ConfVars.METASTORE_TRY_DIRECT_SQL.varname);
+      return true;
+    } catch (Exception e) {
+      log.debug("Thrift connection validation failed", e);
+      return false;
+    }
+  }
+
+  private void closeQuietly(IMetaStoreClient client) {
+    try {
+      client.close();
+    } catch (Exception e) {
+      log.debug("Error closing Thrift connection", e);
+    }
+  }
+
+  private static final class IdleConnection {
+    private final IMetaStoreClient client;
+    private final long releasedAt;
+
+    private IdleConnection(IMetaStoreClient client, long releasedAt) {
+      this.client = client;
+      this.releasedAt = releasedAt;
+    }
+  }
+
+}
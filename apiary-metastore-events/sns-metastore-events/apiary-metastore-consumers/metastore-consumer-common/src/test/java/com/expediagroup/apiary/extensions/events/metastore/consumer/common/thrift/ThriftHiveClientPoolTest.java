@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ThriftHiveClientPoolTest {
+
+  private static final String URI = "thrift://uri:9083";
+  private static final String TIMEOUT = "20000";
+  private static final String TRY_DIRECT_SQL = "hive.metastore.try.direct.sql";
+
+  private @Mock ThriftHiveClientFactory thriftHiveClientFactory;
+  private @Mock ThriftHiveClient thriftHiveClient1;
+  private @Mock ThriftHiveClient thriftHiveClient2;
+  private @Mock IMetaStoreClient client1;
+  private @Mock IMetaStoreClient client2;
+
+  @Before
+  public void setUp() {
+    when(thriftHiveClientFactory.newInstance(URI, TIMEOUT)).thenReturn(thriftHiveClient1, thriftHiveClient2);
+    when(thriftHiveClient1.getMetaStoreClient()).thenReturn(client1);
+  }
+
+  @Test
+  public void reusesReleasedConnection() throws Exception {
+    ThriftHiveClientPool pool = new ThriftHiveClientPool(thriftHiveClientFactory, URI, TIMEOUT, 1);
+    IMetaStoreClient client = pool.borrow();
+    pool.release(client);
+
+    assertThat(pool.borrow(), is(sameInstance(client1)));
+    verify(thriftHiveClientFactory).newInstance(URI, TIMEOUT);
+    verify(client1, never()).getMetaConf(TRY_DIRECT_SQL);
+    assertThat(pool.connectionsOpened(), is(1L));
+    assertThat(pool.reconnects(), is(0L));
+  }
+
+  @Test
+  public void validatesIdleConnection() throws Exception {
+    ThriftHiveClientPool pool = new ThriftHiveClientPool(thriftHiveClientFactory, URI, TIMEOUT, 1, 0L);
+    pool.release(pool.borrow());
+
+    assertThat(pool.borrow(), is(sameInstance(client1)));
+    verify(client1).getMetaConf(TRY_DIRECT_SQL);
+    verify(thriftHiveClientFactory).newInstance(URI, TIMEOUT);
+  }
+
+  @Test
+  public void replacesStaleConnection() throws Exception {
+    when(thriftHiveClient2.getMetaStoreClient()).thenReturn(client2);
+    when(client1.getMetaConf(TRY_DIRECT_SQL)).thenThrow(new TTransportException("broken pipe"));
+    ThriftHiveClientPool pool = new ThriftHiveClientPool(thriftHiveClientFactory, URI, TIMEOUT, 1, 0L);
+    pool.release(pool.borrow());
+
+    assertThat(pool.borrow(), is(sameInstance(client2)));
+    verify(client1).close();
+    assertThat(pool.connectionsOpened(), is(2L));
+    assertThat(pool.reconnects(), is(1L));
+  }
+
+  @Test
+  public void invalidatedConnectionIsClosed() {
+    when(thriftHiveClient2.getMetaStoreClient()).thenReturn(client2);
+    ThriftHiveClientPool pool = new ThriftHiveClientPool(thriftHiveClientFactory, URI, TIMEOUT, 1);
+    pool.invalidate(pool.borrow());
+
+    assertThat(pool.borrow(), is(sameInstance(client2)));
+    verify(client1).close();
+    assertThat(pool.reconnects(), is(1L));
+  }
+
+  @Test
+  public void closesConnectionsBeyondMaxIdle() {
+    when(thriftHiveClient2.getMetaStoreClient()).thenReturn(client2);
+    ThriftHiveClientPool pool = new ThriftHiveClientPool(thriftHiveClientFactory, URI, TIMEOUT, 1);
+    IMetaStoreClient borrowed1 = pool.borrow();
+    IMetaStoreClient borrowed2 = pool.borrow();
+    pool.release(borrowed1);
+    pool.release(borrowed2);
+
+    assertThat(pool.idleConnections(), is(1));
+    verify(client1, never()).close();
+    verify(client2).close();
+    pool.close();
+    verify(client1).close();
+    verify(thriftHiveClientFactory, times(2)).newInstance(URI, TIMEOUT);
+  }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the tables whose Public Select privilege was recently granted or found granted, so that further events for
+ * them within the time to live skip the metastore. A privilege revoked in the meantime is only granted again once its
+ * entry expires. Tables that are created or dropped must be {@link #evict(TableRef) evicted}, as a new table starts
+ * without privileges even if a table of the same name was granted moments before. The cache is cleared if it fills up
+ * with live entries.
+ */
+public class GrantedTablesCache {
+
+  public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  public static final int DEFAULT_MAX_SIZE = 10000;
+
+  private final Map<TableRef, Long> expiries = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+  private final int maxSize;
+  private final LongSupplier nanoClock;
+
+  public GrantedTablesCache() {
+    this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SIZE);
+  }
+
+  public GrantedTablesCache(long ttlMillis, int maxSize) {
+    this(ttlMillis, maxSize, System::nanoTime);
+  }
+
+  GrantedTablesCache(long ttlMillis, int maxSize, LongSupplier nanoClock) {
+    ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    this.maxSize = maxSize;
+    this.nanoClock = nanoClock;
+  }
+
+  public boolean isGranted(TableRef table) {
+    Long expiry = expiries.get(table);
+    if (expiry == null) {
+      return false;
+    }
+    if (expiry - nanoClock.getAsLong() <= 0) {
+      expiries.remove(table, expiry);
+      return false;
+    }
+    return true;
+  }
+
+  public void granted(TableRef table) {
+    if (ttlNanos <= 0 || maxSize <= 0) {
+      return;
+    }
+    long now = nanoClock.getAsLong();
+    if (expiries.size() >= maxSize) {
+      expiries.values().removeIf(expiry -> expiry - now <= 0);
+      if (expiries.size() >= maxSize) {
+        expiries.clear();
+      }
+    }
+    expiries.put(table, now + ttlNanos);
+  }
+
+  /**
+   * Forgets a table, so that the next grant for it reaches the metastore.
+   */
+  public void evict(TableRef table) {
+    expiries.remove(table);
+  }
+
+  public int size() {
+    return expiries.size();
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,14 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.HiveObjectPrivilege;
 import org.apache.hadoop.hive.metastore.api.HiveObjectRef;
@@ -23,6 +31,7 @@ import org.apache.hadoop.hive.metastore.api.PrincipalType;
 import org.apache.hadoop.hive.metastore.api.PrivilegeBag;
 import org.apache.hadoop.hive.metastore.api.PrivilegeGrantInfo;
 import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,9 +44,15 @@ public class PrivilegesGrantor {
 
   private static final Logger log = LoggerFactory.getLogger(PrivilegesGrantor.class);
   private final IMetaStoreClient client;
+  private final GrantedTablesCache grantedTables;
 
   public PrivilegesGrantor(IMetaStoreClient client) {
+    this(client, new GrantedTablesCache(0L, 0));
+  }
+
+  public PrivilegesGrantor(IMetaStoreClient client, GrantedTablesCache grantedTables) {
     this.client = client;
+    this.grantedTables = grantedTables;
   }
 
   /**
@@ -46,6 +61,11 @@ public class PrivilegesGrantor {
    * @param tableName
    */
   public void grantSelectPrivileges(String dbName, String tableName) {
+    TableRef table = new TableRef(dbName, tableName);
+    if (grantedTables.isGranted(table)) {
+      log.debug("Skipping Granting Public privileges, the privilege was recently granted on the table: " + tableName);
+      return;
+    }
     log.info("Granting Public Select Privileges to the table: " + tableName);
     try {
       if (isSelectPrivilegeGranted(dbName, tableName)) {
@@ -56,11 +76,82 @@ public class PrivilegesGrantor {
         client.grant_privileges(privilegeBag);
         log.info("Successfully granted Public Select Privileges to the table: " + tableName);
       }
+      grantedTables.granted(table);
     } catch (TException e) {
       throw new HiveClientException(("Error Granting Public Select Privileges to the table: " + tableName), e);
     }
   }
 
+  /**
+   * Grants Select privilege to a Public Principal on several tables, sending a single {@link PrivilegeBag} for all the
+   * tables that are not granted yet.
+   * <p>
+   * The metastore rejects the whole bag, and may drop the connection, if any of its privileges is already granted, so
+   * the privileges of each table that is not known to be granted are listed first and only the missing tables are
+   * granted. If the metastore still rejects the bag, the missing tables are granted one by one.
+   *
+   * @return the tables that could not be granted, with the reason; empty if all of them were granted
+   * @throws HiveClientException if the connection to the metastore fails
+   */
+  public Map<TableRef, HiveClientException> grantSelectPrivileges(Collection<TableRef> tables) {
+    Map<TableRef, HiveClientException> failures = new LinkedHashMap<>();
+    List<TableRef> missing = new ArrayList<>();
+    for (TableRef table : new LinkedHashSet<>(tables)) {
+      if (grantedTables.isGranted(table)) {
+        continue;
+      }
+      try {
+        if (isGranted(table)) {
+          log.info("Skipping Granting Public privileges, the privilege is already granted on the table: " + table);
+          grantedTables.granted(table);
+        } else {
+          missing.add(table);
+        }
+      } catch (TTransportException e) {
+        throw new HiveClientException("Error checking if Select Privilege is granted on the table: " + table, e);
+      } catch (TException e) {
+        failures
+            .put(table,
+                new HiveClientException("Error checking if Select Privilege is granted on the table: " + table, e));
+      }
+    }
+    if (missing.isEmpty()) {
+      return failures;
+    }
+    log.info("Granting Public Select Privileges to the tables: " + missing);
+    try {
+      grant(missing);
+      return failures;
+    } catch (TTransportException e) {
+      throw new HiveClientException("Error Granting Public Select Privileges to the tables: " + missing, e);
+    } catch (TException e) {
+      log.info("Grant of {} tables was rejected, granting the tables one by one", missing.size(), e);
+    }
+    for (TableRef table : missing) {
+      try {
+        grant(Collections.singletonList(table));
+      } catch (TTransportException e) {
+        throw new HiveClientException("Error Granting Public Select Privileges to the table: " + table, e);
+      } catch (TException e) {
+        failures
+            .put(table, new HiveClientException("Error Granting Public Select Privileges to the table: " + table, e));
+      }
+    }
+    return failures;
+  }
+
+  private void grant(Collection<TableRef> tables) throws TException {
+    PrivilegeBag privilegeBag = new PrivilegeBag();
+    for (TableRef table : tables) {
+      privilegeBag.addToPrivileges(getPublicSelectPrivilege(table.getDbName(), table.getTableName()));
+    }
+    client.grant_privileges(privilegeBag);
+    log.info("Successfully granted Public Select Privileges to the tables: " + tables);
+    for (TableRef table : tables) {
+      grantedTables.granted(table);
+    }
+  }
+
   /**
    * Validates if select privilege is granted to a public principal.
    *
@@ -69,21 +160,25 @@ public class PrivilegesGrantor {
    * @return boolean
    */
   public boolean isSelectPrivilegeGranted(String dbName, String tableName) {
-    HiveObjectRef hiveObjectRef = new HiveObjectRef();
-    hiveObjectRef.setDbName(dbName);
-    hiveObjectRef.setObjectType(HiveObjectType.TABLE);
-    hiveObjectRef.setObjectName(tableName);
-
     try {
-      return client
-          .list_privileges(PrincipalName.PUBLIC.toString(), PrincipalType.ROLE, hiveObjectRef)
-          .stream()
-          .anyMatch(privilege -> privilege.getGrantInfo().getPrivilege().equals(Privilege.SELECT.toString()));
+      return isGranted(new TableRef(dbName, tableName));
     } catch (TException e) {
       throw new HiveClientException(("Error checking if Select Privilege is granted on the table: " + tableName), e);
     }
   }
 
+  private boolean isGranted(TableRef table) throws TException {
+    HiveObjectRef hiveObjectRef = new HiveObjectRef();
+    hiveObjectRef.setDbName(table.getDbName());
+    hiveObjectRef.setObjectType(HiveObjectType.TABLE);
+    hiveObjectRef.setObjectName(table.getTableName());
+
+    return client
+        .list_privileges(PrincipalName.PUBLIC.toString(), PrincipalType.ROLE, hiveObjectRef)
+        .stream()
+        .anyMatch(privilege -> privilege.getGrantInfo().getPrivilege().equals(Privilege.SELECT.toString()));
+  }
+
   private HiveObjectPrivilege getPublicSelectPrivilege(String dbName, String tableName) {
     HiveObjectRef hiveObjectRef = new HiveObjectRef();
     hiveObjectRef.setDbName(dbName);
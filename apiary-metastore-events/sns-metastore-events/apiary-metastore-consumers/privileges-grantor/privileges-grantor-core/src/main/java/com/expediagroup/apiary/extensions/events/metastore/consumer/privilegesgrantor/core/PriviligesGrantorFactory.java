@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,10 +17,31 @@ package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesg
 
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 
+/**
+ * Creates {@link PrivilegesGrantor} instances that share a {@link GrantedTablesCache}, so that tables granted through
+ * one client are skipped by the others.
+ */
 public class PriviligesGrantorFactory {
 
+  private final GrantedTablesCache grantedTables;
+
+  public PriviligesGrantorFactory() {
+    this(new GrantedTablesCache());
+  }
+
+  public PriviligesGrantorFactory(GrantedTablesCache grantedTables) {
+    this.grantedTables = grantedTables;
+  }
+
   public PrivilegesGrantor newInstance(IMetaStoreClient metaStoreClient) {
-    return new PrivilegesGrantor(metaStoreClient);
+    return new PrivilegesGrantor(metaStoreClient, grantedTables);
+  }
+
+  /**
+   * Evicts a table from the shared {@link GrantedTablesCache}.
+   */
+  public void evict(TableRef table) {
+    grantedTables.evict(table);
   }
 
 }
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core;
+
+import java.util.Objects;
+
+/**
+ * Identifies a table by database and table name.
+ */
+public final class TableRef {
+
+  private final String dbName;
+  private final String tableName;
+
+  public TableRef(String dbName, String tableName) {
+    this.dbName = dbName;
+    this.tableName = tableName;
+  }
+
+  public String getDbName() {
+    return dbName;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TableRef other = (TableRef) o;
+    return Objects.equals(dbName, other.dbName) && Objects.equals(tableName, other.tableName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(dbName, tableName);
+  }
+
+  @Override
+  public String toString() {
+    return dbName + "." + tableName;
+  }
+}
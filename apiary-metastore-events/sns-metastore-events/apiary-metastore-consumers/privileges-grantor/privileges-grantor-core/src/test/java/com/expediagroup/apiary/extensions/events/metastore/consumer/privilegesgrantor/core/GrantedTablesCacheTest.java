@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class GrantedTablesCacheTest {
+
+  private static final TableRef TABLE_1 = new TableRef("db", "table_1");
+  private static final TableRef TABLE_2 = new TableRef("db", "table_2");
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  @Test
+  public void entriesExpire() {
+    GrantedTablesCache cache = new GrantedTablesCache(1000L, 10, nanos::get);
+    assertFalse(cache.isGranted(TABLE_1));
+
+    cache.granted(TABLE_1);
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(999L));
+    assertTrue(cache.isGranted(TABLE_1));
+
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1L));
+    assertFalse(cache.isGranted(TABLE_1));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void fullCacheDropsExpiredEntriesFirst() {
+    GrantedTablesCache cache = new GrantedTablesCache(1000L, 2, nanos::get);
+    cache.granted(TABLE_1);
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500L));
+    cache.granted(TABLE_2);
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500L));
+
+    cache.granted(new TableRef("db", "table_3"));
+    assertEquals(2, cache.size());
+    assertTrue(cache.isGranted(TABLE_2));
+  }
+
+  @Test
+  public void evictedEntriesAreNotGranted() {
+    GrantedTablesCache cache = new GrantedTablesCache(1000L, 10, nanos::get);
+    cache.granted(TABLE_1);
+    cache.granted(TABLE_2);
+
+    cache.evict(TABLE_1);
+    assertFalse(cache.isGranted(TABLE_1));
+    assertTrue(cache.isGranted(TABLE_2));
+  }
+
+  @Test
+  public void disabledCacheKeepsNothing() {
+    GrantedTablesCache cache = new GrantedTablesCache(0L, 0);
+    cache.granted(TABLE_1);
+    assertFalse(cache.isGranted(TABLE_1));
+  }
+
+}
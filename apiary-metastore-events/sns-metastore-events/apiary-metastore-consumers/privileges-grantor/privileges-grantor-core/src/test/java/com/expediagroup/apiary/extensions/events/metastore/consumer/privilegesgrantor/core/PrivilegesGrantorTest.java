@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,24 +17,39 @@ package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesg
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import static junit.framework.TestCase.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.HiveObjectPrivilege;
 import org.apache.hadoop.hive.metastore.api.HiveObjectRef;
 import org.apache.hadoop.hive.metastore.api.HiveObjectType;
+import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
+import org.apache.hadoop.hive.metastore.api.PrivilegeBag;
+import org.apache.hadoop.hive.metastore.api.PrivilegeGrantInfo;
 import org.apache.hadoop.hive.metastore.api.SerDeInfo;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.expediagroup.apiary.extensions.events.metastore.consumer.common.exception.HiveClientException;
 import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift.ThriftHiveClient;
@@ -97,6 +112,91 @@ public class PrivilegesGrantorTest {
     privilegesGrantor.grantSelectPrivileges(DB_NAME, null);
   }
 
+  @Test
+  public void testBulkGrantSelectPrivileges() throws Exception {
+    createPartitionedTable(DB_NAME, "other_table");
+    Map<TableRef, HiveClientException> failures = privilegesGrantor
+        .grantSelectPrivileges(Arrays.asList(new TableRef(DB_NAME, TABLE_NAME), new TableRef(DB_NAME, "other_table")));
+
+    assertTrue(failures.isEmpty());
+    assertTrue(privilegesGrantor.isSelectPrivilegeGranted(DB_NAME, TABLE_NAME));
+    assertTrue(privilegesGrantor.isSelectPrivilegeGranted(DB_NAME, "other_table"));
+  }
+
+  @Test
+  public void testBulkGrantSkipsAlreadyGrantedTables() throws Exception {
+    createPartitionedTable(DB_NAME, "other_table");
+    privilegesGrantor.grantSelectPrivileges(DB_NAME, TABLE_NAME);
+    Map<TableRef, HiveClientException> failures = privilegesGrantor
+        .grantSelectPrivileges(Arrays.asList(new TableRef(DB_NAME, TABLE_NAME), new TableRef(DB_NAME, "other_table")));
+
+    assertTrue(failures.isEmpty());
+    assertEquals(1, hive
+        .client()
+        .list_privileges(PrincipalName.PUBLIC.toString(), PrincipalType.ROLE, getHiveObjectRef())
+        .size());
+    assertTrue(privilegesGrantor.isSelectPrivilegeGranted(DB_NAME, "other_table"));
+  }
+
+  @Test
+  public void testBulkGrantSendsOneBagAndCachesGrantedTables() throws Exception {
+    IMetaStoreClient client = mock(IMetaStoreClient.class);
+    PrivilegesGrantor grantor = new PrivilegesGrantor(client, new GrantedTablesCache());
+    List<TableRef> tables = Arrays.asList(new TableRef(DB_NAME, "table_1"), new TableRef(DB_NAME, "table_2"));
+
+    assertTrue(grantor.grantSelectPrivileges(tables).isEmpty());
+    assertTrue(grantor.grantSelectPrivileges(tables).isEmpty());
+    grantor.grantSelectPrivileges(DB_NAME, "table_1");
+
+    ArgumentCaptor<PrivilegeBag> bag = ArgumentCaptor.forClass(PrivilegeBag.class);
+    verify(client, times(2))
+        .list_privileges(eq(PrincipalName.PUBLIC.toString()), eq(PrincipalType.ROLE), any(HiveObjectRef.class));
+    verify(client).grant_privileges(bag.capture());
+    assertEquals(2, bag.getValue().getPrivilegesSize());
+    verifyNoMoreInteractions(client);
+  }
+
+  @Test
+  public void testBulkGrantFallsBackWhenBagIsRejected() throws Exception {
+    IMetaStoreClient client = mock(IMetaStoreClient.class);
+    PrivilegesGrantor grantor = new PrivilegesGrantor(client, new GrantedTablesCache());
+    TableRef granted = new TableRef(DB_NAME, "granted_table");
+    TableRef missing = new TableRef(DB_NAME, "missing_table");
+    TableRef failing = new TableRef(DB_NAME, "failing_table");
+    when(client.grant_privileges(any(PrivilegeBag.class))).thenAnswer(invocation -> {
+      PrivilegeBag bag = invocation.getArgument(0);
+      String tableName = bag.getPrivileges().get(0).getHiveObject().getObjectName();
+      if (bag.getPrivilegesSize() > 1 || tableName.equals("failing_table")) {
+        throw new MetaException("rejected");
+      }
+      return true;
+    });
+    HiveObjectPrivilege selectPrivilege = new HiveObjectPrivilege();
+    selectPrivilege
+        .setGrantInfo(new PrivilegeGrantInfo(Privilege.SELECT.toString(), 0, null, PrincipalType.ROLE, false));
+    when(client.list_privileges(eq(PrincipalName.PUBLIC.toString()), eq(PrincipalType.ROLE), any(HiveObjectRef.class)))
+        .thenAnswer(invocation -> {
+          HiveObjectRef ref = invocation.getArgument(2);
+          return ref.getObjectName().equals("granted_table")
+              ? Collections.singletonList(selectPrivilege)
+              : Collections.emptyList();
+        });
+
+    Map<TableRef, HiveClientException> failures = grantor
+        .grantSelectPrivileges(Arrays.asList(granted, missing, failing));
+
+    assertEquals(Collections.singleton(failing), failures.keySet());
+    // the bag of the missing tables, then the missing tables one by one
+    verify(client, times(3)).grant_privileges(any(PrivilegeBag.class));
+  }
+
+  @Test(expected = HiveClientException.class)
+  public void testBulkGrantConnectionFailure() throws Exception {
+    IMetaStoreClient client = mock(IMetaStoreClient.class);
+    when(client.grant_privileges(any(PrivilegeBag.class))).thenThrow(new TTransportException("broken pipe"));
+    new PrivilegesGrantor(client).grantSelectPrivileges(Arrays.asList(new TableRef(DB_NAME, TABLE_NAME)));
+  }
+
   private HiveObjectRef getHiveObjectRef() {
     HiveObjectRef hiveObjectRef = new HiveObjectRef();
     hiveObjectRef.setDbName(DB_NAME);
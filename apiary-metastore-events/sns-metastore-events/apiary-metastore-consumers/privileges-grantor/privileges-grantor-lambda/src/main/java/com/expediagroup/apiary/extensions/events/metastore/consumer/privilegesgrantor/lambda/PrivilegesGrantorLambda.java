@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,21 @@ package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesg
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.http.HttpStatus;
+import org.apache.thrift.transport.TTransportException;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
@@ -31,10 +42,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 
 import com.expediagroup.apiary.extensions.events.metastore.consumer.common.exception.HiveClientException;
-import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift.ThriftHiveClient;
 import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift.ThriftHiveClientFactory;
-import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.PrivilegesGrantor;
+import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift.ThriftHiveClientPool;
 import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.PriviligesGrantorFactory;
+import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.TableRef;
 import com.expediagroup.apiary.extensions.events.receiver.common.error.SerDeException;
 import com.expediagroup.apiary.extensions.events.receiver.common.event.AlterTableEvent;
 import com.expediagroup.apiary.extensions.events.receiver.common.event.EventType;
@@ -45,79 +56,188 @@ import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.DefaultS
 
 /**
  * Consumes events from the SQS queue and grants Public privileges to a table.
+ * <p>
+ * The records of a batch are decoded first and the tables that need a grant are deduplicated, so a table created and
+ * renamed in the same batch is only granted once. Created and dropped tables are evicted from the cache of granted
+ * tables first, so that the grant of a created table always reaches the metastore. The tables are then split between
+ * up to {@code THRIFT_CONNECTION_POOL_SIZE} Thrift connections, each granting its share in bulk. The message ids of
+ * the records that failed are returned as batch item failures, so that only those are retried when the event source
+ * mapping reports batch item failures.
+ * <p>
+ * The Thrift connections are kept open between invocations of a warm container and checked before they are reused.
  */
 public class PrivilegesGrantorLambda implements RequestHandler<SQSEvent, Response> {
 
   private static final String THRIFT_CONNECTION_URI = System.getenv("THRIFT_CONNECTION_URI");
   private static final String THRIFT_CONNECTION_TIMEOUT = "20000";
+  private static final int DEFAULT_THRIFT_CONNECTION_POOL_SIZE = 4;
   private LambdaLogger logger;
   private final PriviligesGrantorFactory priviligesGrantorFactory;
-  private final ThriftHiveClientFactory thriftHiveClientFactory;
+  private final ThriftHiveClientPool thriftHiveClientPool;
+  private final int connectionPoolSize;
 
   public PrivilegesGrantorLambda() {
-    this(new PriviligesGrantorFactory(), new ThriftHiveClientFactory());
+    this(new PriviligesGrantorFactory(), new ThriftHiveClientFactory(), connectionPoolSize());
   }
 
   @VisibleForTesting
   PrivilegesGrantorLambda(
       PriviligesGrantorFactory priviligesGrantorFactory,
       ThriftHiveClientFactory thriftHiveClientFactory) {
+    this(priviligesGrantorFactory, thriftHiveClientFactory, DEFAULT_THRIFT_CONNECTION_POOL_SIZE);
+  }
+
+  @VisibleForTesting
+  PrivilegesGrantorLambda(
+      PriviligesGrantorFactory priviligesGrantorFactory,
+      ThriftHiveClientFactory thriftHiveClientFactory,
+      int connectionPoolSize) {
     this.priviligesGrantorFactory = priviligesGrantorFactory;
-    this.thriftHiveClientFactory = thriftHiveClientFactory;
+    this.connectionPoolSize = Math.max(1, connectionPoolSize);
+    thriftHiveClientPool = new ThriftHiveClientPool(thriftHiveClientFactory, THRIFT_CONNECTION_URI,
+        THRIFT_CONNECTION_TIMEOUT, this.connectionPoolSize);
   }
 
   @Override
   public Response handleRequest(SQSEvent event, Context context) {
     logger = context.getLogger();
-    List<String> failedEvents = new ArrayList<>();
-    List<String> successfulTableNames = new ArrayList<>();
-    IMetaStoreClient metaStoreClient = null;
-    try {
-      ThriftHiveClient thriftHiveClient = thriftHiveClientFactory
-          .newInstance(THRIFT_CONNECTION_URI, THRIFT_CONNECTION_TIMEOUT);
-      metaStoreClient = thriftHiveClient.getMetaStoreClient();
-      PrivilegesGrantor privilegesGrantor = priviligesGrantorFactory.newInstance(metaStoreClient);
-      MessageDeserializer metaStoreEventDeserializer = defaultMessageDeserializer();
-      for (SQSEvent.SQSMessage record : event.getRecords()) {
-        handleRecord(failedEvents, successfulTableNames, privilegesGrantor, metaStoreEventDeserializer, record);
-      }
-    } catch (HiveClientException e) {
-      String responseMessage = String
-          .format("Unable to establish Thrift Connection with the uri %s", THRIFT_CONNECTION_URI);
-      logger.log(responseMessage);
-      failedEvents.add(responseMessage);
-      return createResponse(successfulTableNames, failedEvents);
-    } finally {
-      if (metaStoreClient != null) {
-        metaStoreClient.close();
+    List<String> failedEvents = Collections.synchronizedList(new ArrayList<>());
+    List<String> successfulTableNames = Collections.synchronizedList(new ArrayList<>());
+    List<String> failedMessageIds = Collections.synchronizedList(new ArrayList<>());
+    MessageDeserializer metaStoreEventDeserializer = defaultMessageDeserializer();
+    Map<TableRef, List<SQSEvent.SQSMessage>> tables = new LinkedHashMap<>();
+    for (SQSEvent.SQSMessage record : event.getRecords()) {
+      try {
+        logger.log("Processing Event: " + record.getBody());
+        ListenerEvent listenerEvent = metaStoreEventDeserializer.unmarshal(record.getBody());
+        TableRef table = new TableRef(listenerEvent.getDbName(), listenerEvent.getTableName());
+        if (listenerEvent.getEventType() == EventType.CREATE_TABLE
+            || listenerEvent.getEventType() == EventType.DROP_TABLE) {
+          // A created table starts without privileges, so its grant must not be skipped
+          priviligesGrantorFactory.evict(table);
+        }
+        if (requiresGrant(listenerEvent)) {
+          tables.computeIfAbsent(table, tableName -> new ArrayList<>()).add(record);
+        }
+      } catch (SerDeException e) {
+        logger.log("Exception occurred: " + e.toString());
+        failedEvents.add(record.getBody());
+        failedMessageIds.add(record.getMessageId());
       }
     }
-    return createResponse(successfulTableNames, failedEvents);
+    if (!tables.isEmpty()) {
+      grantSelectPrivileges(tables, failedEvents, successfulTableNames, failedMessageIds);
+    }
+    return createResponse(successfulTableNames, failedEvents, failedMessageIds);
+  }
+
+  private boolean requiresGrant(ListenerEvent listenerEvent) {
+    if (listenerEvent.getEventType() == EventType.CREATE_TABLE) {
+      return true;
+    }
+    if (listenerEvent.getEventType() == EventType.ALTER_TABLE) {
+      AlterTableEvent alterTableEvent = (AlterTableEvent) listenerEvent;
+      return !alterTableEvent.getTableName().equals(alterTableEvent.getOldTableName());
+    }
+    return false;
   }
 
-  private void handleRecord(
+  private void grantSelectPrivileges(
+      Map<TableRef, List<SQSEvent.SQSMessage>> tables,
       List<String> failedEvents,
       List<String> successfulTableNames,
-      PrivilegesGrantor privilegesGrantor,
-      MessageDeserializer metaStoreEventDeserializer,
-      SQSEvent.SQSMessage record) {
+      List<String> failedMessageIds) {
+    List<IMetaStoreClient> metaStoreClients = new ArrayList<>();
+    Set<IMetaStoreClient> brokenClients = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    ExecutorService executor = null;
     try {
-      logger.log("Processing Event: " + record.getBody());
-      ListenerEvent listenerEvent = metaStoreEventDeserializer.unmarshal(record.getBody());
-      if (listenerEvent.getEventType() == EventType.CREATE_TABLE) {
-        privilegesGrantor.grantSelectPrivileges(listenerEvent.getDbName(), listenerEvent.getTableName());
-        successfulTableNames.add(listenerEvent.getTableName());
+      borrowConnections(Math.min(connectionPoolSize, tables.size()), metaStoreClients);
+      if (metaStoreClients.isEmpty()) {
+        String responseMessage = String
+            .format("Unable to establish Thrift Connection with the uri %s", THRIFT_CONNECTION_URI);
+        logger.log(responseMessage);
+        failedEvents.add(responseMessage);
+        tables.values().forEach(records -> records.forEach(record -> failedMessageIds.add(record.getMessageId())));
+        return;
       }
-      if (listenerEvent.getEventType() == EventType.ALTER_TABLE) {
-        AlterTableEvent alterTableEvent = (AlterTableEvent) listenerEvent;
-        if (!alterTableEvent.getTableName().equals(alterTableEvent.getOldTableName())) {
-          privilegesGrantor.grantSelectPrivileges(listenerEvent.getDbName(), listenerEvent.getTableName());
-          successfulTableNames.add(listenerEvent.getTableName());
+      List<List<Map.Entry<TableRef, List<SQSEvent.SQSMessage>>>> chunks = new ArrayList<>();
+      for (int i = 0; i < metaStoreClients.size(); i++) {
+        chunks.add(new ArrayList<>());
+      }
+      int next = 0;
+      for (Map.Entry<TableRef, List<SQSEvent.SQSMessage>> table : tables.entrySet()) {
+        chunks.get(next++ % chunks.size()).add(table);
+      }
+      executor = Executors.newFixedThreadPool(metaStoreClients.size());
+      List<Future<?>> grants = new ArrayList<>(chunks.size());
+      for (int c = 0; c < chunks.size(); c++) {
+        IMetaStoreClient metaStoreClient = metaStoreClients.get(c);
+        List<Map.Entry<TableRef, List<SQSEvent.SQSMessage>>> chunk = chunks.get(c);
+        grants.add(executor.submit(() -> {
+          List<TableRef> chunkTables = new ArrayList<>(chunk.size());
+          chunk.forEach(table -> chunkTables.add(table.getKey()));
+          Map<TableRef, HiveClientException> failures;
+          try {
+            failures = priviligesGrantorFactory.newInstance(metaStoreClient).grantSelectPrivileges(chunkTables);
+          } catch (HiveClientException e) {
+            if (e.getCause() instanceof TTransportException) {
+              brokenClients.add(metaStoreClient);
+            }
+            failures = new HashMap<>();
+            for (TableRef table : chunkTables) {
+              failures.put(table, e);
+            }
+          }
+          for (Map.Entry<TableRef, List<SQSEvent.SQSMessage>> table : chunk) {
+            HiveClientException failure = failures.get(table.getKey());
+            if (failure == null) {
+              successfulTableNames.add(table.getKey().getTableName());
+            } else {
+              logger.log("Exception occurred: " + failure.toString());
+              for (SQSEvent.SQSMessage record : table.getValue()) {
+                failedEvents.add(record.getBody());
+                failedMessageIds.add(record.getMessageId());
+              }
+            }
+          }
+        }));
+      }
+      for (Future<?> grant : grants) {
+        grant.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while granting privileges", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Unexpected error granting privileges", e.getCause());
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+      for (IMetaStoreClient metaStoreClient : metaStoreClients) {
+        if (brokenClients.contains(metaStoreClient)) {
+          thriftHiveClientPool.invalidate(metaStoreClient);
+        } else {
+          thriftHiveClientPool.release(metaStoreClient);
         }
       }
-    } catch (HiveClientException | SerDeException e) {
-      logger.log("Exception occurred: " + e.toString());
-      failedEvents.add(record.getBody());
+      logger.log(String.format("Thrift connections opened: %d, reconnects: %d, last handshake: %dms",
+          thriftHiveClientPool.connectionsOpened(), thriftHiveClientPool.reconnects(),
+          thriftHiveClientPool.lastHandshakeMillis()));
+    }
+  }
+
+  /**
+   * Borrows up to {@code connections} Thrift connections. The batch carries on with fewer connections if some of them
+   * cannot be established.
+   */
+  private void borrowConnections(int connections, List<IMetaStoreClient> metaStoreClients) {
+    for (int i = 0; i < connections; i++) {
+      try {
+        metaStoreClients.add(thriftHiveClientPool.borrow());
+      } catch (HiveClientException e) {
+        logger.log("Exception occurred: " + e.toString());
+      }
     }
   }
 
@@ -127,7 +247,10 @@ public class PrivilegesGrantorLambda implements RequestHandler<SQSEvent, Respons
     return new DefaultSqsMessageDeserializer(delegateDeserializer, mapper);
   }
 
-  private Response createResponse(List<String> successfulTableNames, List<String> failedEvents) {
+  private Response createResponse(
+      List<String> successfulTableNames,
+      List<String> failedEvents,
+      List<String> failedMessageIds) {
     Response response = new Response();
     StringBuffer description = new StringBuffer();
     if (failedEvents.isEmpty()) {
@@ -143,6 +266,14 @@ public class PrivilegesGrantorLambda implements RequestHandler<SQSEvent, Respons
       response.setStatusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
     }
     response.setDescription(description.toString());
+    for (String messageId : failedMessageIds) {
+      response.getBatchItemFailures().add(new Response.BatchItemFailure(messageId));
+    }
     return response;
   }
+
+  private static int connectionPoolSize() {
+    String poolSize = System.getenv("THRIFT_CONNECTION_POOL_SIZE");
+    return poolSize == null ? DEFAULT_THRIFT_CONNECTION_POOL_SIZE : Integer.parseInt(poolSize);
+  }
 }
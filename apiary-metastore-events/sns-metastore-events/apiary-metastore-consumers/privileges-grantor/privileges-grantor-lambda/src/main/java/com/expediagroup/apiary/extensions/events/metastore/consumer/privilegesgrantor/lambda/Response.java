@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,12 +15,16 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.lambda;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.google.gson.Gson;
 
 public class Response {
 
   private int statusCode;
   private String description;
+  private List<BatchItemFailure> batchItemFailures = new ArrayList<>();
 
   public Response() {}
 
@@ -45,8 +49,39 @@ public class Response {
     this.description = description;
   }
 
+  /**
+   * Message ids of the records that failed, in the format expected by SQS event source mappings configured with
+   * {@code ReportBatchItemFailures}, so that only these records are retried.
+   */
+  public List<BatchItemFailure> getBatchItemFailures() {
+    return batchItemFailures;
+  }
+
+  public void setBatchItemFailures(List<BatchItemFailure> batchItemFailures) {
+    this.batchItemFailures = batchItemFailures;
+  }
+
   public String toJsonString() {
     Gson gson = new Gson();
     return gson.toJson(this);
   }
+
+  public static class BatchItemFailure {
+
+    private String itemIdentifier;
+
+    public BatchItemFailure() {}
+
+    public BatchItemFailure(String itemIdentifier) {
+      this.itemIdentifier = itemIdentifier;
+    }
+
+    public String getItemIdentifier() {
+      return itemIdentifier;
+    }
+
+    public void setItemIdentifier(String itemIdentifier) {
+      this.itemIdentifier = itemIdentifier;
+    }
+  }
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.lambda;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.HiveObjectRef;
+import org.apache.hadoop.hive.metastore.api.PrincipalType;
+import org.apache.hadoop.hive.metastore.api.PrivilegeBag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+
+import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift.ThriftHiveClient;
+import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift.ThriftHiveClientFactory;
+import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.GrantedTablesCache;
+import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.PriviligesGrantorFactory;
+
+/**
+ * Measures {@link PrivilegesGrantorLambda} against a mock metastore that takes {@value #CONNECT_MILLIS}ms to open a
+ * connection and {@value #CALL_MILLIS}ms to answer each Thrift call. {@code warmInvocation} is the latency of a batch
+ * on a warm container, which reuses its Thrift connections, {@code coldStart} is the latency of the first batch in a
+ * fresh JVM. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.lambda.PrivilegesGrantorLambdaBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrivilegesGrantorLambdaBenchmark {
+
+  private static final long CONNECT_MILLIS = 20L;
+  private static final long CALL_MILLIS = 2L;
+
+  @Param({ "1", "4", "8" })
+  public int connectionPoolSize;
+
+  @Param({ "10", "50" })
+  public int tables;
+
+  private PriviligesGrantorFactory priviligesGrantorFactory;
+  private ThriftHiveClientFactory thriftHiveClientFactory;
+  private Context context;
+  private SQSEvent event;
+  private PrivilegesGrantorLambda warmLambda;
+
+  @Setup
+  public void setup() throws Exception {
+    IMetaStoreClient client = mock(IMetaStoreClient.class, withSettings().stubOnly());
+    when(client.list_privileges(any(String.class), any(PrincipalType.class), any(HiveObjectRef.class)))
+        .thenAnswer(invocation -> {
+          Thread.sleep(CALL_MILLIS);
+          return Collections.emptyList();
+        });
+    when(client.grant_privileges(any(PrivilegeBag.class))).thenAnswer(invocation -> {
+      Thread.sleep(CALL_MILLIS);
+      return true;
+    });
+    ThriftHiveClient thriftHiveClient = mock(ThriftHiveClient.class, withSettings().stubOnly());
+    when(thriftHiveClient.getMetaStoreClient()).thenReturn(client);
+    thriftHiveClientFactory = mock(ThriftHiveClientFactory.class, withSettings().stubOnly());
+    when(thriftHiveClientFactory.newInstance(any(), any())).thenAnswer(invocation -> {
+      Thread.sleep(CONNECT_MILLIS);
+      return thriftHiveClient;
+    });
+    // without a granted tables cache every invocation goes to the metastore
+    priviligesGrantorFactory = new PriviligesGrantorFactory(new GrantedTablesCache(0L, 0));
+
+    context = mock(Context.class, withSettings().stubOnly());
+    when(context.getLogger()).thenReturn(mock(LambdaLogger.class, withSettings().stubOnly()));
+
+    List<SQSEvent.SQSMessage> records = new ArrayList<>(tables * 2);
+    for (int i = 0; i < tables; i++) {
+      // every table is created and renamed within the batch
+      records.add(record("{\"protocolVersion\":\"1.0\",\"eventType\":\"CREATE_TABLE\",\"dbName\":\"db\","
+          + "\"tableName\":\"table_" + i + "\",\"tableLocation\":\"s3://location\"}"));
+      records.add(record("{\"protocolVersion\":\"1.0\",\"eventType\":\"ALTER_TABLE\",\"dbName\":\"db\","
+          + "\"tableName\":\"table_" + i + "\",\"tableLocation\":\"s3://location\","
+          + "\"oldTableName\":\"old_" + i + "\"}"));
+    }
+    event = new SQSEvent();
+    event.setRecords(records);
+    warmLambda = new PrivilegesGrantorLambda(priviligesGrantorFactory, thriftHiveClientFactory, connectionPoolSize);
+  }
+
+  private SQSEvent.SQSMessage record(String message) {
+    SQSEvent.SQSMessage record = new SQSEvent.SQSMessage();
+    record.setMessageId("message-" + message.hashCode());
+    record.setBody("{\"Type\":\"Notification\",\"Message\":\"" + message.replace("\"", "\\\"") + "\"}");
+    return record;
+  }
+
+  @Benchmark
+  public Response warmInvocation() {
+    return warmLambda.handleRequest(event, context);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(10)
+  public Response coldStart() {
+    return new PrivilegesGrantorLambda(priviligesGrantorFactory, thriftHiveClientFactory, connectionPoolSize)
+        .handleRequest(event, context);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PrivilegesGrantorLambdaBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,18 +18,33 @@ package com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesg
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.http.HttpStatus;
+import org.apache.thrift.transport.TTransportException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.EnvironmentVariables;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -43,10 +58,14 @@ import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrif
 import com.expediagroup.apiary.extensions.events.metastore.consumer.common.thrift.ThriftHiveClientFactory;
 import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.PrivilegesGrantor;
 import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.PriviligesGrantorFactory;
+import com.expediagroup.apiary.extensions.events.metastore.consumer.privilegesgrantor.core.TableRef;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PrivilegesGrantorLambdaTest {
 
+  private static final TableRef TABLE_1 = new TableRef("some_db", "some_table1");
+  private static final TableRef TABLE_2 = new TableRef("some_db", "some_table2");
+
   private static final String BASE_EVENT_FROM_SNS = "{"
       + "  \"Type\" : \"Notification\","
       + "  \"MessageId\" : \"message-id\","
@@ -65,6 +84,7 @@ public class PrivilegesGrantorLambdaTest {
   private @Mock ThriftHiveClient thriftHiveClient;
   private @Mock IMetaStoreClient client;
   private @Mock PrivilegesGrantor privilegesGrantor;
+  private @Captor ArgumentCaptor<Collection<TableRef>> tablesCaptor;
 
   private PrivilegesGrantorLambda privilegesGrantorLambda;
 
@@ -87,7 +107,22 @@ public class PrivilegesGrantorLambdaTest {
     record.setBody(getSnsMessage(payload));
     event.setRecords(Lists.newArrayList(record));
     Response response = privilegesGrantorLambda.handleRequest(event, context);
-    verify(privilegesGrantor).grantSelectPrivileges("some_db", "some_table1");
+    assertThat(grantedTables(), is(Collections.singletonList(TABLE_1)));
+    assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
+    verify(priviligesGrantorFactory).evict(TABLE_1);
+  }
+
+  @Test
+  public void dropTableEvictsGrantedTable() throws Exception {
+    SQSEvent event = new SQSEvent();
+    SQSEvent.SQSMessage record = new SQSEvent.SQSMessage();
+    String message = dropTableJson();
+    String payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record.setBody(getSnsMessage(payload));
+    event.setRecords(Lists.newArrayList(record));
+    Response response = privilegesGrantorLambda.handleRequest(event, context);
+    verify(priviligesGrantorFactory).evict(TABLE_1);
+    verifyZeroInteractions(privilegesGrantor);
     assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
   }
 
@@ -100,7 +135,7 @@ public class PrivilegesGrantorLambdaTest {
     record.setBody(getSnsMessage(payload));
     event.setRecords(Lists.newArrayList(record));
     Response response = privilegesGrantorLambda.handleRequest(event, context);
-    verify(privilegesGrantor).grantSelectPrivileges("some_db", "some_table2");
+    assertThat(grantedTables(), is(Collections.singletonList(TABLE_2)));
     assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
   }
 
@@ -119,8 +154,7 @@ public class PrivilegesGrantorLambdaTest {
     event.setRecords(Lists.newArrayList(record1, record2));
 
     Response response = privilegesGrantorLambda.handleRequest(event, context);
-    verify(privilegesGrantor).grantSelectPrivileges("some_db", "some_table1");
-    verify(privilegesGrantor).grantSelectPrivileges("some_db", "some_table2");
+    assertThat(new HashSet<>(grantedTables()), is(new HashSet<>(Arrays.asList(TABLE_1, TABLE_2))));
     assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
   }
 
@@ -139,13 +173,18 @@ public class PrivilegesGrantorLambdaTest {
   public void invalidClient() throws Exception {
     SQSEvent event = new SQSEvent();
     SQSEvent.SQSMessage record = new SQSEvent.SQSMessage();
-    record.setBody(createTableJson());
+    String message = createTableJson();
+    String payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record.setBody(getSnsMessage(payload));
+    record.setMessageId("message-1");
     event.setRecords(Lists.newArrayList(record));
     when(thriftHiveClientFactory.newInstance("thrift://uri:9083", "20000"))
         .thenThrow(new HiveClientException("init error"));
     Response response = privilegesGrantorLambda.handleRequest(event, context);
     verifyZeroInteractions(privilegesGrantor);
     assertThat(response.getStatusCode(), is(HttpStatus.SC_INTERNAL_SERVER_ERROR));
+    assertThat(response.getBatchItemFailures().size(), is(1));
+    assertThat(response.getBatchItemFailures().get(0).getItemIdentifier(), is("message-1"));
   }
 
   @Test
@@ -162,10 +201,7 @@ public class PrivilegesGrantorLambdaTest {
     record2.setBody(getSnsMessage(payload));
     event.setRecords(Lists.newArrayList(record1, record2));
 
-    doThrow(new HiveClientException("init error"))
-        .doNothing()
-        .when(privilegesGrantor)
-        .grantSelectPrivileges("some_db", "some_table1");
+    failGrant("some_table1");
     Response response = privilegesGrantorLambda.handleRequest(event, context);
     assertThat(response.getStatusCode(), is(HttpStatus.SC_INTERNAL_SERVER_ERROR));
     // should contains both messages
@@ -173,6 +209,143 @@ public class PrivilegesGrantorLambdaTest {
     assertThat(response.getDescription(), containsString("Privileges granted successfully"));
   }
 
+  @Test
+  public void sameTableIsGrantedOnce() throws Exception {
+    SQSEvent event = new SQSEvent();
+    SQSEvent.SQSMessage record1 = new SQSEvent.SQSMessage();
+    String message = createTableJson();
+    String payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record1.setBody(getSnsMessage(payload));
+
+    SQSEvent.SQSMessage record2 = new SQSEvent.SQSMessage();
+    record2.setBody(getSnsMessage(payload));
+    event.setRecords(Lists.newArrayList(record1, record2));
+
+    Response response = privilegesGrantorLambda.handleRequest(event, context);
+    assertThat(grantedTables(), is(Collections.singletonList(TABLE_1)));
+    verify(thriftHiveClientFactory).newInstance("thrift://uri:9083", "20000");
+    assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
+    assertThat(response.getBatchItemFailures().isEmpty(), is(true));
+  }
+
+  @Test
+  public void onlyFailedRecordsAreReportedAsBatchItemFailures() throws Exception {
+    SQSEvent event = new SQSEvent();
+    SQSEvent.SQSMessage record1 = new SQSEvent.SQSMessage();
+    String message = alterTableRenameJson();
+    String payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record1.setBody(getSnsMessage(payload));
+    record1.setMessageId("message-1");
+
+    SQSEvent.SQSMessage record2 = new SQSEvent.SQSMessage();
+    message = createTableJson();
+    payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record2.setBody(getSnsMessage(payload));
+    record2.setMessageId("message-2");
+
+    SQSEvent.SQSMessage record3 = new SQSEvent.SQSMessage();
+    record3.setBody("errrrrr");
+    record3.setMessageId("message-3");
+    event.setRecords(Lists.newArrayList(record1, record2, record3));
+
+    failGrant("some_table1");
+    Response response = privilegesGrantorLambda.handleRequest(event, context);
+    assertThat(new HashSet<>(grantedTables()), is(new HashSet<>(Arrays.asList(TABLE_1, TABLE_2))));
+    assertThat(response.getStatusCode(), is(HttpStatus.SC_INTERNAL_SERVER_ERROR));
+    List<String> failedMessageIds = new ArrayList<>();
+    for (Response.BatchItemFailure failure : response.getBatchItemFailures()) {
+      failedMessageIds.add(failure.getItemIdentifier());
+    }
+    Collections.sort(failedMessageIds);
+    assertThat(failedMessageIds, is(Arrays.asList("message-2", "message-3")));
+  }
+
+  @Test
+  public void grantsWithFewerConnectionsWhenSomeFail() throws Exception {
+    privilegesGrantorLambda = new PrivilegesGrantorLambda(priviligesGrantorFactory, thriftHiveClientFactory, 2);
+    SQSEvent event = new SQSEvent();
+    SQSEvent.SQSMessage record1 = new SQSEvent.SQSMessage();
+    String message = alterTableRenameJson();
+    String payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record1.setBody(getSnsMessage(payload));
+
+    SQSEvent.SQSMessage record2 = new SQSEvent.SQSMessage();
+    message = createTableJson();
+    payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record2.setBody(getSnsMessage(payload));
+    event.setRecords(Lists.newArrayList(record1, record2));
+
+    when(thriftHiveClientFactory.newInstance("thrift://uri:9083", "20000"))
+        .thenThrow(new HiveClientException("init error"))
+        .thenReturn(thriftHiveClient);
+    Response response = privilegesGrantorLambda.handleRequest(event, context);
+    // a single connection grants both tables in one call
+    verify(privilegesGrantor).grantSelectPrivileges(tablesCaptor.capture());
+    assertThat(new HashSet<>(tablesCaptor.getValue()), is(new HashSet<>(Arrays.asList(TABLE_1, TABLE_2))));
+    verify(client, never()).close();
+    assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
+  }
+
+  @Test
+  public void connectionIsReusedAcrossInvocations() throws Exception {
+    SQSEvent event = new SQSEvent();
+    SQSEvent.SQSMessage record = new SQSEvent.SQSMessage();
+    String message = createTableJson();
+    String payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record.setBody(getSnsMessage(payload));
+    event.setRecords(Lists.newArrayList(record));
+
+    privilegesGrantorLambda.handleRequest(event, context);
+    Response response = privilegesGrantorLambda.handleRequest(event, context);
+    verify(thriftHiveClientFactory).newInstance("thrift://uri:9083", "20000");
+    verify(privilegesGrantor, times(2)).grantSelectPrivileges(anyCollection());
+    verify(client, never()).close();
+    assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
+  }
+
+  @Test
+  public void brokenConnectionIsReplaced() throws Exception {
+    SQSEvent event = new SQSEvent();
+    SQSEvent.SQSMessage record = new SQSEvent.SQSMessage();
+    String message = createTableJson();
+    String payload = "\"Message\" : \"" + message.replace("\"", "\\\"") + "\"";
+    record.setBody(getSnsMessage(payload));
+    event.setRecords(Lists.newArrayList(record));
+
+    when(privilegesGrantor.grantSelectPrivileges(anyCollection()))
+        .thenThrow(new HiveClientException("grant error", new TTransportException("broken pipe")))
+        .thenReturn(Collections.emptyMap());
+    Response response = privilegesGrantorLambda.handleRequest(event, context);
+    assertThat(response.getStatusCode(), is(HttpStatus.SC_INTERNAL_SERVER_ERROR));
+    verify(client).close();
+
+    response = privilegesGrantorLambda.handleRequest(event, context);
+    assertThat(response.getStatusCode(), is(HttpStatus.SC_OK));
+    verify(thriftHiveClientFactory, times(2)).newInstance("thrift://uri:9083", "20000");
+  }
+
+  private List<TableRef> grantedTables() {
+    verify(privilegesGrantor, atLeastOnce()).grantSelectPrivileges(tablesCaptor.capture());
+    List<TableRef> tables = new ArrayList<>();
+    for (Collection<TableRef> grantedTables : tablesCaptor.getAllValues()) {
+      tables.addAll(grantedTables);
+    }
+    return tables;
+  }
+
+  private void failGrant(String tableName) {
+    when(privilegesGrantor.grantSelectPrivileges(anyCollection())).thenAnswer(invocation -> {
+      Collection<TableRef> tables = invocation.getArgument(0);
+      Map<TableRef, HiveClientException> failures = new HashMap<>();
+      for (TableRef table : tables) {
+        if (table.getTableName().equals(tableName)) {
+          failures.put(table, new HiveClientException("grant error"));
+        }
+      }
+      return failures;
+    });
+  }
+
   private String getSnsMessage(String eventMessage) {
     return BASE_EVENT_FROM_SNS + eventMessage + "}";
   }
@@ -189,6 +362,18 @@ public class PrivilegesGrantorLambdaTest {
     return json;
   }
 
+  private String dropTableJson() {
+    String json = "";
+    json += "{\n";
+    json += "  \"protocolVersion\": \"1.0\",\n";
+    json += "  \"eventType\": \"DROP_TABLE\",\n";
+    json += "  \"dbName\": \"some_db\",\n";
+    json += "  \"tableName\": \"some_table1\",\n";
+    json += "  \"tableLocation\": \"s3://table_location\"\n";
+    json += "}\n";
+    return json;
+  }
+
   private String alterTableRenameJson() {
     String json = "";
     json += "{\n";
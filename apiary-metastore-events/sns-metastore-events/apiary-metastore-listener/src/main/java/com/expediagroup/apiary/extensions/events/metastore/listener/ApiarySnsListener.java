@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package com.expediagroup.apiary.extensions.events.metastore.listener;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -48,36 +49,85 @@ import com.amazonaws.services.sns.model.MessageAttributeValue;
 import com.amazonaws.services.sns.model.PublishRequest;
 import com.amazonaws.services.sns.model.PublishResult;
 
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
+
 /**
  * <p>
  * A simple Hive Metastore Event Listener which spits out Event Information in JSON format to SNS Topic specified
  * through ${SNS_ARN} environment variable.
  * </p>
+ * <p>
+ * When ${SNS_ASYNC_ENABLED} is set to {@code true} messages are handed to an {@link AsyncSnsPublisher} and sent in
+ * batches from a background thread instead of being published on the metastore thread.
+ * </p>
+ * <p>
+ * When ${SNS_PROTOCOL_VERSION} is set to {@value #PROTOCOL_VERSION_2} all the partitions of an ADD_PARTITION or
+ * DROP_PARTITION event are packed into as few messages as the SNS message size limit allows, rather than one message
+ * per partition.
+ * </p>
+ * <p>
+ * When ${SNS_SPOOL_DIRECTORY} is set, messages that cannot be published because SNS is throttling or unavailable are
+ * written to a {@link SnsMessageSpool} on local disk and published again once SNS is available, instead of failing
+ * the metastore operation. Messages SNS rejects for good are logged and dropped.
+ * </p>
  */
 public class ApiarySnsListener extends MetaStoreEventListener {
 
   private static final Logger log = LoggerFactory.getLogger(ApiarySnsListener.class);
   static final String PROTOCOL_VERSION = "1.0";
+  static final String PROTOCOL_VERSION_2 = "2.0";
+  // SNS accepts up to 256KB per message including attributes, leave some room for the latter
+  static final int MAX_MESSAGE_BYTES = 250 * 1024;
+  static final String OVERSIZED_PARTITIONS = "sns_listener_oversized_partitions";
   private static final String TOPIC_ARN = System.getenv("SNS_ARN");
+  private static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 10000;
 
   private final String tableParamFilter = System.getenv("TABLE_PARAM_FILTER");
   private Pattern tableParamFilterPattern;
 
   private final AmazonSNS snsClient;
+  private final AsyncSnsPublisher asyncPublisher;
+  private final MessageSpool<SnsMessage> spool;
+  private final String protocolVersion;
 
   public ApiarySnsListener(Configuration config) {
     this(config, AmazonSNSClientBuilder.defaultClient());
   }
 
   ApiarySnsListener(Configuration config, AmazonSNS snsClient) {
+    this(config, snsClient, SnsMessageSpool.fromEnvironment());
+  }
+
+  ApiarySnsListener(Configuration config, AmazonSNS snsClient, MessageSpool<SnsMessage> spool) {
     super(config);
     this.snsClient = snsClient;
+    this.spool = spool;
 
     if (tableParamFilter != null) {
       tableParamFilterPattern = Pattern.compile(tableParamFilter);
       log.info(String.format("Environment Variable TABLE_PARAM_FILTER is set as [%s]", tableParamFilter));
     }
 
+    protocolVersion = protocolVersionEnv("SNS_PROTOCOL_VERSION");
+    log.info("Publishing messages with protocol version {}", protocolVersion);
+
+    if (Boolean.parseBoolean(System.getenv("SNS_ASYNC_ENABLED"))) {
+      int queueCapacity = intEnv("SNS_ASYNC_QUEUE_CAPACITY", DEFAULT_ASYNC_QUEUE_CAPACITY);
+      BackpressurePolicy backpressurePolicy = backpressurePolicyEnv("SNS_ASYNC_BACKPRESSURE_POLICY");
+      asyncPublisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, queueCapacity, backpressurePolicy,
+          spool == null ? null : spool::failed);
+      Runtime.getRuntime().addShutdownHook(new Thread(asyncPublisher::close));
+      log
+          .info("Asynchronous SNS publishing enabled with queue capacity {} and backpressure policy {}", queueCapacity,
+              backpressurePolicy);
+    } else {
+      asyncPublisher = null;
+    }
+
+    if (spool != null) {
+      spool.start(message -> publish(message.getMessage(), message.getMessageAttributes()));
+    }
+
     log.debug("ApiarySnsListener created");
   }
 
@@ -111,8 +161,11 @@ public class ApiarySnsListener extends MetaStoreEventListener {
       return;
     }
     Iterator<Partition> partitions = event.getPartitionIterator();
+    if (PROTOCOL_VERSION_2.equals(protocolVersion)) {
+      publishPartitionsEvent(EventType.ADD_PARTITION, event.getTable(), partitions);
+      return;
+    }
     while (partitions.hasNext()) {
-      // TODO: do we want to have a separate event for each partition or one event with all of them?
       publishEvent(EventType.ADD_PARTITION, event.getTable(), null, partitions.next(), null);
     }
   }
@@ -123,8 +176,11 @@ public class ApiarySnsListener extends MetaStoreEventListener {
       return;
     }
     Iterator<Partition> partitions = event.getPartitionIterator();
+    if (PROTOCOL_VERSION_2.equals(protocolVersion)) {
+      publishPartitionsEvent(EventType.DROP_PARTITION, event.getTable(), partitions);
+      return;
+    }
     while (partitions.hasNext()) {
-      // TODO: do we want to have a separate event for each partition or one event with all of them?
       publishEvent(EventType.DROP_PARTITION, event.getTable(), null, partitions.next(), null);
     }
   }
@@ -153,16 +209,7 @@ public class ApiarySnsListener extends MetaStoreEventListener {
       Partition partition,
       Partition oldpartition)
     throws MetaException {
-    JSONObject json = createBaseMessage(eventType, table.getDbName(), table.getTableName());
-
-    json.put("tableLocation", table.getSd().getLocation());
-
-    if (tableParamFilterPattern != null) {
-      Map<String, String> filteredParams = getFilteredParams(table.getParameters());
-      JSONObject tableParameters = new JSONObject();
-      filteredParams.forEach(tableParameters::put);
-      json.put("tableParameters", tableParameters);
-    }
+    JSONObject json = createTableMessage(eventType, table);
 
     if (oldtable != null) {
       json.put("oldTableName", oldtable.getTableName());
@@ -170,13 +217,7 @@ public class ApiarySnsListener extends MetaStoreEventListener {
     }
 
     if (partition != null) {
-      LinkedHashMap<String, String> partitionKeysMap = new LinkedHashMap<>();
-      for (FieldSchema fieldSchema : table.getPartitionKeys()) {
-        partitionKeysMap.put(fieldSchema.getName(), fieldSchema.getType());
-      }
-
-      JSONObject partitionKeys = new JSONObject(partitionKeysMap);
-      json.put("partitionKeys", partitionKeys);
+      json.put("partitionKeys", createPartitionKeys(table));
       JSONArray partitionValuesArray = new JSONArray(partition.getValues());
       json.put("partitionValues", partitionValuesArray);
       json.put("partitionLocation", partition.getSd().getLocation());
@@ -191,6 +232,60 @@ public class ApiarySnsListener extends MetaStoreEventListener {
     sendMessage(json, getMessageAttributes(eventType, table.getDbName(), table.getTableName()));
   }
 
+  /**
+   * Publishes all the given partitions in as few messages as possible, each one carrying arrays of partition values and
+   * locations and staying under {@link #MAX_MESSAGE_BYTES}. A partition that does not fit in a message on its own is
+   * logged and skipped, as SNS would reject it.
+   */
+  private void publishPartitionsEvent(EventType eventType, Table table, Iterator<Partition> partitions) {
+    JSONObject json = createTableMessage(eventType, table);
+    json.put("partitionKeys", createPartitionKeys(table));
+    Map<String, MessageAttributeValue> messageAttributes = getMessageAttributes(eventType, table.getDbName(),
+        table.getTableName());
+    // account for the two empty arrays and their field names
+    int baseSize = utf8Length(json.toString()) + utf8Length(",\"partitionValues\":[],\"partitionLocation\":[]");
+
+    JSONArray partitionValues = new JSONArray();
+    JSONArray partitionLocations = new JSONArray();
+    int messageSize = baseSize;
+    while (partitions.hasNext()) {
+      Partition partition = partitions.next();
+      JSONArray values = new JSONArray(partition.getValues());
+      String location = partition.getSd().getLocation();
+      // each entry also needs a separator in both arrays
+      int partitionSize = utf8Length(values.toString()) + utf8Length(JSONObject.quote(location)) + 2;
+      if (baseSize + partitionSize > MAX_MESSAGE_BYTES) {
+        log
+            .error("Skipping partition {} of {}.{} in {} event, its {} bytes exceed the SNS message limit", values,
+                table.getDbName(), table.getTableName(), eventType, partitionSize);
+        HiveMetricsHelper.incrementCounter(OVERSIZED_PARTITIONS);
+        continue;
+      }
+      if (partitionValues.length() > 0 && messageSize + partitionSize > MAX_MESSAGE_BYTES) {
+        sendPartitionsMessage(json, partitionValues, partitionLocations, messageAttributes);
+        partitionValues = new JSONArray();
+        partitionLocations = new JSONArray();
+        messageSize = baseSize;
+      }
+      partitionValues.put(values);
+      partitionLocations.put(location);
+      messageSize += partitionSize;
+    }
+    if (partitionValues.length() > 0) {
+      sendPartitionsMessage(json, partitionValues, partitionLocations, messageAttributes);
+    }
+  }
+
+  private void sendPartitionsMessage(
+      JSONObject json,
+      JSONArray partitionValues,
+      JSONArray partitionLocations,
+      Map<String, MessageAttributeValue> messageAttributes) {
+    json.put("partitionValues", partitionValues);
+    json.put("partitionLocation", partitionLocations);
+    sendMessage(json, messageAttributes);
+  }
+
   private void publishInsertEvent(
       EventType eventType,
       String dbName,
@@ -239,9 +334,31 @@ public class ApiarySnsListener extends MetaStoreEventListener {
     return map;
   }
 
+  private JSONObject createTableMessage(EventType eventType, Table table) {
+    JSONObject json = createBaseMessage(eventType, table.getDbName(), table.getTableName());
+
+    json.put("tableLocation", table.getSd().getLocation());
+
+    if (tableParamFilterPattern != null) {
+      Map<String, String> filteredParams = getFilteredParams(table.getParameters());
+      JSONObject tableParameters = new JSONObject();
+      filteredParams.forEach(tableParameters::put);
+      json.put("tableParameters", tableParameters);
+    }
+    return json;
+  }
+
+  private JSONObject createPartitionKeys(Table table) {
+    LinkedHashMap<String, String> partitionKeysMap = new LinkedHashMap<>();
+    for (FieldSchema fieldSchema : table.getPartitionKeys()) {
+      partitionKeysMap.put(fieldSchema.getName(), fieldSchema.getType());
+    }
+    return new JSONObject(partitionKeysMap);
+  }
+
   private JSONObject createBaseMessage(EventType eventType, String dbName, String tableName) {
     JSONObject json = new JSONObject();
-    json.put("protocolVersion", PROTOCOL_VERSION);
+    json.put("protocolVersion", protocolVersion);
     json.put("eventType", eventType.toString());
     json.put("dbName", dbName);
     json.put("tableName", tableName);
@@ -250,6 +367,26 @@ public class ApiarySnsListener extends MetaStoreEventListener {
 
   private void sendMessage(JSONObject json, Map<String, MessageAttributeValue> messageAttributes) {
     String msg = json.toString();
+    if (spool != null && spool.hasPendingMessages()) {
+      spool.append(new SnsMessage(msg, messageAttributes));
+      return;
+    }
+    try {
+      if (asyncPublisher != null) {
+        asyncPublisher.publish(msg, messageAttributes);
+      } else {
+        publish(msg, messageAttributes);
+      }
+    } catch (RuntimeException e) {
+      if (spool == null) {
+        throw e;
+      }
+      log.warn("Unable to publish SNS message", e);
+      spool.failed(new SnsMessage(msg, messageAttributes), e);
+    }
+  }
+
+  private void publish(String msg, Map<String, MessageAttributeValue> messageAttributes) {
     PublishRequest publishRequest = new PublishRequest(TOPIC_ARN, msg);
     publishRequest.setMessageAttributes(messageAttributes);
     log.debug(String.format("Sending Message: {} to {}", msg, TOPIC_ARN));
@@ -271,4 +408,38 @@ public class ApiarySnsListener extends MetaStoreEventListener {
     return filteredParams;
   }
 
+  private static int intEnv(String name, int defaultValue) {
+    String value = System.getenv(name);
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+    return Integer.parseInt(value.trim());
+  }
+
+  private static String protocolVersionEnv(String name) {
+    String value = System.getenv(name);
+    if (value == null || value.trim().isEmpty()) {
+      return PROTOCOL_VERSION;
+    }
+    value = value.trim();
+    if (!PROTOCOL_VERSION.equals(value) && !PROTOCOL_VERSION_2.equals(value)) {
+      throw new IllegalArgumentException(String
+          .format("Unsupported protocol version [%s], expected one of %s or %s", value, PROTOCOL_VERSION,
+              PROTOCOL_VERSION_2));
+    }
+    return value;
+  }
+
+  private static int utf8Length(String value) {
+    return value.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  private static BackpressurePolicy backpressurePolicyEnv(String name) {
+    String value = System.getenv(name);
+    if (value == null || value.trim().isEmpty()) {
+      return BackpressurePolicy.BLOCK;
+    }
+    return BackpressurePolicy.valueOf(value.trim().toUpperCase());
+  }
+
 }
@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.listener;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.model.BatchResultErrorEntry;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+import com.amazonaws.services.sns.model.PublishBatchRequest;
+import com.amazonaws.services.sns.model.PublishBatchRequestEntry;
+import com.amazonaws.services.sns.model.PublishBatchResult;
+import com.amazonaws.services.sns.model.PublishBatchResultEntry;
+
+/**
+ * Publishes messages to SNS from a background thread so that the metastore thread only pays for an enqueue. Messages
+ * are buffered in a bounded queue and sent with PublishBatch, up to {@value #MAX_BATCH_ENTRIES} messages per call. A
+ * single sender drains the queue in arrival order, and the sender does not wait for failed messages: messages that SNS
+ * fails to publish can be handed to a failure handler, for example to spool them, and are then published after the
+ * messages sent in the meantime. The order of the events of a table is therefore only kept while SNS accepts them.
+ */
+class AsyncSnsPublisher implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncSnsPublisher.class);
+
+  static final int MAX_BATCH_ENTRIES = 10;
+  static final int MAX_BATCH_BYTES = 256 * 1024;
+
+  static final String QUEUE_DEPTH = "sns_listener_queue_depth";
+  static final String FLUSH_LATENCY_MS = "sns_listener_flush_latency_ms";
+  static final String DROPPED_MESSAGES = "sns_listener_dropped_messages";
+  static final String FAILED_MESSAGES = "sns_listener_failed_messages";
+
+  private static final long POLL_TIMEOUT_MS = 200L;
+  private static final long CLOSE_TIMEOUT_MS = 30000L;
+
+  private final AmazonSNS snsClient;
+  private final String topicArn;
+  private final BackpressurePolicy backpressurePolicy;
+  private final BlockingDeque<PendingMessage> queue;
+  private final BiConsumer<SnsMessage, Exception> onFailure;
+  private final Thread sender;
+  private volatile boolean running = true;
+  private volatile long lastFlushLatencyMs;
+
+  AsyncSnsPublisher(AmazonSNS snsClient, String topicArn, int queueCapacity, BackpressurePolicy backpressurePolicy) {
+    this(snsClient, topicArn, queueCapacity, backpressurePolicy, null);
+  }
+
+  /**
+   * @param onFailure receives the messages SNS failed to publish with the cause, may be {@code null}
+   */
+  AsyncSnsPublisher(
+      AmazonSNS snsClient,
+      String topicArn,
+      int queueCapacity,
+      BackpressurePolicy backpressurePolicy,
+      BiConsumer<SnsMessage, Exception> onFailure) {
+    this.snsClient = snsClient;
+    this.topicArn = topicArn;
+    this.backpressurePolicy = backpressurePolicy;
+    this.onFailure = onFailure;
+    queue = new LinkedBlockingDeque<>(queueCapacity);
+
+    HiveMetricsHelper.addGauge(QUEUE_DEPTH, queue::size);
+    HiveMetricsHelper.addGauge(FLUSH_LATENCY_MS, () -> lastFlushLatencyMs);
+
+    sender = new Thread(this::drain, "apiary-sns-publisher");
+    sender.setDaemon(true);
+    sender.start();
+  }
+
+  void publish(String message, Map<String, MessageAttributeValue> messageAttributes) {
+    if (!running) {
+      throw new IllegalStateException("SNS publisher has been closed");
+    }
+    PendingMessage pending = new PendingMessage(message, messageAttributes);
+    switch (backpressurePolicy) {
+    case BLOCK:
+      try {
+        queue.putLast(pending);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for space in the SNS publish queue", e);
+      }
+      break;
+    case DROP_OLDEST:
+      while (!queue.offerLast(pending)) {
+        PendingMessage dropped = queue.pollFirst();
+        if (dropped != null) {
+          log.warn("SNS publish queue is full, dropping message: {}", dropped.message);
+          HiveMetricsHelper.incrementCounter(DROPPED_MESSAGES);
+        }
+      }
+      break;
+    case FAIL_FAST:
+      if (!queue.offerLast(pending)) {
+        HiveMetricsHelper.incrementCounter(DROPPED_MESSAGES);
+        throw new IllegalStateException("SNS publish queue is full, rejecting message: " + message);
+      }
+      break;
+    default:
+      throw new IllegalStateException("Unknown backpressure policy " + backpressurePolicy);
+    }
+  }
+
+  int queueDepth() {
+    return queue.size();
+  }
+
+  long lastFlushLatencyMs() {
+    return lastFlushLatencyMs;
+  }
+
+  /**
+   * Stops accepting new messages and waits for the messages already queued to be sent.
+   */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      sender.join(CLOSE_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!queue.isEmpty()) {
+      log.warn("SNS publisher closed with {} unsent messages", queue.size());
+    }
+  }
+
+  private void drain() {
+    PendingMessage carried = null;
+    while (running || carried != null || !queue.isEmpty()) {
+      try {
+        PendingMessage first = carried != null ? carried : queue.pollFirst(POLL_TIMEOUT_MS, MILLISECONDS);
+        carried = null;
+        if (first == null) {
+          continue;
+        }
+        List<PendingMessage> batch = new ArrayList<>(MAX_BATCH_ENTRIES);
+        batch.add(first);
+        int batchBytes = first.size;
+        while (batch.size() < MAX_BATCH_ENTRIES) {
+          PendingMessage next = queue.pollFirst();
+          if (next == null) {
+            break;
+          }
+          if (batchBytes + next.size > MAX_BATCH_BYTES) {
+            carried = next;
+            break;
+          }
+          batch.add(next);
+          batchBytes += next.size;
+        }
+        flush(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void flush(List<PendingMessage> batch) {
+    List<PublishBatchRequestEntry> entries = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      PendingMessage pending = batch.get(i);
+      entries
+          .add(new PublishBatchRequestEntry()
+              .withId(Integer.toString(i))
+              .withMessage(pending.message)
+              .withMessageAttributes(pending.messageAttributes));
+    }
+    PublishBatchRequest request = new PublishBatchRequest()
+        .withTopicArn(topicArn)
+        .withPublishBatchRequestEntries(entries);
+    log.debug("Sending batch of {} messages to {}", entries.size(), topicArn);
+
+    long start = System.nanoTime();
+    try {
+      PublishBatchResult result = snsClient.publishBatch(request);
+      for (PublishBatchResultEntry entry : result.getSuccessful()) {
+        log.info("Published SNS Message - " + entry.getMessageId());
+      }
+      for (BatchResultErrorEntry entry : result.getFailed()) {
+        PendingMessage failed = batch.get(Integer.parseInt(entry.getId()));
+        log.error("Failed to publish SNS message {}: [{}] {}", failed.message, entry.getCode(), entry.getMessage());
+        failed(failed, SnsMessageSpool.toException(entry));
+      }
+    } catch (Exception e) {
+      log.error("Failed to publish batch of {} SNS messages", batch.size(), e);
+      for (PendingMessage failed : batch) {
+        failed(failed, e);
+      }
+    } finally {
+      lastFlushLatencyMs = MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS);
+    }
+  }
+
+  private void failed(PendingMessage pending, Exception cause) {
+    HiveMetricsHelper.incrementCounter(FAILED_MESSAGES);
+    if (onFailure != null) {
+      onFailure.accept(new SnsMessage(pending.message, pending.messageAttributes), cause);
+    }
+  }
+
+  private static final class PendingMessage {
+    private final String message;
+    private final Map<String, MessageAttributeValue> messageAttributes;
+    private final int size;
+
+    private PendingMessage(String message, Map<String, MessageAttributeValue> messageAttributes) {
+      this.message = message;
+      this.messageAttributes = messageAttributes;
+      int attributesSize = 0;
+      for (Map.Entry<String, MessageAttributeValue> attribute : messageAttributes.entrySet()) {
+        attributesSize += attribute.getKey().getBytes(UTF_8).length
+            + attribute.getValue().getDataType().getBytes(UTF_8).length
+            + attribute.getValue().getStringValue().getBytes(UTF_8).length;
+      }
+      size = message.getBytes(UTF_8).length + attributesSize;
+    }
+  }
+
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.listener;
+
+/**
+ * What the asynchronous publisher does when its queue is full.
+ */
+public enum BackpressurePolicy {
+
+  /** Block the metastore thread until there is room in the queue. */
+  BLOCK,
+  /** Discard the oldest queued message to make room for the new one. */
+  DROP_OLDEST,
+  /** Reject the new message by throwing an exception back to the metastore. */
+  FAIL_FAST
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.listener;
+
+import java.util.Map;
+
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+
+/**
+ * A message waiting to be published to SNS, with its attributes.
+ */
+class SnsMessage {
+
+  private final String message;
+  private final Map<String, MessageAttributeValue> messageAttributes;
+
+  SnsMessage(String message, Map<String, MessageAttributeValue> messageAttributes) {
+    this.message = message;
+    this.messageAttributes = messageAttributes;
+  }
+
+  String getMessage() {
+    return message;
+  }
+
+  Map<String, MessageAttributeValue> getMessageAttributes() {
+    return messageAttributes;
+  }
+
+  @Override
+  public String toString() {
+    return message;
+  }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.listener;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonServiceException.ErrorType;
+import com.amazonaws.services.sns.model.AmazonSNSException;
+import com.amazonaws.services.sns.model.BatchResultErrorEntry;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+
+import com.expediagroup.apiary.extensions.events.metastore.spool.FsyncPolicy;
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
+import com.expediagroup.apiary.extensions.events.metastore.spool.SegmentedSpool;
+
+/**
+ * Creates the {@link MessageSpool} that keeps the messages that could not be published to SNS on local disk until SNS
+ * accepts messages again. Only throttling, server side and connection errors are spooled: a message SNS rejects for
+ * good, such as an invalid or too large message, is dropped. The spool is enabled by setting ${SNS_SPOOL_DIRECTORY}.
+ */
+final class SnsMessageSpool {
+
+  private static final Logger log = LoggerFactory.getLogger(SnsMessageSpool.class);
+
+  static final String SPOOLED_MESSAGES = "sns_listener_spooled_messages";
+  static final String SPOOL_PENDING_MESSAGES = "sns_listener_spool_pending_messages";
+  static final String SPOOL_DROPPED_MESSAGES = "sns_listener_spool_dropped_messages";
+  static final String REPLAYED_MESSAGES = "sns_listener_replayed_messages";
+  static final String UNDELIVERABLE_MESSAGES = "sns_listener_undeliverable_messages";
+
+  private static final byte FORMAT_VERSION = 1;
+  private static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+  private static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+  private static final long DEFAULT_FSYNC_INTERVAL_MS = 1000L;
+  private static final long DEFAULT_REPLAY_MAX_BACKOFF_MS = 30000L;
+
+  private static final Set<String> THROTTLING_ERROR_CODES = new HashSet<>(Arrays
+      .asList("Throttled", "ThrottledException", "Throttling", "ThrottlingException", "TooManyRequestsException",
+          "RequestLimitExceeded", "KMSThrottling", "KMSThrottlingException"));
+
+  static final MessageSpool.Codec<SnsMessage> CODEC = new MessageSpool.Codec<SnsMessage>() {
+    @Override
+    public byte[] encode(SnsMessage message) throws IOException {
+      return SnsMessageSpool.encode(message.getMessage(), message.getMessageAttributes());
+    }
+
+    @Override
+    public SnsMessage decode(byte[] record) throws IOException {
+      return SnsMessageSpool.decode(record);
+    }
+  };
+
+  private static final Map<MessageSpool.Event, String> COUNTERS = new EnumMap<>(MessageSpool.Event.class);
+
+  static {
+    COUNTERS.put(MessageSpool.Event.SPOOLED, SPOOLED_MESSAGES);
+    COUNTERS.put(MessageSpool.Event.DROPPED, SPOOL_DROPPED_MESSAGES);
+    COUNTERS.put(MessageSpool.Event.UNDELIVERABLE, UNDELIVERABLE_MESSAGES);
+    COUNTERS.put(MessageSpool.Event.REPLAYED, REPLAYED_MESSAGES);
+  }
+
+  private SnsMessageSpool() {}
+
+  /**
+   * @return the spool or {@code null} if ${SNS_SPOOL_DIRECTORY} is not set or the spool cannot be opened
+   */
+  static MessageSpool<SnsMessage> fromEnvironment() {
+    String directory = System.getenv("SNS_SPOOL_DIRECTORY");
+    if (directory == null || directory.trim().isEmpty()) {
+      return null;
+    }
+    try {
+      SegmentedSpool spool = new SegmentedSpool(Paths.get(directory.trim()),
+          (int) longEnv("SNS_SPOOL_SEGMENT_BYTES", DEFAULT_SEGMENT_BYTES),
+          longEnv("SNS_SPOOL_MAX_BYTES", DEFAULT_MAX_BYTES), fsyncPolicyEnv("SNS_SPOOL_FSYNC_POLICY"),
+          longEnv("SNS_SPOOL_FSYNC_INTERVAL_MS", DEFAULT_FSYNC_INTERVAL_MS));
+      MessageSpool<SnsMessage> messageSpool = create(spool,
+          longEnv("SNS_SPOOL_REPLAY_MAX_BACKOFF_MS", DEFAULT_REPLAY_MAX_BACKOFF_MS));
+      Runtime.getRuntime().addShutdownHook(new Thread(messageSpool::close));
+      log.info("Spooling unpublished SNS messages to {}", directory);
+      return messageSpool;
+    } catch (IOException e) {
+      log.error("Unable to open spool in {}, messages will not be spooled", directory, e);
+      return null;
+    }
+  }
+
+  static MessageSpool<SnsMessage> create(SegmentedSpool spool, long maxBackoffMs) {
+    MessageSpool<SnsMessage> messageSpool = new MessageSpool<>(spool, CODEC, SnsMessageSpool::isRetriable,
+        maxBackoffMs, event -> HiveMetricsHelper.incrementCounter(COUNTERS.get(event)));
+    HiveMetricsHelper.addGauge(SPOOL_PENDING_MESSAGES, messageSpool::pendingMessages);
+    return messageSpool;
+  }
+
+  /**
+   * SNS errors are worth retrying when they are throttling or server side errors. Client errors are retried when the
+   * SDK considers them retryable, and anything else, like a full publish queue, is retried.
+   */
+  static boolean isRetriable(Throwable cause) {
+    if (cause instanceof AmazonServiceException) {
+      AmazonServiceException e = (AmazonServiceException) cause;
+      return e.getErrorType() == ErrorType.Service
+          || e.getStatusCode() >= 500
+          || e.getStatusCode() == 429
+          || THROTTLING_ERROR_CODES.contains(e.getErrorCode());
+    }
+    if (cause instanceof AmazonClientException) {
+      return ((AmazonClientException) cause).isRetryable();
+    }
+    return true;
+  }
+
+  /**
+   * @return the error reported by PublishBatch for a single entry as an exception
+   */
+  static AmazonSNSException toException(BatchResultErrorEntry entry) {
+    boolean senderFault = Boolean.TRUE.equals(entry.getSenderFault());
+    AmazonSNSException exception = new AmazonSNSException(entry.getMessage());
+    exception.setErrorCode(entry.getCode());
+    exception.setErrorType(senderFault ? ErrorType.Client : ErrorType.Service);
+    exception.setStatusCode(senderFault ? 400 : 500);
+    return exception;
+  }
+
+  static byte[] encode(String message, Map<String, MessageAttributeValue> messageAttributes) throws IOException {
+    byte[] body = message.getBytes(UTF_8);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT_VERSION);
+      out.writeInt(messageAttributes.size());
+      for (Map.Entry<String, MessageAttributeValue> attribute : messageAttributes.entrySet()) {
+        out.writeUTF(attribute.getKey());
+        out.writeUTF(attribute.getValue().getDataType());
+        out.writeUTF(attribute.getValue().getStringValue());
+      }
+      out.writeInt(body.length);
+      out.write(body);
+    }
+    return bytes.toByteArray();
+  }
+
+  static SnsMessage decode(byte[] record) throws IOException {
+    Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      byte version = in.readByte();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported spooled message version " + version);
+      }
+      int attributes = in.readInt();
+      for (int i = 0; i < attributes; i++) {
+        String key = in.readUTF();
+        String dataType = in.readUTF();
+        messageAttributes.put(key, new MessageAttributeValue().withDataType(dataType).withStringValue(in.readUTF()));
+      }
+      byte[] body = new byte[in.readInt()];
+      in.readFully(body);
+      return new SnsMessage(new String(body, UTF_8), messageAttributes);
+    }
+  }
+
+  private static long longEnv(String name, long defaultValue) {
+    String value = System.getenv(name);
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+    return Long.parseLong(value.trim());
+  }
+
+  private static FsyncPolicy fsyncPolicyEnv(String name) {
+    String value = System.getenv(name);
+    if (value == null || value.trim().isEmpty()) {
+      return FsyncPolicy.INTERVAL;
+    }
+    return FsyncPolicy.valueOf(value.trim().toUpperCase());
+  }
+
+}
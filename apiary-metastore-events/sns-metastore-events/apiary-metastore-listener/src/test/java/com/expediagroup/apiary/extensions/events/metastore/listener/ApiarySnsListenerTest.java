@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2020 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,19 @@ package com.expediagroup.apiary.extensions.events.metastore.listener;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static com.expediagroup.apiary.extensions.events.metastore.listener.ApiarySnsListener.MAX_MESSAGE_BYTES;
 import static com.expediagroup.apiary.extensions.events.metastore.listener.ApiarySnsListener.PROTOCOL_VERSION;
+import static com.expediagroup.apiary.extensions.events.metastore.listener.ApiarySnsListener.PROTOCOL_VERSION_2;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -46,6 +53,8 @@ import org.apache.hadoop.hive.metastore.events.CreateTableEvent;
 import org.apache.hadoop.hive.metastore.events.DropPartitionEvent;
 import org.apache.hadoop.hive.metastore.events.DropTableEvent;
 import org.apache.hadoop.hive.metastore.events.InsertEvent;
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -56,14 +65,19 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.amazonaws.SdkClientException;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.MessageAttributeValue;
+import com.amazonaws.services.sns.model.PublishBatchRequest;
+import com.amazonaws.services.sns.model.PublishBatchResult;
 import com.amazonaws.services.sns.model.PublishRequest;
 import com.amazonaws.services.sns.model.PublishResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
+
 @RunWith(MockitoJUnitRunner.class)
 public class ApiarySnsListenerTest {
 
@@ -242,6 +256,75 @@ public class ApiarySnsListenerTest {
     new ApiarySnsListener(configuration, snsClient);
   }
 
+  @Test
+  public void onCreateTableAsync() throws MetaException {
+    environmentVariables.set("SNS_ASYNC_ENABLED", "true");
+    environmentVariables.set("SNS_ASYNC_QUEUE_CAPACITY", "10");
+    environmentVariables.set("SNS_ASYNC_BACKPRESSURE_POLICY", "fail_fast");
+    when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenReturn(new PublishBatchResult());
+    ApiarySnsListener snsListener = new ApiarySnsListener(configuration, snsClient);
+
+    CreateTableEvent event = mock(CreateTableEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    when(event.getTable()).thenReturn(table);
+
+    snsListener.onCreateTable(event);
+    ArgumentCaptor<PublishBatchRequest> batchCaptor = ArgumentCaptor.forClass(PublishBatchRequest.class);
+    verify(snsClient, timeout(5000L)).publishBatch(batchCaptor.capture());
+    PublishBatchRequest publishBatchRequest = batchCaptor.getValue();
+    assertThat(publishBatchRequest.getPublishBatchRequestEntries().size(), is(1));
+    assertThat(publishBatchRequest.getPublishBatchRequestEntries().get(0).getMessage(), is("{\"protocolVersion\":\""
+        + PROTOCOL_VERSION
+        + "\",\"eventType\":\""
+        + EventType.CREATE_TABLE.toString()
+        + "\",\"dbName\":\"some_db\",\"tableName\":\"some_table\",\"tableLocation\":\"s3://table_location\",\"tableParameters\":{\"MY_VAR_TWO\":\"5\",\"MY_VAR_ONE\":\"true\"}}"));
+    assertThat(publishBatchRequest.getPublishBatchRequestEntries().get(0).getMessageAttributes().size(), is(4));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidBackpressurePolicy() {
+    environmentVariables.set("SNS_ASYNC_ENABLED", "true");
+    environmentVariables.set("SNS_ASYNC_BACKPRESSURE_POLICY", "unknown");
+    new ApiarySnsListener(configuration, snsClient);
+  }
+
+  @Test
+  public void publishFailureIsSpooled() throws MetaException {
+    MessageSpool<SnsMessage> spool = mock(MessageSpool.class);
+    SdkClientException unavailable = new SdkClientException("SNS is unavailable");
+    when(snsClient.publish(any(PublishRequest.class))).thenThrow(unavailable);
+    ApiarySnsListener snsListener = new ApiarySnsListener(configuration, snsClient, spool);
+    verify(spool).start(any(MessageSpool.Sink.class));
+
+    CreateTableEvent event = mock(CreateTableEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    when(event.getTable()).thenReturn(table);
+
+    snsListener.onCreateTable(event);
+    ArgumentCaptor<SnsMessage> messageCaptor = ArgumentCaptor.forClass(SnsMessage.class);
+    verify(spool).failed(messageCaptor.capture(), eq(unavailable));
+    assertThat(messageCaptor
+        .getValue()
+        .getMessageAttributes()
+        .get(MessageAttributeKey.QUALIFIED_TABLE_NAME.toString())
+        .getStringValue(), is(DB_NAME + "." + TABLE_NAME));
+  }
+
+  @Test
+  public void messagesAreSpooledWhileSpoolIsNotEmpty() throws MetaException {
+    MessageSpool<SnsMessage> spool = mock(MessageSpool.class);
+    when(spool.hasPendingMessages()).thenReturn(true);
+    ApiarySnsListener snsListener = new ApiarySnsListener(configuration, snsClient, spool);
+
+    CreateTableEvent event = mock(CreateTableEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    when(event.getTable()).thenReturn(table);
+
+    snsListener.onCreateTable(event);
+    verify(spool).append(any(SnsMessage.class));
+    verify(snsClient, never()).publish(any(PublishRequest.class));
+  }
+
   @Test
   public void onInsert() throws MetaException {
     InsertEvent event = mock(InsertEvent.class);
@@ -324,6 +407,115 @@ public class ApiarySnsListenerTest {
     verifyMessageAttributes(publishRequest, EventType.DROP_PARTITION.toString(), "some_db", "some_table");
   }
 
+  @Test
+  public void onAddPartitionProtocolVersion2() throws MetaException {
+    environmentVariables.set("SNS_PROTOCOL_VERSION", PROTOCOL_VERSION_2);
+    ApiarySnsListener snsListener = new ApiarySnsListener(configuration, snsClient);
+    AddPartitionEvent event = mock(AddPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    when(event.getTable()).thenReturn(table);
+
+    List<Partition> partitions = new ArrayList<>();
+    partitions
+        .add(new Partition(PARTITION_VALUES, DB_NAME, TABLE_NAME, 0, 0,
+            createStorageDescriptor(partitionKeys, OLD_PARTITION_LOCATION), ImmutableMap.of()));
+    partitions
+        .add(new Partition(NEW_PARTITION_VALUES, DB_NAME, TABLE_NAME, 0, 0,
+            createStorageDescriptor(partitionKeys, PARTITION_LOCATION), ImmutableMap.of()));
+    when(event.getPartitionIterator()).thenReturn(partitions.iterator());
+
+    snsListener.onAddPartition(event);
+    verify(snsClient).publish(requestCaptor.capture());
+    PublishRequest publishRequest = requestCaptor.getValue();
+
+    assertThat(publishRequest.getMessage(), is("{\"protocolVersion\":\""
+        + PROTOCOL_VERSION_2
+        + "\",\"eventType\":\""
+        + EventType.ADD_PARTITION.toString()
+        + "\",\"dbName\":\"some_db\",\"tableName\":\"some_table\",\"tableLocation\":\"s3://table_location\",\"tableParameters\":{\"MY_VAR_TWO\":\"5\",\"MY_VAR_ONE\":\"true\"},"
+        + "\"partitionKeys\":{\"column_1\":\"string\",\"column_2\":\"int\",\"column_3\":\"string\"},"
+        + "\"partitionValues\":[[\"value_1\",\"1000\",\"value_2\"],[\"value_3\",\"2000\",\"value_4\"]],"
+        + "\"partitionLocation\":[\"s3://table_location/partition_location=1\",\"s3://table_location/partition_location=2\"]}"));
+
+    verifyMessageAttributes(publishRequest, EventType.ADD_PARTITION.toString(), "some_db", "some_table");
+  }
+
+  @Test
+  public void onDropPartitionProtocolVersion2IsChunked() throws MetaException {
+    environmentVariables.set("SNS_PROTOCOL_VERSION", PROTOCOL_VERSION_2);
+    ApiarySnsListener snsListener = new ApiarySnsListener(configuration, snsClient);
+    DropPartitionEvent event = mock(DropPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    when(event.getTable()).thenReturn(table);
+
+    String longLocation = TABLE_LOCATION + "/" + new String(new char[1000]).replace('\0', 'x');
+    List<Partition> partitions = new ArrayList<>();
+    int numberOfPartitions = 600;
+    for (int i = 0; i < numberOfPartitions; i++) {
+      partitions
+          .add(new Partition(ImmutableList.of("value_" + i, "1000", "value_2"), DB_NAME, TABLE_NAME, 0, 0,
+              createStorageDescriptor(partitionKeys, longLocation + "/partition=" + i), ImmutableMap.of()));
+    }
+    when(event.getPartitionIterator()).thenReturn(partitions.iterator());
+
+    snsListener.onDropPartition(event);
+    verify(snsClient, times(3)).publish(requestCaptor.capture());
+
+    int partitionCount = 0;
+    for (PublishRequest publishRequest : requestCaptor.getAllValues()) {
+      String message = publishRequest.getMessage();
+      assertThat(message.getBytes(StandardCharsets.UTF_8).length <= MAX_MESSAGE_BYTES, is(true));
+      JSONObject json = new JSONObject(message);
+      assertThat(json.getString("protocolVersion"), is(PROTOCOL_VERSION_2));
+      assertThat(json.getString("eventType"), is(EventType.DROP_PARTITION.toString()));
+      JSONArray partitionValues = json.getJSONArray("partitionValues");
+      JSONArray partitionLocations = json.getJSONArray("partitionLocation");
+      assertThat(partitionValues.length(), is(partitionLocations.length()));
+      for (int i = 0; i < partitionValues.length(); i++) {
+        assertThat(partitionValues.getJSONArray(i).getString(0), is("value_" + partitionCount));
+        assertThat(partitionLocations.getString(i), is(longLocation + "/partition=" + partitionCount));
+        partitionCount++;
+      }
+      verifyMessageAttributes(publishRequest, EventType.DROP_PARTITION.toString(), "some_db", "some_table");
+    }
+    assertThat(partitionCount, is(numberOfPartitions));
+  }
+
+  @Test
+  public void onAddPartitionProtocolVersion2SkipsPartitionLargerThanMessage() throws MetaException {
+    environmentVariables.set("SNS_PROTOCOL_VERSION", PROTOCOL_VERSION_2);
+    ApiarySnsListener snsListener = new ApiarySnsListener(configuration, snsClient);
+    AddPartitionEvent event = mock(AddPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    when(event.getTable()).thenReturn(table);
+
+    String hugeLocation = TABLE_LOCATION + "/" + new String(new char[MAX_MESSAGE_BYTES]).replace('\0', 'x');
+    List<Partition> partitions = ImmutableList
+        .of(new Partition(PARTITION_VALUES, DB_NAME, TABLE_NAME, 0, 0,
+            createStorageDescriptor(partitionKeys, PARTITION_LOCATION), ImmutableMap.of()),
+            new Partition(ImmutableList.of("value_5", "3000", "value_6"), DB_NAME, TABLE_NAME, 0, 0,
+                createStorageDescriptor(partitionKeys, hugeLocation), ImmutableMap.of()),
+            new Partition(NEW_PARTITION_VALUES, DB_NAME, TABLE_NAME, 0, 0,
+                createStorageDescriptor(partitionKeys, PARTITION_LOCATION), ImmutableMap.of()));
+    when(event.getPartitionIterator()).thenReturn(partitions.iterator());
+
+    snsListener.onAddPartition(event);
+    verify(snsClient).publish(requestCaptor.capture());
+
+    JSONObject json = new JSONObject(requestCaptor.getValue().getMessage());
+    JSONArray partitionValues = json.getJSONArray("partitionValues");
+    assertThat(partitionValues.length(), is(2));
+    assertThat(partitionValues.getJSONArray(0).getString(0), is("value_1"));
+    assertThat(partitionValues.getJSONArray(1).getString(0), is("value_3"));
+    assertThat(json.getJSONArray("partitionLocation").length(), is(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsupportedProtocolVersion() {
+    environmentVariables.set("SNS_PROTOCOL_VERSION", "3.0");
+    new ApiarySnsListener(configuration, snsClient);
+  }
+
   @Test
   public void onDropTable() throws MetaException {
     DropTableEvent event = mock(DropTableEvent.class);
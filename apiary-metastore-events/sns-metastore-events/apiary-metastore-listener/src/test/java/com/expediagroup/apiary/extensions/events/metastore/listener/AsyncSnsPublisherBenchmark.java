@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.listener;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+import com.amazonaws.services.sns.model.PublishBatchRequest;
+import com.amazonaws.services.sns.model.PublishBatchRequestEntry;
+import com.amazonaws.services.sns.model.PublishBatchResult;
+import com.amazonaws.services.sns.model.PublishBatchResultEntry;
+import com.amazonaws.services.sns.model.PublishRequest;
+import com.amazonaws.services.sns.model.PublishResult;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Measures the throughput of the metastore thread publishing to a mock SNS client that takes {@code snsMillis}ms to
+ * answer each call. {@code asyncPublish} queues messages on an {@link AsyncSnsPublisher}, which sends them in batches
+ * from its own thread, {@code syncPublish} calls SNS for every message as the listener does by default. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.expediagroup.apiary.extensions.events.metastore.listener.AsyncSnsPublisherBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncSnsPublisherBenchmark {
+
+  private static final String TOPIC_ARN = "arn:test-arn";
+  private static final String MESSAGE = "{\"protocolVersion\":\"1.0\",\"eventType\":\"CREATE_TABLE\","
+      + "\"dbName\":\"db\",\"tableName\":\"table\",\"tableLocation\":\"s3://location\"}";
+  private static final Map<String, MessageAttributeValue> ATTRIBUTES = ImmutableMap
+      .of(MessageAttributeKey.QUALIFIED_TABLE_NAME.toString(),
+          new MessageAttributeValue().withStringValue("db.table").withDataType("String"));
+
+  @Param({ "0", "5" })
+  public long snsMillis;
+
+  private AmazonSNS snsClient;
+  private AsyncSnsPublisher publisher;
+
+  @Setup
+  public void setup() {
+    snsClient = mock(AmazonSNS.class, withSettings().stubOnly());
+    when(snsClient.publish(any(PublishRequest.class))).thenAnswer(invocation -> {
+      Thread.sleep(snsMillis);
+      return new PublishResult().withMessageId("id");
+    });
+    when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenAnswer(invocation -> {
+      Thread.sleep(snsMillis);
+      PublishBatchRequest request = invocation.getArgument(0);
+      PublishBatchResult result = new PublishBatchResult();
+      for (PublishBatchRequestEntry entry : request.getPublishBatchRequestEntries()) {
+        result.withSuccessful(new PublishBatchResultEntry().withId(entry.getId()).withMessageId("id-" + entry.getId()));
+      }
+      return result;
+    });
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 10000, BackpressurePolicy.BLOCK);
+  }
+
+  @TearDown
+  public void tearDown() {
+    publisher.close();
+  }
+
+  @Benchmark
+  public void asyncPublish() {
+    publisher.publish(MESSAGE, ATTRIBUTES);
+  }
+
+  @Benchmark
+  public PublishResult syncPublish() {
+    return snsClient.publish(new PublishRequest(TOPIC_ARN, MESSAGE).withMessageAttributes(ATTRIBUTES));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(AsyncSnsPublisherBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
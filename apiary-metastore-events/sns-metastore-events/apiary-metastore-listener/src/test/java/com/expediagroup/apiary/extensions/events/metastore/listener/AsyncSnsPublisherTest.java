@@ -0,0 +1,253 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.listener;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.model.BatchResultErrorEntry;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+import com.amazonaws.services.sns.model.PublishBatchRequest;
+import com.amazonaws.services.sns.model.PublishBatchRequestEntry;
+import com.amazonaws.services.sns.model.PublishBatchResult;
+import com.amazonaws.services.sns.model.PublishBatchResultEntry;
+import com.google.common.collect.ImmutableMap;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncSnsPublisherTest {
+
+  private static final String TOPIC_ARN = "arn:test-arn";
+  private static final Map<String, MessageAttributeValue> ATTRIBUTES = ImmutableMap
+      .of(MessageAttributeKey.QUALIFIED_TABLE_NAME.toString(),
+          new MessageAttributeValue().withStringValue("db.table").withDataType("String"));
+
+  @Mock
+  private AmazonSNS snsClient;
+
+  @Captor
+  private ArgumentCaptor<PublishBatchRequest> requestCaptor;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private AsyncSnsPublisher publisher;
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    if (publisher != null) {
+      publisher.close();
+    }
+  }
+
+  @Test
+  public void publishesInBatchesPreservingOrder() {
+    stubSuccess();
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 100, BackpressurePolicy.BLOCK);
+    for (int i = 0; i < 25; i++) {
+      publisher.publish("message_" + i, ATTRIBUTES);
+    }
+    publisher.close();
+
+    verify(snsClient, atLeastOnce()).publishBatch(requestCaptor.capture());
+    List<String> published = new ArrayList<>();
+    for (PublishBatchRequest request : requestCaptor.getAllValues()) {
+      assertThat(request.getTopicArn(), is(TOPIC_ARN));
+      assertTrue(request.getPublishBatchRequestEntries().size() <= AsyncSnsPublisher.MAX_BATCH_ENTRIES);
+      for (PublishBatchRequestEntry entry : request.getPublishBatchRequestEntries()) {
+        assertThat(entry.getMessageAttributes(), is(ATTRIBUTES));
+        published.add(entry.getMessage());
+      }
+    }
+    assertThat(published.size(), is(25));
+    for (int i = 0; i < 25; i++) {
+      assertThat(published.get(i), is("message_" + i));
+    }
+  }
+
+  @Test
+  public void batchesAreLimitedByPayloadSize() {
+    stubSuccess();
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 100, BackpressurePolicy.BLOCK);
+    String largeMessage = new String(new char[100 * 1024]).replace('\0', 'x');
+    for (int i = 0; i < 3; i++) {
+      publisher.publish(largeMessage, ATTRIBUTES);
+    }
+    publisher.close();
+
+    verify(snsClient, atLeastOnce()).publishBatch(requestCaptor.capture());
+    int published = 0;
+    for (PublishBatchRequest request : requestCaptor.getAllValues()) {
+      assertTrue(request.getPublishBatchRequestEntries().size() <= 2);
+      published += request.getPublishBatchRequestEntries().size();
+    }
+    assertThat(published, is(3));
+  }
+
+  @Test
+  public void messagesQueuedWhileSnsIsSlowAreBatched() {
+    when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenAnswer(invocation -> {
+      Thread.sleep(50L);
+      return successfulResult().answer(invocation);
+    });
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 1000, BackpressurePolicy.BLOCK);
+
+    for (int i = 0; i < 100; i++) {
+      publisher.publish("message_" + i, ATTRIBUTES);
+    }
+    publisher.close();
+    verify(snsClient, atLeastOnce()).publishBatch(requestCaptor.capture());
+    assertTrue(requestCaptor.getAllValues().size() < 100);
+    assertTrue(publisher.lastFlushLatencyMs() >= 50L);
+  }
+
+  @Test
+  public void dropOldestWhenQueueIsFull() throws Exception {
+    blockSns();
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 2, BackpressurePolicy.DROP_OLDEST);
+    publisher.publish("message_0", ATTRIBUTES);
+    awaitEmptyQueue();
+
+    publisher.publish("message_1", ATTRIBUTES);
+    publisher.publish("message_2", ATTRIBUTES);
+    publisher.publish("message_3", ATTRIBUTES);
+    assertThat(publisher.queueDepth(), is(2));
+
+    release.countDown();
+    publisher.close();
+    verify(snsClient, atLeastOnce()).publishBatch(requestCaptor.capture());
+    List<String> published = new ArrayList<>();
+    for (PublishBatchRequest request : requestCaptor.getAllValues()) {
+      for (PublishBatchRequestEntry entry : request.getPublishBatchRequestEntries()) {
+        published.add(entry.getMessage());
+      }
+    }
+    assertThat(published.toString(), is("[message_0, message_2, message_3]"));
+  }
+
+  @Test
+  public void failFastWhenQueueIsFull() throws Exception {
+    blockSns();
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 1, BackpressurePolicy.FAIL_FAST);
+    publisher.publish("message_0", ATTRIBUTES);
+    awaitEmptyQueue();
+    publisher.publish("message_1", ATTRIBUTES);
+
+    try {
+      publisher.publish("message_2", ATTRIBUTES);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertThat(publisher.queueDepth(), is(1));
+    }
+  }
+
+  @Test
+  public void failedEntriesDoNotStopPublishing() {
+    when(snsClient.publishBatch(any(PublishBatchRequest.class)))
+        .thenReturn(new PublishBatchResult()
+            .withFailed(new BatchResultErrorEntry().withId("0").withCode("InternalError").withMessage("boom")))
+        .thenAnswer(successfulResult());
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 100, BackpressurePolicy.BLOCK);
+    publisher.publish("message_0", ATTRIBUTES);
+    awaitSent(1);
+    publisher.publish("message_1", ATTRIBUTES);
+    publisher.close();
+
+    verify(snsClient, atLeastOnce()).publishBatch(requestCaptor.capture());
+    assertThat(requestCaptor.getAllValues().size(), is(2));
+  }
+
+  @Test
+  public void failedMessagesAreHandedToFailureHandler() {
+    when(snsClient.publishBatch(any(PublishBatchRequest.class)))
+        .thenReturn(new PublishBatchResult()
+            .withFailed(new BatchResultErrorEntry().withId("0").withCode("InternalError").withMessage("boom")))
+        .thenThrow(new IllegalStateException("SNS is unavailable"));
+    List<String> failed = new CopyOnWriteArrayList<>();
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 100, BackpressurePolicy.BLOCK,
+        (message, cause) -> failed.add(message.getMessage()));
+    publisher.publish("message_0", ATTRIBUTES);
+    awaitSent(1);
+    publisher.publish("message_1", ATTRIBUTES);
+    publisher.close();
+
+    assertThat(failed.toString(), is("[message_0, message_1]"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void publishAfterClose() {
+    publisher = new AsyncSnsPublisher(snsClient, TOPIC_ARN, 100, BackpressurePolicy.BLOCK);
+    publisher.close();
+    publisher.publish("message_0", ATTRIBUTES);
+  }
+
+  private void stubSuccess() {
+    when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenAnswer(successfulResult());
+  }
+
+  private void blockSns() {
+    when(snsClient.publishBatch(any(PublishBatchRequest.class))).thenAnswer(invocation -> {
+      release.await();
+      return successfulResult().answer(invocation);
+    });
+  }
+
+  private void awaitEmptyQueue() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000L;
+    while (publisher.queueDepth() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertThat(publisher.queueDepth(), is(0));
+  }
+
+  private void awaitSent(int batches) {
+    verify(snsClient, timeout(5000L).times(batches)).publishBatch(any(PublishBatchRequest.class));
+  }
+
+  private static Answer<PublishBatchResult> successfulResult() {
+    return invocation -> {
+      PublishBatchRequest request = invocation.getArgument(0);
+      PublishBatchResult result = new PublishBatchResult();
+      for (PublishBatchRequestEntry entry : request.getPublishBatchRequestEntries()) {
+        result.withSuccessful(new PublishBatchResultEntry().withId(entry.getId()).withMessageId("id-" + entry.getId()));
+      }
+      return result;
+    };
+  }
+
+}
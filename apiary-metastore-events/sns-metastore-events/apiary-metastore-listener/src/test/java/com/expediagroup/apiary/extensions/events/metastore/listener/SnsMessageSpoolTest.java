@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.metastore.listener;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.EnvironmentVariables;
+import org.junit.rules.TemporaryFolder;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.sns.model.AmazonSNSException;
+import com.amazonaws.services.sns.model.BatchResultErrorEntry;
+import com.amazonaws.services.sns.model.InvalidParameterException;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+import com.google.common.collect.ImmutableMap;
+
+import com.expediagroup.apiary.extensions.events.metastore.spool.FsyncPolicy;
+import com.expediagroup.apiary.extensions.events.metastore.spool.MessageSpool;
+import com.expediagroup.apiary.extensions.events.metastore.spool.SegmentedSpool;
+
+public class SnsMessageSpoolTest {
+
+  private static final Map<String, MessageAttributeValue> ATTRIBUTES = ImmutableMap
+      .of(MessageAttributeKey.QUALIFIED_TABLE_NAME.toString(),
+          new MessageAttributeValue().withStringValue("db.table").withDataType("String"),
+          MessageAttributeKey.EVENT_TYPE.toString(),
+          new MessageAttributeValue().withStringValue("CREATE_TABLE").withDataType("String"));
+
+  @Rule
+  public final EnvironmentVariables environmentVariables = new EnvironmentVariables();
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
+  private MessageSpool<SnsMessage> spool;
+
+  @After
+  public void close() {
+    if (spool != null) {
+      spool.close();
+    }
+  }
+
+  @Test
+  public void replaysSpooledMessagesInOrder() throws Exception {
+    spool = SnsMessageSpool
+        .create(new SegmentedSpool(temp.getRoot().toPath(), 4096, 1024 * 1024, FsyncPolicy.NEVER, 0L), 100L);
+    for (int i = 0; i < 3; i++) {
+      spool.append(new SnsMessage("message_" + i, ATTRIBUTES));
+    }
+    assertThat(spool.hasPendingMessages(), is(true));
+
+    List<String> replayed = new CopyOnWriteArrayList<>();
+    spool.start(message -> {
+      assertThat(message.getMessageAttributes(), is(ATTRIBUTES));
+      replayed.add(message.getMessage());
+    });
+
+    long deadline = System.currentTimeMillis() + 5000L;
+    while (spool.hasPendingMessages() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertThat(spool.hasPendingMessages(), is(false));
+    assertThat(replayed.toString(), is("[message_0, message_1, message_2]"));
+  }
+
+  @Test
+  public void encodeDecode() throws Exception {
+    SnsMessage message = SnsMessageSpool.decode(SnsMessageSpool.encode("message", ATTRIBUTES));
+    assertThat(message.getMessage(), is("message"));
+    assertThat(message.getMessageAttributes(), is(ATTRIBUTES));
+  }
+
+  @Test
+  public void retriableErrors() {
+    AmazonServiceException throttled = new AmazonSNSException("Rate exceeded");
+    throttled.setErrorCode("Throttling");
+    throttled.setStatusCode(400);
+    throttled.setErrorType(AmazonServiceException.ErrorType.Client);
+    assertThat(SnsMessageSpool.isRetriable(throttled), is(true));
+
+    AmazonServiceException unavailable = new AmazonSNSException("Service unavailable");
+    unavailable.setStatusCode(503);
+    assertThat(SnsMessageSpool.isRetriable(unavailable), is(true));
+
+    AmazonServiceException invalid = new InvalidParameterException("Message too long");
+    invalid.setStatusCode(400);
+    invalid.setErrorType(AmazonServiceException.ErrorType.Client);
+    assertThat(SnsMessageSpool.isRetriable(invalid), is(false));
+
+    assertThat(SnsMessageSpool.isRetriable(new SdkClientException("Unable to connect")), is(true));
+    assertThat(SnsMessageSpool.isRetriable(new RejectedExecutionException("SNS publish queue is full")), is(true));
+  }
+
+  @Test
+  public void batchEntryErrors() {
+    assertThat(SnsMessageSpool
+        .isRetriable(SnsMessageSpool
+            .toException(new BatchResultErrorEntry().withCode("InvalidParameter").withSenderFault(true))),
+        is(false));
+    assertThat(SnsMessageSpool
+        .isRetriable(SnsMessageSpool
+            .toException(new BatchResultErrorEntry().withCode("Throttled").withSenderFault(true))),
+        is(true));
+    assertThat(SnsMessageSpool
+        .isRetriable(SnsMessageSpool
+            .toException(new BatchResultErrorEntry().withCode("InternalError").withSenderFault(false))),
+        is(true));
+  }
+
+  @Test
+  public void spoolIsDisabledByDefault() {
+    assertThat(SnsMessageSpool.fromEnvironment(), is(nullValue()));
+  }
+
+  @Test
+  public void spoolFromEnvironment() {
+    environmentVariables.set("SNS_SPOOL_DIRECTORY", temp.getRoot().getAbsolutePath());
+    environmentVariables.set("SNS_SPOOL_SEGMENT_BYTES", "4096");
+    environmentVariables.set("SNS_SPOOL_FSYNC_POLICY", "always");
+    spool = SnsMessageSpool.fromEnvironment();
+    assertThat(spool.hasPendingMessages(), is(false));
+  }
+
+}
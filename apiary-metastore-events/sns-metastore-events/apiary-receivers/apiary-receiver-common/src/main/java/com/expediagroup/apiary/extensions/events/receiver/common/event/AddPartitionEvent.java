@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,9 @@
  */
 package com.expediagroup.apiary.extensions.events.receiver.common.event;
 
-import java.util.List;
 import java.util.Map;
 
-public class AddPartitionEvent extends ListenerEvent {
+public class AddPartitionEvent extends MultiPartitionEvent {
   private static final long serialVersionUID = 1L;
 
   private String protocolVersion;
@@ -26,8 +25,6 @@ public class AddPartitionEvent extends ListenerEvent {
   private String tableName;
   private String tableLocation;
   private Map<String, String> partitionKeys;
-  private List<String> partitionValues;
-  private String partitionLocation;
 
   AddPartitionEvent() {}
 
@@ -52,12 +49,4 @@ public class AddPartitionEvent extends ListenerEvent {
   public Map<String, String> getPartitionKeys() {
     return partitionKeys;
   }
-
-  public List<String> getPartitionValues() {
-    return partitionValues;
-  }
-
-  public String getPartitionLocation() {
-    return partitionLocation;
-  }
 }
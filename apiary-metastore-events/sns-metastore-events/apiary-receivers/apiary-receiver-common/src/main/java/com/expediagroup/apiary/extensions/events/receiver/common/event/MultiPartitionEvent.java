@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.common.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * An event on one or more partitions of a table. Messages with protocol version 1.0 describe a single partition,
+ * messages with protocol version 2.0 carry arrays of partition values and locations, one entry per partition.
+ * {@link #getPartitionValuesList()} and {@link #getPartitionLocations()} return all the partitions regardless of the
+ * protocol version.
+ */
+public abstract class MultiPartitionEvent extends ListenerEvent {
+  private static final long serialVersionUID = 1L;
+
+  private List<String> partitionValues;
+  private String partitionLocation;
+  private List<List<String>> partitionValuesList = Collections.emptyList();
+  private List<String> partitionLocations = Collections.emptyList();
+
+  protected MultiPartitionEvent() {}
+
+  /**
+   * @return the values of the first partition in the message
+   */
+  public List<String> getPartitionValues() {
+    return partitionValues;
+  }
+
+  /**
+   * @return the location of the first partition in the message
+   */
+  public String getPartitionLocation() {
+    return partitionLocation;
+  }
+
+  public List<List<String>> getPartitionValuesList() {
+    return partitionValuesList;
+  }
+
+  public List<String> getPartitionLocations() {
+    return partitionLocations;
+  }
+
+  @JsonProperty("partitionValues")
+  @SuppressWarnings("unchecked")
+  private void setPartitionValues(List<Object> values) {
+    if (values == null || values.isEmpty() || !(values.get(0) instanceof List)) {
+      partitionValues = (List<String>) (List<?>) values;
+      partitionValuesList = values == null ? Collections.emptyList() : Collections.singletonList(partitionValues);
+    } else {
+      partitionValuesList = new ArrayList<>(values.size());
+      for (Object value : values) {
+        partitionValuesList.add((List<String>) value);
+      }
+      partitionValues = partitionValuesList.get(0);
+    }
+  }
+
+  @JsonProperty("partitionLocation")
+  @SuppressWarnings("unchecked")
+  private void setPartitionLocation(Object location) {
+    if (location instanceof List) {
+      partitionLocations = (List<String>) location;
+      partitionLocation = partitionLocations.isEmpty() ? null : partitionLocations.get(0);
+    } else {
+      partitionLocation = (String) location;
+      partitionLocations = location == null ? Collections.emptyList() : Collections.singletonList(partitionLocation);
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,7 +18,11 @@ package com.expediagroup.apiary.extensions.events.receiver.common.messaging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import com.expediagroup.apiary.extensions.events.receiver.common.error.SerDeException;
 import com.expediagroup.apiary.extensions.events.receiver.common.event.EventType;
@@ -27,6 +31,8 @@ import com.expediagroup.apiary.extensions.events.receiver.common.event.ListenerE
 public class JsonMetaStoreEventDeserializer implements MetaStoreEventDeserializer {
   private static final Logger log = LoggerFactory.getLogger(JsonMetaStoreEventDeserializer.class);
 
+  private static final String EVENT_TYPE = "eventType";
+
   private final ObjectMapper mapper;
 
   public JsonMetaStoreEventDeserializer(ObjectMapper mapper) {
@@ -35,46 +41,52 @@ public class JsonMetaStoreEventDeserializer implements MetaStoreEventDeserialize
 
   @Override
   public <T extends ListenerEvent> T unmarshal(String payload) throws SerDeException {
-    try {
-      log.debug("Marshalled event is: {}", payload);
+    log.debug("Marshalled event is: {}", payload);
+    try (JsonParser parser = mapper.getFactory().createParser(payload)) {
+      return unmarshal(parser);
+    } catch (SerDeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SerDeException("Unable to unmarshal event from payload", e);
+    }
+  }
 
-      // As we don't know the type in advance we can only deserialize the event twice:
-      // 1. Create a dummy object just to find out the type
-      T genericEvent = mapper.readerFor(HelperSerializableListenerEvent.class).readValue(payload);
-      log.debug("Unmarshal event of type: {}", genericEvent.getEventType());
-      // 2. Deserialize the actual object
-      T event = mapper.readerFor(genericEvent.getEventType().eventClass()).readValue(payload);
+  /**
+   * Decodes the event in a single pass over the parser: fields are read up to {@code eventType} and the rest of the
+   * stream is handed to the deserializer of the concrete event class. Fields found before {@code eventType} are
+   * buffered as tokens and replayed so they are not parsed again. The parser must not have been advanced yet.
+   */
+  public <T extends ListenerEvent> T unmarshal(JsonParser parser) throws SerDeException {
+    try {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new SerDeException("Payload is not a JSON object");
+      }
+      TokenBuffer preceding = new TokenBuffer(parser);
+      preceding.writeStartObject();
+      EventType eventType = null;
+      while (eventType == null && parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        if (EVENT_TYPE.equals(fieldName)) {
+          eventType = EventType.valueOf(parser.getText());
+        } else {
+          preceding.writeFieldName(fieldName);
+          preceding.copyCurrentStructure(parser);
+        }
+      }
+      if (eventType == null) {
+        throw new SerDeException("Payload does not contain field " + EVENT_TYPE);
+      }
+      log.debug("Unmarshal event of type: {}", eventType);
+      JsonParser eventParser = JsonParserSequence.createFlattened(preceding.asParser(parser), parser);
+      T event = mapper.readerFor(eventType.eventClass()).readValue(eventParser);
       log.debug("Unmarshalled event is: {}", event);
       return event;
+    } catch (SerDeException e) {
+      throw e;
     } catch (Exception e) {
       throw new SerDeException("Unable to unmarshal event from payload", e);
     }
   }
 
-  static class HelperSerializableListenerEvent extends ListenerEvent {
-    private static final long serialVersionUID = 1L;
-
-    private EventType eventType;
-
-    HelperSerializableListenerEvent() {}
-
-    @Override
-    public EventType getEventType() {
-      return eventType;
-    }
-
-    public void setEventType(EventType eventType) {
-      this.eventType = eventType;
-    }
-
-    @Override
-    public String getDbName() {
-      return null;
-    }
-
-    @Override
-    public String getTableName() {
-      return null;
-    }
-  }
 }
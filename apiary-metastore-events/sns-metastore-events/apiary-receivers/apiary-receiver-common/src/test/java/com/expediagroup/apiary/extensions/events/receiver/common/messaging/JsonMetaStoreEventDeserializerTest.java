@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,6 +40,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 
+import com.expediagroup.apiary.extensions.events.receiver.common.error.SerDeException;
 import com.expediagroup.apiary.extensions.events.receiver.common.event.AddPartitionEvent;
 import com.expediagroup.apiary.extensions.events.receiver.common.event.AlterPartitionEvent;
 import com.expediagroup.apiary.extensions.events.receiver.common.event.AlterTableEvent;
@@ -75,9 +76,11 @@ public class JsonMetaStoreEventDeserializerTest {
   private final JsonMetaStoreEventDeserializer metaStoreEventDeserializer = new JsonMetaStoreEventDeserializer(OBJECT_MAPPER);
 
   private String addPartitionEvent;
+  private String addPartitionEventV2;
   private String alterPartitionEvent;
   private String createTableEvent;
   private String dropPartitionEvent;
+  private String dropPartitionEventV2;
   private String insertEvent;
   private String alterTableEvent;
   private String dropTableEvent;
@@ -87,6 +90,9 @@ public class JsonMetaStoreEventDeserializerTest {
     addPartitionEvent = new String(Files.readAllBytes(dataFolder.getFile("add_partition.json").toPath()), UTF_8);
     alterPartitionEvent = new String(Files.readAllBytes(dataFolder.getFile("alter_partition.json").toPath()), UTF_8);
     dropPartitionEvent = new String(Files.readAllBytes(dataFolder.getFile("drop_partition.json").toPath()), UTF_8);
+    addPartitionEventV2 = new String(Files.readAllBytes(dataFolder.getFile("add_partition_v2.json").toPath()), UTF_8);
+    dropPartitionEventV2 = new String(Files.readAllBytes(dataFolder.getFile("drop_partition_v2.json").toPath()),
+        UTF_8);
     createTableEvent = new String(Files.readAllBytes(dataFolder.getFile("create_table.json").toPath()), UTF_8);
     insertEvent = new String(Files.readAllBytes(dataFolder.getFile("insert_table.json").toPath()), UTF_8);
     alterTableEvent = new String(Files.readAllBytes(dataFolder.getFile("alter_table.json").toPath()), UTF_8);
@@ -106,6 +112,26 @@ public class JsonMetaStoreEventDeserializerTest {
     assertThat(addPartitionEvent.getPartitionKeys()).isEqualTo(PARTITION_KEYS_MAP);
     assertThat(addPartitionEvent.getPartitionValues()).isEqualTo(PARTITION_VALUES);
     assertThat(addPartitionEvent.getPartitionLocation()).isEqualTo(PARTITION_LOCATION);
+    assertThat(addPartitionEvent.getPartitionValuesList()).containsExactly(PARTITION_VALUES);
+    assertThat(addPartitionEvent.getPartitionLocations()).containsExactly(PARTITION_LOCATION);
+    assertThat(addPartitionEvent.getTableParameters()).isEqualTo(TABLE_PARAM_MAP);
+  }
+
+  @Test
+  public void addPartitionEventProtocolVersion2() throws Exception {
+    ListenerEvent processedEvent = metaStoreEventDeserializer.unmarshal(addPartitionEventV2);
+    AddPartitionEvent addPartitionEvent = (AddPartitionEvent) processedEvent;
+
+    assertThat(addPartitionEvent.getDbName()).isEqualTo(TEST_DB);
+    assertThat(addPartitionEvent.getTableName()).isEqualTo(TEST_TABLE);
+    assertThat(addPartitionEvent.getTableLocation()).isEqualTo(TEST_TABLE_LOCATION);
+    assertThat(addPartitionEvent.getProtocolVersion()).isEqualTo("2.0");
+    assertThat(addPartitionEvent.getEventType()).isEqualTo(EventType.ADD_PARTITION);
+    assertThat(addPartitionEvent.getPartitionKeys()).isEqualTo(PARTITION_KEYS_MAP);
+    assertThat(addPartitionEvent.getPartitionValues()).isEqualTo(PARTITION_VALUES);
+    assertThat(addPartitionEvent.getPartitionLocation()).isEqualTo(PARTITION_LOCATION);
+    assertThat(addPartitionEvent.getPartitionValuesList()).containsExactly(PARTITION_VALUES, OLD_PARTITION_VALUES);
+    assertThat(addPartitionEvent.getPartitionLocations()).containsExactly(PARTITION_LOCATION, OLD_PARTITION_LOCATION);
     assertThat(addPartitionEvent.getTableParameters()).isEqualTo(TABLE_PARAM_MAP);
   }
 
@@ -140,9 +166,24 @@ public class JsonMetaStoreEventDeserializerTest {
     assertThat(dropPartitionEvent.getPartitionKeys()).isEqualTo(PARTITION_KEYS_MAP);
     assertThat(dropPartitionEvent.getPartitionValues()).isEqualTo(PARTITION_VALUES);
     assertThat(dropPartitionEvent.getPartitionLocation()).isEqualTo(PARTITION_LOCATION);
+    assertThat(dropPartitionEvent.getPartitionValuesList()).containsExactly(PARTITION_VALUES);
+    assertThat(dropPartitionEvent.getPartitionLocations()).containsExactly(PARTITION_LOCATION);
     assertThat(dropPartitionEvent.getTableParameters()).isEqualTo(TABLE_PARAM_MAP);
   }
 
+  @Test
+  public void dropPartitionEventProtocolVersion2() throws Exception {
+    ListenerEvent processedEvent = metaStoreEventDeserializer.unmarshal(dropPartitionEventV2);
+    DropPartitionEvent dropPartitionEvent = (DropPartitionEvent) processedEvent;
+
+    assertThat(dropPartitionEvent.getProtocolVersion()).isEqualTo("2.0");
+    assertThat(dropPartitionEvent.getEventType()).isEqualTo(EventType.DROP_PARTITION);
+    assertThat(dropPartitionEvent.getPartitionValues()).isEqualTo(PARTITION_VALUES);
+    assertThat(dropPartitionEvent.getPartitionLocation()).isEqualTo(PARTITION_LOCATION);
+    assertThat(dropPartitionEvent.getPartitionValuesList()).containsExactly(PARTITION_VALUES, OLD_PARTITION_VALUES);
+    assertThat(dropPartitionEvent.getPartitionLocations()).containsExactly(PARTITION_LOCATION, OLD_PARTITION_LOCATION);
+  }
+
   @Test
   public void createTableEvent() throws Exception {
     ListenerEvent processedEvent = metaStoreEventDeserializer.unmarshal(createTableEvent);
@@ -202,4 +243,29 @@ public class JsonMetaStoreEventDeserializerTest {
     assertThat(dropTableEvent.getEventType()).isEqualTo(EventType.DROP_TABLE);
     assertThat(dropTableEvent.getTableParameters()).isEqualTo(Maps.newHashMap());
   }
+
+  @Test
+  public void eventTypeAfterOtherFields() throws Exception {
+    String payload = "{\"dbName\":\"some_db\",\"tableName\":\"some_table\","
+        + "\"tableParameters\":{\"param_1\":\"val_1\"},\"eventType\":\"DROP_TABLE\","
+        + "\"protocolVersion\":\"1.0\",\"tableLocation\":\"s3://table_location\"}";
+    DropTableEvent dropTableEvent = metaStoreEventDeserializer.unmarshal(payload);
+
+    assertThat(dropTableEvent.getDbName()).isEqualTo(TEST_DB);
+    assertThat(dropTableEvent.getTableName()).isEqualTo(TEST_TABLE);
+    assertThat(dropTableEvent.getTableLocation()).isEqualTo(TEST_TABLE_LOCATION);
+    assertThat(dropTableEvent.getProtocolVersion()).isEqualTo("1.0");
+    assertThat(dropTableEvent.getEventType()).isEqualTo(EventType.DROP_TABLE);
+    assertThat(dropTableEvent.getTableParameters()).isEqualTo(ImmutableMap.of("param_1", "val_1"));
+  }
+
+  @Test(expected = SerDeException.class)
+  public void payloadWithoutEventType() throws Exception {
+    metaStoreEventDeserializer.unmarshal("{\"dbName\":\"some_db\",\"tableName\":\"some_table\"}");
+  }
+
+  @Test(expected = SerDeException.class)
+  public void payloadNotAnObject() throws Exception {
+    metaStoreEventDeserializer.unmarshal("[\"DROP_TABLE\"]");
+  }
 }
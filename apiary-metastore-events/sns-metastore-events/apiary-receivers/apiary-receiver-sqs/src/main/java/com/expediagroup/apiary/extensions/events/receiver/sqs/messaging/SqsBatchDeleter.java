@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.sqs.messaging;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+
+import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageEvent;
+
+/**
+ * Deletes messages with DeleteMessageBatch, up to {@value #MAX_BATCH_ENTRIES} messages per call. Messages can be
+ * deleted straight away with {@link #deleteAll(Collection)}, or deferred with {@link #add(MessageEvent)}, in which case
+ * they are deleted once a full batch is pending or {@code flushIntervalMs} has elapsed, and failures are handed to
+ * {@code onFailure}.
+ */
+class SqsBatchDeleter implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(SqsBatchDeleter.class);
+
+  static final int MAX_BATCH_ENTRIES = 10;
+
+  private final AmazonSQS consumer;
+  private final String queueUrl;
+  private final Consumer<SqsDeleteFailure> onFailure;
+  private final ScheduledExecutorService flusher;
+  private final List<MessageEvent> pending = new ArrayList<>(MAX_BATCH_ENTRIES);
+
+  SqsBatchDeleter(AmazonSQS consumer, String queueUrl, long flushIntervalMs, Consumer<SqsDeleteFailure> onFailure) {
+    this.consumer = consumer;
+    this.queueUrl = queueUrl;
+    this.onFailure = onFailure != null ? onFailure : SqsBatchDeleter::logFailure;
+    if (flushIntervalMs > 0) {
+      flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "apiary-sqs-deleter");
+        thread.setDaemon(true);
+        return thread;
+      });
+      flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    } else {
+      flusher = null;
+    }
+  }
+
+  /**
+   * Deletes {@code messageEvents} in batches and waits for the result.
+   *
+   * @return the messages that could not be deleted, empty if all were
+   */
+  List<SqsDeleteFailure> deleteAll(Collection<MessageEvent> messageEvents) {
+    List<MessageEvent> messages = new ArrayList<>(messageEvents);
+    List<SqsDeleteFailure> failures = new ArrayList<>();
+    for (int from = 0; from < messages.size(); from += MAX_BATCH_ENTRIES) {
+      failures.addAll(deleteBatch(messages.subList(from, Math.min(from + MAX_BATCH_ENTRIES, messages.size()))));
+    }
+    return failures;
+  }
+
+  /**
+   * Queues {@code messageEvent} for deletion, sending a batch once {@value #MAX_BATCH_ENTRIES} messages are queued.
+   * Failures are handed to {@code onFailure}, which logs them by default.
+   */
+  void add(MessageEvent messageEvent) {
+    List<MessageEvent> batch = null;
+    synchronized (pending) {
+      pending.add(messageEvent);
+      if (pending.size() >= MAX_BATCH_ENTRIES) {
+        batch = drainPending();
+      }
+    }
+    if (batch != null) {
+      deleteBatch(batch).forEach(onFailure);
+    }
+  }
+
+  /**
+   * Deletes the queued messages.
+   */
+  void flush() {
+    List<MessageEvent> batch;
+    synchronized (pending) {
+      batch = drainPending();
+    }
+    if (!batch.isEmpty()) {
+      try {
+        deleteBatch(batch).forEach(onFailure);
+      } catch (RuntimeException e) {
+        log.warn("Unable to handle failed deletes", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (flusher != null) {
+      flusher.shutdown();
+      try {
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    flush();
+  }
+
+  private static void logFailure(SqsDeleteFailure failure) {
+    log.warn("Unable to delete message: {}", failure);
+  }
+
+  private List<MessageEvent> drainPending() {
+    List<MessageEvent> batch = new ArrayList<>(pending);
+    pending.clear();
+    return batch;
+  }
+
+  private List<SqsDeleteFailure> deleteBatch(List<MessageEvent> batch) {
+    List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      String receiptHandle = batch.get(i).getMessageProperties().get(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE);
+      entries.add(new DeleteMessageBatchRequestEntry().withId(Integer.toString(i)).withReceiptHandle(receiptHandle));
+    }
+    List<SqsDeleteFailure> failures = new ArrayList<>();
+    try {
+      DeleteMessageBatchResult result = consumer
+          .deleteMessageBatch(new DeleteMessageBatchRequest().withQueueUrl(queueUrl).withEntries(entries));
+      for (BatchResultErrorEntry entry : result.getFailed()) {
+        failures
+            .add(new SqsDeleteFailure(batch.get(Integer.parseInt(entry.getId())), entry.getCode(), entry.getMessage(),
+                Boolean.TRUE.equals(entry.getSenderFault())));
+      }
+    } catch (AmazonServiceException e) {
+      log.warn("Unable to delete batch of {} messages from {}", batch.size(), queueUrl, e);
+      for (MessageEvent messageEvent : batch) {
+        failures
+            .add(new SqsDeleteFailure(messageEvent, e.getErrorCode(), e.getErrorMessage(),
+                e.getErrorType() == AmazonServiceException.ErrorType.Client));
+      }
+    } catch (RuntimeException e) {
+      log.warn("Unable to delete batch of {} messages from {}", batch.size(), queueUrl, e);
+      for (MessageEvent messageEvent : batch) {
+        failures.add(new SqsDeleteFailure(messageEvent, e.getClass().getSimpleName(), e.getMessage(), false));
+      }
+    }
+    return failures;
+  }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.sqs.messaging;
+
+import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageEvent;
+
+/**
+ * A message that SQS failed to delete.
+ */
+public final class SqsDeleteFailure {
+
+  private final MessageEvent messageEvent;
+  private final String code;
+  private final String message;
+  private final boolean senderFault;
+
+  SqsDeleteFailure(MessageEvent messageEvent, String code, String message, boolean senderFault) {
+    this.messageEvent = messageEvent;
+    this.code = code;
+    this.message = message;
+    this.senderFault = senderFault;
+  }
+
+  public MessageEvent getMessageEvent() {
+    return messageEvent;
+  }
+
+  /**
+   * @return the SQS error code, or the exception name if the whole request failed
+   */
+  public String getCode() {
+    return code;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * @return whether the failure was caused by the request, for example an expired receipt handle, in which case
+   *         retrying does not help
+   */
+  public boolean isSenderFault() {
+    return senderFault;
+  }
+
+  @Override
+  public String toString() {
+    return "SqsDeleteFailure [code=" + code + ", message=" + message + ", senderFault=" + senderFault + "]";
+  }
+
+}
@@ -0,0 +1,277 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.sqs.messaging;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+
+/**
+ * Receives messages from SQS ahead of {@link SqsMessageReader#read()} with several concurrent long polls, keeping them
+ * in a bounded buffer. Receivers only poll while the buffer has room for a full batch, so at most
+ * {@code bufferCapacity} messages are held. The visibility timeout of buffered messages is extended before it expires,
+ * and messages still buffered when the prefetcher is closed are made visible again straight away. Messages handed out
+ * by {@link #poll(long, TimeUnit)} are no longer extended. A receiver that fails backs off exponentially, with jitter,
+ * before it polls again.
+ */
+class SqsMessagePrefetcher implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(SqsMessagePrefetcher.class);
+
+  static final int MAX_BATCH_ENTRIES = 10;
+  static final long INITIAL_BACKOFF_MS = 100L;
+  static final long MAX_BACKOFF_MS = 10000L;
+
+  private final AmazonSQS consumer;
+  private final String queueUrl;
+  private final int waitTimeSeconds;
+  private final int maxMessages;
+  private final int visibilityTimeoutSeconds;
+  private final BlockingQueue<BufferedMessage> buffer;
+  private final Semaphore space;
+  private final ExecutorService receivers;
+  private final ScheduledExecutorService visibilityExtender;
+  private final int receiverCount;
+  private volatile boolean running = true;
+
+  SqsMessagePrefetcher(
+      AmazonSQS consumer,
+      String queueUrl,
+      int waitTimeSeconds,
+      int maxMessages,
+      int visibilityTimeoutSeconds,
+      int receiverCount,
+      int bufferCapacity) {
+    if (receiverCount < 1) {
+      throw new IllegalArgumentException("Number of receivers must be at least 1");
+    }
+    if (bufferCapacity < maxMessages) {
+      throw new IllegalArgumentException("Prefetch buffer must have room for at least " + maxMessages + " messages");
+    }
+    if (visibilityTimeoutSeconds < 1) {
+      throw new IllegalArgumentException("Visibility timeout must be at least 1 second");
+    }
+    this.consumer = consumer;
+    this.queueUrl = queueUrl;
+    this.waitTimeSeconds = waitTimeSeconds;
+    this.maxMessages = maxMessages;
+    this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+    this.receiverCount = receiverCount;
+    buffer = new LinkedBlockingQueue<>(bufferCapacity);
+    space = new Semaphore(bufferCapacity);
+    AtomicInteger threadCount = new AtomicInteger();
+    receivers = Executors.newFixedThreadPool(receiverCount, runnable -> {
+      Thread thread = new Thread(runnable, "apiary-sqs-receiver-" + threadCount.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+    visibilityExtender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "apiary-sqs-visibility-extender");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  void start() {
+    for (int i = 0; i < receiverCount; i++) {
+      receivers.execute(this::receive);
+    }
+    // Checks often enough to extend messages once they have used half of their visibility timeout
+    long periodMs = Math.min(1000L, TimeUnit.SECONDS.toMillis(visibilityTimeoutSeconds) / 4);
+    visibilityExtender.scheduleWithFixedDelay(this::extendVisibility, periodMs, periodMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return the next buffered message, or {@code null} if none arrives within {@code timeout}
+   */
+  Message poll(long timeout, TimeUnit unit) {
+    try {
+      BufferedMessage next = buffer.poll(timeout, unit);
+      if (next == null) {
+        return null;
+      }
+      space.release();
+      return next.message;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  int bufferedMessages() {
+    return buffer.size();
+  }
+
+  /**
+   * Stops receiving and makes the messages that were prefetched but not read visible again.
+   */
+  @Override
+  public void close() {
+    running = false;
+    visibilityExtender.shutdownNow();
+    receivers.shutdown();
+    try {
+      // receivers finish their current long poll before stopping
+      if (!receivers.awaitTermination(waitTimeSeconds + 5L, TimeUnit.SECONDS)) {
+        receivers.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<BufferedMessage> unread = new ArrayList<>();
+    buffer.drainTo(unread);
+    if (!unread.isEmpty()) {
+      log.info("Returning {} unread messages to {}", unread.size(), queueUrl);
+      changeVisibility(unread, 0);
+    }
+  }
+
+  private void receive() {
+    int failures = 0;
+    while (running) {
+      try {
+        if (!space.tryAcquire(maxMessages, 100L, TimeUnit.MILLISECONDS)) {
+          continue;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      int received = 0;
+      boolean failed = false;
+      try {
+        ReceiveMessageRequest request = new ReceiveMessageRequest()
+            .withQueueUrl(queueUrl)
+            .withWaitTimeSeconds(waitTimeSeconds)
+            .withMaxNumberOfMessages(maxMessages)
+            .withVisibilityTimeout(visibilityTimeoutSeconds);
+        List<Message> messages = consumer.receiveMessage(request).getMessages();
+        long visibleUntil = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(visibilityTimeoutSeconds);
+        for (Message message : messages) {
+          // room for the batch was reserved before receiving it
+          buffer.add(new BufferedMessage(message, visibleUntil));
+          received++;
+        }
+      } catch (RuntimeException e) {
+        log.warn("Unable to receive messages from {}", queueUrl, e);
+        failed = true;
+      } finally {
+        space.release(maxMessages - received);
+      }
+      failures = failed ? failures + 1 : 0;
+      if (failed && !backOff(failures)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Waits a random time of up to {@code min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS * 2^(failures - 1))}, returning early
+   * if the prefetcher is closed.
+   *
+   * @return {@code false} if the receiver was interrupted
+   */
+  private boolean backOff(int failures) {
+    long ceiling = MAX_BACKOFF_MS;
+    if (failures <= 16) {
+      ceiling = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << (failures - 1));
+    }
+    long deadline = System.currentTimeMillis() + ThreadLocalRandom.current().nextLong(ceiling + 1);
+    try {
+      long remaining;
+      while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+        Thread.sleep(Math.min(remaining, 100L));
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void extendVisibility() {
+    long extendBefore = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(visibilityTimeoutSeconds) / 2;
+    List<BufferedMessage> expiring = new ArrayList<>();
+    for (BufferedMessage buffered : buffer) {
+      if (buffered.visibleUntil <= extendBefore) {
+        expiring.add(buffered);
+      }
+    }
+    if (!expiring.isEmpty()) {
+      log.debug("Extending visibility timeout of {} buffered messages", expiring.size());
+      long visibleUntil = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(visibilityTimeoutSeconds);
+      changeVisibility(expiring, visibilityTimeoutSeconds);
+      for (BufferedMessage buffered : expiring) {
+        buffered.visibleUntil = visibleUntil;
+      }
+    }
+  }
+
+  private void changeVisibility(List<BufferedMessage> messages, int visibilityTimeout) {
+    for (int from = 0; from < messages.size(); from += MAX_BATCH_ENTRIES) {
+      List<BufferedMessage> batch = messages.subList(from, Math.min(from + MAX_BATCH_ENTRIES, messages.size()));
+      List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        entries
+            .add(new ChangeMessageVisibilityBatchRequestEntry()
+                .withId(Integer.toString(i))
+                .withReceiptHandle(batch.get(i).message.getReceiptHandle())
+                .withVisibilityTimeout(visibilityTimeout));
+      }
+      try {
+        ChangeMessageVisibilityBatchResult result = consumer
+            .changeMessageVisibilityBatch(new ChangeMessageVisibilityBatchRequest()
+                .withQueueUrl(queueUrl)
+                .withEntries(entries));
+        if (!result.getFailed().isEmpty()) {
+          log.warn("Unable to change visibility timeout of {} messages: {}", result.getFailed().size(),
+              result.getFailed());
+        }
+      } catch (RuntimeException e) {
+        log.warn("Unable to change visibility timeout of {} messages", entries.size(), e);
+      }
+    }
+  }
+
+  private static final class BufferedMessage {
+    private final Message message;
+    private volatile long visibleUntil;
+
+    private BufferedMessage(Message message, long visibleUntil) {
+      this.message = message;
+      this.visibleUntil = visibleUntil;
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2019 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,21 +18,26 @@ package com.expediagroup.apiary.extensions.events.receiver.sqs.messaging;
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
 import com.amazonaws.services.sqs.model.DeleteMessageRequest;
+import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.QueueAttributeName;
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.expediagroup.apiary.extensions.events.receiver.common.error.SerDeException;
 import com.expediagroup.apiary.extensions.events.receiver.common.event.ListenerEvent;
-import com.expediagroup.apiary.extensions.events.receiver.common.messaging.JsonMetaStoreEventDeserializer;
 import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageDeserializer;
 import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageEvent;
 import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageProperty;
@@ -41,30 +46,57 @@ import com.expediagroup.apiary.extensions.events.receiver.common.messaging.Messa
 public class SqsMessageReader implements MessageReader {
   private static final Integer DEFAULT_POLLING_WAIT_TIME_SECONDS = 10;
   private static final Integer DEFAULT_MAX_MESSAGES = 10;
+  private static final Integer DEFAULT_PREFETCH_BUFFER_SIZE = 100;
 
   private String queueUrl;
   private Integer waitTimeSeconds;
   private Integer maxMessages;
+  private Integer visibilityTimeoutSeconds;
   private MessageDeserializer messageDeserializer;
   private AmazonSQS consumer;
   private Iterator<Message> records;
+  private SqsMessagePrefetcher prefetcher;
+  private SqsBatchDeleter deleter;
+  private boolean deferredDeletes;
 
-  private SqsMessageReader(String queueUrl, int waitTimeSeconds, int maxMessages,
-                           MessageDeserializer messageDeserializer, AmazonSQS consumer) {
+  private SqsMessageReader(String queueUrl, int waitTimeSeconds, int maxMessages, Integer visibilityTimeoutSeconds,
+                           MessageDeserializer messageDeserializer, AmazonSQS consumer,
+                           SqsMessagePrefetcher prefetcher, SqsBatchDeleter deleter, boolean deferredDeletes) {
     this.queueUrl = queueUrl;
     this.waitTimeSeconds = waitTimeSeconds;
     this.maxMessages = maxMessages;
+    this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
     this.messageDeserializer = messageDeserializer;
     this.consumer = consumer;
+    this.prefetcher = prefetcher;
+    this.deleter = deleter;
+    this.deferredDeletes = deferredDeletes;
   }
 
+  /**
+   * Closes the SQS client. Deferred deletes are sent first, and in prefetch mode the messages that were received but
+   * not read are made visible again.
+   */
   @Override
   public void close() {
+    deleter.close();
+    if (prefetcher != null) {
+      prefetcher.close();
+    }
     consumer.shutdown();
   }
 
+  /**
+   * Returns the next message, or nothing if no message arrives within the wait time. In prefetch mode messages are
+   * taken from the prefetch buffer. The visibility timeout of a message is no longer extended once it has been
+   * returned, so it must be deleted before the timeout expires or it will be delivered again.
+   */
   @Override
   public Optional<MessageEvent> read() {
+    if (prefetcher != null) {
+      Message message = prefetcher.poll(waitTimeSeconds, TimeUnit.SECONDS);
+      return message == null ? Optional.empty() : Optional.of(messageEvent(message));
+    }
     if (records == null || !records.hasNext()) {
       records = receiveMessage();
     }
@@ -77,8 +109,16 @@ public class SqsMessageReader implements MessageReader {
     }
   }
 
+  /**
+   * Deletes {@code messageEvent} from the queue. With deferred deletes the message is queued and deleted in a batch
+   * later, see {@link Builder#withDeferredDeletes(long)}.
+   */
   @Override
   public void delete(MessageEvent messageEvent) {
+    if (deferredDeletes) {
+      deleter.add(messageEvent);
+      return;
+    }
     String receiptHandle = messageEvent.getMessageProperties()
         .get(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE);
     DeleteMessageRequest request = new DeleteMessageRequest()
@@ -87,11 +127,30 @@ public class SqsMessageReader implements MessageReader {
     consumer.deleteMessage(request);
   }
 
+  /**
+   * Deletes {@code messageEvents} from the queue with DeleteMessageBatch, up to 10 messages per request.
+   *
+   * @return the messages that could not be deleted, empty if all were
+   */
+  public List<SqsDeleteFailure> deleteAll(Collection<MessageEvent> messageEvents) {
+    return deleter.deleteAll(messageEvents);
+  }
+
+  /**
+   * Sends the deferred deletes straight away.
+   */
+  public void flushDeletes() {
+    deleter.flush();
+  }
+
   private Iterator<Message> receiveMessage() {
       ReceiveMessageRequest request = new ReceiveMessageRequest()
           .withQueueUrl(queueUrl)
           .withWaitTimeSeconds(waitTimeSeconds)
           .withMaxNumberOfMessages(maxMessages);
+      if (visibilityTimeoutSeconds != null) {
+        request.setVisibilityTimeout(visibilityTimeoutSeconds);
+      }
       return consumer.receiveMessage(request).getMessages().iterator();
   }
 
@@ -114,6 +173,11 @@ public class SqsMessageReader implements MessageReader {
     private String queueUrl;
     private Integer waitTimeSeconds;
     private Integer maxMessages;
+    private Integer visibilityTimeoutSeconds;
+    private int prefetchReceivers;
+    private Integer prefetchBufferSize;
+    private long deleteFlushIntervalMillis;
+    private Consumer<SqsDeleteFailure> deleteFailureHandler;
     private AmazonSQS consumer;
     private MessageDeserializer messageDeserializer;
 
@@ -141,6 +205,44 @@ public class SqsMessageReader implements MessageReader {
       return this;
     }
 
+    public Builder withVisibilityTimeoutSeconds(Integer visibilityTimeoutSeconds) {
+      this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+      return this;
+    }
+
+    /**
+     * Enables prefetching: {@code prefetchReceivers} threads receive messages concurrently into a buffer that
+     * {@link SqsMessageReader#read()} takes messages from. The visibility timeout of buffered messages is extended
+     * until they are read, but not afterwards. Unless {@link #withVisibilityTimeoutSeconds(Integer)} is set, the
+     * visibility timeout of the queue is read with GetQueueAttributes when the reader is built. Disabled by default.
+     */
+    public Builder withPrefetchReceivers(int prefetchReceivers) {
+      this.prefetchReceivers = prefetchReceivers;
+      return this;
+    }
+
+    public Builder withPrefetchBufferSize(Integer prefetchBufferSize) {
+      this.prefetchBufferSize = prefetchBufferSize;
+      return this;
+    }
+
+    /**
+     * Defers deletes: {@link SqsMessageReader#delete(MessageEvent)} queues the message, and queued messages are deleted
+     * in batches once 10 are queued or every {@code flushIntervalMillis}. Disabled by default.
+     */
+    public Builder withDeferredDeletes(long flushIntervalMillis) {
+      this.deleteFlushIntervalMillis = flushIntervalMillis;
+      return this;
+    }
+
+    /**
+     * Receives the messages that deferred deletes failed to delete, which are logged by default.
+     */
+    public Builder withDeleteFailureHandler(Consumer<SqsDeleteFailure> deleteFailureHandler) {
+      this.deleteFailureHandler = deleteFailureHandler;
+      return this;
+    }
+
     public SqsMessageReader build() {
       checkNotNull(queueUrl);
 
@@ -153,7 +255,36 @@ public class SqsMessageReader implements MessageReader {
       waitTimeSeconds = (waitTimeSeconds == null)
           ? DEFAULT_POLLING_WAIT_TIME_SECONDS : waitTimeSeconds;
 
-      return new SqsMessageReader(queueUrl, waitTimeSeconds, maxMessages, messageDeserializer, consumer);
+      SqsMessagePrefetcher prefetcher = null;
+      if (prefetchReceivers > 0) {
+        visibilityTimeoutSeconds = (visibilityTimeoutSeconds == null)
+            ? queueVisibilityTimeoutSeconds() : visibilityTimeoutSeconds;
+        prefetchBufferSize = (prefetchBufferSize == null)
+            ? DEFAULT_PREFETCH_BUFFER_SIZE : prefetchBufferSize;
+        prefetcher = new SqsMessagePrefetcher(consumer, queueUrl, waitTimeSeconds, maxMessages,
+            visibilityTimeoutSeconds, prefetchReceivers, prefetchBufferSize);
+        prefetcher.start();
+      }
+
+      SqsBatchDeleter deleter = new SqsBatchDeleter(consumer, queueUrl, deleteFlushIntervalMillis,
+          deleteFailureHandler);
+
+      return new SqsMessageReader(queueUrl, waitTimeSeconds, maxMessages, visibilityTimeoutSeconds,
+          messageDeserializer, consumer, prefetcher, deleter, deleteFlushIntervalMillis > 0);
+    }
+
+    /**
+     * The buffered messages are received with the visibility timeout of the queue, which the prefetcher needs to know
+     * to extend it in time.
+     */
+    private Integer queueVisibilityTimeoutSeconds() {
+      String visibilityTimeout = consumer
+          .getQueueAttributes(new GetQueueAttributesRequest(queueUrl)
+              .withAttributeNames(QueueAttributeName.VisibilityTimeout))
+          .getAttributes()
+          .get(QueueAttributeName.VisibilityTimeout.toString());
+      checkNotNull(visibilityTimeout, "Unable to read the visibility timeout of %s", queueUrl);
+      return Integer.valueOf(visibilityTimeout);
     }
 
     private AmazonSQS defaultConsumer() {
@@ -163,8 +294,7 @@ public class SqsMessageReader implements MessageReader {
     private MessageDeserializer defaultMessageDeserializer() {
       ObjectMapper mapper = new ObjectMapper()
           .configure(FAIL_ON_UNKNOWN_PROPERTIES, false);
-      JsonMetaStoreEventDeserializer delegateSerDe = new JsonMetaStoreEventDeserializer(mapper);
-      return new DefaultSqsMessageDeserializer(delegateSerDe, mapper);
+      return new StreamingSqsMessageDeserializer(mapper);
     }
   }
 }
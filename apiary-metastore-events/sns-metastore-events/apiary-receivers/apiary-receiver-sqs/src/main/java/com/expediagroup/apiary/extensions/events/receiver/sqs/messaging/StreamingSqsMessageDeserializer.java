@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.sqs.messaging;
+
+import static com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.expediagroup.apiary.extensions.events.receiver.common.error.SerDeException;
+import com.expediagroup.apiary.extensions.events.receiver.common.event.ListenerEvent;
+import com.expediagroup.apiary.extensions.events.receiver.common.messaging.JsonMetaStoreEventDeserializer;
+import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageDeserializer;
+
+/**
+ * Decodes SNS notifications delivered through SQS without binding the envelope to an {@link SqsMessage}. The envelope
+ * is streamed until the {@code Message} field is found and the event is then parsed directly from the parser's
+ * character buffer, so the inner JSON is neither copied into a {@code String} nor tokenized twice. Envelope fields
+ * after {@code Message} are never read.
+ */
+public class StreamingSqsMessageDeserializer implements MessageDeserializer {
+  private static final Logger log = LoggerFactory.getLogger(StreamingSqsMessageDeserializer.class);
+
+  private static final String MESSAGE = "Message";
+
+  private final JsonFactory factory;
+  private final JsonMetaStoreEventDeserializer delegateSerDe;
+
+  public StreamingSqsMessageDeserializer(ObjectMapper objectMapper) {
+    this(new JsonMetaStoreEventDeserializer(objectMapper), objectMapper);
+  }
+
+  public StreamingSqsMessageDeserializer(JsonMetaStoreEventDeserializer delegateSerDe, ObjectMapper objectMapper) {
+    this.delegateSerDe = delegateSerDe;
+    factory = objectMapper.getFactory();
+  }
+
+  @Override
+  public <T extends ListenerEvent> T unmarshal(String payload) throws SerDeException {
+    log.debug("Unmarshalled payload is: {}", payload);
+    try (JsonParser parser = factory.createParser(payload)) {
+      parser.enable(ALLOW_UNQUOTED_CONTROL_CHARS);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new SerDeException("Payload is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (MESSAGE.equals(fieldName)) {
+          if (token != JsonToken.VALUE_STRING) {
+            throw new SerDeException("Field " + MESSAGE + " is not a string");
+          }
+          // The character buffer is only valid until the outer parser moves on, so the event must be fully read here
+          try (JsonParser messageParser = factory
+              .createParser(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+            messageParser.enable(ALLOW_UNQUOTED_CONTROL_CHARS);
+            return delegateSerDe.unmarshal(messageParser);
+          }
+        }
+        parser.skipChildren();
+      }
+      throw new SerDeException("Payload does not contain field " + MESSAGE);
+    } catch (SerDeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SerDeException("Unable to unmarshal event from payload", e);
+    }
+  }
+}
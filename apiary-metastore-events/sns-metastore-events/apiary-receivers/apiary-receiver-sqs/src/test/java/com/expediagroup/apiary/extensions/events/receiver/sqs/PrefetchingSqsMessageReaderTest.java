@@ -0,0 +1,246 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.AmazonSQSException;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
+import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.QueueAttributeName;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+
+import com.expediagroup.apiary.extensions.events.receiver.common.event.ListenerEvent;
+import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageEvent;
+import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.DefaultSqsMessageDeserializer;
+import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.SqsMessageProperty;
+import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.SqsMessageReader;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PrefetchingSqsMessageReaderTest {
+
+  private static final String QUEUE_NAME = "queue";
+
+  private @Mock DefaultSqsMessageDeserializer serDe;
+  private @Mock AmazonSQS consumer;
+  private @Mock ListenerEvent event;
+
+  private @Captor ArgumentCaptor<ReceiveMessageRequest> receiveMessageRequestCaptor;
+  private @Captor ArgumentCaptor<ChangeMessageVisibilityBatchRequest> changeVisibilityRequestCaptor;
+
+  private SqsMessageReader reader;
+
+  @Before
+  public void init() throws Exception {
+    when(serDe.unmarshal(anyString())).thenReturn(event);
+    when(consumer.changeMessageVisibilityBatch(any(ChangeMessageVisibilityBatchRequest.class)))
+        .thenReturn(new ChangeMessageVisibilityBatchResult());
+  }
+
+  @After
+  public void tearDown() {
+    if (reader != null) {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void readReturnsPrefetchedMessages() throws Exception {
+    when(consumer.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(result(messages(0, 3)))
+        .thenAnswer(emptyResult());
+    reader = prefetchingReader(1, 10, 30);
+
+    for (int i = 0; i < 3; i++) {
+      MessageEvent messageEvent = reader.read().get();
+      assertThat(messageEvent.getEvent()).isSameAs(event);
+      assertThat(messageEvent.getMessageProperties().get(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE))
+          .isEqualTo("receipt_handle_" + i);
+    }
+    verify(consumer, atLeastOnce()).receiveMessage(receiveMessageRequestCaptor.capture());
+    ReceiveMessageRequest request = receiveMessageRequestCaptor.getAllValues().get(0);
+    assertThat(request.getQueueUrl()).isEqualTo(QUEUE_NAME);
+    assertThat(request.getMaxNumberOfMessages()).isEqualTo(10);
+    assertThat(request.getVisibilityTimeout()).isEqualTo(30);
+  }
+
+  @Test
+  public void receiversPollConcurrently() throws Exception {
+    CountDownLatch inFlight = new CountDownLatch(2);
+    AtomicInteger calls = new AtomicInteger();
+    Answer<ReceiveMessageResult> emptyResult = emptyResult();
+    when(consumer.receiveMessage(any(ReceiveMessageRequest.class))).thenAnswer(invocation -> {
+      int call = calls.getAndIncrement();
+      if (call >= 2) {
+        return emptyResult.answer(invocation);
+      }
+      inFlight.countDown();
+      // only succeeds if both receivers are waiting for SQS at the same time
+      if (inFlight.await(5, TimeUnit.SECONDS)) {
+        return result(messages(call, 1));
+      }
+      return new ReceiveMessageResult();
+    });
+    reader = prefetchingReader(2, 20, 30);
+
+    assertThat(reader.read()).isPresent();
+    assertThat(reader.read()).isPresent();
+  }
+
+  @Test
+  public void bufferedMessagesAreReturnedOnClose() throws Exception {
+    when(consumer.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(result(messages(0, 3)))
+        .thenAnswer(emptyResult());
+    reader = prefetchingReader(1, 10, 30);
+    reader.read();
+    reader.close();
+    reader = null;
+
+    verify(consumer).changeMessageVisibilityBatch(changeVisibilityRequestCaptor.capture());
+    List<ChangeMessageVisibilityBatchRequestEntry> entries = changeVisibilityRequestCaptor.getValue().getEntries();
+    assertThat(entries).hasSize(2);
+    assertThat(entries.get(0).getReceiptHandle()).isEqualTo("receipt_handle_1");
+    assertThat(entries.get(0).getVisibilityTimeout()).isEqualTo(0);
+    assertThat(entries.get(1).getReceiptHandle()).isEqualTo("receipt_handle_2");
+    verify(consumer).shutdown();
+  }
+
+  @Test
+  public void visibilityOfBufferedMessagesIsExtended() throws Exception {
+    when(consumer.receiveMessage(any(ReceiveMessageRequest.class)))
+        .thenReturn(result(messages(0, 1)))
+        .thenAnswer(emptyResult());
+    reader = prefetchingReader(1, 10, 1);
+
+    verify(consumer, timeout(5000L).atLeastOnce())
+        .changeMessageVisibilityBatch(changeVisibilityRequestCaptor.capture());
+    ChangeMessageVisibilityBatchRequestEntry entry = changeVisibilityRequestCaptor.getValue().getEntries().get(0);
+    assertThat(entry.getReceiptHandle()).isEqualTo("receipt_handle_0");
+    assertThat(entry.getVisibilityTimeout()).isEqualTo(1);
+  }
+
+  @Test
+  public void readReturnsNothingWhenNoMessageArrives() throws Exception {
+    when(consumer.receiveMessage(any(ReceiveMessageRequest.class))).thenAnswer(emptyResult());
+    reader = prefetchingReader(1, 10, 30);
+
+    Optional<MessageEvent> result = reader.read();
+    assertThat(result.isPresent()).isEqualTo(false);
+  }
+
+  @Test
+  public void visibilityTimeoutDefaultsToTheQueue() throws Exception {
+    when(consumer.getQueueAttributes(any(GetQueueAttributesRequest.class)))
+        .thenReturn(new GetQueueAttributesResult()
+            .withAttributes(Collections.singletonMap(QueueAttributeName.VisibilityTimeout.toString(), "45")));
+    when(consumer.receiveMessage(any(ReceiveMessageRequest.class))).thenAnswer(emptyResult());
+    reader = new SqsMessageReader.Builder(QUEUE_NAME)
+        .withConsumer(consumer)
+        .withMessageDeserializer(serDe)
+        .withWaitTimeSeconds(1)
+        .withPrefetchReceivers(1)
+        .build();
+
+    verify(consumer, timeout(5000L).atLeastOnce()).receiveMessage(receiveMessageRequestCaptor.capture());
+    assertThat(receiveMessageRequestCaptor.getValue().getVisibilityTimeout()).isEqualTo(45);
+  }
+
+  @Test
+  public void receiversBackOffAfterFailures() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    when(consumer.receiveMessage(any(ReceiveMessageRequest.class))).thenAnswer(invocation -> {
+      calls.incrementAndGet();
+      throw new AmazonSQSException("Service unavailable");
+    });
+    reader = prefetchingReader(1, 10, 30);
+    Thread.sleep(500L);
+
+    // without a backoff the receiver would retry in a tight loop
+    assertThat(calls.get()).isBetween(1, 20);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bufferSmallerThanBatch() {
+    prefetchingReader(1, 5, 30);
+  }
+
+  private SqsMessageReader prefetchingReader(int receivers, int bufferSize, int visibilityTimeoutSeconds) {
+    return new SqsMessageReader.Builder(QUEUE_NAME)
+        .withConsumer(consumer)
+        .withMessageDeserializer(serDe)
+        .withWaitTimeSeconds(1)
+        .withVisibilityTimeoutSeconds(visibilityTimeoutSeconds)
+        .withPrefetchReceivers(receivers)
+        .withPrefetchBufferSize(bufferSize)
+        .build();
+  }
+
+  private static List<Message> messages(int from, int count) {
+    List<Message> messages = new ArrayList<>();
+    for (int i = from; i < from + count; i++) {
+      messages
+          .add(new Message()
+              .withMessageId("id_" + i)
+              .withBody("message_" + i)
+              .withReceiptHandle("receipt_handle_" + i));
+    }
+    return messages;
+  }
+
+  private static ReceiveMessageResult result(List<Message> messages) {
+    return new ReceiveMessageResult().withMessages(messages);
+  }
+
+  private static Answer<ReceiveMessageResult> emptyResult() {
+    return invocation -> {
+      // simulates a long poll that returns no messages
+      Thread.sleep(50L);
+      return new ReceiveMessageResult();
+    };
+  }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.sqs;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.expediagroup.apiary.extensions.events.receiver.common.event.ListenerEvent;
+import com.expediagroup.apiary.extensions.events.receiver.common.messaging.JsonMetaStoreEventDeserializer;
+import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.DefaultSqsMessageDeserializer;
+import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.StreamingSqsMessageDeserializer;
+
+/**
+ * Measures how many SQS messages carrying an ADD_PARTITION notification can be decoded per second on a single core,
+ * comparing {@link StreamingSqsMessageDeserializer} with {@link DefaultSqsMessageDeserializer}, which binds the
+ * envelope first and then parses the inner message. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.expediagroup.apiary.extensions.events.receiver.sqs.SqsMessageDeserializerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqsMessageDeserializerBenchmark {
+
+  @Param({ "1", "100", "1000" })
+  public int partitions;
+
+  private DefaultSqsMessageDeserializer defaultDeserializer;
+  private StreamingSqsMessageDeserializer streamingDeserializer;
+  private String payload;
+
+  @Setup
+  public void setup() throws Exception {
+    ObjectMapper mapper = new ObjectMapper().configure(FAIL_ON_UNKNOWN_PROPERTIES, false);
+    defaultDeserializer = new DefaultSqsMessageDeserializer(new JsonMetaStoreEventDeserializer(mapper), mapper);
+    streamingDeserializer = new StreamingSqsMessageDeserializer(
+        new ObjectMapper().configure(FAIL_ON_UNKNOWN_PROPERTIES, false));
+
+    ObjectNode message = mapper.createObjectNode();
+    message.put("protocolVersion", "2.0");
+    message.put("eventType", "ADD_PARTITION");
+    message.put("dbName", "some_db");
+    message.put("tableName", "some_table");
+    message.put("tableLocation", "s3://table_location");
+    message.putObject("partitionKeys").put("col_1", "string").put("col_2", "integer");
+    ArrayNode partitionValues = message.putArray("partitionValues");
+    ArrayNode partitionLocations = message.putArray("partitionLocation");
+    for (int i = 0; i < partitions; i++) {
+      partitionValues.addArray().add("val_" + i).add(Integer.toString(i));
+      partitionLocations.add("s3://table_location/col_1=val_" + i + "/col_2=" + i);
+    }
+    message.putObject("tableParameters").put("param_1", "val_1").put("param_2", "val_2");
+
+    ObjectNode envelope = mapper.createObjectNode();
+    envelope.put("Type", "Notification");
+    envelope.put("MessageId", "message-id");
+    envelope.put("TopicArn", "arn:aws:sns:us-west-2:440000000000:sns-topic");
+    envelope.put("Message", mapper.writeValueAsString(message));
+    envelope.put("Timestamp", "2018-10-23T13:01:54.507Z");
+    envelope.put("SignatureVersion", "1");
+    envelope.put("Signature", "signature");
+    envelope.put("SigningCertURL", "https://sns.us-west-2.amazonaws.com/SimpleNotificationService-xxxx");
+    envelope.put("UnsubscribeURL", "https://sns.us-west-2.amazonaws.com/?Action=Unsubscribe");
+    payload = mapper.writeValueAsString(envelope);
+  }
+
+  @Benchmark
+  public ListenerEvent streaming() {
+    return streamingDeserializer.unmarshal(payload);
+  }
+
+  @Benchmark
+  public ListenerEvent envelopeThenMessage() {
+    return defaultDeserializer.unmarshal(payload);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SqsMessageDeserializerBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
@@ -17,10 +17,14 @@ package com.expediagroup.apiary.extensions.events.receiver.sqs;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +39,10 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.AmazonSQSException;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
 import com.amazonaws.services.sqs.model.DeleteMessageRequest;
 import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
@@ -46,6 +54,7 @@ import com.expediagroup.apiary.extensions.events.receiver.common.event.ListenerE
 import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageEvent;
 import com.expediagroup.apiary.extensions.events.receiver.common.messaging.MessageProperty;
 import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.DefaultSqsMessageDeserializer;
+import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.SqsDeleteFailure;
 import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.SqsMessageProperty;
 import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.SqsMessageReader;
 
@@ -68,6 +77,7 @@ public class SqsMessageReaderTest {
 
   private @Captor ArgumentCaptor<ReceiveMessageRequest> receiveMessageRequestCaptor;
   private @Captor ArgumentCaptor<DeleteMessageRequest> deleteMessageRequestCaptor;
+  private @Captor ArgumentCaptor<DeleteMessageBatchRequest> deleteMessageBatchRequestCaptor;
 
   private SqsMessageReader reader;
 
@@ -133,9 +143,104 @@ public class SqsMessageReaderTest {
     reader.delete(null);
   }
 
+  @Test
+  public void deleteMessagesInBatches() throws Exception {
+    when(consumer.deleteMessageBatch(any(DeleteMessageBatchRequest.class)))
+        .thenReturn(new DeleteMessageBatchResult()
+            .withFailed(new BatchResultErrorEntry()
+                .withId("1")
+                .withCode("ReceiptHandleIsInvalid")
+                .withMessage("invalid")
+                .withSenderFault(true)))
+        .thenReturn(new DeleteMessageBatchResult());
+    List<MessageEvent> messageEvents = messageEvents(12);
+
+    List<SqsDeleteFailure> failures = reader.deleteAll(messageEvents);
+
+    verify(consumer, times(2)).deleteMessageBatch(deleteMessageBatchRequestCaptor.capture());
+    List<DeleteMessageBatchRequest> requests = deleteMessageBatchRequestCaptor.getAllValues();
+    assertThat(requests.get(0).getQueueUrl()).isEqualTo(QUEUE_NAME);
+    assertThat(requests.get(0).getEntries()).hasSize(10);
+    assertThat(requests.get(1).getEntries()).hasSize(2);
+    assertThat(requests.get(1).getEntries().get(1).getReceiptHandle()).isEqualTo(RECEIPT_HANDLE + "_11");
+    assertThat(failures).hasSize(1);
+    assertThat(failures.get(0).getMessageEvent()).isSameAs(messageEvents.get(1));
+    assertThat(failures.get(0).getCode()).isEqualTo("ReceiptHandleIsInvalid");
+    assertThat(failures.get(0).isSenderFault()).isTrue();
+    verify(consumer, never()).deleteMessage(any(DeleteMessageRequest.class));
+  }
+
+  @Test
+  public void deferredDeletesAreSentInFullBatches() throws Exception {
+    when(consumer.deleteMessageBatch(any(DeleteMessageBatchRequest.class))).thenReturn(new DeleteMessageBatchResult());
+    reader = new SqsMessageReader.Builder(QUEUE_NAME)
+        .withConsumer(consumer)
+        .withMessageDeserializer(serDe)
+        .withDeferredDeletes(60000L)
+        .build();
+    for (MessageEvent messageEvent : messageEvents(11)) {
+      reader.delete(messageEvent);
+    }
+    verify(consumer).deleteMessageBatch(deleteMessageBatchRequestCaptor.capture());
+    assertThat(deleteMessageBatchRequestCaptor.getValue().getEntries()).hasSize(10);
+
+    reader.close();
+    verify(consumer, times(2)).deleteMessageBatch(deleteMessageBatchRequestCaptor.capture());
+    assertThat(deleteMessageBatchRequestCaptor.getValue().getEntries()).hasSize(1);
+    verify(consumer, never()).deleteMessage(any(DeleteMessageRequest.class));
+  }
+
+  @Test
+  public void deferredDeletesAreFlushedPeriodically() throws Exception {
+    when(consumer.deleteMessageBatch(any(DeleteMessageBatchRequest.class))).thenReturn(new DeleteMessageBatchResult());
+    reader = new SqsMessageReader.Builder(QUEUE_NAME)
+        .withConsumer(consumer)
+        .withMessageDeserializer(serDe)
+        .withDeferredDeletes(50L)
+        .build();
+    reader.delete(messageEvents(1).get(0));
+
+    verify(consumer, timeout(5000L)).deleteMessageBatch(deleteMessageBatchRequestCaptor.capture());
+    assertThat(deleteMessageBatchRequestCaptor.getValue().getEntries().get(0).getReceiptHandle())
+        .isEqualTo(RECEIPT_HANDLE + "_0");
+    reader.close();
+  }
+
+  @Test
+  public void failedDeferredDeletesAreReported() throws Exception {
+    when(consumer.deleteMessageBatch(any(DeleteMessageBatchRequest.class)))
+        .thenThrow(new AmazonSQSException("SQS is unavailable"));
+    List<SqsDeleteFailure> failures = new ArrayList<>();
+    reader = new SqsMessageReader.Builder(QUEUE_NAME)
+        .withConsumer(consumer)
+        .withMessageDeserializer(serDe)
+        .withDeferredDeletes(60000L)
+        .withDeleteFailureHandler(failures::add)
+        .build();
+    List<MessageEvent> messageEvents = messageEvents(2);
+    reader.delete(messageEvents.get(0));
+    reader.delete(messageEvents.get(1));
+    reader.flushDeletes();
+
+    assertThat(failures).hasSize(2);
+    assertThat(failures.get(0).getMessageEvent()).isSameAs(messageEvents.get(0));
+    assertThat(failures.get(1).getMessageEvent()).isSameAs(messageEvents.get(1));
+    assertThat(failures.get(0).isSenderFault()).isFalse();
+  }
+
   @Test(expected = SerDeException.class)
   public void unmarshallThrowsException() throws Exception {
     when(serDe.unmarshal(any(String.class))).thenThrow(RuntimeException.class);
     reader.read();
   }
+
+  private List<MessageEvent> messageEvents(int count) {
+    List<MessageEvent> messageEvents = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Map<MessageProperty, String> properties = Collections
+          .singletonMap(SqsMessageProperty.SQS_MESSAGE_RECEIPT_HANDLE, RECEIPT_HANDLE + "_" + i);
+      messageEvents.add(new MessageEvent(event, properties));
+    }
+    return messageEvents;
+  }
 }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.events.receiver.sqs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.expediagroup.apiary.extensions.events.receiver.common.error.SerDeException;
+import com.expediagroup.apiary.extensions.events.receiver.common.event.AddPartitionEvent;
+import com.expediagroup.apiary.extensions.events.receiver.common.event.EventType;
+import com.expediagroup.apiary.extensions.events.receiver.sqs.messaging.StreamingSqsMessageDeserializer;
+
+public class StreamingSqsMessageDeserializerTest {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().configure(FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private static final String BASE_EVENT_FROM_SNS = "{"
+      + "  \"Type\" : \"Notification\","
+      + "  \"MessageId\" : \"message-id\","
+      + "  \"TopicArn\" : \"arn:aws:sns:us-west-2:sns-topic\","
+      + "  \"Timestamp\" : \"2018-10-23T13:01:54.507Z\","
+      + "  \"SignatureVersion\" : \"1\","
+      + "  \"Signature\" : \"signature\","
+      + "  \"SigningCertURL\" : \"https://sns.us-west-2.amazonaws.com/SimpleNotificationService-xxxx\","
+      + "  \"UnsubscribeURL\" : \"https://sns.us-west-2.amazonaws.com/?Action=Unsubscribe&SubscriptionArn=arn:aws:sns:us-west-2:440000000000:sns-topic\",";
+
+  private final StreamingSqsMessageDeserializer sqsMessageDeserializer = new StreamingSqsMessageDeserializer(
+      OBJECT_MAPPER);
+
+  @Test
+  public void typicalUnmarshal() {
+    String payload = BASE_EVENT_FROM_SNS + messageField(getSqsMessage()) + "}";
+    AddPartitionEvent event = sqsMessageDeserializer.unmarshal(payload);
+    assertAddPartitionEvent(event);
+  }
+
+  @Test
+  public void messageIsNotTheLastField() {
+    String payload = "{" + messageField(getSqsMessage()) + "," + BASE_EVENT_FROM_SNS.substring(1) + "\"Extra\":{}}";
+    AddPartitionEvent event = sqsMessageDeserializer.unmarshal(payload);
+    assertAddPartitionEvent(event);
+  }
+
+  @Test
+  public void messageWithEscapedCharacters() {
+    String message = getSqsMessage().replace("s3://table_location\"", "s3://table_location/\\u00e9t\\u00e9\"");
+    AddPartitionEvent event = sqsMessageDeserializer.unmarshal(BASE_EVENT_FROM_SNS + messageField(message) + "}");
+    assertThat(event.getTableLocation()).isEqualTo("s3://table_location/\u00e9t\u00e9");
+  }
+
+  @Test(expected = SerDeException.class)
+  public void payloadWithoutMessage() {
+    sqsMessageDeserializer.unmarshal(BASE_EVENT_FROM_SNS + "\"Extra\":\"value\"}");
+  }
+
+  @Test(expected = SerDeException.class)
+  public void messageIsNotAString() {
+    sqsMessageDeserializer.unmarshal(BASE_EVENT_FROM_SNS + "\"Message\":" + getSqsMessage() + "}");
+  }
+
+  @Test(expected = SerDeException.class)
+  public void payloadIsNotJson() {
+    sqsMessageDeserializer.unmarshal("message");
+  }
+
+  private static void assertAddPartitionEvent(AddPartitionEvent event) {
+    assertThat(event.getEventType()).isEqualTo(EventType.ADD_PARTITION);
+    assertThat(event.getProtocolVersion()).isEqualTo("1.0");
+    assertThat(event.getDbName()).isEqualTo("some_db");
+    assertThat(event.getTableName()).isEqualTo("some_table");
+    assertThat(event.getTableLocation()).isEqualTo("s3://table_location");
+    assertThat(event.getPartitionKeys())
+        .isEqualTo(ImmutableMap.of("col_1", "string", "col_2", "integer", "col_3", "string"));
+    assertThat(event.getPartitionValues()).isEqualTo(ImmutableList.of("val_1", "val_2", "val_3"));
+    assertThat(event.getPartitionLocation()).isEqualTo("s3://table_location/partition_location");
+    assertThat(event.getTableParameters()).isEqualTo(ImmutableMap.of("param_1", "val_1", "param_2", "val_2"));
+  }
+
+  private static String messageField(String message) {
+    return "\"Message\" : \"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+
+  private static String getSqsMessage() {
+    return "{\"protocolVersion\":\"1.0\","
+        + "\"eventType\":\"ADD_PARTITION\","
+        + "\"dbName\":\"some_db\","
+        + "\"tableName\":\"some_table\","
+        + "\"tableLocation\":\"s3://table_location\","
+        + "\"partitionKeys\":{\"col_1\":\"string\", \"col_2\": \"integer\", \"col_3\":\"string\"},"
+        + "\"partitionValues\":[\"val_1\", \"val_2\", \"val_3\"],"
+        + "\"partitionLocation\":\"s3://table_location/partition_location\","
+        + "\"tableParameters\":{"
+        + "\"param_1\": \"val_1\","
+        + "\"param_2\": \"val_2\""
+        + "}}";
+  }
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,12 @@
  */
 package com.expediagroup.apiary.extensions.gluesync.listener;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.metastore.MetaStoreEventListener;
@@ -41,50 +46,174 @@ import com.amazonaws.services.glue.model.EntityNotFoundException;
 import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
 import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
 import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueDatabaseService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GluePartitionCopier;
 import com.expediagroup.apiary.extensions.gluesync.listener.service.GluePartitionService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueRateLimiter;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueSyncStateCache;
 import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueTableService;
 import com.expediagroup.apiary.extensions.gluesync.listener.service.IsIcebergTablePredicate;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.RetryingGlueClient;
 
 public class ApiaryGlueSync extends MetaStoreEventListener {
 
   private static final Logger log = LoggerFactory.getLogger(ApiaryGlueSync.class);
 
+  static final String ASYNC_ENABLED = "GLUE_SYNC_ASYNC_ENABLED";
+  static final String ASYNC_THREADS = "GLUE_SYNC_ASYNC_THREADS";
+  static final String ASYNC_QUEUE_CAPACITY = "GLUE_SYNC_ASYNC_QUEUE_CAPACITY";
+  static final String ASYNC_DRAIN_TIMEOUT_SECONDS = "GLUE_SYNC_ASYNC_DRAIN_TIMEOUT_SECONDS";
+  static final String THROTTLING_MAX_RETRIES = "GLUE_SYNC_THROTTLING_MAX_RETRIES";
+  static final String RENAME_COPY_SEGMENTS = "GLUE_SYNC_RENAME_COPY_SEGMENTS";
+  static final String RENAME_COPY_WRITERS = "GLUE_SYNC_RENAME_COPY_WRITERS";
+  static final String STATE_CACHE_SIZE = "GLUE_SYNC_STATE_CACHE_SIZE";
+  static final String STATE_CACHE_TTL_SECONDS = "GLUE_SYNC_STATE_CACHE_TTL_SECONDS";
+  static final String RATE_LIMIT_DATABASE_TPS = "GLUE_SYNC_RATE_LIMIT_DATABASE_TPS";
+  static final String RATE_LIMIT_TABLE_TPS = "GLUE_SYNC_RATE_LIMIT_TABLE_TPS";
+  static final String RATE_LIMIT_PARTITION_TPS = "GLUE_SYNC_RATE_LIMIT_PARTITION_TPS";
+
+  static final int DEFAULT_THROTTLING_MAX_RETRIES = 8;
+  static final long THROTTLING_BASE_DELAY_MS = 100L;
+  static final long THROTTLING_MAX_DELAY_MS = 20000L;
+  static final long RATE_LIMIT_MAX_WAIT_MS = 60000L;
+
+  // the metastore thread only waits briefly for throttled calls and permits
+  private static final int DEFAULT_SYNC_THROTTLING_MAX_RETRIES = 2;
+  private static final long SYNC_THROTTLING_MAX_DELAY_MS = 1000L;
+  private static final long SYNC_RATE_LIMIT_MAX_WAIT_MS = 1000L;
+
+  private static final int DEFAULT_ASYNC_THREADS = 4;
+  private static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 10000;
+  private static final int DEFAULT_ASYNC_DRAIN_TIMEOUT_SECONDS = 30;
+
   private final AWSGlue glueClient;
   private final GlueDatabaseService glueDatabaseService;
   private final GlueTableService glueTableService;
   private final GluePartitionService gluePartitionService;
+  private final GluePartitionCopier gluePartitionCopier;
   private final IsIcebergTablePredicate isIcebergPredicate;
   private final MetricService metricService;
+  private final AsyncGlueSyncExecutor asyncExecutor;
 
   public ApiaryGlueSync(Configuration config) {
-    super(config);
-    this.glueClient = AWSGlueClientBuilder.standard().withRegion(System.getenv("AWS_REGION")).build();
-    String gluePrefix = System.getenv("GLUE_PREFIX");
-    this.glueDatabaseService = new GlueDatabaseService(glueClient, gluePrefix);
-    this.glueTableService = new GlueTableService(glueClient, gluePrefix);
-    this.gluePartitionService = new GluePartitionService(glueClient, gluePrefix);
-    this.isIcebergPredicate = new IsIcebergTablePredicate();
-    this.metricService = new MetricService();
-    log.debug("ApiaryGlueSync created");
+    this(config, new MetricService());
+  }
+
+  private ApiaryGlueSync(Configuration config, MetricService metricService) {
+    this(config, glueClient(metricService), System.getenv("GLUE_PREFIX"), metricService, asyncExecutor(metricService));
   }
 
   public ApiaryGlueSync(Configuration config, AWSGlue glueClient, String gluePrefix, MetricService metricService) {
+    this(config, glueClient, gluePrefix, metricService, null);
+  }
+
+  /**
+   * @param asyncExecutor applies the Glue operations in the background, or {@code null} to apply them on the metastore
+   *          thread
+   */
+  ApiaryGlueSync(
+      Configuration config,
+      AWSGlue glueClient,
+      String gluePrefix,
+      MetricService metricService,
+      AsyncGlueSyncExecutor asyncExecutor) {
+    this(config, glueClient, gluePrefix, metricService, asyncExecutor, stateCache(metricService));
+  }
+
+  ApiaryGlueSync(
+      Configuration config,
+      AWSGlue glueClient,
+      String gluePrefix,
+      MetricService metricService,
+      AsyncGlueSyncExecutor asyncExecutor,
+      GlueSyncStateCache stateCache) {
     super(config);
     this.glueClient = glueClient;
     this.glueDatabaseService = new GlueDatabaseService(glueClient, gluePrefix);
-    this.glueTableService = new GlueTableService(glueClient, gluePrefix);
-    this.gluePartitionService = new GluePartitionService(glueClient, gluePrefix);
+    this.glueTableService = new GlueTableService(glueClient, gluePrefix, stateCache);
+    this.gluePartitionService = new GluePartitionService(glueClient, gluePrefix, stateCache);
+    this.gluePartitionCopier = new GluePartitionCopier(glueClient, gluePrefix, metricService,
+        intEnv(RENAME_COPY_SEGMENTS, GluePartitionCopier.DEFAULT_SEGMENTS),
+        intEnv(RENAME_COPY_WRITERS, GluePartitionCopier.DEFAULT_WRITERS));
     this.isIcebergPredicate = new IsIcebergTablePredicate();
     this.metricService = metricService;
+    this.asyncExecutor = asyncExecutor;
     log.debug("ApiaryGlueSync created");
   }
 
+  private static AWSGlue glueClient(MetricService metricService) {
+    AWSGlue glueClient = AWSGlueClientBuilder
+        .standard()
+        .withRegion(System.getenv("AWS_REGION"))
+        .withClientConfiguration(RetryingGlueClient.clientConfiguration())
+        .build();
+    if (asyncEnabled()) {
+      int maxRetries = intEnv(THROTTLING_MAX_RETRIES, DEFAULT_THROTTLING_MAX_RETRIES);
+      return RetryingGlueClient.wrap(glueClient, maxRetries, THROTTLING_BASE_DELAY_MS, THROTTLING_MAX_DELAY_MS,
+          rateLimiter(RATE_LIMIT_MAX_WAIT_MS, metricService), metricService);
+    }
+    int maxRetries = intEnv(THROTTLING_MAX_RETRIES, DEFAULT_SYNC_THROTTLING_MAX_RETRIES);
+    return RetryingGlueClient.wrap(glueClient, maxRetries, THROTTLING_BASE_DELAY_MS, SYNC_THROTTLING_MAX_DELAY_MS,
+        rateLimiter(SYNC_RATE_LIMIT_MAX_WAIT_MS, metricService), metricService);
+  }
+
+  private static GlueSyncStateCache stateCache(MetricService metricService) {
+    int stateCacheTtlSeconds = (int) MILLISECONDS.toSeconds(GlueSyncStateCache.DEFAULT_TTL_MILLIS);
+    return new GlueSyncStateCache(
+        SECONDS.toMillis(intEnv(STATE_CACHE_TTL_SECONDS, stateCacheTtlSeconds)),
+        intEnv(STATE_CACHE_SIZE, GlueSyncStateCache.DEFAULT_MAX_SIZE),
+        metricService);
+  }
+
+  static GlueRateLimiter rateLimiter(long maxWaitMs, MetricService metricService) {
+    return new GlueRateLimiter(
+        intEnv(RATE_LIMIT_DATABASE_TPS, GlueRateLimiter.DEFAULT_DATABASE_TPS),
+        intEnv(RATE_LIMIT_TABLE_TPS, GlueRateLimiter.DEFAULT_TABLE_TPS),
+        intEnv(RATE_LIMIT_PARTITION_TPS, GlueRateLimiter.DEFAULT_PARTITION_TPS),
+        maxWaitMs,
+        metricService);
+  }
+
+  private static AsyncGlueSyncExecutor asyncExecutor(MetricService metricService) {
+    if (!asyncEnabled()) {
+      return null;
+    }
+    AsyncGlueSyncExecutor asyncExecutor = new AsyncGlueSyncExecutor(
+        intEnv(ASYNC_THREADS, DEFAULT_ASYNC_THREADS),
+        intEnv(ASYNC_QUEUE_CAPACITY, DEFAULT_ASYNC_QUEUE_CAPACITY),
+        SECONDS.toMillis(intEnv(ASYNC_DRAIN_TIMEOUT_SECONDS, DEFAULT_ASYNC_DRAIN_TIMEOUT_SECONDS)),
+        metricService);
+    Runtime.getRuntime().addShutdownHook(new Thread(asyncExecutor::close, "apiary-glue-sync-shutdown"));
+    log.info("ApiaryGlueSync will apply Glue operations asynchronously");
+    return asyncExecutor;
+  }
+
+  private static boolean asyncEnabled() {
+    return Boolean.parseBoolean(System.getenv(ASYNC_ENABLED));
+  }
+
+  static int intEnv(String name, int defaultValue) {
+    String value = System.getenv(name);
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      log.warn("Invalid value {} for {}, using {}", value, name, defaultValue);
+      return defaultValue;
+    }
+  }
+
   @Override
   public void onCreateDatabase(CreateDatabaseEvent event) {
     if (!event.getStatus()) {
       return;
     }
     Database database = event.getDatabase();
+    apply(database.getName(), "create database " + database.getName(), () -> createDatabase(database));
+  }
+
+  private void createDatabase(Database database) {
     try {
       glueDatabaseService.create(database);
       metricService.incrementCounter(MetricConstants.LISTENER_DATABASE_SUCCESS);
@@ -104,6 +233,10 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
       return;
     }
     Database database = event.getDatabase();
+    apply(database.getName(), "drop database " + database.getName(), () -> dropDatabase(database));
+  }
+
+  private void dropDatabase(Database database) {
     try {
       glueDatabaseService.delete(database);
       metricService.incrementCounter(MetricConstants.LISTENER_DATABASE_SUCCESS);
@@ -119,6 +252,10 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
       return;
     }
     Table table = event.getTable();
+    apply(table.getDbName(), "create table " + qualifiedName(table), () -> createTable(table));
+  }
+
+  private void createTable(Table table) {
     try {
       glueTableService.create(table);
       metricService.incrementCounter(MetricConstants.LISTENER_TABLE_SUCCESS);
@@ -138,6 +275,10 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
       return;
     }
     Table table = event.getTable();
+    apply(table.getDbName(), "drop table " + qualifiedName(table), () -> dropTable(table));
+  }
+
+  private void dropTable(Table table) {
     try {
       glueTableService.delete(table);
       metricService.incrementCounter(MetricConstants.LISTENER_TABLE_SUCCESS);
@@ -156,6 +297,11 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
     }
     Table oldTable = event.getOldTable();
     Table newTable = event.getNewTable();
+    apply(newTable.getDbName(), oldTable.getDbName(), "alter table " + qualifiedName(oldTable),
+        () -> alterTable(oldTable, newTable));
+  }
+
+  private void alterTable(Table oldTable, Table newTable) {
     try {
       // Only Iceberg rename is supported by Glue, for Hive tables we need to delete table and create again
       if (isTableRename(oldTable, newTable) && !isIcebergPredicate.test(oldTable.getParameters())) {
@@ -178,7 +324,7 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
     log.info("{} glue table rename detected to {}", oldTable.getTableName(), newTable.getTableName());
     long startTime = System.currentTimeMillis();
     glueTableService.create(newTable);
-    glueTableService.copyPartitions(newTable, glueTableService.getPartitions(oldTable));
+    gluePartitionCopier.copy(oldTable, newTable);
     glueTableService.delete(oldTable);
     metricService.incrementCounter(MetricConstants.LISTENER_TABLE_SUCCESS);
     long duration = System.currentTimeMillis() - startTime;
@@ -186,7 +332,8 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
   }
 
   private boolean isTableRename(Table oldTable, Table newTable) {
-    return !oldTable.getTableName().equals(newTable.getTableName());
+    return !oldTable.getTableName().equals(newTable.getTableName())
+        || !oldTable.getDbName().equals(newTable.getDbName());
   }
 
   @Override
@@ -195,9 +342,23 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
       return;
     }
     Table table = event.getTable();
-    Iterator<Partition> partitions = event.getPartitionIterator();
-    while (partitions.hasNext()) {
-      Partition partition = partitions.next();
+    List<Partition> partitions = partitions(event.getPartitionIterator());
+    apply(table.getDbName(), "add " + partitions.size() + " partitions to " + qualifiedName(table),
+        () -> addPartitions(table, partitions));
+  }
+
+  private void addPartitions(Table table, List<Partition> partitions) {
+    if (partitions.size() > 1) {
+      try {
+        List<Partition> failed = gluePartitionService.createAll(table, partitions);
+        countPartitions(partitions.size(), failed.size());
+      } catch (Exception e) {
+        log.error("Failed add partitions on table {}.{} in glue", table.getDbName(), table.getTableName(), e);
+        countPartitions(partitions.size(), partitions.size());
+      }
+      return;
+    }
+    for (Partition partition : partitions) {
       try {
         gluePartitionService.create(table, partition);
         metricService.incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS);
@@ -217,9 +378,23 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
       return;
     }
     Table table = event.getTable();
-    Iterator<Partition> partitions = event.getPartitionIterator();
-    while (partitions.hasNext()) {
-      Partition partition = partitions.next();
+    List<Partition> partitions = partitions(event.getPartitionIterator());
+    apply(table.getDbName(), "drop " + partitions.size() + " partitions from " + qualifiedName(table),
+        () -> dropPartitions(table, partitions));
+  }
+
+  private void dropPartitions(Table table, List<Partition> partitions) {
+    if (partitions.size() > 1) {
+      try {
+        List<Partition> failed = gluePartitionService.deleteAll(table, partitions);
+        countPartitions(partitions.size(), failed.size());
+      } catch (Exception e) {
+        log.error("Failed drop partitions on table {}.{} in glue", table.getDbName(), table.getTableName(), e);
+        countPartitions(partitions.size(), partitions.size());
+      }
+      return;
+    }
+    for (Partition partition : partitions) {
       try {
         gluePartitionService.delete(table, partition);
         metricService.incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS);
@@ -237,6 +412,11 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
     }
     Table table = event.getTable();
     Partition partition = event.getNewPartition();
+    apply(table.getDbName(), "alter partition " + partition.getValues() + " of " + qualifiedName(table),
+        () -> alterPartition(table, partition));
+  }
+
+  private void alterPartition(Table table, Partition partition) {
     try {
       gluePartitionService.update(table, partition);
       metricService.incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS);
@@ -248,4 +428,42 @@ public class ApiaryGlueSync extends MetaStoreEventListener {
       metricService.incrementCounter(MetricConstants.LISTENER_PARTITION_FAILURE);
     }
   }
+
+  /**
+   * Applies the operation on the metastore thread, or hands it to the asynchronous executor when it is enabled.
+   */
+  private void apply(String databaseName, String description, Runnable operation) {
+    if (asyncExecutor == null) {
+      operation.run();
+    } else {
+      asyncExecutor.submit(databaseName, description, operation);
+    }
+  }
+
+  /**
+   * Applies an operation on two databases, waiting in the asynchronous executor for the operations already queued for
+   * either of them.
+   */
+  private void apply(String databaseName, String otherDatabaseName, String description, Runnable operation) {
+    if (asyncExecutor == null) {
+      operation.run();
+    } else {
+      asyncExecutor.submit(databaseName, otherDatabaseName, description, operation);
+    }
+  }
+
+  private static String qualifiedName(Table table) {
+    return table.getDbName() + "." + table.getTableName();
+  }
+
+  private List<Partition> partitions(Iterator<Partition> iterator) {
+    List<Partition> partitions = new ArrayList<>();
+    iterator.forEachRemaining(partitions::add);
+    return partitions;
+  }
+
+  private void countPartitions(int total, int failed) {
+    metricService.incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS, total - failed);
+    metricService.incrementCounter(MetricConstants.LISTENER_PARTITION_FAILURE, failed);
+  }
 }
@@ -0,0 +1,249 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.Closeable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+
+/**
+ * Applies Glue sync operations on background workers so that the metastore thread only pays for an enqueue. Each
+ * operation is routed by database name to one of a fixed number of single threaded lanes, so the operations on a
+ * database, and therefore on each of its tables and partitions, are applied in the order the metastore emitted them.
+ * This also keeps a table behind the creation of its database and the partitions of a renamed table behind the
+ * rename. An operation on two databases, such as a table moved to another database, is queued on both lanes and
+ * holds them both while it is applied. Each lane has a bounded queue; when it is full, or once the executor is closed,
+ * the operation is dropped and counted rather than blocking the metastore.
+ */
+class AsyncGlueSyncExecutor implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncGlueSyncExecutor.class);
+
+  private static final long POLL_TIMEOUT_MS = 200L;
+
+  private final Lane[] lanes;
+  private final long drainTimeoutMs;
+  private final MetricService metricService;
+  private volatile boolean running = true;
+
+  AsyncGlueSyncExecutor(int threads, int queueCapacity, long drainTimeoutMs, MetricService metricService) {
+    this.drainTimeoutMs = drainTimeoutMs;
+    this.metricService = metricService;
+    lanes = new Lane[threads];
+    for (int i = 0; i < threads; i++) {
+      lanes[i] = new Lane(queueCapacity, "apiary-glue-sync-" + i);
+    }
+    metricService.registerGauge(MetricConstants.LISTENER_ASYNC_QUEUE_DEPTH, this::queueDepth);
+    metricService.registerGauge(MetricConstants.LISTENER_ASYNC_LAG_MS, this::lagMs);
+  }
+
+  /**
+   * @return {@code false} if the operation was dropped because the queue of its lane is full or the executor is closed
+   */
+  boolean submit(String databaseName, String description, Runnable operation) {
+    if (!running) {
+      return dropped("Glue sync executor is closed, dropping {}", description);
+    }
+    if (!lane(databaseName).queue.offer(new PendingOperation(description, operation))) {
+      return dropped("Glue sync queue is full, dropping {}", description);
+    }
+    return true;
+  }
+
+  /**
+   * Submits an operation that touches two databases. It is applied on the lane of {@code databaseName} once the
+   * operations submitted before it on the lane of {@code otherDatabaseName} have been applied, and the operations
+   * submitted after it on either lane wait for it.
+   *
+   * @return {@code false} if the operation was dropped because the queue of one of its lanes is full or the executor
+   *         is closed
+   */
+  boolean submit(String databaseName, String otherDatabaseName, String description, Runnable operation) {
+    Lane lane = lane(databaseName);
+    Lane otherLane = lane(otherDatabaseName);
+    if (lane == otherLane) {
+      return submit(databaseName, description, operation);
+    }
+    if (!running) {
+      return dropped("Glue sync executor is closed, dropping {}", description);
+    }
+    Barrier barrier = new Barrier();
+    // operations on two lanes are queued in the same order on every lane, so two of them never wait for each other
+    synchronized (this) {
+      if (!otherLane.queue.offer(new PendingOperation(description, barrier::hold))) {
+        return dropped("Glue sync queue is full, dropping {}", description);
+      }
+      if (!lane.queue.offer(new PendingOperation(description, () -> barrier.apply(operation)))) {
+        barrier.cancel();
+        return dropped("Glue sync queue is full, dropping {}", description);
+      }
+    }
+    return true;
+  }
+
+  private Lane lane(String databaseName) {
+    return lanes[Math.floorMod(databaseName.hashCode(), lanes.length)];
+  }
+
+  private boolean dropped(String message, String description) {
+    log.error(message, description);
+    metricService.incrementCounter(MetricConstants.LISTENER_ASYNC_DROPPED);
+    return false;
+  }
+
+  int queueDepth() {
+    int depth = 0;
+    for (Lane lane : lanes) {
+      depth += lane.queue.size();
+    }
+    return depth;
+  }
+
+  /**
+   * @return how long the oldest operation not yet applied has been waiting, in milliseconds
+   */
+  long lagMs() {
+    long now = System.nanoTime();
+    long lagNanos = 0L;
+    for (Lane lane : lanes) {
+      PendingOperation oldest = lane.current;
+      if (oldest == null) {
+        oldest = lane.queue.peek();
+      }
+      if (oldest != null) {
+        lagNanos = Math.max(lagNanos, now - oldest.enqueuedNanos);
+      }
+    }
+    return NANOSECONDS.toMillis(lagNanos);
+  }
+
+  /**
+   * Stops accepting new operations and waits up to the drain timeout for the operations already queued to be applied.
+   */
+  @Override
+  public void close() {
+    running = false;
+    long deadline = System.nanoTime() + MILLISECONDS.toNanos(drainTimeoutMs);
+    for (Lane lane : lanes) {
+      try {
+        lane.worker.join(Math.max(1L, NANOSECONDS.toMillis(deadline - System.nanoTime())));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    int unapplied = 0;
+    for (Lane lane : lanes) {
+      lane.worker.interrupt();
+      unapplied += lane.queue.size();
+    }
+    if (unapplied > 0) {
+      log.warn("Glue sync executor closed with {} operations not applied", unapplied);
+      metricService.incrementCounter(MetricConstants.LISTENER_ASYNC_DROPPED, unapplied);
+    }
+  }
+
+  private final class Lane {
+    private final BlockingQueue<PendingOperation> queue;
+    private final Thread worker;
+    private volatile PendingOperation current;
+
+    private Lane(int queueCapacity, String name) {
+      queue = new LinkedBlockingQueue<>(queueCapacity);
+      worker = new Thread(this::drain, name);
+      worker.setDaemon(true);
+      worker.start();
+    }
+
+    private void drain() {
+      while (running || !queue.isEmpty()) {
+        PendingOperation operation;
+        try {
+          operation = queue.poll(POLL_TIMEOUT_MS, MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        if (operation == null) {
+          continue;
+        }
+        current = operation;
+        try {
+          operation.operation.run();
+        } catch (Exception e) {
+          log.error("Failed to apply {} in glue", operation.description, e);
+        } finally {
+          current = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Joins the lanes of an operation on two databases: the other lane holds at the barrier until the operation has been
+   * applied, and the operation waits for the other lane to reach the barrier.
+   */
+  private static final class Barrier {
+    private final CountDownLatch held = new CountDownLatch(1);
+    private final CountDownLatch applied = new CountDownLatch(1);
+
+    private void hold() {
+      held.countDown();
+      try {
+        applied.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void apply(Runnable operation) {
+      try {
+        held.await();
+        operation.run();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        applied.countDown();
+      }
+    }
+
+    private void cancel() {
+      applied.countDown();
+    }
+  }
+
+  private static final class PendingOperation {
+    private final String description;
+    private final Runnable operation;
+    private final long enqueuedNanos = System.nanoTime();
+
+    private PendingOperation(String description, Runnable operation) {
+      this.description = description;
+      this.operation = operation;
+    }
+  }
+
+}
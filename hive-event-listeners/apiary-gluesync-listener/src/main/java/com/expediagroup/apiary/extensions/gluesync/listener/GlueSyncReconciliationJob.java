@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static com.expediagroup.apiary.extensions.gluesync.listener.ApiaryGlueSync.DEFAULT_THROTTLING_MAX_RETRIES;
+import static com.expediagroup.apiary.extensions.gluesync.listener.ApiaryGlueSync.RATE_LIMIT_MAX_WAIT_MS;
+import static com.expediagroup.apiary.extensions.gluesync.listener.ApiaryGlueSync.THROTTLING_BASE_DELAY_MS;
+import static com.expediagroup.apiary.extensions.gluesync.listener.ApiaryGlueSync.THROTTLING_MAX_DELAY_MS;
+import static com.expediagroup.apiary.extensions.gluesync.listener.ApiaryGlueSync.THROTTLING_MAX_RETRIES;
+import static com.expediagroup.apiary.extensions.gluesync.listener.ApiaryGlueSync.intEnv;
+import static com.expediagroup.apiary.extensions.gluesync.listener.ApiaryGlueSync.rateLimiter;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.glue.AWSGlue;
+import com.amazonaws.services.glue.AWSGlueClientBuilder;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueCatalogReconciler;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.RetryingGlueClient;
+
+/**
+ * Standalone job that reconciles the Glue catalog with the metastore using {@link GlueCatalogReconciler}. The
+ * databases to reconcile are given as arguments, all databases are reconciled when there are none. It is configured
+ * with the same environment variables as {@link ApiaryGlueSync} plus {@value #CONCURRENCY} and
+ * {@value #DELETE_ENABLED}, and connects to the metastore set in {@value #METASTORE_URIS} or in the hive-site.xml on
+ * the classpath. The job exits with a non zero status if anything could not be reconciled.
+ */
+public final class GlueSyncReconciliationJob {
+
+  private static final Logger log = LoggerFactory.getLogger(GlueSyncReconciliationJob.class);
+
+  static final String METASTORE_URIS = "HIVE_METASTORE_URIS";
+  static final String CONCURRENCY = "GLUE_SYNC_RECONCILE_CONCURRENCY";
+  static final String DELETE_ENABLED = "GLUE_SYNC_RECONCILE_DELETE_ENABLED";
+
+  private GlueSyncReconciliationJob() {}
+
+  public static void main(String[] args) throws Exception {
+    HiveConf hiveConf = new HiveConf();
+    String metastoreUris = System.getenv(METASTORE_URIS);
+    if (metastoreUris != null && !metastoreUris.trim().isEmpty()) {
+      hiveConf.setVar(HiveConf.ConfVars.METASTOREURIS, metastoreUris.trim());
+    }
+    MetricService metricService = new MetricService();
+    AWSGlue glueClient = RetryingGlueClient
+        .wrap(AWSGlueClientBuilder
+            .standard()
+            .withRegion(System.getenv("AWS_REGION"))
+            .withClientConfiguration(RetryingGlueClient.clientConfiguration())
+            .build(),
+            intEnv(THROTTLING_MAX_RETRIES, DEFAULT_THROTTLING_MAX_RETRIES), THROTTLING_BASE_DELAY_MS,
+            THROTTLING_MAX_DELAY_MS, rateLimiter(RATE_LIMIT_MAX_WAIT_MS, metricService), metricService);
+    IMetaStoreClient metaStoreClient = new HiveMetaStoreClient(hiveConf);
+    GlueCatalogReconciler.Result result;
+    try {
+      GlueCatalogReconciler reconciler = new GlueCatalogReconciler(metaStoreClient, glueClient,
+          System.getenv("GLUE_PREFIX"), intEnv(CONCURRENCY, GlueCatalogReconciler.DEFAULT_CONCURRENCY),
+          Boolean.parseBoolean(System.getenv(DELETE_ENABLED)));
+      result = args.length == 0 ? reconciler.reconcileAll() : reconciler.reconcile(Arrays.asList(args));
+    } finally {
+      metaStoreClient.close();
+      glueClient.shutdown();
+    }
+    log.info("Glue catalog reconciliation finished: {}", result);
+    if (result.getFailed() > 0) {
+      System.exit(1);
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,28 @@ public class MetricConstants {
   public static final String LISTENER_TABLE_SUCCESS = "glue_listener_table_success";
   public static final String LISTENER_PARTITION_FAILURE = "glue_listener_partition_failure";
   public static final String LISTENER_PARTITION_SUCCESS = "glue_listener_partition_success";
+  public static final String LISTENER_THROTTLED = "glue_listener_throttled";
+  public static final String LISTENER_ASYNC_DROPPED = "glue_listener_async_dropped";
+  public static final String LISTENER_RENAME_PARTITIONS_COPIED = "glue_listener_rename_partitions_copied";
+  public static final String LISTENER_RENAME_PARTITIONS_FAILED = "glue_listener_rename_partitions_failed";
+  public static final String LISTENER_STATE_CACHE_HIT = "glue_listener_state_cache_hit";
+  public static final String LISTENER_STATE_CACHE_MISS = "glue_listener_state_cache_miss";
+  public static final String LISTENER_STATE_CACHE_SKIP = "glue_listener_state_cache_skip";
+  public static final String LISTENER_DATABASE_RATE_LIMIT_PERMITS = "glue_listener_database_rate_limit_permits";
+  public static final String LISTENER_DATABASE_RATE_LIMIT_WAITS = "glue_listener_database_rate_limit_waits";
+  public static final String LISTENER_DATABASE_RATE_LIMIT_THROTTLES = "glue_listener_database_rate_limit_throttles";
+  public static final String LISTENER_TABLE_RATE_LIMIT_PERMITS = "glue_listener_table_rate_limit_permits";
+  public static final String LISTENER_TABLE_RATE_LIMIT_WAITS = "glue_listener_table_rate_limit_waits";
+  public static final String LISTENER_TABLE_RATE_LIMIT_THROTTLES = "glue_listener_table_rate_limit_throttles";
+  public static final String LISTENER_PARTITION_RATE_LIMIT_PERMITS = "glue_listener_partition_rate_limit_permits";
+  public static final String LISTENER_PARTITION_RATE_LIMIT_WAITS = "glue_listener_partition_rate_limit_waits";
+  public static final String LISTENER_PARTITION_RATE_LIMIT_THROTTLES = "glue_listener_partition_rate_limit_throttles";
+
+  public static final String LISTENER_ASYNC_QUEUE_DEPTH = "glue_listener_async_queue_depth";
+  public static final String LISTENER_ASYNC_LAG_MS = "glue_listener_async_lag_ms";
+  public static final String LISTENER_DATABASE_RATE_LIMIT_RATE = "glue_listener_database_rate_limit_rate";
+  public static final String LISTENER_TABLE_RATE_LIMIT_RATE = "glue_listener_table_rate_limit_rate";
+  public static final String LISTENER_PARTITION_RATE_LIMIT_RATE = "glue_listener_partition_rate_limit_rate";
 
   public static final List<String> LISTENER_METRICS = Arrays.asList(
       LISTENER_DATABASE_FAILURE,
@@ -33,7 +55,23 @@ public class MetricConstants {
       LISTENER_TABLE_FAILURE,
       LISTENER_TABLE_SUCCESS,
       LISTENER_PARTITION_FAILURE,
-      LISTENER_PARTITION_SUCCESS
+      LISTENER_PARTITION_SUCCESS,
+      LISTENER_THROTTLED,
+      LISTENER_ASYNC_DROPPED,
+      LISTENER_RENAME_PARTITIONS_COPIED,
+      LISTENER_RENAME_PARTITIONS_FAILED,
+      LISTENER_STATE_CACHE_HIT,
+      LISTENER_STATE_CACHE_MISS,
+      LISTENER_STATE_CACHE_SKIP,
+      LISTENER_DATABASE_RATE_LIMIT_PERMITS,
+      LISTENER_DATABASE_RATE_LIMIT_WAITS,
+      LISTENER_DATABASE_RATE_LIMIT_THROTTLES,
+      LISTENER_TABLE_RATE_LIMIT_PERMITS,
+      LISTENER_TABLE_RATE_LIMIT_WAITS,
+      LISTENER_TABLE_RATE_LIMIT_THROTTLES,
+      LISTENER_PARTITION_RATE_LIMIT_PERMITS,
+      LISTENER_PARTITION_RATE_LIMIT_WAITS,
+      LISTENER_PARTITION_RATE_LIMIT_THROTTLES
   );
 
   private MetricConstants() {}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,14 @@
 package com.expediagroup.apiary.extensions.gluesync.listener.metrics;
 
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
 
 public class MetricService {
@@ -38,10 +40,17 @@ public class MetricService {
   }
 
   public void incrementCounter(String name) {
+    incrementCounter(name, 1);
+  }
+
+  public void incrementCounter(String name, int amount) {
+    if (amount <= 0) {
+      return;
+    }
     try {
       Counter counter = metrics.get(name);
       if (counter != null) {
-        counter.increment();
+        counter.increment(amount);
       } else {
         log.warn("Counter {} not found in Micrometer registry", name);
       }
@@ -49,4 +58,12 @@ public class MetricService {
       log.warn("Unable to increment counter {}", name, e);
     }
   }
+
+  public void registerGauge(String name, Supplier<Number> value) {
+    try {
+      Gauge.builder(name, value).register(Metrics.globalRegistry);
+    } catch (Exception e) {
+      log.warn("Unable to register gauge {}", name, e);
+    }
+  }
 }
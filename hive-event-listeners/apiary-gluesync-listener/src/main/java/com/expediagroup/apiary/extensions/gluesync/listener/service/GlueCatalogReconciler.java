@@ -0,0 +1,571 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener.service;
+
+import static com.expediagroup.apiary.extensions.gluesync.listener.service.HiveToGlueTransformer.MANAGED_BY_GLUESYNC_KEY;
+import static com.expediagroup.apiary.extensions.gluesync.listener.service.HiveToGlueTransformer.MANAGED_BY_GLUESYNC_VALUE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.glue.AWSGlue;
+import com.amazonaws.services.glue.model.BatchDeleteTableRequest;
+import com.amazonaws.services.glue.model.BatchDeleteTableResult;
+import com.amazonaws.services.glue.model.DatabaseInput;
+import com.amazonaws.services.glue.model.EntityNotFoundException;
+import com.amazonaws.services.glue.model.GetDatabaseRequest;
+import com.amazonaws.services.glue.model.GetDatabasesRequest;
+import com.amazonaws.services.glue.model.GetDatabasesResult;
+import com.amazonaws.services.glue.model.GetPartitionsRequest;
+import com.amazonaws.services.glue.model.GetPartitionsResult;
+import com.amazonaws.services.glue.model.GetTablesRequest;
+import com.amazonaws.services.glue.model.GetTablesResult;
+import com.amazonaws.services.glue.model.PartitionInput;
+import com.amazonaws.services.glue.model.SerDeInfo;
+import com.amazonaws.services.glue.model.StorageDescriptor;
+import com.amazonaws.services.glue.model.TableError;
+import com.amazonaws.services.glue.model.TableInput;
+
+/**
+ * Brings a Glue catalog in line with a Hive metastore, for the events ApiaryGlueSync missed or when a new GLUE_PREFIX
+ * is enabled. For each database the tables and partitions are read from the metastore and from Glue in parallel, the
+ * metastore side is transformed with {@link HiveToGlueTransformer} and compared to what Glue holds, and only the
+ * differences are applied: missing entries are created, different ones updated and, when deletes are enabled, entries
+ * Glue has but the metastore doesn't are deleted. Partitions are applied with the batch APIs of
+ * {@link GluePartitionService}. Tables are reconciled by a pool of workers; metastore calls are serialized because a
+ * metastore client is not thread safe, while Glue is read and written concurrently. Deletes are limited to databases
+ * created by ApiaryGlueSync.
+ */
+public class GlueCatalogReconciler {
+
+  private static final Logger log = LoggerFactory.getLogger(GlueCatalogReconciler.class);
+
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  // Glue API limits
+  private static final int MAX_DATABASES_RESULTS = 100;
+  private static final int MAX_TABLES_RESULTS = 100;
+  private static final int MAX_PARTITIONS_RESULTS = 1000;
+  private static final int MAX_BATCH_DELETE_TABLES = 100;
+
+  private static final int HMS_BATCH_SIZE = 100;
+  private static final short ALL_PARTITIONS = -1;
+
+  private final IMetaStoreClient metaStoreClient;
+  private final AWSGlue glueClient;
+  private final String gluePrefix;
+  private final HiveToGlueTransformer transformer;
+  private final GlueMetadataStringCleaner cleaner = new GlueMetadataStringCleaner();
+  private final GlueDatabaseService glueDatabaseService;
+  private final GlueTableService glueTableService;
+  private final GluePartitionService gluePartitionService;
+  private final int concurrency;
+  private final boolean deleteEnabled;
+
+  public GlueCatalogReconciler(IMetaStoreClient metaStoreClient, AWSGlue glueClient, String gluePrefix) {
+    this(metaStoreClient, glueClient, gluePrefix, DEFAULT_CONCURRENCY, false);
+  }
+
+  /**
+   * @param concurrency number of tables reconciled, and of Glue scans run, at the same time
+   * @param deleteEnabled whether tables and partitions missing from the metastore are deleted from Glue
+   */
+  public GlueCatalogReconciler(
+      IMetaStoreClient metaStoreClient,
+      AWSGlue glueClient,
+      String gluePrefix,
+      int concurrency,
+      boolean deleteEnabled) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Concurrency must be at least 1: " + concurrency);
+    }
+    this.metaStoreClient = metaStoreClient;
+    this.glueClient = glueClient;
+    this.gluePrefix = gluePrefix;
+    this.transformer = new HiveToGlueTransformer(gluePrefix);
+    this.glueDatabaseService = new GlueDatabaseService(glueClient, gluePrefix);
+    this.glueTableService = new GlueTableService(glueClient, gluePrefix);
+    this.gluePartitionService = new GluePartitionService(glueClient, gluePrefix);
+    this.concurrency = concurrency;
+    this.deleteEnabled = deleteEnabled;
+  }
+
+  /**
+   * Reconciles every database of the metastore and, when deletes are enabled, deletes the Glue databases created by
+   * ApiaryGlueSync whose metastore database no longer exists.
+   */
+  public Result reconcileAll() {
+    List<String> databaseNames = hive(metaStoreClient::getAllDatabases);
+    Result result = reconcile(databaseNames);
+    if (deleteEnabled) {
+      deleteDatabases(new HashSet<>(databaseNames), result);
+    }
+    return result;
+  }
+
+  public Result reconcile(Collection<String> databaseNames) {
+    Result result = new Result();
+    long startTime = System.currentTimeMillis();
+    Reconciliation reconciliation = new Reconciliation(result);
+    try {
+      for (String databaseName : databaseNames) {
+        try {
+          reconciliation.reconcileDatabase(databaseName);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while reconciling database " + databaseName, e);
+        } catch (Exception e) {
+          log.error("Failed to reconcile database {} with glue", databaseName, e);
+          result.failed.incrementAndGet();
+        }
+      }
+    } finally {
+      reconciliation.close();
+    }
+    log.info("Reconciled {} databases with glue in {}ms: {}", databaseNames.size(),
+        System.currentTimeMillis() - startTime, result);
+    return result;
+  }
+
+  private void deleteDatabases(Set<String> hiveDatabaseNames, Result result) {
+    String nextToken = null;
+    List<String> toDelete = new ArrayList<>();
+    do {
+      GetDatabasesResult databases = glueClient
+          .getDatabases(new GetDatabasesRequest().withMaxResults(MAX_DATABASES_RESULTS).withNextToken(nextToken));
+      for (com.amazonaws.services.glue.model.Database glueDatabase : nullToEmpty(databases.getDatabaseList())) {
+        String glueDbName = glueDatabase.getName();
+        if (gluePrefix != null && !glueDbName.startsWith(gluePrefix)) {
+          continue;
+        }
+        String hiveDbName = gluePrefix == null ? glueDbName : glueDbName.substring(gluePrefix.length());
+        if (isManagedByGlueSync(glueDatabase) && !hiveDatabaseNames.contains(hiveDbName)) {
+          toDelete.add(hiveDbName);
+        }
+      }
+      nextToken = databases.getNextToken();
+    } while (nextToken != null);
+    for (String hiveDbName : toDelete) {
+      try {
+        Database database = new Database();
+        database.setName(hiveDbName);
+        glueDatabaseService.delete(database);
+        result.deleted.incrementAndGet();
+      } catch (Exception e) {
+        log.error("Failed to delete database {} from glue", hiveDbName, e);
+        result.failed.incrementAndGet();
+      }
+    }
+  }
+
+  private final class Reconciliation {
+    private final Result result;
+    private final ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+    private final ExecutorService scanners = Executors.newFixedThreadPool(concurrency);
+
+    private Reconciliation(Result result) {
+      this.result = result;
+    }
+
+    private void reconcileDatabase(String databaseName) throws InterruptedException {
+      String glueDbName = transformer.glueDbName(databaseName);
+      Future<Map<String, com.amazonaws.services.glue.model.Table>> glueTables = scanners
+          .submit(() -> glueTables(glueDbName));
+      Database database = hive(() -> metaStoreClient.getDatabase(databaseName));
+      com.amazonaws.services.glue.model.Database glueDatabase = glueDatabase(glueDbName);
+      boolean managedByGlueSync;
+      if (glueDatabase == null) {
+        glueDatabaseService.create(database);
+        result.created.incrementAndGet();
+        managedByGlueSync = true;
+      } else {
+        DatabaseInput databaseInput = transformer.transformDatabase(database);
+        if (databaseInput.equals(toDatabaseInput(glueDatabase))) {
+          result.unchanged.incrementAndGet();
+        } else {
+          glueDatabaseService.update(database);
+          result.updated.incrementAndGet();
+        }
+        managedByGlueSync = isManagedByGlueSync(glueDatabase);
+      }
+
+      List<Table> tables = hiveTables(databaseName);
+      Map<String, com.amazonaws.services.glue.model.Table> glueTablesByName = await(glueTables);
+      List<Future<?>> tasks = new ArrayList<>(tables.size());
+      for (Table table : tables) {
+        com.amazonaws.services.glue.model.Table glueTable = glueTablesByName.remove(table.getTableName());
+        boolean deletePartitions = deleteEnabled && managedByGlueSync;
+        tasks.add(workers.submit(() -> reconcileTable(table, glueTable, deletePartitions)));
+      }
+      for (Future<?> task : tasks) {
+        await(task);
+      }
+      if (!glueTablesByName.isEmpty()) {
+        if (deleteEnabled && managedByGlueSync) {
+          deleteTables(glueDbName, new ArrayList<>(glueTablesByName.keySet()));
+        } else {
+          log.info("{} tables in glue database {} don't exist in the metastore, not deleting them",
+              glueTablesByName.size(), glueDbName);
+        }
+      }
+      log.info("Database {} reconciled with glue database {}", databaseName, glueDbName);
+    }
+
+    private void reconcileTable(
+        Table table,
+        com.amazonaws.services.glue.model.Table glueTable,
+        boolean deletePartitions) {
+      String tableName = table.getDbName() + "." + table.getTableName();
+      try {
+        boolean partitioned = table.getPartitionKeys() != null && !table.getPartitionKeys().isEmpty();
+        Future<Map<List<String>, PartitionInput>> gluePartitions = glueTable == null || !partitioned
+            ? null
+            : scanners.submit(() -> gluePartitions(transformer.glueDbName(table), table.getTableName()));
+        if (glueTable == null) {
+          glueTableService.create(table);
+          result.created.incrementAndGet();
+        } else if (isUnchanged(table, glueTable)) {
+          result.unchanged.incrementAndGet();
+        } else {
+          glueTableService.update(table);
+          result.updated.incrementAndGet();
+        }
+        if (partitioned) {
+          Map<List<String>, PartitionInput> gluePartitionsByValues = gluePartitions == null
+              ? new HashMap<List<String>, PartitionInput>()
+              : await(gluePartitions);
+          reconcilePartitions(table, gluePartitionsByValues, deletePartitions);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("Interrupted while reconciling table {} with glue", tableName);
+        result.failed.incrementAndGet();
+      } catch (Exception e) {
+        log.error("Failed to reconcile table {} with glue", tableName, e);
+        result.failed.incrementAndGet();
+      }
+    }
+
+    private void reconcilePartitions(
+        Table table,
+        Map<List<String>, PartitionInput> gluePartitions,
+        boolean deletePartitions) {
+      List<Partition> toCreate = new ArrayList<>();
+      List<Partition> toUpdate = new ArrayList<>();
+      for (Partition partition : hivePartitions(table)) {
+        PartitionInput gluePartition = gluePartitions.remove(partition.getValues());
+        if (gluePartition == null) {
+          toCreate.add(partition);
+        } else if (isUnchanged(partition, gluePartition)) {
+          result.unchanged.incrementAndGet();
+        } else {
+          toUpdate.add(partition);
+        }
+      }
+      count(toCreate.size(), gluePartitionService.createAll(table, toCreate).size(), result.created);
+      count(toUpdate.size(), gluePartitionService.updateAll(table, toUpdate).size(), result.updated);
+      if (!gluePartitions.isEmpty()) {
+        if (deletePartitions) {
+          List<Partition> toDelete = new ArrayList<>(gluePartitions.size());
+          for (List<String> values : gluePartitions.keySet()) {
+            Partition partition = new Partition();
+            partition.setValues(values);
+            toDelete.add(partition);
+          }
+          count(toDelete.size(), gluePartitionService.deleteAll(table, toDelete).size(), result.deleted);
+        } else {
+          log.info("{} partitions of glue table {}.{} don't exist in the metastore, not deleting them",
+              gluePartitions.size(), transformer.glueDbName(table), table.getTableName());
+        }
+      }
+      log.debug("Table {}.{} reconciled with glue: {} partitions created, {} updated", table.getDbName(),
+          table.getTableName(), toCreate.size(), toUpdate.size());
+    }
+
+    private void count(int total, int failed, AtomicLong applied) {
+      applied.addAndGet(total - failed);
+      result.failed.addAndGet(failed);
+    }
+
+    private void deleteTables(String glueDbName, List<String> tableNames) {
+      for (int i = 0; i < tableNames.size(); i += MAX_BATCH_DELETE_TABLES) {
+        List<String> batch = tableNames.subList(i, Math.min(i + MAX_BATCH_DELETE_TABLES, tableNames.size()));
+        try {
+          BatchDeleteTableResult deleteResult = glueClient
+              .batchDeleteTable(new BatchDeleteTableRequest().withDatabaseName(glueDbName).withTablesToDelete(batch));
+          List<TableError> errors = nullToEmpty(deleteResult.getErrors());
+          for (TableError error : errors) {
+            log.error("Failed to delete table {}.{} from glue: {}", glueDbName, error.getTableName(),
+                error.getErrorDetail());
+          }
+          result.deleted.addAndGet(batch.size() - errors.size());
+          result.failed.addAndGet(errors.size());
+        } catch (Exception e) {
+          log.error("Failed to delete {} tables from glue database {}", batch.size(), glueDbName, e);
+          result.failed.addAndGet(batch.size());
+        }
+      }
+    }
+
+    private void close() {
+      workers.shutdownNow();
+      scanners.shutdownNow();
+    }
+  }
+
+  private List<Table> hiveTables(String databaseName) {
+    List<String> tableNames = hive(() -> metaStoreClient.getAllTables(databaseName));
+    List<Table> tables = new ArrayList<>(tableNames.size());
+    for (int i = 0; i < tableNames.size(); i += HMS_BATCH_SIZE) {
+      List<String> batch = tableNames.subList(i, Math.min(i + HMS_BATCH_SIZE, tableNames.size()));
+      tables.addAll(hive(() -> metaStoreClient.getTableObjectsByName(databaseName, batch)));
+    }
+    return tables;
+  }
+
+  private List<Partition> hivePartitions(Table table) {
+    List<String> partitionNames = hive(
+        () -> metaStoreClient.listPartitionNames(table.getDbName(), table.getTableName(), ALL_PARTITIONS));
+    List<Partition> partitions = new ArrayList<>(partitionNames.size());
+    for (int i = 0; i < partitionNames.size(); i += HMS_BATCH_SIZE) {
+      List<String> batch = partitionNames.subList(i, Math.min(i + HMS_BATCH_SIZE, partitionNames.size()));
+      partitions.addAll(
+          hive(() -> metaStoreClient.getPartitionsByNames(table.getDbName(), table.getTableName(), batch)));
+    }
+    return partitions;
+  }
+
+  private com.amazonaws.services.glue.model.Database glueDatabase(String glueDbName) {
+    try {
+      return glueClient.getDatabase(new GetDatabaseRequest().withName(glueDbName)).getDatabase();
+    } catch (EntityNotFoundException e) {
+      return null;
+    }
+  }
+
+  private Map<String, com.amazonaws.services.glue.model.Table> glueTables(String glueDbName) {
+    Map<String, com.amazonaws.services.glue.model.Table> tables = new HashMap<>();
+    String nextToken = null;
+    do {
+      GetTablesResult result;
+      try {
+        result = glueClient.getTables(new GetTablesRequest()
+            .withDatabaseName(glueDbName)
+            .withMaxResults(MAX_TABLES_RESULTS)
+            .withNextToken(nextToken));
+      } catch (EntityNotFoundException e) {
+        return tables;
+      }
+      for (com.amazonaws.services.glue.model.Table table : nullToEmpty(result.getTableList())) {
+        tables.put(table.getName(), table);
+      }
+      nextToken = result.getNextToken();
+    } while (nextToken != null);
+    return tables;
+  }
+
+  private Map<List<String>, PartitionInput> gluePartitions(String glueDbName, String tableName) {
+    Map<List<String>, PartitionInput> partitions = new HashMap<>();
+    String nextToken = null;
+    do {
+      GetPartitionsResult result = glueClient.getPartitions(new GetPartitionsRequest()
+          .withDatabaseName(glueDbName)
+          .withTableName(tableName)
+          .withMaxResults(MAX_PARTITIONS_RESULTS)
+          .withNextToken(nextToken));
+      for (com.amazonaws.services.glue.model.Partition partition : nullToEmpty(result.getPartitions())) {
+        partitions.put(partition.getValues(), toPartitionInput(partition));
+      }
+      nextToken = result.getNextToken();
+    } while (nextToken != null);
+    return partitions;
+  }
+
+  /**
+   * Tables and partitions are compared in the cleaned up form they are sent to Glue in.
+   */
+  private boolean isUnchanged(Table table, com.amazonaws.services.glue.model.Table glueTable) {
+    TableInput glueInput = normalize(toTableInput(glueTable));
+    return normalize(cleaner.cleanTable(transformer.transformTable(table))).equals(glueInput);
+  }
+
+  private boolean isUnchanged(Partition partition, PartitionInput gluePartition) {
+    PartitionInput glueInput = normalize(gluePartition);
+    return normalize(cleaner.cleanPartition(transformer.transformPartition(partition))).equals(glueInput);
+  }
+
+  private static boolean isManagedByGlueSync(com.amazonaws.services.glue.model.Database glueDatabase) {
+    return glueDatabase.getParameters() != null
+        && MANAGED_BY_GLUESYNC_VALUE.equals(glueDatabase.getParameters().get(MANAGED_BY_GLUESYNC_KEY));
+  }
+
+  private static DatabaseInput toDatabaseInput(com.amazonaws.services.glue.model.Database glueDatabase) {
+    return new DatabaseInput()
+        .withName(glueDatabase.getName())
+        .withParameters(glueDatabase.getParameters())
+        .withDescription(glueDatabase.getDescription())
+        .withLocationUri(glueDatabase.getLocationUri());
+  }
+
+  private static TableInput toTableInput(com.amazonaws.services.glue.model.Table glueTable) {
+    return new TableInput()
+        .withName(glueTable.getName())
+        .withLastAccessTime(glueTable.getLastAccessTime())
+        .withOwner(glueTable.getOwner())
+        .withParameters(glueTable.getParameters())
+        .withPartitionKeys(glueTable.getPartitionKeys())
+        .withRetention(glueTable.getRetention())
+        .withStorageDescriptor(glueTable.getStorageDescriptor())
+        .withTableType(glueTable.getTableType());
+  }
+
+  private static PartitionInput toPartitionInput(com.amazonaws.services.glue.model.Partition partition) {
+    return new PartitionInput()
+        .withLastAccessTime(partition.getLastAccessTime())
+        .withParameters(partition.getParameters())
+        .withStorageDescriptor(partition.getStorageDescriptor())
+        .withValues(partition.getValues());
+  }
+
+  /**
+   * Glue returns no value where the transformer sets an empty list or map, so both are compared without them.
+   */
+  private static TableInput normalize(TableInput input) {
+    TableInput normalized = input.clone();
+    normalized.setParameters(emptyToNull(input.getParameters()));
+    normalized.setPartitionKeys(emptyToNull(input.getPartitionKeys()));
+    normalized.setStorageDescriptor(normalize(input.getStorageDescriptor()));
+    return normalized;
+  }
+
+  private static PartitionInput normalize(PartitionInput input) {
+    PartitionInput normalized = input.clone();
+    normalized.setParameters(emptyToNull(input.getParameters()));
+    normalized.setStorageDescriptor(normalize(input.getStorageDescriptor()));
+    return normalized;
+  }
+
+  private static StorageDescriptor normalize(StorageDescriptor storageDescriptor) {
+    if (storageDescriptor == null) {
+      return null;
+    }
+    StorageDescriptor normalized = storageDescriptor.clone();
+    normalized.setBucketColumns(emptyToNull(storageDescriptor.getBucketColumns()));
+    normalized.setColumns(emptyToNull(storageDescriptor.getColumns()));
+    normalized.setParameters(emptyToNull(storageDescriptor.getParameters()));
+    normalized.setSortColumns(emptyToNull(storageDescriptor.getSortColumns()));
+    SerDeInfo serdeInfo = storageDescriptor.getSerdeInfo();
+    if (serdeInfo != null) {
+      normalized.setSerdeInfo(serdeInfo.clone().withParameters(emptyToNull(serdeInfo.getParameters())));
+    }
+    return normalized;
+  }
+
+  private static <T> Collection<T> emptyToNull(Collection<T> collection) {
+    return collection == null || collection.isEmpty() ? null : collection;
+  }
+
+  private static <K, V> Map<K, V> emptyToNull(Map<K, V> map) {
+    return map == null || map.isEmpty() ? null : map;
+  }
+
+  private static <T> List<T> nullToEmpty(List<T> list) {
+    return list == null ? Collections.emptyList() : list;
+  }
+
+  private static <T> T await(Future<T> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private <T> T hive(HiveCall<T> call) {
+    synchronized (metaStoreClient) {
+      try {
+        return call.call();
+      } catch (TException e) {
+        throw new IllegalStateException("Metastore call failed", e);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface HiveCall<T> {
+    T call() throws TException;
+  }
+
+  /**
+   * Number of databases, tables and partitions created, updated, deleted, already in sync and that failed.
+   */
+  public static final class Result {
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public long getCreated() {
+      return created.get();
+    }
+
+    public long getUpdated() {
+      return updated.get();
+    }
+
+    public long getDeleted() {
+      return deleted.get();
+    }
+
+    public long getUnchanged() {
+      return unchanged.get();
+    }
+
+    public long getFailed() {
+      return failed.get();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d created, %d updated, %d deleted, %d unchanged, %d failed", getCreated(),
+          getUpdated(), getDeleted(), getUnchanged(), getFailed());
+    }
+  }
+
+}
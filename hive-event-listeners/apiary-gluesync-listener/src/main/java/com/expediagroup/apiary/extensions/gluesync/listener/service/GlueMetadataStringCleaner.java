@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,72 +15,237 @@
  */
 package com.expediagroup.apiary.extensions.gluesync.listener.service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.amazonaws.services.glue.model.Column;
 import com.amazonaws.services.glue.model.PartitionInput;
+import com.amazonaws.services.glue.model.SerDeInfo;
+import com.amazonaws.services.glue.model.StorageDescriptor;
 import com.amazonaws.services.glue.model.TableInput;
 
 /**
  * Following https://docs.aws.amazon.com/glue/latest/dg/aws-glue-api-catalog-tables.html#aws-glue-api-catalog-tables-Table
- * validations
+ * validations. Inputs are checked before they are sent to Glue: a valid input is returned as is without allocating
+ * anything, otherwise only the offending fields are cleaned up, in place. Comments, descriptions and partition values
+ * lose the characters Glue doesn't accept and comments and descriptions are truncated to their maximum length, without
+ * splitting a character. Parameters that exceed the Glue limits are dropped. Glue measures these limits in UTF-8
+ * bytes, so a comment of CJK characters, for example, holds at most 85 of them. Names, types, locations and formats
+ * are left alone as changing them would change the meaning of the metadata.
  */
 public class GlueMetadataStringCleaner {
+  private static final Logger log = LoggerFactory.getLogger(GlueMetadataStringCleaner.class);
+
+  // maximum lengths in UTF-8 bytes
+  static final int MAX_COMMENT_LENGTH = 255;
+  static final int MAX_DESCRIPTION_LENGTH = 2048;
+  static final int MAX_PARAMETER_KEY_LENGTH = 255;
+  static final int MAX_PARAMETER_VALUE_LENGTH = 512000;
 
   public TableInput cleanTable(TableInput input) {
-    // Clean SerDes
-    cleanColumns(input.getStorageDescriptor().getColumns());
+    input.setDescription(clean(input.getDescription(), MAX_DESCRIPTION_LENGTH, true));
+    input.setParameters(cleanParameters(input.getParameters()));
+    cleanStorageDescriptor(input.getStorageDescriptor());
     // Clean Partition Keys
     cleanColumns(input.getPartitionKeys());
     return input;
   }
 
   public PartitionInput cleanPartition(PartitionInput input) {
-    // Clean SerDes
-    cleanColumns(input.getStorageDescriptor().getColumns());
-    // Clean Partition Keys
-    List<String> cleanedKeys = input.getValues().stream().map(this::removeNonUnicodeChars).collect(Collectors.toList());
-    input.setValues(cleanedKeys);
+    input.setParameters(cleanParameters(input.getParameters()));
+    cleanStorageDescriptor(input.getStorageDescriptor());
+    // Clean Partition Values
+    List<String> values = input.getValues();
+    if (values != null) {
+      for (int i = 0; i < values.size(); i++) {
+        String value = values.get(i);
+        String cleaned = clean(value, Integer.MAX_VALUE, false);
+        if (cleaned != value) {
+          values.set(i, cleaned);
+        }
+      }
+    }
     return input;
   }
 
+  private void cleanStorageDescriptor(StorageDescriptor storageDescriptor) {
+    if (storageDescriptor == null) {
+      return;
+    }
+    storageDescriptor.setParameters(cleanParameters(storageDescriptor.getParameters()));
+    SerDeInfo serdeInfo = storageDescriptor.getSerdeInfo();
+    if (serdeInfo != null) {
+      serdeInfo.setParameters(cleanParameters(serdeInfo.getParameters()));
+    }
+    // Clean SerDes
+    cleanColumns(storageDescriptor.getColumns());
+  }
+
   private void cleanColumns(List<Column> columns) {
-    for (Column column : columns) {
-      column.setComment(truncateToMaxAllowedChars(removeNonUnicodeChars(column.getComment())));
+    if (columns == null) {
+      return;
+    }
+    for (int i = 0; i < columns.size(); i++) {
+      Column column = columns.get(i);
+      column.setComment(clean(column.getComment(), MAX_COMMENT_LENGTH, false));
     }
   }
 
-  private String truncateToMaxAllowedChars(String input) {
-    if (input == null) {
+  /**
+   * The parameter maps of an input are usually the ones of the Hive object it was transformed from, so they are
+   * copied rather than changed in place.
+   */
+  private Map<String, String> cleanParameters(Map<String, String> parameters) {
+    if (parameters == null) {
       return null;
     }
-    if (input.length() > 254) {
-      return input.substring(0, 254);
+    for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+      if (!isValidParameter(parameter.getKey(), parameter.getValue())) {
+        return withoutInvalidParameters(parameters);
+      }
     }
-    return input;
+    return parameters;
   }
 
-  private String removeNonUnicodeChars(String input) {
-    if (input == null) {
-      return null;
+  private Map<String, String> withoutInvalidParameters(Map<String, String> parameters) {
+    Map<String, String> cleaned = new LinkedHashMap<>(parameters.size());
+    for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+      if (isValidParameter(parameter.getKey(), parameter.getValue())) {
+        cleaned.put(parameter.getKey(), parameter.getValue());
+      } else {
+        log.warn("Dropping parameter {} exceeding the Glue limits", abbreviate(parameter.getKey()));
+      }
+    }
+    return cleaned;
+  }
+
+  private boolean isValidParameter(String key, String value) {
+    return key != null
+        && !key.isEmpty()
+        && fits(key, MAX_PARAMETER_KEY_LENGTH)
+        && (value == null || fits(value, MAX_PARAMETER_VALUE_LENGTH));
+  }
+
+  /**
+   * @return whether the string is at most {@code maxBytes} long once encoded in UTF-8
+   */
+  private static boolean fits(String input, int maxBytes) {
+    int length = input.length();
+    if (length > maxBytes) {
+      return false;
+    }
+    // a char never takes more than 3 bytes, a surrogate pair takes 4
+    if ((long) length * 3 <= maxBytes) {
+      return true;
     }
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < input.length(); i++) {
+    int bytes = 0;
+    for (int i = 0; i < length; i++) {
+      bytes += utf8Length(input.charAt(i));
+      if (bytes > maxBytes) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of UTF-8 bytes of a char, counting 2 for each half of a surrogate pair
+   */
+  private static int utf8Length(char c) {
+    if (c < 0x80) {
+      return 1;
+    }
+    if (c < 0x800 || Character.isSurrogate(c)) {
+      return 2;
+    }
+    return 3;
+  }
+
+  private static int utf8Length(int cp) {
+    if (cp < 0x80) {
+      return 1;
+    }
+    if (cp < 0x800) {
+      return 2;
+    }
+    return cp < 0x10000 ? 3 : 4;
+  }
+
+  /**
+   * @return the input itself if it is valid, a cleaned up copy otherwise
+   */
+  private String clean(String input, int maxBytes, boolean multiLine) {
+    if (isValid(input, maxBytes, multiLine)) {
+      return input;
+    }
+    StringBuilder sb = new StringBuilder(Math.min(input.length(), maxBytes));
+    int bytes = 0;
+    for (int i = 0; i < input.length();) {
       int cp = input.codePointAt(i);
-      if (isUnicode(cp)) {
+      if (isUnicode(cp, multiLine)) {
+        bytes += utf8Length(cp);
+        if (bytes > maxBytes) {
+          break;
+        }
         sb.appendCodePoint(cp);
       }
+      i += Character.charCount(cp);
     }
     return sb.toString();
   }
 
-  private boolean isUnicode(int cp) {
+  private boolean isValid(String input, int maxBytes, boolean multiLine) {
+    if (input == null) {
+      return true;
+    }
+    int length = input.length();
+    if (length > maxBytes) {
+      return false;
+    }
+    int bytes = 0;
+    for (int i = 0; i < length; i++) {
+      char c = input.charAt(i);
+      if (c >= 0x20 && c < 0x80) {
+        bytes++;
+      } else if (c >= 0x80 && c < Character.MIN_SURROGATE) {
+        bytes += c < 0x800 ? 2 : 3;
+      } else if (Character.isHighSurrogate(c)) {
+        if (i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+          i++;
+          bytes += 4;
+        } else {
+          return false;
+        }
+      } else if (isUnicode(c, multiLine)) {
+        bytes += utf8Length(c);
+      } else {
+        return false;
+      }
+      if (bytes > maxBytes) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isUnicode(int cp, boolean multiLine) {
     return (
         cp == 0x9 || // tab
+            (multiLine && (cp == 0xA || cp == 0xD)) ||
             (cp >= 0x20 && cp <= 0xD7FF) ||
             (cp >= 0xE000 && cp <= 0xFFFD) ||
             (cp >= 0x10000 && cp <= 0x10FFFF)
     );
   }
+
+  private static String abbreviate(String key) {
+    if (key == null || key.length() <= 64) {
+      return key;
+    }
+    return key.substring(0, 64) + "...";
+  }
 }
@@ -0,0 +1,320 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.glue.AWSGlue;
+import com.amazonaws.services.glue.model.BatchCreatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchCreatePartitionResult;
+import com.amazonaws.services.glue.model.GetPartitionsRequest;
+import com.amazonaws.services.glue.model.GetPartitionsResult;
+import com.amazonaws.services.glue.model.Partition;
+import com.amazonaws.services.glue.model.PartitionError;
+import com.amazonaws.services.glue.model.PartitionInput;
+import com.amazonaws.services.glue.model.Segment;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+
+/**
+ * Copies the partitions of a Glue table to another table as a pipeline: readers page through segments of the source
+ * table with GetPartitions in parallel and hand batches of {@value #BATCH_SIZE} partitions through a bounded queue to
+ * writers that create them with BatchCreatePartition. At most the pages being read and the queued batches are held in
+ * memory, whatever the size of the table. Entries Glue fails to create are retried with their batch a few times;
+ * entries that already exist are considered copied so that a failed copy can be run again. If every writer stops,
+ * readers waiting for room in the queue give up instead of blocking forever.
+ */
+public class GluePartitionCopier {
+
+  private static final Logger log = LoggerFactory.getLogger(GluePartitionCopier.class);
+
+  public static final int DEFAULT_SEGMENTS = 4;
+  public static final int DEFAULT_WRITERS = 4;
+
+  // Glue API limits
+  static final int MAX_SEGMENTS = 10;
+  static final int BATCH_SIZE = 100;
+  private static final int MAX_RESULTS = 1000;
+
+  private static final int QUEUED_BATCHES_PER_WRITER = 4;
+  private static final int MAX_BATCH_ATTEMPTS = 3;
+  private static final long RETRY_DELAY_MS = 200L;
+  private static final long PROGRESS_INTERVAL = 10000L;
+  private static final long QUEUE_TIMEOUT_MS = 1000L;
+  private static final String ALREADY_EXISTS_ERROR = "AlreadyExistsException";
+  private static final List<PartitionInput> END_OF_PARTITIONS = Collections.emptyList();
+
+  private final AWSGlue glueClient;
+  private final HiveToGlueTransformer transformer;
+  private final MetricService metricService;
+  private final int segments;
+  private final int writers;
+
+  public GluePartitionCopier(AWSGlue glueClient, String gluePrefix, MetricService metricService) {
+    this(glueClient, gluePrefix, metricService, DEFAULT_SEGMENTS, DEFAULT_WRITERS);
+  }
+
+  public GluePartitionCopier(
+      AWSGlue glueClient,
+      String gluePrefix,
+      MetricService metricService,
+      int segments,
+      int writers) {
+    if (segments < 1 || segments > MAX_SEGMENTS) {
+      throw new IllegalArgumentException("Segments must be between 1 and " + MAX_SEGMENTS + ": " + segments);
+    }
+    if (writers < 1) {
+      throw new IllegalArgumentException("Writers must be at least 1: " + writers);
+    }
+    this.glueClient = glueClient;
+    this.transformer = new HiveToGlueTransformer(gluePrefix);
+    this.metricService = metricService;
+    this.segments = segments;
+    this.writers = writers;
+  }
+
+  /**
+   * Copies every partition of {@code source} to {@code target}, which may be in another database.
+   *
+   * @throws IllegalStateException if some partitions could not be read or copied
+   */
+  public void copy(Table source, Table target) {
+    Copy copy = new Copy(transformer.glueDbName(source), source.getTableName(), transformer.glueDbName(target),
+        target.getTableName());
+    long startTime = System.currentTimeMillis();
+    ExecutorService executor = Executors.newFixedThreadPool(segments + writers);
+    try {
+      List<Future<?>> readers = new ArrayList<>(segments);
+      for (int segment = 0; segment < segments; segment++) {
+        int segmentNumber = segment;
+        readers.add(executor.submit(() -> copy.read(segmentNumber)));
+      }
+      List<Future<?>> writerFutures = new ArrayList<>(writers);
+      for (int i = 0; i < writers; i++) {
+        writerFutures.add(executor.submit(copy::write));
+      }
+      int failedSegments = await(readers);
+      for (int i = 0; i < writers; i++) {
+        if (!copy.put(END_OF_PARTITIONS)) {
+          break;
+        }
+      }
+      int failedWriters = await(writerFutures);
+      if (failedSegments > 0 || failedWriters > 0 || copy.failed.get() > 0) {
+        throw new IllegalStateException(String.format(
+            "Failed to copy partitions of %s to %s: %d of %d segments could not be read, %d of %d writers failed, "
+                + "%d partitions not copied",
+            copy.source(), copy.target(), failedSegments, segments, failedWriters, writers, copy.failed.get()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while copying partitions of " + copy.sourceTable, e);
+    } finally {
+      executor.shutdownNow();
+    }
+    log.info("{} partitions copied from {} to {} in {}ms", copy.copied.get(), copy.source(), copy.target(),
+        System.currentTimeMillis() - startTime);
+  }
+
+  private int await(List<Future<?>> futures) throws InterruptedException {
+    int failed = 0;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        log.error("Partition copy task failed", e.getCause());
+        failed++;
+      }
+    }
+    return failed;
+  }
+
+  static PartitionInput toPartitionInput(Partition partition) {
+    return new PartitionInput()
+        .withValues(partition.getValues())
+        .withStorageDescriptor(partition.getStorageDescriptor())
+        .withParameters(partition.getParameters());
+  }
+
+  private final class Copy {
+    private final String sourceDatabase;
+    private final String sourceTable;
+    private final String targetDatabase;
+    private final String targetTable;
+    private final BlockingQueue<List<PartitionInput>> queue = new ArrayBlockingQueue<>(
+        writers * QUEUED_BATCHES_PER_WRITER);
+    private final AtomicInteger runningWriters = new AtomicInteger(writers);
+    private final AtomicLong copied = new AtomicLong();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private Copy(String sourceDatabase, String sourceTable, String targetDatabase, String targetTable) {
+      this.sourceDatabase = sourceDatabase;
+      this.sourceTable = sourceTable;
+      this.targetDatabase = targetDatabase;
+      this.targetTable = targetTable;
+    }
+
+    private String source() {
+      return sourceDatabase + "." + sourceTable;
+    }
+
+    private String target() {
+      return targetDatabase + "." + targetTable;
+    }
+
+    /**
+     * Queues a batch for the writers, waiting for room as long as some writers are running.
+     *
+     * @return {@code false} if every writer has stopped
+     */
+    private boolean put(List<PartitionInput> batch) throws InterruptedException {
+      while (!queue.offer(batch, QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        if (runningWriters.get() == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private Void read(int segmentNumber) throws InterruptedException {
+      Segment segment = new Segment().withSegmentNumber(segmentNumber).withTotalSegments(segments);
+      String nextToken = null;
+      do {
+        GetPartitionsRequest request = new GetPartitionsRequest()
+            .withDatabaseName(sourceDatabase)
+            .withTableName(sourceTable)
+            .withSegment(segment)
+            .withMaxResults(MAX_RESULTS)
+            .withNextToken(nextToken);
+        GetPartitionsResult result = glueClient.getPartitions(request);
+        List<Partition> partitions = result.getPartitions() == null ? Collections.<Partition>emptyList()
+            : result.getPartitions();
+        for (int i = 0; i < partitions.size(); i += BATCH_SIZE) {
+          List<PartitionInput> batch = new ArrayList<>(BATCH_SIZE);
+          for (Partition partition : partitions.subList(i, Math.min(i + BATCH_SIZE, partitions.size()))) {
+            batch.add(toPartitionInput(partition));
+          }
+          if (!put(batch)) {
+            throw new IllegalStateException("Every writer has stopped, unable to copy partitions to " + target());
+          }
+        }
+        nextToken = result.getNextToken();
+      } while (nextToken != null);
+      return null;
+    }
+
+    private Void write() throws InterruptedException {
+      try {
+        return writeBatches();
+      } finally {
+        runningWriters.decrementAndGet();
+      }
+    }
+
+    private Void writeBatches() throws InterruptedException {
+      while (true) {
+        List<PartitionInput> batch = queue.take();
+        if (batch == END_OF_PARTITIONS) {
+          return null;
+        }
+        int notCopied = create(batch);
+        int created = batch.size() - notCopied;
+        long total = copied.addAndGet(created);
+        metricService.incrementCounter(MetricConstants.LISTENER_RENAME_PARTITIONS_COPIED, created);
+        if (notCopied > 0) {
+          failed.addAndGet(notCopied);
+          metricService.incrementCounter(MetricConstants.LISTENER_RENAME_PARTITIONS_FAILED, notCopied);
+        }
+        if (total / PROGRESS_INTERVAL != (total - created) / PROGRESS_INTERVAL) {
+          log.info("{} partitions copied from {} to {} so far", total, source(), target());
+        }
+      }
+    }
+
+    /**
+     * @return the number of partitions that could not be created
+     */
+    private int create(List<PartitionInput> batch) throws InterruptedException {
+      List<PartitionInput> pending = batch;
+      for (int attempt = 1; attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+        if (attempt > 1) {
+          Thread.sleep(RETRY_DELAY_MS * (attempt - 1));
+        }
+        BatchCreatePartitionRequest request = new BatchCreatePartitionRequest()
+            .withDatabaseName(targetDatabase)
+            .withTableName(targetTable)
+            .withPartitionInputList(pending);
+        BatchCreatePartitionResult result;
+        try {
+          result = glueClient.batchCreatePartition(request);
+        } catch (Exception e) {
+          log.warn("Failed to create {} partitions in {} (attempt {} of {})", pending.size(), target(), attempt,
+              MAX_BATCH_ATTEMPTS, e);
+          continue;
+        }
+        pending = failedEntries(pending, result.getErrors(), attempt);
+        if (pending.isEmpty()) {
+          return 0;
+        }
+      }
+      return pending.size();
+    }
+
+    private List<PartitionInput> failedEntries(List<PartitionInput> batch, List<PartitionError> errors, int attempt) {
+      if (errors == null || errors.isEmpty()) {
+        return Collections.emptyList();
+      }
+      Map<List<String>, PartitionInput> inputsByValues = new HashMap<>();
+      for (PartitionInput partitionInput : batch) {
+        inputsByValues.put(partitionInput.getValues(), partitionInput);
+      }
+      List<PartitionInput> failedEntries = new ArrayList<>();
+      for (PartitionError error : errors) {
+        String errorCode = error.getErrorDetail() == null ? null : error.getErrorDetail().getErrorCode();
+        if (ALREADY_EXISTS_ERROR.equals(errorCode)) {
+          continue;
+        }
+        log.warn("Failed to create partition {} in {} (attempt {} of {}): [{}] {}", error.getPartitionValues(),
+            target(), attempt, MAX_BATCH_ATTEMPTS, errorCode,
+            error.getErrorDetail() == null ? null : error.getErrorDetail().getErrorMessage());
+        PartitionInput partitionInput = inputsByValues.get(error.getPartitionValues());
+        if (partitionInput != null) {
+          failedEntries.add(partitionInput);
+        }
+      }
+      return failedEntries;
+    }
+  }
+
+}
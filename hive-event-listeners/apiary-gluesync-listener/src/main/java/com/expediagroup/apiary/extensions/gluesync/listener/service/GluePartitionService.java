@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,81 +15,357 @@
  */
 package com.expediagroup.apiary.extensions.gluesync.listener.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.services.glue.AWSGlue;
+import com.amazonaws.services.glue.model.BatchCreatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchCreatePartitionResult;
+import com.amazonaws.services.glue.model.BatchDeletePartitionRequest;
+import com.amazonaws.services.glue.model.BatchDeletePartitionResult;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionFailureEntry;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionRequestEntry;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionResult;
 import com.amazonaws.services.glue.model.CreatePartitionRequest;
 import com.amazonaws.services.glue.model.DeletePartitionRequest;
-import com.amazonaws.services.glue.model.InvalidInputException;
+import com.amazonaws.services.glue.model.ErrorDetail;
+import com.amazonaws.services.glue.model.PartitionError;
 import com.amazonaws.services.glue.model.PartitionInput;
+import com.amazonaws.services.glue.model.PartitionValueList;
 import com.amazonaws.services.glue.model.UpdatePartitionRequest;
-import com.amazonaws.services.glue.model.ValidationException;
 
 public class GluePartitionService {
   private static final Logger log = LoggerFactory.getLogger(GluePartitionService.class);
 
+  // Glue API limits on the number of entries per request
+  static final int MAX_BATCH_CREATE_PARTITIONS = 100;
+  static final int MAX_BATCH_UPDATE_PARTITIONS = 100;
+  static final int MAX_BATCH_DELETE_PARTITIONS = 25;
+
+  private static final String ALREADY_EXISTS_ERROR = "AlreadyExistsException";
+  private static final String ENTITY_NOT_FOUND_ERROR = "EntityNotFoundException";
+
   private final AWSGlue glueClient;
   private final HiveToGlueTransformer transformer;
   private final GlueMetadataStringCleaner cleaner = new GlueMetadataStringCleaner();
+  private final GlueSyncStateCache stateCache;
 
   public GluePartitionService(AWSGlue glueClient, String gluePrefix) {
+    this(glueClient, gluePrefix, GlueSyncStateCache.disabled());
+  }
+
+  public GluePartitionService(AWSGlue glueClient, String gluePrefix, GlueSyncStateCache stateCache) {
     this.glueClient = glueClient;
     this.transformer = new HiveToGlueTransformer(gluePrefix);
+    this.stateCache = stateCache;
     log.debug("ApiaryGlueSync created");
   }
 
   public void create(Table table, Partition partition) {
+    PartitionInput partitionInput = cleaner.cleanPartition(transformer.transformPartition(partition));
+    String key = partitionKey(table, partition);
+    GlueSyncStateCache.State state = stateCache.get(key);
+    if (state != null && state.exists()) {
+      log.debug("{} partition known to exist in glue catalog, updating", partition);
+      update(table, partition, partitionInput, key, state);
+      return;
+    }
+    create(table, partition, partitionInput, key);
+  }
+
+  private void create(Table table, Partition partition, PartitionInput partitionInput, String key) {
+    long fingerprint = stateCache.fingerprint(partitionInput);
     CreatePartitionRequest createPartitionRequest = new CreatePartitionRequest()
-        .withPartitionInput(transformer.transformPartition(partition))
+        .withPartitionInput(partitionInput)
         .withDatabaseName(transformer.glueDbName(table))
         .withTableName(table.getTableName());
     try {
       glueClient.createPartition(createPartitionRequest);
       log.debug("{} partition created in glue catalog", partition);
-
-    } catch (ValidationException | InvalidInputException e) {
-      PartitionInput partitionInput = createPartitionRequest.getPartitionInput();
-      createPartitionRequest.setPartitionInput(cleanUpPartition(partitionInput));
-      glueClient.createPartition(createPartitionRequest);
-      log.debug("{} partition created in glue catalog", partition);
+    } catch (RuntimeException e) {
+      stateCache.invalidate(key);
+      throw e;
     }
+    stateCache.synced(key, fingerprint);
   }
 
   public void update(Table table, Partition partition) {
+    PartitionInput partitionInput = cleaner.cleanPartition(transformer.transformPartition(partition));
+    String key = partitionKey(table, partition);
+    GlueSyncStateCache.State state = stateCache.get(key);
+    if (state != null && !state.exists()) {
+      log.debug("{} partition known not to exist in glue catalog, creating", partition);
+      create(table, partition, partitionInput, key);
+      return;
+    }
+    update(table, partition, partitionInput, key, state);
+  }
+
+  private void update(
+      Table table,
+      Partition partition,
+      PartitionInput partitionInput,
+      String key,
+      GlueSyncStateCache.State state) {
+    long fingerprint = stateCache.fingerprint(partitionInput);
+    if (state != null && state.isUnchanged(fingerprint)) {
+      log.debug("{} partition unchanged in glue catalog, skipping update", partition);
+      stateCache.skipped();
+      return;
+    }
     UpdatePartitionRequest updatePartitionRequest = new UpdatePartitionRequest()
-        .withPartitionValueList(transformer.transformPartition(partition).getValues())
-        .withPartitionInput(transformer.transformPartition(partition))
+        .withPartitionValueList(partitionInput.getValues())
+        .withPartitionInput(partitionInput)
         .withDatabaseName(transformer.glueDbName(table))
         .withTableName(table.getTableName());
     try {
       glueClient.updatePartition(updatePartitionRequest);
       log.debug("{} partition updated in glue catalog", partition);
-    } catch (ValidationException | InvalidInputException e) {
-      PartitionInput partitionInput = updatePartitionRequest.getPartitionInput();
-      updatePartitionRequest.setPartitionInput(cleanUpPartition(partitionInput));
-      glueClient.updatePartition(updatePartitionRequest);
-      log.debug("{} partition updated in glue catalog", partition);
+    } catch (RuntimeException e) {
+      stateCache.invalidate(key);
+      throw e;
     }
+    stateCache.synced(key, fingerprint);
   }
 
   public void delete(Table table, Partition partition) {
     DeletePartitionRequest deletePartitionRequest = new DeletePartitionRequest()
-        .withPartitionValues(transformer.transformPartition(partition).getValues())
+        .withPartitionValues(partition.getValues())
         .withDatabaseName(transformer.glueDbName(table))
         .withTableName(table.getTableName());
+    String key = partitionKey(table, partition);
+    stateCache.invalidate(key);
     glueClient.deletePartition(deletePartitionRequest);
+    stateCache.deleted(key);
     log.debug("{} partition deleted from glue catalog", partition);
   }
 
-  private PartitionInput cleanUpPartition(PartitionInput partition) {
-    log.debug("Cleaning up partition comments manually on {} to resolve validation", partition);
-    long startTime = System.currentTimeMillis();
-    PartitionInput result = cleaner.cleanPartition(partition);
-    long duration = System.currentTimeMillis() - startTime;
-    log.debug("Clean up partition comments operation on {} finished in {}ms", partition, duration);
-    return result;
+  /**
+   * Creates the partitions with BatchCreatePartition, {@value #MAX_BATCH_CREATE_PARTITIONS} per call. Partitions that
+   * already exist are updated with BatchUpdatePartition.
+   *
+   * @return the partitions that could not be synchronized
+   */
+  public List<Partition> createAll(Table table, List<Partition> partitions) {
+    List<Partition> existing = new ArrayList<>();
+    List<Partition> unknown = new ArrayList<>(partitions.size());
+    for (Partition partition : partitions) {
+      GlueSyncStateCache.State state = stateCache.get(partitionKey(table, partition));
+      if (state != null && state.exists()) {
+        existing.add(partition);
+      } else {
+        unknown.add(partition);
+      }
+    }
+    List<Partition> failed = new ArrayList<>();
+    for (List<Partition> batch : batches(unknown, MAX_BATCH_CREATE_PARTITIONS)) {
+      createBatch(table, batch, existing, failed);
+    }
+    if (!existing.isEmpty()) {
+      log.info("{} partitions already exist in glue, updating....", existing.size());
+      failed.addAll(updateAll(table, existing));
+    }
+    return failed;
+  }
+
+  /**
+   * Updates the partitions with BatchUpdatePartition, {@value #MAX_BATCH_UPDATE_PARTITIONS} per call.
+   *
+   * @return the partitions that could not be synchronized
+   */
+  public List<Partition> updateAll(Table table, List<Partition> partitions) {
+    List<Partition> failed = new ArrayList<>();
+    for (List<Partition> batch : batches(partitions, MAX_BATCH_UPDATE_PARTITIONS)) {
+      updateBatch(table, batch, failed);
+    }
+    return failed;
+  }
+
+  /**
+   * Deletes the partitions with BatchDeletePartition, {@value #MAX_BATCH_DELETE_PARTITIONS} per call. Partitions that
+   * don't exist in Glue are considered deleted.
+   *
+   * @return the partitions that could not be deleted
+   */
+  public List<Partition> deleteAll(Table table, List<Partition> partitions) {
+    List<Partition> failed = new ArrayList<>();
+    for (List<Partition> batch : batches(partitions, MAX_BATCH_DELETE_PARTITIONS)) {
+      Map<List<String>, Partition> partitionsByValues = new HashMap<>();
+      List<PartitionValueList> partitionsToDelete = new ArrayList<>(batch.size());
+      for (Partition partition : batch) {
+        partitionsByValues.put(partition.getValues(), partition);
+        partitionsToDelete.add(new PartitionValueList().withValues(partition.getValues()));
+        stateCache.invalidate(partitionKey(table, partition));
+      }
+      BatchDeletePartitionRequest request = new BatchDeletePartitionRequest()
+          .withPartitionsToDelete(partitionsToDelete)
+          .withDatabaseName(transformer.glueDbName(table))
+          .withTableName(table.getTableName());
+      BatchDeletePartitionResult result;
+      try {
+        result = glueClient.batchDeletePartition(request);
+      } catch (Exception e) {
+        log.error("Failed to delete {} partitions on table {}.{} in glue", batch.size(), table.getDbName(),
+            table.getTableName(), e);
+        failed.addAll(batch);
+        continue;
+      }
+      List<PartitionError> errors = nullToEmpty(result.getErrors());
+      for (PartitionError error : errors) {
+        Partition partition = partitionsByValues.remove(error.getPartitionValues());
+        if (ENTITY_NOT_FOUND_ERROR.equals(errorCode(error.getErrorDetail()))) {
+          log.info("{} partition doesn't exist in glue catalog", partition);
+          stateCache.deleted(partitionKey(table, error.getPartitionValues()));
+        } else {
+          logError("delete", table, error.getPartitionValues(), error.getErrorDetail());
+          failed.add(partition);
+        }
+      }
+      for (List<String> values : partitionsByValues.keySet()) {
+        stateCache.deleted(partitionKey(table, values));
+      }
+      log.debug("{} partitions deleted from glue catalog", batch.size() - errors.size());
+    }
+    return failed;
+  }
+
+  private void createBatch(Table table, List<Partition> batch, List<Partition> existing, List<Partition> failed) {
+    Map<List<String>, Partition> partitionsByValues = new HashMap<>();
+    Map<List<String>, Long> fingerprints = new HashMap<>();
+    List<PartitionInput> partitionInputs = new ArrayList<>(batch.size());
+    for (Partition partition : batch) {
+      PartitionInput partitionInput = cleaner.cleanPartition(transformer.transformPartition(partition));
+      partitionsByValues.put(partitionInput.getValues(), partition);
+      fingerprints.put(partitionInput.getValues(), stateCache.fingerprint(partitionInput));
+      partitionInputs.add(partitionInput);
+    }
+    BatchCreatePartitionRequest request = new BatchCreatePartitionRequest()
+        .withPartitionInputList(partitionInputs)
+        .withDatabaseName(transformer.glueDbName(table))
+        .withTableName(table.getTableName());
+    BatchCreatePartitionResult result;
+    try {
+      result = glueClient.batchCreatePartition(request);
+    } catch (Exception e) {
+      log.error("Failed to create {} partitions on table {}.{} in glue", batch.size(), table.getDbName(),
+          table.getTableName(), e);
+      invalidate(table, batch);
+      failed.addAll(batch);
+      return;
+    }
+    List<PartitionError> errors = nullToEmpty(result.getErrors());
+    for (PartitionError error : errors) {
+      Partition partition = partitionsByValues.get(error.getPartitionValues());
+      fingerprints.remove(error.getPartitionValues());
+      stateCache.invalidate(partitionKey(table, error.getPartitionValues()));
+      String errorCode = errorCode(error.getErrorDetail());
+      if (ALREADY_EXISTS_ERROR.equals(errorCode)) {
+        existing.add(partition);
+      } else {
+        logError("create", table, error.getPartitionValues(), error.getErrorDetail());
+        failed.add(partition);
+      }
+    }
+    for (Map.Entry<List<String>, Long> created : fingerprints.entrySet()) {
+      stateCache.synced(partitionKey(table, created.getKey()), created.getValue());
+    }
+    log.debug("{} partitions created in glue catalog", batch.size() - errors.size());
+  }
+
+  private void updateBatch(Table table, List<Partition> batch, List<Partition> failed) {
+    Map<List<String>, Partition> partitionsByValues = new HashMap<>();
+    Map<List<String>, Long> fingerprints = new HashMap<>();
+    List<BatchUpdatePartitionRequestEntry> entries = new ArrayList<>(batch.size());
+    List<Partition> sent = new ArrayList<>(batch.size());
+    for (Partition partition : batch) {
+      PartitionInput partitionInput = cleaner.cleanPartition(transformer.transformPartition(partition));
+      long fingerprint = stateCache.fingerprint(partitionInput);
+      GlueSyncStateCache.State state = stateCache.get(partitionKey(table, partition));
+      if (state != null && state.isUnchanged(fingerprint)) {
+        stateCache.skipped();
+        continue;
+      }
+      partitionsByValues.put(partitionInput.getValues(), partition);
+      fingerprints.put(partitionInput.getValues(), fingerprint);
+      sent.add(partition);
+      entries
+          .add(new BatchUpdatePartitionRequestEntry()
+              .withPartitionValueList(partitionInput.getValues())
+              .withPartitionInput(partitionInput));
+    }
+    if (entries.isEmpty()) {
+      log.debug("{} partitions unchanged in glue catalog, skipping update", batch.size());
+      return;
+    }
+    BatchUpdatePartitionRequest request = new BatchUpdatePartitionRequest()
+        .withEntries(entries)
+        .withDatabaseName(transformer.glueDbName(table))
+        .withTableName(table.getTableName());
+    BatchUpdatePartitionResult result;
+    try {
+      result = glueClient.batchUpdatePartition(request);
+    } catch (Exception e) {
+      log.error("Failed to update {} partitions on table {}.{} in glue", sent.size(), table.getDbName(),
+          table.getTableName(), e);
+      invalidate(table, sent);
+      failed.addAll(sent);
+      return;
+    }
+    List<BatchUpdatePartitionFailureEntry> errors = nullToEmpty(result.getErrors());
+    for (BatchUpdatePartitionFailureEntry error : errors) {
+      Partition partition = partitionsByValues.get(error.getPartitionValueList());
+      fingerprints.remove(error.getPartitionValueList());
+      stateCache.invalidate(partitionKey(table, error.getPartitionValueList()));
+      logError("update", table, error.getPartitionValueList(), error.getErrorDetail());
+      failed.add(partition);
+    }
+    for (Map.Entry<List<String>, Long> updated : fingerprints.entrySet()) {
+      stateCache.synced(partitionKey(table, updated.getKey()), updated.getValue());
+    }
+    log.debug("{} partitions updated in glue catalog", sent.size() - errors.size());
+  }
+
+  private void invalidate(Table table, List<Partition> partitions) {
+    for (Partition partition : partitions) {
+      stateCache.invalidate(partitionKey(table, partition));
+    }
+  }
+
+  private String partitionKey(Table table, Partition partition) {
+    return partitionKey(table, partition.getValues());
+  }
+
+  private String partitionKey(Table table, List<String> values) {
+    return GlueSyncStateCache.partitionKey(transformer.glueDbName(table), table.getTableName(), values);
+  }
+
+  private static String errorCode(ErrorDetail errorDetail) {
+    return errorDetail == null ? null : errorDetail.getErrorCode();
+  }
+
+  private static void logError(String operation, Table table, List<String> values, ErrorDetail errorDetail) {
+    log.error("Failed to {} partition {} on table {}.{} in glue: [{}] {}", operation, values, table.getDbName(),
+        table.getTableName(), errorCode(errorDetail), errorDetail == null ? null : errorDetail.getErrorMessage());
+  }
+
+  private static <T> List<T> nullToEmpty(List<T> list) {
+    return list == null ? Collections.<T>emptyList() : list;
+  }
+
+  private static <T> List<List<T>> batches(List<T> items, int batchSize) {
+    List<List<T>> batches = new ArrayList<>();
+    for (int i = 0; i < items.size(); i += batchSize) {
+      batches.add(items.subList(i, Math.min(i + batchSize, items.size())));
+    }
+    return batches;
   }
 }
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+
+/**
+ * Client-side rate limiter for Glue calls with a separate budget for each {@link ApiFamily}, so that a flood of
+ * partition calls can't starve table and database DDL. Each budget is an adaptive token bucket: it starts at its
+ * maximum rate, halves the rate when Glue throttles a call and climbs back by about one call per second every second
+ * while calls succeed (AIMD). The rate is lowered at most once per {@value #DECREASE_INTERVAL_MS}ms because a single
+ * burst of throttling fails every call in flight. A caller waits at most the maximum wait for a permit; beyond that
+ * the call goes through without one, the limiter never fails a call by itself.
+ */
+public class GlueRateLimiter {
+
+  private static final Logger log = LoggerFactory.getLogger(GlueRateLimiter.class);
+
+  public static final int DEFAULT_DATABASE_TPS = 20;
+  public static final int DEFAULT_TABLE_TPS = 50;
+  public static final int DEFAULT_PARTITION_TPS = 100;
+
+  private static final double MIN_TPS = 1.0;
+  private static final double DECREASE_FACTOR = 0.5;
+  private static final long DECREASE_INTERVAL_MS = 500L;
+
+  public enum ApiFamily {
+    DATABASE(MetricConstants.LISTENER_DATABASE_RATE_LIMIT_PERMITS, MetricConstants.LISTENER_DATABASE_RATE_LIMIT_WAITS,
+        MetricConstants.LISTENER_DATABASE_RATE_LIMIT_THROTTLES, MetricConstants.LISTENER_DATABASE_RATE_LIMIT_RATE),
+    TABLE(MetricConstants.LISTENER_TABLE_RATE_LIMIT_PERMITS, MetricConstants.LISTENER_TABLE_RATE_LIMIT_WAITS,
+        MetricConstants.LISTENER_TABLE_RATE_LIMIT_THROTTLES, MetricConstants.LISTENER_TABLE_RATE_LIMIT_RATE),
+    PARTITION(MetricConstants.LISTENER_PARTITION_RATE_LIMIT_PERMITS,
+        MetricConstants.LISTENER_PARTITION_RATE_LIMIT_WAITS, MetricConstants.LISTENER_PARTITION_RATE_LIMIT_THROTTLES,
+        MetricConstants.LISTENER_PARTITION_RATE_LIMIT_RATE);
+
+    private final String permitsMetric;
+    private final String waitsMetric;
+    private final String throttlesMetric;
+    private final String rateMetric;
+
+    ApiFamily(String permitsMetric, String waitsMetric, String throttlesMetric, String rateMetric) {
+      this.permitsMetric = permitsMetric;
+      this.waitsMetric = waitsMetric;
+      this.throttlesMetric = throttlesMetric;
+      this.rateMetric = rateMetric;
+    }
+
+    /**
+     * @return the family of an {@code AWSGlue} method, or {@code null} if its calls are not rate limited
+     */
+    public static ApiFamily of(String methodName) {
+      if (methodName.contains("Partition")) {
+        return PARTITION;
+      }
+      if (methodName.contains("Table")) {
+        return TABLE;
+      }
+      if (methodName.contains("Database")) {
+        return DATABASE;
+      }
+      return null;
+    }
+  }
+
+  private final Map<ApiFamily, Bucket> buckets = new EnumMap<>(ApiFamily.class);
+  private final long maxWaitNanos;
+  private final MetricService metricService;
+
+  /**
+   * @param databaseTps maximum rate of database calls per second, a value of {@code 0} or less disables the limit
+   * @param tableTps maximum rate of table calls per second, a value of {@code 0} or less disables the limit
+   * @param partitionTps maximum rate of partition calls per second, a value of {@code 0} or less disables the limit
+   * @param maxWaitMs maximum time a call waits for a permit
+   */
+  public GlueRateLimiter(
+      double databaseTps,
+      double tableTps,
+      double partitionTps,
+      long maxWaitMs,
+      MetricService metricService) {
+    this.maxWaitNanos = MILLISECONDS.toNanos(maxWaitMs);
+    this.metricService = metricService;
+    addBucket(ApiFamily.DATABASE, databaseTps);
+    addBucket(ApiFamily.TABLE, tableTps);
+    addBucket(ApiFamily.PARTITION, partitionTps);
+  }
+
+  private void addBucket(ApiFamily family, double maxTps) {
+    if (maxTps <= 0) {
+      return;
+    }
+    Bucket bucket = new Bucket(maxTps);
+    buckets.put(family, bucket);
+    metricService.registerGauge(family.rateMetric, bucket::rate);
+  }
+
+  /**
+   * Waits for a permit to call an API of the family.
+   *
+   * @return {@code false} if no permit was available within the maximum wait, the call should go ahead anyway
+   */
+  public boolean acquire(ApiFamily family) throws InterruptedException {
+    Bucket bucket = buckets.get(family);
+    if (bucket == null) {
+      return true;
+    }
+    long waitNanos = bucket.reserve(maxWaitNanos);
+    if (waitNanos < 0) {
+      log.debug("No permit for a Glue {} call within {}ms", family, NANOSECONDS.toMillis(maxWaitNanos));
+      return false;
+    }
+    metricService.incrementCounter(family.permitsMetric);
+    if (waitNanos > 0) {
+      metricService.incrementCounter(family.waitsMetric);
+      NANOSECONDS.sleep(waitNanos);
+    }
+    return true;
+  }
+
+  public void succeeded(ApiFamily family) {
+    Bucket bucket = buckets.get(family);
+    if (bucket != null) {
+      bucket.increase();
+    }
+  }
+
+  public void throttled(ApiFamily family) {
+    metricService.incrementCounter(family.throttlesMetric);
+    Bucket bucket = buckets.get(family);
+    if (bucket != null && bucket.decrease()) {
+      log.info("Glue throttled a {} call, lowering the rate to {} calls per second", family,
+          String.format("%.1f", bucket.rate()));
+    }
+  }
+
+  /**
+   * @return the current rate of the family in calls per second, or {@code 0} if it is not limited
+   */
+  public double rate(ApiFamily family) {
+    Bucket bucket = buckets.get(family);
+    return bucket == null ? 0.0 : bucket.rate();
+  }
+
+  private static final class Bucket {
+    private final double maxRate;
+    private final double minRate;
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastDecreaseNanos;
+
+    private Bucket(double maxRate) {
+      this.maxRate = maxRate;
+      minRate = Math.min(MIN_TPS, maxRate);
+      rate = maxRate;
+      tokens = capacity();
+      lastRefillNanos = System.nanoTime();
+      lastDecreaseNanos = lastRefillNanos - MILLISECONDS.toNanos(DECREASE_INTERVAL_MS);
+    }
+
+    /**
+     * Takes a permit, going into debt when there is none so that waiting callers are served in turn.
+     *
+     * @return how long to wait before using the permit, or {@code -1} if that would be longer than the maximum wait
+     */
+    private synchronized long reserve(long maxWaitNanos) {
+      refill();
+      long waitNanos = 0L;
+      if (tokens < 1.0) {
+        waitNanos = (long) ((1.0 - tokens) / rate * SECONDS.toNanos(1));
+        if (waitNanos > maxWaitNanos) {
+          return -1L;
+        }
+      }
+      tokens -= 1.0;
+      return waitNanos;
+    }
+
+    private synchronized void increase() {
+      if (rate < maxRate) {
+        rate = Math.min(maxRate, rate + 1.0 / rate);
+      }
+    }
+
+    private synchronized boolean decrease() {
+      long now = System.nanoTime();
+      if (now - lastDecreaseNanos < MILLISECONDS.toNanos(DECREASE_INTERVAL_MS)) {
+        return false;
+      }
+      refill();
+      lastDecreaseNanos = now;
+      rate = Math.max(minRate, rate * DECREASE_FACTOR);
+      tokens = Math.min(tokens, 0.0);
+      return true;
+    }
+
+    private synchronized double rate() {
+      return rate;
+    }
+
+    private double capacity() {
+      // allows bursts of up to one second of calls
+      return Math.max(1.0, rate);
+    }
+
+    private void refill() {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity(), tokens + (now - lastRefillNanos) * rate / SECONDS.toNanos(1));
+      lastRefillNanos = now;
+    }
+  }
+
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+
+/**
+ * Remembers what was last synced to Glue for each table and partition: whether it exists and a fingerprint of the
+ * TableInput or PartitionInput that was sent. The services use it to call the API that will succeed first, update
+ * instead of create for something known to exist and the other way round, and to skip updates that would not change
+ * anything in Glue. Entries are only recorded after a successful call and are invalidated when a call fails, so an
+ * unknown or doubtful state always falls back to the plain calls.
+ * <p>
+ * The cache assumes the listener is the only writer of the tables and partitions it syncs. It never reads Glue, so a
+ * change made to Glue by another writer goes unnoticed: an update matching the remembered fingerprint is skipped and
+ * the change stays in Glue until an event with different content arrives. Entries expire after the time to live
+ * counted from the call that recorded them, which only bounds how long the remembered state is trusted, not how long
+ * such a change can survive. The least recently used entries are evicted beyond the maximum size, and the cache is
+ * disabled unless a maximum size is configured.
+ */
+public class GlueSyncStateCache {
+
+  public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+  public static final int DEFAULT_MAX_SIZE = 0;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final Map<String, State> states;
+  private final long ttlNanos;
+  private final MetricService metricService;
+
+  public GlueSyncStateCache(long ttlMillis, int maxSize, MetricService metricService) {
+    ttlNanos = maxSize > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0L;
+    this.metricService = metricService;
+    states = new LinkedHashMap<String, State>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, State> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return a cache that remembers nothing
+   */
+  public static GlueSyncStateCache disabled() {
+    return new GlueSyncStateCache(0L, 0, null);
+  }
+
+  public boolean isEnabled() {
+    return ttlNanos > 0;
+  }
+
+  public static String tableKey(String glueDbName, String tableName) {
+    return glueDbName + "." + tableName;
+  }
+
+  public static String partitionKey(String glueDbName, String tableName, List<String> values) {
+    StringBuilder key = new StringBuilder(tableKey(glueDbName, tableName)).append('/');
+    for (String value : values) {
+      key.append(value).append('\u0001');
+    }
+    return key.toString();
+  }
+
+  /**
+   * @return a 64-bit FNV-1a hash of the string form of a Glue input, which includes all of its fields, or {@code 0} if
+   *         the cache is disabled
+   */
+  public long fingerprint(Object input) {
+    if (!isEnabled()) {
+      return 0L;
+    }
+    String value = String.valueOf(input);
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * @return the state last synced for the key, or {@code null} if it is unknown
+   */
+  public State get(String key) {
+    if (!isEnabled()) {
+      return null;
+    }
+    State state;
+    synchronized (states) {
+      state = states.get(key);
+      if (state != null && state.expiry - System.nanoTime() <= 0) {
+        states.remove(key);
+        state = null;
+      }
+    }
+    metricService.incrementCounter(state == null
+        ? MetricConstants.LISTENER_STATE_CACHE_MISS
+        : MetricConstants.LISTENER_STATE_CACHE_HIT);
+    return state;
+  }
+
+  /**
+   * Records that the input with the given fingerprint was synced successfully.
+   */
+  public void synced(String key, long fingerprint) {
+    put(key, new State(true, fingerprint, System.nanoTime() + ttlNanos));
+  }
+
+  /**
+   * Records that the entry was deleted, or found not to exist.
+   */
+  public void deleted(String key) {
+    put(key, new State(false, 0L, System.nanoTime() + ttlNanos));
+  }
+
+  public void invalidate(String key) {
+    if (!isEnabled()) {
+      return;
+    }
+    synchronized (states) {
+      states.remove(key);
+    }
+  }
+
+  /**
+   * Forgets a table and all of its partitions.
+   */
+  public void invalidateTable(String tableKey) {
+    if (!isEnabled()) {
+      return;
+    }
+    String partitionPrefix = tableKey + "/";
+    synchronized (states) {
+      states.remove(tableKey);
+      Iterator<String> keys = states.keySet().iterator();
+      while (keys.hasNext()) {
+        if (keys.next().startsWith(partitionPrefix)) {
+          keys.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Counts an update skipped because it would not have changed anything in Glue.
+   */
+  public void skipped() {
+    metricService.incrementCounter(MetricConstants.LISTENER_STATE_CACHE_SKIP);
+  }
+
+  public int size() {
+    synchronized (states) {
+      return states.size();
+    }
+  }
+
+  private void put(String key, State state) {
+    if (!isEnabled()) {
+      return;
+    }
+    synchronized (states) {
+      states.put(key, state);
+    }
+  }
+
+  public static final class State {
+    private final boolean exists;
+    private final long fingerprint;
+    private final long expiry;
+
+    private State(boolean exists, long fingerprint, long expiry) {
+      this.exists = exists;
+      this.fingerprint = fingerprint;
+      this.expiry = expiry;
+    }
+
+    public boolean exists() {
+      return exists;
+    }
+
+    public boolean isUnchanged(long fingerprint) {
+      return exists && this.fingerprint == fingerprint;
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,133 +15,109 @@
  */
 package com.expediagroup.apiary.extensions.gluesync.listener.service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.services.glue.AWSGlue;
-import com.amazonaws.services.glue.model.BatchCreatePartitionRequest;
 import com.amazonaws.services.glue.model.CreateTableRequest;
 import com.amazonaws.services.glue.model.DeleteTableRequest;
-import com.amazonaws.services.glue.model.GetPartitionsRequest;
-import com.amazonaws.services.glue.model.InvalidInputException;
-import com.amazonaws.services.glue.model.Partition;
-import com.amazonaws.services.glue.model.PartitionInput;
 import com.amazonaws.services.glue.model.TableInput;
 import com.amazonaws.services.glue.model.UpdateTableRequest;
-import com.amazonaws.services.glue.model.ValidationException;
 
 public class GlueTableService {
   private static final Logger log = LoggerFactory.getLogger(GlueTableService.class);
   public static final String APIARY_GLUESYNC_SKIP_ARCHIVE_TABLE_PARAM = "apiary.gluesync.skipArchive";
-  private static final int DEFAULT_MAX_RESULTS_SIZE = 1000; // Current max supported by Glue
-  private static final int DEFAULT_COPY_PARTITION_BATCH_SIZE = 1000;
 
   private final AWSGlue glueClient;
   private final HiveToGlueTransformer transformer;
   private final GlueMetadataStringCleaner cleaner = new GlueMetadataStringCleaner();
+  private final GlueSyncStateCache stateCache;
 
   public GlueTableService(AWSGlue glueClient, String gluePrefix) {
+    this(glueClient, gluePrefix, GlueSyncStateCache.disabled());
+  }
+
+  public GlueTableService(AWSGlue glueClient, String gluePrefix, GlueSyncStateCache stateCache) {
     this.glueClient = glueClient;
     this.transformer = new HiveToGlueTransformer(gluePrefix);
+    this.stateCache = stateCache;
     log.debug("ApiaryGlueSync created");
   }
 
   public void create(Table table) {
+    TableInput tableInput = cleaner.cleanTable(transformer.transformTable(table));
+    String key = tableKey(table);
+    GlueSyncStateCache.State state = stateCache.get(key);
+    if (state != null && state.exists()) {
+      log.debug(table + " table known to exist in glue catalog, updating");
+      update(table, tableInput, key, state);
+      return;
+    }
+    create(table, tableInput, key);
+  }
+
+  private void create(Table table, TableInput tableInput, String key) {
+    long fingerprint = stateCache.fingerprint(tableInput);
     CreateTableRequest createTableRequest = new CreateTableRequest()
-        .withTableInput(transformer.transformTable(table))
+        .withTableInput(tableInput)
         .withDatabaseName(transformer.glueDbName(table));
     try {
       glueClient.createTable(createTableRequest);
       log.debug(table + " table created in glue catalog");
-    } catch (ValidationException | InvalidInputException e) {
-      TableInput tableInput = createTableRequest.getTableInput();
-      createTableRequest.setTableInput(cleanUpTable(tableInput));
-      glueClient.createTable(createTableRequest);
-      log.debug(table + " table updated in glue catalog");
+    } catch (RuntimeException e) {
+      stateCache.invalidate(key);
+      throw e;
     }
+    stateCache.synced(key, fingerprint);
   }
 
   public void update(Table table) {
-    boolean skipArchive = shouldSkipArchive(table);
+    TableInput tableInput = cleaner.cleanTable(transformer.transformTable(table));
+    String key = tableKey(table);
+    GlueSyncStateCache.State state = stateCache.get(key);
+    if (state != null && !state.exists()) {
+      log.debug(table + " table known not to exist in glue catalog, creating");
+      create(table, tableInput, key);
+      return;
+    }
+    update(table, tableInput, key, state);
+  }
 
+  private void update(Table table, TableInput tableInput, String key, GlueSyncStateCache.State state) {
+    long fingerprint = stateCache.fingerprint(tableInput);
+    if (state != null && state.isUnchanged(fingerprint)) {
+      log.debug(table + " table unchanged in glue catalog, skipping update");
+      stateCache.skipped();
+      return;
+    }
     UpdateTableRequest updateTableRequest = new UpdateTableRequest()
-        .withSkipArchive(skipArchive)
-        .withTableInput(transformer.transformTable(table))
+        .withSkipArchive(shouldSkipArchive(table))
+        .withTableInput(tableInput)
         .withDatabaseName(transformer.glueDbName(table));
     try {
       glueClient.updateTable(updateTableRequest);
       log.debug(table + " table updated in glue catalog");
-    } catch (ValidationException | InvalidInputException e) {
-      TableInput tableInput = updateTableRequest.getTableInput();
-      updateTableRequest.setTableInput(cleanUpTable(tableInput));
-      glueClient.updateTable(updateTableRequest);
-      log.debug(table + " table updated in glue catalog");
+    } catch (RuntimeException e) {
+      stateCache.invalidate(key);
+      throw e;
     }
-  }
-
-  private TableInput cleanUpTable(TableInput table) {
-    log.debug("Cleaning up table comments manually on {} to resolve validation", table);
-    long startTime = System.currentTimeMillis();
-    TableInput result = cleaner.cleanTable(table);
-    long duration = System.currentTimeMillis() - startTime;
-    log.debug("Clean up table comments operation on {} finished in {}ms", table, duration);
-    return result;
+    stateCache.synced(key, fingerprint);
   }
 
   public void delete(Table table) {
     DeleteTableRequest deleteTableRequest = new DeleteTableRequest()
         .withName(table.getTableName())
         .withDatabaseName(transformer.glueDbName(table));
+    String key = tableKey(table);
+    stateCache.invalidateTable(key);
     glueClient.deleteTable(deleteTableRequest);
+    stateCache.deleted(key);
     log.debug(table + " table deleted from glue catalog");
   }
 
-  /**
-   * Function to copy partitions using BatchCreatePartitionRequest but knowing the partition input list limit is 100,
-   * however input parameter can have larger list
-    */
-  public void copyPartitions(Table table, List<Partition> partitions) {
-    List<PartitionInput> partitionInputs = partitions.stream()
-        .map(this::convertToPartitionInput)
-        .collect(Collectors.toList());
-    int partitionCount = partitionInputs.size();
-    int batchSize = DEFAULT_COPY_PARTITION_BATCH_SIZE;
-    for (int i = 0; i < partitionCount; i += batchSize) {
-      int end = Math.min(i + batchSize, partitionCount);
-      List<PartitionInput> batch = partitionInputs.subList(i, end);
-      BatchCreatePartitionRequest batchCreatePartitionRequest = new BatchCreatePartitionRequest()
-          .withDatabaseName(transformer.glueDbName(table))
-          .withTableName(table.getTableName())
-          .withPartitionInputList(batch);
-      glueClient.batchCreatePartition(batchCreatePartitionRequest);
-    }
-  }
-
-  /**
-   * Function to return all partitions from a table, considering it could reach max results from request and
-   * then convert that into PartitionInput
-   */
-  public List<com.amazonaws.services.glue.model.Partition> getPartitions(Table table) {
-    List<com.amazonaws.services.glue.model.Partition> partitions = new ArrayList<>();
-    String nextToken = null;
-    do {
-      GetPartitionsRequest getPartitionsRequest = new GetPartitionsRequest()
-          .withDatabaseName(transformer.glueDbName(table))
-          .withTableName(table.getTableName())
-          .withMaxResults(DEFAULT_MAX_RESULTS_SIZE)
-          .withNextToken(nextToken);
-      com.amazonaws.services.glue.model.GetPartitionsResult result = glueClient.getPartitions(getPartitionsRequest);
-      if (result != null) {
-        partitions.addAll(result.getPartitions());
-        nextToken = result.getNextToken();
-      }
-    } while (nextToken != null);
-    return partitions;
+  private String tableKey(Table table) {
+    return GlueSyncStateCache.tableKey(transformer.glueDbName(table), table.getTableName());
   }
 
   private boolean shouldSkipArchive(Table table) {
@@ -155,11 +131,4 @@ public class GlueTableService {
     }
     return skipArchive;
   }
-
-  private PartitionInput convertToPartitionInput(com.amazonaws.services.glue.model.Partition partition) {
-    return new PartitionInput()
-        .withValues(partition.getValues())
-        .withStorageDescriptor(partition.getStorageDescriptor())
-        .withParameters(partition.getParameters());
-  }
 }
@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener.service;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.services.glue.AWSGlue;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueRateLimiter.ApiFamily;
+
+/**
+ * Wraps an {@link AWSGlue} client so that calls throttled by Glue, or failing with a server or connection error, are
+ * retried with exponential backoff and full jitter: the n-th retry waits a random time between zero and
+ * {@code min(maxDelayMs, baseDelayMs * 2^n)}. The wrapped client should be built with {@link #clientConfiguration()},
+ * otherwise every attempt made here is multiplied by the retries of the AWS SDK. With a
+ * {@link GlueRateLimiter} every call, retries included, first waits for a permit of its API family, and the limiter
+ * is told about throttled and successful calls so that it adapts its rates. On the metastore request path the number
+ * of retries and the delays should be kept small.
+ */
+public class RetryingGlueClient implements InvocationHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(RetryingGlueClient.class);
+
+  private static final String THROTTLING_ERROR = "ThrottlingException";
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final AWSGlue delegate;
+  private final int maxRetries;
+  private final long baseDelayMs;
+  private final long maxDelayMs;
+  private final GlueRateLimiter rateLimiter;
+  private final MetricService metricService;
+
+  private RetryingGlueClient(
+      AWSGlue delegate,
+      int maxRetries,
+      long baseDelayMs,
+      long maxDelayMs,
+      GlueRateLimiter rateLimiter,
+      MetricService metricService) {
+    this.delegate = delegate;
+    this.maxRetries = maxRetries;
+    this.baseDelayMs = baseDelayMs;
+    this.maxDelayMs = maxDelayMs;
+    this.rateLimiter = rateLimiter;
+    this.metricService = metricService;
+  }
+
+  public static AWSGlue wrap(
+      AWSGlue delegate,
+      int maxRetries,
+      long baseDelayMs,
+      long maxDelayMs,
+      MetricService metricService) {
+    return wrap(delegate, maxRetries, baseDelayMs, maxDelayMs, null, metricService);
+  }
+
+  /**
+   * @param rateLimiter limits the rate of calls, may be {@code null}
+   */
+  public static AWSGlue wrap(
+      AWSGlue delegate,
+      int maxRetries,
+      long baseDelayMs,
+      long maxDelayMs,
+      GlueRateLimiter rateLimiter,
+      MetricService metricService) {
+    return (AWSGlue) Proxy
+        .newProxyInstance(AWSGlue.class.getClassLoader(), new Class<?>[] { AWSGlue.class },
+            new RetryingGlueClient(delegate, maxRetries, baseDelayMs, maxDelayMs, rateLimiter, metricService));
+  }
+
+  /**
+   * @return a client configuration that disables the retries of the AWS SDK, for the clients that are wrapped
+   */
+  public static ClientConfiguration clientConfiguration() {
+    return new ClientConfiguration().withRetryPolicy(PredefinedRetryPolicies.NO_RETRY_POLICY);
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return method.invoke(this, args);
+    }
+    ApiFamily family = rateLimiter == null ? null : ApiFamily.of(method.getName());
+    int attempt = 0;
+    while (true) {
+      if (family != null) {
+        acquire(family);
+      }
+      try {
+        Object result = method.invoke(delegate, args);
+        if (family != null) {
+          rateLimiter.succeeded(family);
+        }
+        return result;
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        boolean throttling = isThrottling(cause);
+        if (throttling && family != null) {
+          rateLimiter.throttled(family);
+        }
+        if (!(throttling || isTransient(cause)) || attempt >= maxRetries) {
+          throw cause;
+        }
+        long delayMs = backoff(attempt++);
+        if (throttling) {
+          metricService.incrementCounter(MetricConstants.LISTENER_THROTTLED);
+          log.warn("Glue {} call throttled, retrying in {}ms (attempt {} of {})", method.getName(), delayMs, attempt,
+              maxRetries);
+        } else {
+          log.warn("Glue {} call failed, retrying in {}ms (attempt {} of {}): {}", method.getName(), delayMs, attempt,
+              maxRetries, cause.toString());
+        }
+        try {
+          Thread.sleep(delayMs);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw cause;
+        }
+      }
+    }
+  }
+
+  private void acquire(ApiFamily family) {
+    try {
+      rateLimiter.acquire(family);
+    } catch (InterruptedException e) {
+      // let the call go ahead, whoever interrupted us will find the flag set
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  long backoff(int attempt) {
+    long ceiling = maxDelayMs;
+    if (attempt < 32) {
+      ceiling = Math.min(maxDelayMs, baseDelayMs << attempt);
+    }
+    return ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+
+  static boolean isThrottling(Throwable e) {
+    if (!(e instanceof AmazonServiceException)) {
+      return false;
+    }
+    AmazonServiceException serviceException = (AmazonServiceException) e;
+    return THROTTLING_ERROR.equals(serviceException.getErrorCode())
+        || serviceException.getStatusCode() == TOO_MANY_REQUESTS;
+  }
+
+  /**
+   * @return whether the error is one the AWS SDK retries by default: a server error, or a client error caused by an
+   *         I/O failure
+   */
+  static boolean isTransient(Throwable e) {
+    if (e instanceof AmazonServiceException) {
+      return ((AmazonServiceException) e).getStatusCode() >= 500;
+    }
+    return e instanceof SdkClientException && e.getCause() instanceof IOException;
+  }
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,6 @@ import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -55,6 +54,7 @@ import org.apache.hadoop.hive.metastore.events.AlterTableEvent;
 import org.apache.hadoop.hive.metastore.events.CreateDatabaseEvent;
 import org.apache.hadoop.hive.metastore.events.CreateTableEvent;
 import org.apache.hadoop.hive.metastore.events.DropDatabaseEvent;
+import org.apache.hadoop.hive.metastore.events.DropPartitionEvent;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.junit.Before;
 import org.junit.Test;
@@ -67,6 +67,11 @@ import org.mockito.junit.MockitoJUnitRunner;
 import com.amazonaws.services.glue.AWSGlue;
 import com.amazonaws.services.glue.model.AlreadyExistsException;
 import com.amazonaws.services.glue.model.BatchCreatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchCreatePartitionResult;
+import com.amazonaws.services.glue.model.BatchDeletePartitionRequest;
+import com.amazonaws.services.glue.model.BatchDeletePartitionResult;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionResult;
 import com.amazonaws.services.glue.model.Column;
 import com.amazonaws.services.glue.model.CreateDatabaseRequest;
 import com.amazonaws.services.glue.model.CreatePartitionRequest;
@@ -75,10 +80,11 @@ import com.amazonaws.services.glue.model.CreateTableResult;
 import com.amazonaws.services.glue.model.DeleteDatabaseRequest;
 import com.amazonaws.services.glue.model.DeleteTableRequest;
 import com.amazonaws.services.glue.model.EntityNotFoundException;
+import com.amazonaws.services.glue.model.ErrorDetail;
 import com.amazonaws.services.glue.model.GetDatabaseRequest;
 import com.amazonaws.services.glue.model.GetDatabaseResult;
 import com.amazonaws.services.glue.model.GetPartitionsResult;
-import com.amazonaws.services.glue.model.InvalidInputException;
+import com.amazonaws.services.glue.model.PartitionError;
 import com.amazonaws.services.glue.model.PartitionInput;
 import com.amazonaws.services.glue.model.TableInput;
 import com.amazonaws.services.glue.model.UpdateDatabaseRequest;
@@ -87,6 +93,7 @@ import com.google.common.collect.ImmutableMap;
 
 import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
 import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueSyncStateCache;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ApiaryGlueSyncTest {
@@ -117,6 +124,10 @@ public class ApiaryGlueSyncTest {
   private ArgumentCaptor<DeleteDatabaseRequest> deleteDatabaseRequestCaptor;
   @Captor
   private ArgumentCaptor<CreatePartitionRequest> createPartitionRequestCaptor;
+  @Captor
+  private ArgumentCaptor<BatchUpdatePartitionRequest> batchUpdatePartitionRequestCaptor;
+  @Captor
+  private ArgumentCaptor<BatchDeletePartitionRequest> batchDeletePartitionRequestCaptor;
 
   private final String tableName = "some_table";
   private final String dbName = "some_db";
@@ -135,6 +146,11 @@ public class ApiaryGlueSyncTest {
     when(glueClient.createTable(any(CreateTableRequest.class))).thenReturn(createTableResult);
   }
 
+  private ApiaryGlueSync withStateCache() {
+    GlueSyncStateCache stateCache = new GlueSyncStateCache(60000L, 100, metricService);
+    return new ApiaryGlueSync(configuration, glueClient, gluePrefix, metricService, null, stateCache);
+  }
+
   @Test
   public void onCreateDatabase() {
     CreateDatabaseEvent event = mock(CreateDatabaseEvent.class);
@@ -174,6 +190,22 @@ public class ApiaryGlueSyncTest {
     assertThat(updateDatabaseRequest.getDatabaseInput().getDescription(), is(description));
   }
 
+  @Test
+  public void onCreateDatabase_async() {
+    AsyncGlueSyncExecutor asyncExecutor = new AsyncGlueSyncExecutor(2, 10, 5000L, metricService);
+    glueSync = new ApiaryGlueSync(configuration, glueClient, gluePrefix, metricService, asyncExecutor);
+    CreateDatabaseEvent event = mock(CreateDatabaseEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    when(event.getDatabase()).thenReturn(getDatabase(description, locationUri, params));
+
+    glueSync.onCreateDatabase(event);
+    asyncExecutor.close();
+
+    verify(glueClient).createDatabase(createDatabaseRequestCaptor.capture());
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_DATABASE_SUCCESS);
+    assertThat(createDatabaseRequestCaptor.getValue().getDatabaseInput().getName(), is(gluePrefix + dbName));
+  }
+
   @Test
   public void onDropDatabase() {
     DropDatabaseEvent event = mock(DropDatabaseEvent.class);
@@ -250,14 +282,10 @@ public class ApiaryGlueSyncTest {
     incorrectSchema.get(0).setComment("incorrect_comment\uD999");
     Table table = simpleHiveTable(incorrectSchema, simplePartitioning());
     when(event.getTable()).thenReturn(table);
-    when(glueClient.createTable(argThat(
-        req -> "incorrect_comment\uD999".contentEquals(
-            req.getTableInput().getStorageDescriptor().getColumns().get(0).getComment()))))
-        .thenThrow(new InvalidInputException("Invalid input"));
 
     glueSync.onCreateTable(event);
 
-    verify(glueClient, times(2)).createTable(createTableRequestCaptor.capture());
+    verify(glueClient).createTable(createTableRequestCaptor.capture());
     verify(metricService).incrementCounter(MetricConstants.LISTENER_TABLE_SUCCESS);
     CreateTableRequest createTableRequest = createTableRequestCaptor.getValue();
 
@@ -315,6 +343,23 @@ public class ApiaryGlueSyncTest {
     assertThat(updateTableRequest.getSkipArchive(), is(true));
   }
 
+  @Test
+  public void onAlterHiveTable_unchangedIsSkipped() {
+    glueSync = withStateCache();
+    AlterTableEvent event = mock(AlterTableEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    Table newTable = simpleHiveTable(simpleSchema(), simplePartitioning());
+    when(event.getOldTable()).thenReturn(newTable);
+    when(event.getNewTable()).thenReturn(newTable);
+
+    glueSync.onAlterTable(event);
+    glueSync.onAlterTable(event);
+
+    verify(glueClient).updateTable(any(UpdateTableRequest.class));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_STATE_CACHE_SKIP);
+    verify(metricService, times(2)).incrementCounter(MetricConstants.LISTENER_TABLE_SUCCESS);
+  }
+
   @Test
   public void onAlterHiveTableSkipArchiveOverride() {
     AlterTableEvent event = mock(AlterTableEvent.class);
@@ -359,7 +404,9 @@ public class ApiaryGlueSyncTest {
     when(event.getNewTable()).thenReturn(newTable);
 
     when(glueClient.getPartitions(any())).thenReturn(new GetPartitionsResult().withPartitions(
-        new com.amazonaws.services.glue.model.Partition().withValues("part1Value", "part2Value")));
+        new com.amazonaws.services.glue.model.Partition().withValues("part1Value", "part2Value")),
+        new GetPartitionsResult());
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult());
 
     glueSync.onAlterTable(event);
 
@@ -424,14 +471,10 @@ public class ApiaryGlueSyncTest {
 
     when(event.getTable()).thenReturn(table);
     when(event.getPartitionIterator()).thenReturn(Arrays.asList(partition).iterator());
-    when(glueClient.createPartition(argThat(
-        req -> "incorrect_comment\uD999".contentEquals(
-            req.getPartitionInput().getStorageDescriptor().getColumns().get(0).getComment()))))
-        .thenThrow(new InvalidInputException("Invalid input"));
 
     glueSync.onAddPartition(event);
 
-    verify(glueClient, times(2)).createPartition(createPartitionRequestCaptor.capture());
+    verify(glueClient).createPartition(createPartitionRequestCaptor.capture());
     verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS);
     CreatePartitionRequest createTableRequest = createPartitionRequestCaptor.getValue();
 
@@ -440,6 +483,150 @@ public class ApiaryGlueSyncTest {
     assertThat(tableInput.getStorageDescriptor().getColumns().get(0).getComment(), is("incorrect_comment"));
   }
 
+  @Test
+  public void onAddPartition_alreadySynced() {
+    glueSync = withStateCache();
+    AddPartitionEvent event = mock(AddPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    Table table = simpleHiveTable(simpleSchema(), simplePartitioning());
+    when(event.getTable()).thenReturn(table);
+    when(event.getPartitionIterator())
+        .thenReturn(simplePartitions(table, 1).iterator())
+        .thenReturn(simplePartitions(table, 1).iterator());
+
+    glueSync.onAddPartition(event);
+    glueSync.onAddPartition(event);
+
+    verify(glueClient).createPartition(any(CreatePartitionRequest.class));
+    verify(glueClient, times(0)).updatePartition(any());
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_STATE_CACHE_SKIP);
+    verify(metricService, times(2)).incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS);
+  }
+
+  @Test
+  public void onAddPartitions() {
+    AddPartitionEvent event = mock(AddPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    Table table = simpleHiveTable(simpleSchema(), simplePartitioning());
+    when(event.getTable()).thenReturn(table);
+    when(event.getPartitionIterator()).thenReturn(simplePartitions(table, 3).iterator());
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult()
+        .withErrors(partitionError(asList("part1Value1", "part2Value1"), "AlreadyExistsException")));
+    when(glueClient.batchUpdatePartition(any())).thenReturn(new BatchUpdatePartitionResult());
+
+    glueSync.onAddPartition(event);
+
+    verify(glueClient).batchCreatePartition(batchCreatePartitionRequestCaptor.capture());
+    BatchCreatePartitionRequest batchCreatePartitionRequest = batchCreatePartitionRequestCaptor.getValue();
+    assertThat(batchCreatePartitionRequest.getDatabaseName(), is(gluePrefix + dbName));
+    assertThat(batchCreatePartitionRequest.getTableName(), is(tableName));
+    assertThat(batchCreatePartitionRequest.getPartitionInputList().size(), is(3));
+
+    verify(glueClient).batchUpdatePartition(batchUpdatePartitionRequestCaptor.capture());
+    BatchUpdatePartitionRequest batchUpdatePartitionRequest = batchUpdatePartitionRequestCaptor.getValue();
+    assertThat(batchUpdatePartitionRequest.getEntries().size(), is(1));
+    assertThat(batchUpdatePartitionRequest.getEntries().get(0).getPartitionValueList(),
+        is(asList("part1Value1", "part2Value1")));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS, 3);
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_FAILURE, 0);
+    verify(glueClient, times(0)).createPartition(any());
+  }
+
+  @Test
+  public void onAddPartitions_inBatchesOf100() {
+    AddPartitionEvent event = mock(AddPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    Table table = simpleHiveTable(simpleSchema(), simplePartitioning());
+    when(event.getTable()).thenReturn(table);
+    when(event.getPartitionIterator()).thenReturn(simplePartitions(table, 250).iterator());
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult());
+
+    glueSync.onAddPartition(event);
+
+    verify(glueClient, times(3)).batchCreatePartition(batchCreatePartitionRequestCaptor.capture());
+    List<Integer> batchSizes = batchCreatePartitionRequestCaptor.getAllValues().stream()
+        .map(request -> request.getPartitionInputList().size())
+        .collect(Collectors.toList());
+    assertThat(batchSizes, is(asList(100, 100, 50)));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS, 250);
+  }
+
+  @Test
+  public void onAddPartitions_withFailedEntries() {
+    AddPartitionEvent event = mock(AddPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    Table table = simpleHiveTable(simpleSchema(), simplePartitioning());
+    when(event.getTable()).thenReturn(table);
+    when(event.getPartitionIterator()).thenReturn(simplePartitions(table, 3).iterator());
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult()
+        .withErrors(partitionError(asList("part1Value2", "part2Value2"), "InternalServiceException")));
+
+    glueSync.onAddPartition(event);
+
+    verify(glueClient).batchCreatePartition(any());
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS, 2);
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_FAILURE, 1);
+  }
+
+  @Test
+  public void onAddPartitions_withIncorrectFormat() {
+    AddPartitionEvent event = mock(AddPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    List<FieldSchema> incorrectSchema = simpleSchema();
+    incorrectSchema.get(0).setComment("incorrect_comment\uD999");
+    Table table = simpleHiveTable(incorrectSchema, simplePartitioning());
+    when(event.getTable()).thenReturn(table);
+    when(event.getPartitionIterator()).thenReturn(simplePartitions(table, 2).iterator());
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult());
+
+    glueSync.onAddPartition(event);
+
+    verify(glueClient).batchCreatePartition(batchCreatePartitionRequestCaptor.capture());
+    PartitionInput partitionInput = batchCreatePartitionRequestCaptor.getValue().getPartitionInputList().get(0);
+    assertThat(partitionInput.getStorageDescriptor().getColumns().get(0).getComment(), is("incorrect_comment"));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS, 2);
+  }
+
+  @Test
+  public void onDropPartitions() {
+    DropPartitionEvent event = mock(DropPartitionEvent.class);
+    when(event.getStatus()).thenReturn(true);
+    Table table = simpleHiveTable(simpleSchema(), simplePartitioning());
+    when(event.getTable()).thenReturn(table);
+    when(event.getPartitionIterator()).thenReturn(simplePartitions(table, 30).iterator());
+    when(glueClient.batchDeletePartition(any())).thenReturn(new BatchDeletePartitionResult()
+        .withErrors(partitionError(asList("part1Value0", "part2Value0"), "EntityNotFoundException")));
+
+    glueSync.onDropPartition(event);
+
+    verify(glueClient, times(2)).batchDeletePartition(batchDeletePartitionRequestCaptor.capture());
+    List<BatchDeletePartitionRequest> requests = batchDeletePartitionRequestCaptor.getAllValues();
+    assertThat(requests.get(0).getDatabaseName(), is(gluePrefix + dbName));
+    assertThat(requests.get(0).getTableName(), is(tableName));
+    assertThat(requests.get(0).getPartitionsToDelete().size(), is(25));
+    assertThat(requests.get(0).getPartitionsToDelete().get(0).getValues(), is(asList("part1Value0", "part2Value0")));
+    assertThat(requests.get(1).getPartitionsToDelete().size(), is(5));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_SUCCESS, 30);
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_FAILURE, 0);
+  }
+
+  private List<Partition> simplePartitions(Table table, int count) {
+    List<Partition> partitions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Partition partition = new Partition();
+      partition.setValues(asList("part1Value" + i, "part2Value" + i));
+      partition.setSd(table.getSd());
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+
+  private PartitionError partitionError(List<String> values, String errorCode) {
+    return new PartitionError()
+        .withPartitionValues(values)
+        .withErrorDetail(new ErrorDetail().withErrorCode(errorCode).withErrorMessage("error"));
+  }
+
   private Table simpleHiveTable(List<FieldSchema> schema, List<FieldSchema> partitions) {
     Table table = new Table();
     table.setTableName(tableName);
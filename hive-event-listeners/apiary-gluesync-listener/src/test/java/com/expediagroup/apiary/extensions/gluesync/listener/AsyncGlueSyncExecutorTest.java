@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncGlueSyncExecutorTest {
+
+  @Mock
+  private MetricService metricService;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private AsyncGlueSyncExecutor executor;
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    if (executor != null) {
+      executor.close();
+    }
+  }
+
+  @Test
+  public void operationsOfADatabaseAreAppliedInOrder() {
+    executor = new AsyncGlueSyncExecutor(4, 1000, 5000L, metricService);
+    List<String> applied = Collections.synchronizedList(new ArrayList<>());
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String operation = "operation_" + i;
+      expected.add(operation);
+      assertTrue(executor.submit("db", operation, () -> applied.add(operation)));
+    }
+    executor.close();
+
+    assertThat(applied, is(expected));
+    verify(metricService).registerGauge(eq(MetricConstants.LISTENER_ASYNC_QUEUE_DEPTH), any());
+    verify(metricService).registerGauge(eq(MetricConstants.LISTENER_ASYNC_LAG_MS), any());
+  }
+
+  @Test
+  public void failedOperationsDoNotStopTheLane() {
+    executor = new AsyncGlueSyncExecutor(1, 10, 5000L, metricService);
+    AtomicInteger applied = new AtomicInteger();
+    executor.submit("db", "failing", () -> {
+      throw new IllegalStateException("boom");
+    });
+    executor.submit("db", "succeeding", applied::incrementAndGet);
+    executor.close();
+
+    assertThat(applied.get(), is(1));
+  }
+
+  @Test
+  public void dropsOperationsWhenTheQueueIsFull() throws Exception {
+    executor = new AsyncGlueSyncExecutor(1, 1, 5000L, metricService);
+    executor.submit("db", "blocking", this::awaitRelease);
+    awaitEmptyQueue();
+
+    assertTrue(executor.submit("db", "queued", () -> {}));
+    assertFalse(executor.submit("db", "dropped", () -> {}));
+    assertThat(executor.queueDepth(), is(1));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_ASYNC_DROPPED);
+  }
+
+  @Test
+  public void lagIsTheAgeOfTheOldestOperation() throws Exception {
+    executor = new AsyncGlueSyncExecutor(1, 10, 5000L, metricService);
+    assertThat(executor.lagMs(), is(0L));
+    executor.submit("db", "blocking", this::awaitRelease);
+    Thread.sleep(100L);
+
+    assertTrue(executor.lagMs() >= 100L);
+    release.countDown();
+    executor.close();
+    assertThat(executor.lagMs(), is(0L));
+  }
+
+  @Test
+  public void closeDrainsQueuedOperations() {
+    executor = new AsyncGlueSyncExecutor(2, 100, 5000L, metricService);
+    AtomicInteger applied = new AtomicInteger();
+    for (int i = 0; i < 20; i++) {
+      executor.submit("db_" + i, "operation_" + i, () -> {
+        sleep(5L);
+        applied.incrementAndGet();
+      });
+    }
+    executor.close();
+
+    assertThat(applied.get(), is(20));
+    assertThat(executor.queueDepth(), is(0));
+  }
+
+  @Test
+  public void closeGivesUpAfterTheDrainTimeout() throws Exception {
+    executor = new AsyncGlueSyncExecutor(1, 10, 100L, metricService);
+    executor.submit("db", "blocking", this::awaitRelease);
+    awaitEmptyQueue();
+    executor.submit("db", "never_applied", () -> {});
+    executor.close();
+
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_ASYNC_DROPPED, 1);
+  }
+
+  @Test
+  public void submitAfterCloseDropsTheOperation() {
+    executor = new AsyncGlueSyncExecutor(1, 10, 5000L, metricService);
+    executor.close();
+    AtomicInteger applied = new AtomicInteger();
+
+    assertFalse(executor.submit("db", "operation", applied::incrementAndGet));
+    assertFalse(executor.submit("db_1", "db_2", "operation", applied::incrementAndGet));
+    assertThat(applied.get(), is(0));
+    verify(metricService, times(2)).incrementCounter(MetricConstants.LISTENER_ASYNC_DROPPED);
+  }
+
+  @Test
+  public void operationOnTwoDatabasesWaitsForBothLanes() throws Exception {
+    executor = new AsyncGlueSyncExecutor(2, 10, 5000L, metricService);
+    String oldDatabase = databaseOfLane(0);
+    String newDatabase = databaseOfLane(1);
+    List<String> applied = Collections.synchronizedList(new ArrayList<>());
+    executor.submit(oldDatabase, "blocking", () -> {
+      awaitRelease();
+      applied.add("old_database_before");
+    });
+    assertTrue(executor.submit(newDatabase, oldDatabase, "rename", () -> applied.add("rename")));
+    executor.submit(newDatabase, "new_database_after", () -> applied.add("new_database_after"));
+    executor.submit(oldDatabase, "old_database_after", () -> applied.add("old_database_after"));
+    Thread.sleep(100L);
+    assertThat(applied.isEmpty(), is(true));
+
+    release.countDown();
+    executor.close();
+    assertThat(applied.subList(0, 2), is(asList("old_database_before", "rename")));
+    assertThat(new HashSet<>(applied.subList(2, 4)), is(new HashSet<>(asList("new_database_after",
+        "old_database_after"))));
+  }
+
+  private static String databaseOfLane(int lane) {
+    for (int i = 0;; i++) {
+      String databaseName = "db_" + i;
+      if (Math.floorMod(databaseName.hashCode(), 2) == lane) {
+        return databaseName;
+      }
+    }
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void awaitEmptyQueue() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000L;
+    while (executor.queueDepth() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertThat(executor.queueDepth(), is(0));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
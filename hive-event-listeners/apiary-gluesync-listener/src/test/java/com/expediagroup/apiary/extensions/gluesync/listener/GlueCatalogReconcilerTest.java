@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static java.util.Collections.singletonList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import static com.expediagroup.apiary.extensions.gluesync.listener.service.HiveToGlueTransformer.MANAGED_BY_GLUESYNC_KEY;
+import static com.expediagroup.apiary.extensions.gluesync.listener.service.HiveToGlueTransformer.MANAGED_BY_GLUESYNC_VALUE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.amazonaws.services.glue.model.CreateDatabaseRequest;
+import com.amazonaws.services.glue.model.CreateTableRequest;
+import com.amazonaws.services.glue.model.DatabaseInput;
+import com.amazonaws.services.glue.model.TableInput;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueCatalogReconciler;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GlueCatalogReconcilerTest {
+
+  private static final String GLUE_PREFIX = "test_";
+  private static final String DATABASE = "db";
+  private static final String GLUE_DATABASE = GLUE_PREFIX + DATABASE;
+  private static final String PARTITIONED_TABLE = "events";
+  private static final String UNPARTITIONED_TABLE = "dim";
+  private static final int PARTITIONS = 250;
+
+  @Mock
+  private IMetaStoreClient metaStoreClient;
+
+  private final InMemoryGlue glue = new InMemoryGlue();
+  private final Map<String, Table> hiveTables = new LinkedHashMap<>();
+  private final Map<String, Map<String, Partition>> hivePartitions = new HashMap<>();
+
+  @Before
+  public void setUp() throws TException {
+    Table partitionedTable = hiveTable(PARTITIONED_TABLE,
+        Collections.singletonList(new FieldSchema("day", "string", "")));
+    hiveTables.put(PARTITIONED_TABLE, partitionedTable);
+    Map<String, Partition> partitions = new LinkedHashMap<>();
+    for (int i = 0; i < PARTITIONS; i++) {
+      partitions.put("day=" + i, hivePartition(partitionedTable, String.valueOf(i)));
+    }
+    hivePartitions.put(PARTITIONED_TABLE, partitions);
+    hiveTables.put(UNPARTITIONED_TABLE, hiveTable(UNPARTITIONED_TABLE, Collections.emptyList()));
+
+    Database database = new Database();
+    database.setName(DATABASE);
+    database.setLocationUri("s3://bucket/db");
+    database.setParameters(new HashMap<>());
+    when(metaStoreClient.getDatabase(DATABASE)).thenAnswer(invocation -> new Database(database));
+    when(metaStoreClient.getAllTables(DATABASE)).thenAnswer(invocation -> new ArrayList<>(hiveTables.keySet()));
+    when(metaStoreClient.getTableObjectsByName(eq(DATABASE), anyList())).thenAnswer(invocation -> {
+      List<Table> tables = new ArrayList<>();
+      for (String tableName : invocation.<List<String>>getArgument(1)) {
+        tables.add(new Table(hiveTables.get(tableName)));
+      }
+      return tables;
+    });
+    when(metaStoreClient.listPartitionNames(eq(DATABASE), anyString(), anyShort()))
+        .thenAnswer(invocation -> new ArrayList<>(hivePartitions.get(invocation.<String>getArgument(1)).keySet()));
+    when(metaStoreClient.getPartitionsByNames(eq(DATABASE), anyString(), anyList())).thenAnswer(invocation -> {
+      Map<String, Partition> tablePartitions = hivePartitions.get(invocation.<String>getArgument(1));
+      List<Partition> result = new ArrayList<>();
+      for (String partitionName : invocation.<List<String>>getArgument(2)) {
+        result.add(new Partition(tablePartitions.get(partitionName)));
+      }
+      return result;
+    });
+  }
+
+  @Test
+  public void backfillsEmptyCatalog() {
+    GlueCatalogReconciler.Result result = reconciler(false).reconcile(singletonList(DATABASE));
+
+    assertThat(result.getCreated(), is(1L + 2L + PARTITIONS));
+    assertThat(result.getFailed(), is(0L));
+    assertThat(glue.database(GLUE_DATABASE).getParameters().get(MANAGED_BY_GLUESYNC_KEY),
+        is(MANAGED_BY_GLUESYNC_VALUE));
+    assertThat(glue.table(GLUE_DATABASE, UNPARTITIONED_TABLE), is(notNullValue()));
+    assertThat(glue.partitions(GLUE_DATABASE, PARTITIONED_TABLE).size(), is(PARTITIONS));
+    assertThat(glue.calls("batchCreatePartition"), is(3));
+  }
+
+  @Test
+  public void catalogInSyncIsLeftUntouched() {
+    GlueCatalogReconciler reconciler = reconciler(false);
+    reconciler.reconcile(singletonList(DATABASE));
+    int writeCalls = glue.writeCalls();
+
+    GlueCatalogReconciler.Result result = reconciler.reconcile(singletonList(DATABASE));
+
+    assertThat(result.getUnchanged(), is(1L + 2L + PARTITIONS));
+    assertThat(result.getCreated(), is(0L));
+    assertThat(result.getUpdated(), is(0L));
+    assertThat(glue.writeCalls(), is(writeCalls));
+  }
+
+  @Test
+  public void updatesChangedEntries() {
+    GlueCatalogReconciler reconciler = reconciler(false);
+    reconciler.reconcile(singletonList(DATABASE));
+    hiveTables.get(UNPARTITIONED_TABLE).setOwner("new_owner");
+    hivePartitions.get(PARTITIONED_TABLE).get("day=5").getSd().setLocation("s3://bucket/db/events/new_location");
+
+    GlueCatalogReconciler.Result result = reconciler.reconcile(singletonList(DATABASE));
+
+    assertThat(result.getUpdated(), is(2L));
+    assertThat(result.getUnchanged(), is(1L + 1L + PARTITIONS - 1));
+    assertThat(glue.table(GLUE_DATABASE, UNPARTITIONED_TABLE).getOwner(), is("new_owner"));
+    assertThat(glue.calls("batchUpdatePartition"), is(1));
+    for (com.amazonaws.services.glue.model.Partition partition : glue.partitions(GLUE_DATABASE, PARTITIONED_TABLE)) {
+      if (partition.getValues().equals(singletonList("5"))) {
+        assertThat(partition.getStorageDescriptor().getLocation(), is("s3://bucket/db/events/new_location"));
+      }
+    }
+  }
+
+  @Test
+  public void entriesMissingFromMetastoreAreKeptByDefault() {
+    GlueCatalogReconciler reconciler = reconciler(false);
+    reconciler.reconcile(singletonList(DATABASE));
+    hiveTables.remove(UNPARTITIONED_TABLE);
+    hivePartitions.get(PARTITIONED_TABLE).remove("day=0");
+
+    GlueCatalogReconciler.Result result = reconciler.reconcile(singletonList(DATABASE));
+
+    assertThat(result.getDeleted(), is(0L));
+    assertThat(glue.table(GLUE_DATABASE, UNPARTITIONED_TABLE), is(notNullValue()));
+    assertThat(glue.partitions(GLUE_DATABASE, PARTITIONED_TABLE).size(), is(PARTITIONS));
+  }
+
+  @Test
+  public void deletesEntriesMissingFromMetastore() {
+    GlueCatalogReconciler reconciler = reconciler(true);
+    reconciler.reconcile(singletonList(DATABASE));
+    hiveTables.remove(UNPARTITIONED_TABLE);
+    hivePartitions.get(PARTITIONED_TABLE).remove("day=0");
+
+    GlueCatalogReconciler.Result result = reconciler.reconcile(singletonList(DATABASE));
+
+    assertThat(result.getDeleted(), is(2L));
+    assertThat(result.getFailed(), is(0L));
+    assertThat(glue.table(GLUE_DATABASE, UNPARTITIONED_TABLE), is(nullValue()));
+    assertThat(glue.partitions(GLUE_DATABASE, PARTITIONED_TABLE).size(), is(PARTITIONS - 1));
+    assertThat(glue.calls("batchDeleteTable"), is(1));
+    assertThat(glue.calls("batchDeletePartition"), is(1));
+  }
+
+  @Test
+  public void doesNotDeleteFromDatabasesNotCreatedByGlueSync() {
+    glue.client().createDatabase(new CreateDatabaseRequest().withDatabaseInput(new DatabaseInput()
+        .withName(GLUE_DATABASE)));
+    glue.client().createTable(new CreateTableRequest()
+        .withDatabaseName(GLUE_DATABASE)
+        .withTableInput(new TableInput().withName("other")));
+
+    GlueCatalogReconciler.Result result = reconciler(true).reconcile(singletonList(DATABASE));
+
+    assertThat(result.getUpdated(), is(1L));
+    assertThat(result.getDeleted(), is(0L));
+    assertThat(glue.table(GLUE_DATABASE, "other"), is(notNullValue()));
+  }
+
+  @Test
+  public void reconcileAllDeletesDroppedDatabases() throws TException {
+    when(metaStoreClient.getAllDatabases()).thenReturn(singletonList(DATABASE));
+    createGlueDatabase(GLUE_PREFIX + "dropped", true);
+    createGlueDatabase(GLUE_PREFIX + "manual", false);
+    createGlueDatabase("other_dropped", true);
+
+    GlueCatalogReconciler.Result result = reconciler(true).reconcileAll();
+
+    assertThat(result.getDeleted(), is(1L));
+    assertThat(glue.database(GLUE_PREFIX + "dropped"), is(nullValue()));
+    assertThat(glue.database(GLUE_PREFIX + "manual"), is(notNullValue()));
+    assertThat(glue.database("other_dropped"), is(notNullValue()));
+    assertThat(glue.database(GLUE_DATABASE), is(notNullValue()));
+  }
+
+  private GlueCatalogReconciler reconciler(boolean deleteEnabled) {
+    return new GlueCatalogReconciler(metaStoreClient, glue.client(), GLUE_PREFIX, 2, deleteEnabled);
+  }
+
+  private void createGlueDatabase(String name, boolean managedByGlueSync) {
+    Map<String, String> parameters = new HashMap<>();
+    if (managedByGlueSync) {
+      parameters.put(MANAGED_BY_GLUESYNC_KEY, MANAGED_BY_GLUESYNC_VALUE);
+    }
+    glue.client().createDatabase(new CreateDatabaseRequest().withDatabaseInput(new DatabaseInput()
+        .withName(name)
+        .withParameters(parameters)));
+  }
+
+  private Table hiveTable(String tableName, List<FieldSchema> partitionKeys) {
+    Table table = new Table();
+    table.setDbName(DATABASE);
+    table.setTableName(tableName);
+    table.setOwner("owner");
+    table.setTableType("EXTERNAL_TABLE");
+    table.setParameters(new HashMap<>());
+    table.setPartitionKeys(partitionKeys);
+
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setCols(Arrays.asList(new FieldSchema("id", "bigint", ""), new FieldSchema("name", "string", "")));
+    sd.setLocation("s3://bucket/db/" + tableName);
+    sd.setInputFormat("org.apache.hadoop.mapred.TextInputFormat");
+    sd.setOutputFormat("org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat");
+    sd.setSerdeInfo(new SerDeInfo());
+    sd.getSerdeInfo().setParameters(new HashMap<>());
+    sd.setSortCols(new ArrayList<>());
+    table.setSd(sd);
+    return table;
+  }
+
+  private Partition hivePartition(Table table, String value) {
+    Partition partition = new Partition();
+    partition.setDbName(DATABASE);
+    partition.setTableName(table.getTableName());
+    partition.setValues(singletonList(value));
+    partition.setParameters(new HashMap<>());
+    StorageDescriptor sd = new StorageDescriptor(table.getSd());
+    sd.setLocation(table.getSd().getLocation() + "/day=" + value);
+    partition.setSd(sd);
+    return partition;
+  }
+
+}
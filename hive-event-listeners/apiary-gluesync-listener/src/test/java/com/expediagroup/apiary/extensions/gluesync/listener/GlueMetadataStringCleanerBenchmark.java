@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.amazonaws.services.glue.model.TableInput;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueMetadataStringCleaner;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.HiveToGlueTransformer;
+
+/**
+ * Measures the cost of checking wide tables against the Glue limits before they are sent, compared with only
+ * transforming them. {@code cleanValidTable} is the scan alone and shouldn't allocate, run with {@code -prof gc} to
+ * check. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.expediagroup.apiary.extensions.gluesync.listener.GlueMetadataStringCleanerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlueMetadataStringCleanerBenchmark {
+
+  @Param({ "100", "1000", "10000" })
+  public int columns;
+
+  private final GlueMetadataStringCleaner cleaner = new GlueMetadataStringCleaner();
+  private final HiveToGlueTransformer transformer = new HiveToGlueTransformer("prefix_");
+  private Table validTable;
+  private Table invalidTable;
+  private TableInput validTableInput;
+
+  @Setup
+  public void setup() {
+    validTable = wideTable("a column comment that Glue accepts as it is");
+    invalidTable = wideTable("a column comment with an unpaired surrogate \uD999");
+    validTableInput = transformer.transformTable(validTable);
+  }
+
+  @Benchmark
+  public TableInput cleanValidTable() {
+    return cleaner.cleanTable(validTableInput);
+  }
+
+  @Benchmark
+  public TableInput transformValidTable() {
+    return transformer.transformTable(validTable);
+  }
+
+  @Benchmark
+  public TableInput transformAndCleanValidTable() {
+    return cleaner.cleanTable(transformer.transformTable(validTable));
+  }
+
+  @Benchmark
+  public TableInput transformAndCleanInvalidTable() {
+    return cleaner.cleanTable(transformer.transformTable(invalidTable));
+  }
+
+  private Table wideTable(String comment) {
+    List<FieldSchema> schema = new ArrayList<>(columns);
+    for (int i = 0; i < columns; i++) {
+      schema.add(new FieldSchema("column_" + i, "string", comment + " " + i));
+    }
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("EXTERNAL", "TRUE");
+    parameters.put("transient_lastDdlTime", "1700000000");
+
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setCols(schema);
+    sd.setLocation("s3://bucket/db/table");
+    sd.setInputFormat("org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat");
+    sd.setOutputFormat("org.apache.hadoop.hive.ql.io.parquet.MapredParquetOutputFormat");
+    sd.setSerdeInfo(new SerDeInfo("serde", "org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe",
+        new HashMap<>()));
+    sd.setParameters(new HashMap<>());
+
+    Table table = new Table();
+    table.setDbName("db");
+    table.setTableName("table");
+    table.setTableType("EXTERNAL_TABLE");
+    table.setParameters(parameters);
+    table.setPartitionKeys(new ArrayList<>());
+    table.setSd(sd);
+    return table;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(GlueMetadataStringCleanerBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2018-2025 Expedia, Inc.
+ * Copyright (C) 2018-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,16 +15,24 @@
  */
 package com.expediagroup.apiary.extensions.gluesync.listener;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import com.amazonaws.services.glue.model.Column;
 import com.amazonaws.services.glue.model.PartitionInput;
+import com.amazonaws.services.glue.model.SerDeInfo;
 import com.amazonaws.services.glue.model.StorageDescriptor;
 import com.amazonaws.services.glue.model.TableInput;
 
@@ -56,11 +64,11 @@ public class GlueMetadataStringCleanerTest {
     TableInput result = glueMetadataStringCleaner.cleanTable(tableInput);
 
     Column schemaColumn = result.getStorageDescriptor().getColumns().get(0);
-    assertTrue(schemaColumn.getComment().length() == 254);
+    assertTrue(schemaColumn.getComment().length() == 255);
     assertTrue(schemaColumn.getComment().startsWith("A"));
 
     Column partitionColumn = result.getPartitionKeys().get(0);
-    assertTrue(partitionColumn.getComment().length() == 254);
+    assertTrue(partitionColumn.getComment().length() == 255);
     assertTrue(partitionColumn.getComment().startsWith("A"));
   }
 
@@ -75,7 +83,7 @@ public class GlueMetadataStringCleanerTest {
     PartitionInput result = glueMetadataStringCleaner.cleanPartition(partitionInput);
 
     Column schemaColumn = result.getStorageDescriptor().getColumns().get(0);
-    assertTrue(schemaColumn.getComment().length() == 254);
+    assertTrue(schemaColumn.getComment().length() == 255);
     assertTrue(schemaColumn.getComment().startsWith("A")); // non-unicode char removed
 
     String partitionValue = result.getValues().get(0);
@@ -84,9 +92,138 @@ public class GlueMetadataStringCleanerTest {
     assertTrue(partitionValue.startsWith("A")); // non-unicode char removed
   }
 
+  @Test
+  public void validInputIsUnchanged() {
+    String comment = "a valid comment with a tab\t and an emoji \uD83D\uDE00";
+    String description = "a multi-line\ndescription";
+    Column column = new Column().withName("col").withComment(comment);
+    Map<String, String> parameters = Collections.singletonMap("key", "value");
+    TableInput tableInput = new TableInput()
+        .withDescription(description)
+        .withParameters(parameters)
+        .withStorageDescriptor(new StorageDescriptor()
+            .withColumns(column)
+            .withParameters(parameters)
+            .withSerdeInfo(new SerDeInfo().withParameters(parameters)))
+        .withPartitionKeys(new Column().withName("part"));
+
+    TableInput result = glueMetadataStringCleaner.cleanTable(tableInput);
+
+    assertThat(result, sameInstance(tableInput));
+    assertThat(result.getDescription(), sameInstance(description));
+    assertThat(result.getStorageDescriptor().getColumns().get(0).getComment(), sameInstance(comment));
+    assertThat(result.getParameters(), sameInstance(parameters));
+    assertThat(result.getStorageDescriptor().getParameters(), sameInstance(parameters));
+    assertThat(result.getStorageDescriptor().getSerdeInfo().getParameters(), sameInstance(parameters));
+  }
+
+  @Test
+  public void onlyOffendingFieldsAreCleaned() {
+    Column validColumn = new Column().withName("valid").withComment("valid comment");
+    Column invalidColumn = new Column().withName("invalid").withComment("multi-line\ncomment");
+    TableInput tableInput = new TableInput()
+        .withDescription("description\uFFFF")
+        .withStorageDescriptor(new StorageDescriptor().withColumns(validColumn, invalidColumn));
+
+    TableInput result = glueMetadataStringCleaner.cleanTable(tableInput);
+
+    assertThat(result.getDescription(), is("description"));
+    assertThat(result.getStorageDescriptor().getColumns().get(0).getComment(), is("valid comment"));
+    assertThat(result.getStorageDescriptor().getColumns().get(1).getComment(), is("multi-linecomment"));
+  }
+
+  @Test
+  public void truncationKeepsSurrogatePairs() {
+    String comment = generateCharString(254) + "\uD83D\uDE00";
+    Column column = new Column().withComment(comment);
+    TableInput tableInput = new TableInput().withStorageDescriptor(new StorageDescriptor().withColumns(column));
+
+    glueMetadataStringCleaner.cleanTable(tableInput);
+
+    assertThat(column.getComment(), is(generateCharString(254)));
+  }
+
+  @Test
+  public void limitsAreCountedInUtf8Bytes() {
+    // each of these characters takes 3 bytes in UTF-8, so 85 of them fit in a comment
+    String cjk = repeat("\u6570", 85);
+    Column valid = new Column().withComment(cjk);
+    Column tooLong = new Column().withComment(cjk + "\u636e");
+    TableInput tableInput = new TableInput()
+        .withDescription(repeat("\u00e9", 1025))
+        .withStorageDescriptor(new StorageDescriptor().withColumns(valid, tooLong));
+
+    glueMetadataStringCleaner.cleanTable(tableInput);
+
+    assertThat(valid.getComment(), is(sameInstance(cjk)));
+    assertThat(tooLong.getComment(), is(cjk));
+    assertThat(tableInput.getDescription(), is(repeat("\u00e9", 1024)));
+  }
+
+  @Test
+  public void truncationDoesNotSplitMultiByteCharacters() {
+    Column column = new Column().withComment("AB" + repeat("\u6570", 85));
+    TableInput tableInput = new TableInput().withStorageDescriptor(new StorageDescriptor().withColumns(column));
+
+    glueMetadataStringCleaner.cleanTable(tableInput);
+
+    assertThat(column.getComment(), is("AB" + repeat("\u6570", 84)));
+  }
+
+  @Test
+  public void parameterValuesAreCountedInUtf8Bytes() {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("key", "value");
+    parameters.put("large", repeat("\u6570", 512000 / 3 + 1));
+    parameters.put(repeat("\u00e9", 128), "value");
+    TableInput tableInput = new TableInput().withParameters(parameters);
+
+    TableInput result = glueMetadataStringCleaner.cleanTable(tableInput);
+
+    assertThat(result.getParameters(), is(Collections.singletonMap("key", "value")));
+  }
+
+  @Test
+  public void parametersExceedingLimitsAreDropped() {
+    String largeValue = new String(new char[512001]).replace('\0', 'x');
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("key", "value");
+    parameters.put("large", largeValue);
+    parameters.put(generateCharString(256), "value");
+    PartitionInput partitionInput = new PartitionInput()
+        .withValues("value")
+        .withParameters(parameters)
+        .withStorageDescriptor(new StorageDescriptor());
+
+    PartitionInput result = glueMetadataStringCleaner.cleanPartition(partitionInput);
+
+    assertThat(result.getParameters(), is(Collections.singletonMap("key", "value")));
+    assertThat(result.getValues(), is(Arrays.asList("value")));
+    // the original map, usually owned by the Hive partition, is left alone
+    assertThat(parameters.size(), is(3));
+  }
+
+  @Test
+  public void missingFields() {
+    TableInput tableInput = new TableInput();
+
+    TableInput result = glueMetadataStringCleaner.cleanTable(tableInput);
+
+    assertThat(result.getDescription(), is(nullValue()));
+    assertThat(result.getStorageDescriptor(), is(nullValue()));
+  }
+
+  private static String repeat(String value, int times) {
+    StringBuilder sb = new StringBuilder(value.length() * times);
+    for (int i = 0; i < times; i++) {
+      sb.append(value);
+    }
+    return sb.toString();
+  }
+
   private String generateCharString(int length) {
     StringBuilder sb = new StringBuilder(length);
-    for (int i = 0; i < 300; i++) {
+    for (int i = 0; i < length; i++) {
       sb.append("A");
     }
     return sb.toString();
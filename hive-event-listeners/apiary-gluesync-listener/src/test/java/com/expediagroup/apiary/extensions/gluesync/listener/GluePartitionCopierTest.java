@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.amazonaws.services.glue.AWSGlue;
+import com.amazonaws.services.glue.model.BatchCreatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchCreatePartitionResult;
+import com.amazonaws.services.glue.model.ErrorDetail;
+import com.amazonaws.services.glue.model.GetPartitionsRequest;
+import com.amazonaws.services.glue.model.GetPartitionsResult;
+import com.amazonaws.services.glue.model.InternalServiceException;
+import com.amazonaws.services.glue.model.Partition;
+import com.amazonaws.services.glue.model.PartitionError;
+import com.amazonaws.services.glue.model.PartitionInput;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GluePartitionCopier;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GluePartitionCopierTest {
+
+  private static final String GLUE_PREFIX = "test_";
+  private static final int PARTITIONS_PER_PAGE = 150;
+
+  @Mock
+  private AWSGlue glueClient;
+  @Mock
+  private MetricService metricService;
+
+  @Captor
+  private ArgumentCaptor<GetPartitionsRequest> getPartitionsRequestCaptor;
+  @Captor
+  private ArgumentCaptor<BatchCreatePartitionRequest> batchCreatePartitionRequestCaptor;
+
+  private final Table source = table("source_table");
+  private final Table target = table("target_table");
+  private GluePartitionCopier copier;
+
+  @Before
+  public void setUp() {
+    copier = new GluePartitionCopier(glueClient, GLUE_PREFIX, metricService, 2, 2);
+  }
+
+  @Test
+  public void copiesEverySegmentInBatchesOf100() {
+    stubTwoPagesPerSegment();
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult());
+
+    copier.copy(source, target);
+
+    verify(glueClient, times(4)).getPartitions(getPartitionsRequestCaptor.capture());
+    Set<Integer> segments = new HashSet<>();
+    for (GetPartitionsRequest request : getPartitionsRequestCaptor.getAllValues()) {
+      assertThat(request.getDatabaseName(), is(GLUE_PREFIX + "db"));
+      assertThat(request.getTableName(), is("source_table"));
+      assertThat(request.getSegment().getTotalSegments(), is(2));
+      segments.add(request.getSegment().getSegmentNumber());
+    }
+    assertThat(segments, is(new HashSet<>(asList(0, 1))));
+
+    verify(glueClient, atLeastOnce()).batchCreatePartition(batchCreatePartitionRequestCaptor.capture());
+    Set<List<String>> copied = new HashSet<>();
+    for (BatchCreatePartitionRequest request : batchCreatePartitionRequestCaptor.getAllValues()) {
+      assertThat(request.getTableName(), is("target_table"));
+      assertTrue(request.getPartitionInputList().size() <= 100);
+      for (PartitionInput partitionInput : request.getPartitionInputList()) {
+        copied.add(partitionInput.getValues());
+      }
+    }
+    assertThat(copied.size(), is(4 * PARTITIONS_PER_PAGE));
+  }
+
+  @Test
+  public void copiesToTargetDatabase() {
+    when(glueClient.getPartitions(any())).thenReturn(page(0, 3, null), new GetPartitionsResult());
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult());
+    Table otherDatabaseTarget = table("target_table");
+    otherDatabaseTarget.setDbName("other_db");
+
+    copier.copy(source, otherDatabaseTarget);
+
+    verify(glueClient, times(2)).getPartitions(getPartitionsRequestCaptor.capture());
+    for (GetPartitionsRequest request : getPartitionsRequestCaptor.getAllValues()) {
+      assertThat(request.getDatabaseName(), is(GLUE_PREFIX + "db"));
+      assertThat(request.getTableName(), is("source_table"));
+    }
+    verify(glueClient).batchCreatePartition(batchCreatePartitionRequestCaptor.capture());
+    assertThat(batchCreatePartitionRequestCaptor.getValue().getDatabaseName(), is(GLUE_PREFIX + "other_db"));
+    assertThat(batchCreatePartitionRequestCaptor.getValue().getTableName(), is("target_table"));
+    assertThat(batchCreatePartitionRequestCaptor.getValue().getPartitionInputList().size(), is(3));
+  }
+
+  @Test
+  public void failedEntriesAreRetried() {
+    when(glueClient.getPartitions(any())).thenReturn(page(0, 3, null), new GetPartitionsResult());
+    when(glueClient.batchCreatePartition(any()))
+        .thenReturn(new BatchCreatePartitionResult()
+            .withErrors(error("value_1", "InternalServiceException"), error("value_2", "AlreadyExistsException")))
+        .thenReturn(new BatchCreatePartitionResult());
+
+    copier.copy(source, target);
+
+    verify(glueClient, times(2)).batchCreatePartition(batchCreatePartitionRequestCaptor.capture());
+    List<PartitionInput> retried = batchCreatePartitionRequestCaptor.getAllValues().get(1).getPartitionInputList();
+    assertThat(retried.size(), is(1));
+    assertThat(retried.get(0).getValues(), is(asList("value_1")));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_RENAME_PARTITIONS_COPIED, 3);
+  }
+
+  @Test
+  public void failedBatchesAreRetried() {
+    when(glueClient.getPartitions(any())).thenReturn(page(0, 3, null), new GetPartitionsResult());
+    when(glueClient.batchCreatePartition(any()))
+        .thenThrow(new InternalServiceException("unavailable"))
+        .thenReturn(new BatchCreatePartitionResult());
+
+    copier.copy(source, target);
+
+    verify(glueClient, times(2)).batchCreatePartition(any());
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_RENAME_PARTITIONS_COPIED, 3);
+  }
+
+  @Test
+  public void failsWhenPartitionsCannotBeCopied() {
+    when(glueClient.getPartitions(any())).thenReturn(page(0, 3, null), new GetPartitionsResult());
+    when(glueClient.batchCreatePartition(any()))
+        .thenReturn(new BatchCreatePartitionResult().withErrors(error("value_1", "InternalServiceException")));
+
+    try {
+      copier.copy(source, target);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      verify(glueClient, times(3)).batchCreatePartition(any());
+      verify(metricService).incrementCounter(MetricConstants.LISTENER_RENAME_PARTITIONS_COPIED, 2);
+      verify(metricService).incrementCounter(MetricConstants.LISTENER_RENAME_PARTITIONS_FAILED, 1);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void failsWhenASegmentCannotBeRead() {
+    when(glueClient.getPartitions(any()))
+        .thenReturn(new GetPartitionsResult())
+        .thenThrow(new InternalServiceException("unavailable"));
+
+    copier.copy(source, target);
+  }
+
+  @Test(timeout = 10000L, expected = IllegalStateException.class)
+  public void failsWhenEveryWriterStops() {
+    copier = new GluePartitionCopier(glueClient, GLUE_PREFIX, metricService, 1, 1);
+    when(glueClient.getPartitions(any())).thenReturn(page(0, 1000, null));
+    when(glueClient.batchCreatePartition(any())).thenReturn(new BatchCreatePartitionResult());
+    doThrow(new IllegalStateException("Metrics are unavailable"))
+        .when(metricService)
+        .incrementCounter(MetricConstants.LISTENER_RENAME_PARTITIONS_COPIED, 100);
+
+    copier.copy(source, target);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void tooManySegments() {
+    new GluePartitionCopier(glueClient, GLUE_PREFIX, metricService, 11, 1);
+  }
+
+  private void stubTwoPagesPerSegment() {
+    when(glueClient.getPartitions(any())).thenAnswer(invocation -> {
+      GetPartitionsRequest request = invocation.getArgument(0);
+      int offset = request.getSegment().getSegmentNumber() * 2 * PARTITIONS_PER_PAGE;
+      if (request.getNextToken() == null) {
+        return page(offset, PARTITIONS_PER_PAGE, "next");
+      }
+      return page(offset + PARTITIONS_PER_PAGE, PARTITIONS_PER_PAGE, null);
+    });
+  }
+
+  private static GetPartitionsResult page(int offset, int count, String nextToken) {
+    List<Partition> partitions = new ArrayList<>(count);
+    for (int i = offset; i < offset + count; i++) {
+      partitions.add(new Partition().withValues("value_" + i));
+    }
+    return new GetPartitionsResult().withPartitions(partitions).withNextToken(nextToken);
+  }
+
+  private static PartitionError error(String value, String errorCode) {
+    return new PartitionError()
+        .withPartitionValues(value)
+        .withErrorDetail(new ErrorDetail().withErrorCode(errorCode).withErrorMessage("error"));
+  }
+
+  private static Table table(String tableName) {
+    Table table = new Table();
+    table.setDbName("db");
+    table.setTableName(tableName);
+    return table;
+  }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueRateLimiter;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueRateLimiter.ApiFamily;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GlueRateLimiterTest {
+
+  @Mock
+  private MetricService metricService;
+
+  @Test
+  public void apiFamilies() {
+    assertThat(ApiFamily.of("getDatabase"), is(ApiFamily.DATABASE));
+    assertThat(ApiFamily.of("batchDeleteTable"), is(ApiFamily.TABLE));
+    assertThat(ApiFamily.of("getTables"), is(ApiFamily.TABLE));
+    assertThat(ApiFamily.of("getPartitions"), is(ApiFamily.PARTITION));
+    assertThat(ApiFamily.of("batchCreatePartition"), is(ApiFamily.PARTITION));
+    assertThat(ApiFamily.of("shutdown"), is(nullValue()));
+  }
+
+  @Test
+  public void callsWithinBudgetDoNotWait() throws InterruptedException {
+    GlueRateLimiter rateLimiter = new GlueRateLimiter(10, 10, 10, 1000L, metricService);
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(rateLimiter.acquire(ApiFamily.PARTITION));
+    }
+
+    verify(metricService, times(10)).incrementCounter(MetricConstants.LISTENER_PARTITION_RATE_LIMIT_PERMITS);
+    verify(metricService, never()).incrementCounter(MetricConstants.LISTENER_PARTITION_RATE_LIMIT_WAITS);
+  }
+
+  @Test
+  public void waitsWhenBudgetIsSpent() throws InterruptedException {
+    GlueRateLimiter rateLimiter = new GlueRateLimiter(10, 10, 10, 1000L, metricService);
+    for (int i = 0; i < 10; i++) {
+      rateLimiter.acquire(ApiFamily.PARTITION);
+    }
+
+    long start = System.nanoTime();
+    assertTrue(rateLimiter.acquire(ApiFamily.PARTITION));
+
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50L);
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_RATE_LIMIT_WAITS);
+  }
+
+  @Test
+  public void givesUpAfterMaxWait() throws InterruptedException {
+    GlueRateLimiter rateLimiter = new GlueRateLimiter(1, 1, 1, 0L, metricService);
+
+    assertThat(rateLimiter.acquire(ApiFamily.PARTITION), is(true));
+    assertThat(rateLimiter.acquire(ApiFamily.PARTITION), is(false));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_PARTITION_RATE_LIMIT_PERMITS);
+  }
+
+  @Test
+  public void familiesHaveSeparateBudgets() throws InterruptedException {
+    GlueRateLimiter rateLimiter = new GlueRateLimiter(1, 1, 1, 0L, metricService);
+
+    assertThat(rateLimiter.acquire(ApiFamily.PARTITION), is(true));
+    assertThat(rateLimiter.acquire(ApiFamily.PARTITION), is(false));
+    assertThat(rateLimiter.acquire(ApiFamily.TABLE), is(true));
+    assertThat(rateLimiter.acquire(ApiFamily.DATABASE), is(true));
+  }
+
+  @Test
+  public void throttlingHalvesTheRateAndSuccessesRestoreIt() {
+    GlueRateLimiter rateLimiter = new GlueRateLimiter(10, 10, 100, 1000L, metricService);
+
+    rateLimiter.throttled(ApiFamily.PARTITION);
+    assertThat(rateLimiter.rate(ApiFamily.PARTITION), is(50.0));
+    // the calls in flight during the same burst of throttling don't lower the rate further
+    rateLimiter.throttled(ApiFamily.PARTITION);
+    assertThat(rateLimiter.rate(ApiFamily.PARTITION), is(50.0));
+    assertThat(rateLimiter.rate(ApiFamily.TABLE), is(10.0));
+    verify(metricService, times(2)).incrementCounter(MetricConstants.LISTENER_PARTITION_RATE_LIMIT_THROTTLES);
+
+    for (int i = 0; i < 10000; i++) {
+      rateLimiter.succeeded(ApiFamily.PARTITION);
+    }
+    assertThat(rateLimiter.rate(ApiFamily.PARTITION), is(100.0));
+  }
+
+  @Test
+  public void familiesCanBeUnlimited() throws InterruptedException {
+    GlueRateLimiter rateLimiter = new GlueRateLimiter(0, 0, 0, 0L, metricService);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(rateLimiter.acquire(ApiFamily.PARTITION), is(true));
+    }
+    assertThat(rateLimiter.rate(ApiFamily.PARTITION), is(0.0));
+    verifyZeroInteractions(metricService);
+  }
+
+}
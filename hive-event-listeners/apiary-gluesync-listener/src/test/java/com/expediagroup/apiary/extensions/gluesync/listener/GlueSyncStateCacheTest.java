@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.amazonaws.services.glue.model.TableInput;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueSyncStateCache;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GlueSyncStateCacheTest {
+
+  private static final String TABLE_KEY = GlueSyncStateCache.tableKey("db", "table");
+  private static final String PARTITION_KEY = GlueSyncStateCache.partitionKey("db", "table", asList("a", "b"));
+
+  @Mock
+  private MetricService metricService;
+
+  @Test
+  public void syncedEntryIsRemembered() {
+    GlueSyncStateCache cache = new GlueSyncStateCache(60000L, 10, metricService);
+    long fingerprint = cache.fingerprint(new TableInput().withName("table"));
+    cache.synced(TABLE_KEY, fingerprint);
+
+    GlueSyncStateCache.State state = cache.get(TABLE_KEY);
+
+    assertThat(state.exists(), is(true));
+    assertThat(state.isUnchanged(fingerprint), is(true));
+    assertThat(state.isUnchanged(cache.fingerprint(new TableInput().withName("table").withOwner("owner"))), is(false));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_STATE_CACHE_HIT);
+  }
+
+  @Test
+  public void deletedEntryDoesNotExist() {
+    GlueSyncStateCache cache = new GlueSyncStateCache(60000L, 10, metricService);
+    cache.deleted(PARTITION_KEY);
+
+    GlueSyncStateCache.State state = cache.get(PARTITION_KEY);
+
+    assertThat(state.exists(), is(false));
+    assertThat(state.isUnchanged(0L), is(false));
+  }
+
+  @Test
+  public void unknownEntry() {
+    GlueSyncStateCache cache = new GlueSyncStateCache(60000L, 10, metricService);
+
+    assertThat(cache.get(TABLE_KEY), is(nullValue()));
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_STATE_CACHE_MISS);
+  }
+
+  @Test
+  public void entriesExpire() throws InterruptedException {
+    GlueSyncStateCache cache = new GlueSyncStateCache(1L, 10, metricService);
+    cache.synced(TABLE_KEY, 1L);
+    Thread.sleep(10L);
+
+    assertThat(cache.get(TABLE_KEY), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvicted() {
+    GlueSyncStateCache cache = new GlueSyncStateCache(60000L, 2, metricService);
+    cache.synced("db.table1", 1L);
+    cache.synced("db.table2", 2L);
+    cache.get("db.table1");
+    cache.synced("db.table3", 3L);
+
+    assertThat(cache.size(), is(2));
+    assertThat(cache.get("db.table1"), is(not(nullValue())));
+    assertThat(cache.get("db.table2"), is(nullValue()));
+    assertThat(cache.get("db.table3"), is(not(nullValue())));
+  }
+
+  @Test
+  public void invalidateTableForgetsItsPartitions() {
+    GlueSyncStateCache cache = new GlueSyncStateCache(60000L, 10, metricService);
+    cache.synced(TABLE_KEY, 1L);
+    cache.synced(PARTITION_KEY, 2L);
+    cache.synced(GlueSyncStateCache.tableKey("db", "table2"), 3L);
+    cache.synced(GlueSyncStateCache.partitionKey("db", "table2", asList("a", "b")), 4L);
+
+    cache.invalidateTable(TABLE_KEY);
+
+    assertThat(cache.size(), is(2));
+    assertThat(cache.get(TABLE_KEY), is(nullValue()));
+    assertThat(cache.get(PARTITION_KEY), is(nullValue()));
+    verify(metricService, times(2)).incrementCounter(MetricConstants.LISTENER_STATE_CACHE_MISS);
+  }
+
+  @Test
+  public void partitionKeysDoNotCollide() {
+    assertThat(GlueSyncStateCache.partitionKey("db", "table", asList("a", "bc")),
+        is(not(GlueSyncStateCache.partitionKey("db", "table", asList("ab", "c")))));
+  }
+
+  @Test
+  public void disabled() {
+    GlueSyncStateCache cache = new GlueSyncStateCache(60000L, 0, metricService);
+    cache.synced(TABLE_KEY, 1L);
+
+    assertThat(cache.isEnabled(), is(false));
+    assertThat(cache.get(TABLE_KEY), is(nullValue()));
+    assertThat(cache.size(), is(0));
+    verifyZeroInteractions(metricService);
+  }
+
+}
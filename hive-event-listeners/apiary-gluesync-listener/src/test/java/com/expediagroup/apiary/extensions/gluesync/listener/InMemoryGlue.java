@@ -0,0 +1,353 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.services.glue.AWSGlue;
+import com.amazonaws.services.glue.model.AlreadyExistsException;
+import com.amazonaws.services.glue.model.BatchCreatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchCreatePartitionResult;
+import com.amazonaws.services.glue.model.BatchDeletePartitionRequest;
+import com.amazonaws.services.glue.model.BatchDeletePartitionResult;
+import com.amazonaws.services.glue.model.BatchDeleteTableRequest;
+import com.amazonaws.services.glue.model.BatchDeleteTableResult;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionFailureEntry;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionRequest;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionRequestEntry;
+import com.amazonaws.services.glue.model.BatchUpdatePartitionResult;
+import com.amazonaws.services.glue.model.CreateDatabaseRequest;
+import com.amazonaws.services.glue.model.CreateDatabaseResult;
+import com.amazonaws.services.glue.model.CreateTableRequest;
+import com.amazonaws.services.glue.model.CreateTableResult;
+import com.amazonaws.services.glue.model.Database;
+import com.amazonaws.services.glue.model.DatabaseInput;
+import com.amazonaws.services.glue.model.DeleteDatabaseRequest;
+import com.amazonaws.services.glue.model.DeleteDatabaseResult;
+import com.amazonaws.services.glue.model.EntityNotFoundException;
+import com.amazonaws.services.glue.model.ErrorDetail;
+import com.amazonaws.services.glue.model.GetDatabaseRequest;
+import com.amazonaws.services.glue.model.GetDatabaseResult;
+import com.amazonaws.services.glue.model.GetDatabasesRequest;
+import com.amazonaws.services.glue.model.GetDatabasesResult;
+import com.amazonaws.services.glue.model.GetPartitionsRequest;
+import com.amazonaws.services.glue.model.GetPartitionsResult;
+import com.amazonaws.services.glue.model.GetTablesRequest;
+import com.amazonaws.services.glue.model.GetTablesResult;
+import com.amazonaws.services.glue.model.Partition;
+import com.amazonaws.services.glue.model.PartitionError;
+import com.amazonaws.services.glue.model.PartitionInput;
+import com.amazonaws.services.glue.model.PartitionValueList;
+import com.amazonaws.services.glue.model.Table;
+import com.amazonaws.services.glue.model.TableError;
+import com.amazonaws.services.glue.model.TableInput;
+import com.amazonaws.services.glue.model.UpdateDatabaseRequest;
+import com.amazonaws.services.glue.model.UpdateDatabaseResult;
+import com.amazonaws.services.glue.model.UpdateTableRequest;
+import com.amazonaws.services.glue.model.UpdateTableResult;
+
+/**
+ * In-memory stand-in for the Glue catalog, covering the database, table and partition calls made by the listener.
+ * Results are paged to honour MaxResults and every call is counted.
+ */
+public class InMemoryGlue implements InvocationHandler {
+
+  private final Map<String, Database> databases = new TreeMap<>();
+  private final Map<String, Map<String, Table>> tables = new TreeMap<>();
+  private final Map<String, Map<String, Partition>> partitions = new TreeMap<>();
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+  private final AWSGlue client = (AWSGlue) Proxy
+      .newProxyInstance(AWSGlue.class.getClassLoader(), new Class<?>[] { AWSGlue.class }, this);
+
+  public AWSGlue client() {
+    return client;
+  }
+
+  public int calls(String methodName) {
+    AtomicInteger count = calls.get(methodName);
+    return count == null ? 0 : count.get();
+  }
+
+  public int writeCalls() {
+    int writes = 0;
+    for (Map.Entry<String, AtomicInteger> entry : calls.entrySet()) {
+      if (!entry.getKey().startsWith("get")) {
+        writes += entry.getValue().get();
+      }
+    }
+    return writes;
+  }
+
+  public synchronized Database database(String name) {
+    return databases.get(name);
+  }
+
+  public synchronized Table table(String databaseName, String tableName) {
+    Map<String, Table> databaseTables = tables.get(databaseName);
+    return databaseTables == null ? null : databaseTables.get(tableName);
+  }
+
+  public synchronized List<Partition> partitions(String databaseName, String tableName) {
+    Map<String, Partition> tablePartitions = partitions.get(databaseName + "." + tableName);
+    return tablePartitions == null ? new ArrayList<>() : new ArrayList<>(tablePartitions.values());
+  }
+
+  @Override
+  public synchronized Object invoke(Object proxy, Method method, Object[] args) {
+    calls.computeIfAbsent(method.getName(), name -> new AtomicInteger()).incrementAndGet();
+    switch (method.getName()) {
+    case "getDatabase":
+      return getDatabase((GetDatabaseRequest) args[0]);
+    case "getDatabases":
+      return getDatabases((GetDatabasesRequest) args[0]);
+    case "createDatabase":
+      return createDatabase((CreateDatabaseRequest) args[0]);
+    case "updateDatabase":
+      return updateDatabase((UpdateDatabaseRequest) args[0]);
+    case "deleteDatabase":
+      return deleteDatabase((DeleteDatabaseRequest) args[0]);
+    case "getTables":
+      return getTables((GetTablesRequest) args[0]);
+    case "createTable":
+      return createTable((CreateTableRequest) args[0]);
+    case "updateTable":
+      return updateTable((UpdateTableRequest) args[0]);
+    case "batchDeleteTable":
+      return batchDeleteTable((BatchDeleteTableRequest) args[0]);
+    case "getPartitions":
+      return getPartitions((GetPartitionsRequest) args[0]);
+    case "batchCreatePartition":
+      return batchCreatePartition((BatchCreatePartitionRequest) args[0]);
+    case "batchUpdatePartition":
+      return batchUpdatePartition((BatchUpdatePartitionRequest) args[0]);
+    case "batchDeletePartition":
+      return batchDeletePartition((BatchDeletePartitionRequest) args[0]);
+    case "shutdown":
+      return null;
+    default:
+      throw new UnsupportedOperationException(method.getName());
+    }
+  }
+
+  private GetDatabaseResult getDatabase(GetDatabaseRequest request) {
+    Database database = databases.get(request.getName());
+    if (database == null) {
+      throw new EntityNotFoundException("Database " + request.getName() + " not found");
+    }
+    return new GetDatabaseResult().withDatabase(database);
+  }
+
+  private GetDatabasesResult getDatabases(GetDatabasesRequest request) {
+    List<Database> page = page(new ArrayList<>(databases.values()), request.getMaxResults(), request.getNextToken());
+    return new GetDatabasesResult()
+        .withDatabaseList(page)
+        .withNextToken(nextToken(databases.size(), request.getMaxResults(), request.getNextToken()));
+  }
+
+  private CreateDatabaseResult createDatabase(CreateDatabaseRequest request) {
+    DatabaseInput input = request.getDatabaseInput();
+    if (databases.containsKey(input.getName())) {
+      throw new AlreadyExistsException("Database " + input.getName() + " already exists");
+    }
+    databases.put(input.getName(), toDatabase(input));
+    tables.put(input.getName(), new TreeMap<>());
+    return new CreateDatabaseResult();
+  }
+
+  private UpdateDatabaseResult updateDatabase(UpdateDatabaseRequest request) {
+    getDatabase(new GetDatabaseRequest().withName(request.getName()));
+    databases.put(request.getName(), toDatabase(request.getDatabaseInput()));
+    return new UpdateDatabaseResult();
+  }
+
+  private DeleteDatabaseResult deleteDatabase(DeleteDatabaseRequest request) {
+    getDatabase(new GetDatabaseRequest().withName(request.getName()));
+    databases.remove(request.getName());
+    for (String tableName : tables.remove(request.getName()).keySet()) {
+      partitions.remove(request.getName() + "." + tableName);
+    }
+    return new DeleteDatabaseResult();
+  }
+
+  private GetTablesResult getTables(GetTablesRequest request) {
+    List<Table> databaseTables = new ArrayList<>(databaseTables(request.getDatabaseName()).values());
+    return new GetTablesResult()
+        .withTableList(page(databaseTables, request.getMaxResults(), request.getNextToken()))
+        .withNextToken(nextToken(databaseTables.size(), request.getMaxResults(), request.getNextToken()));
+  }
+
+  private CreateTableResult createTable(CreateTableRequest request) {
+    Map<String, Table> databaseTables = databaseTables(request.getDatabaseName());
+    TableInput input = request.getTableInput();
+    if (databaseTables.containsKey(input.getName())) {
+      throw new AlreadyExistsException("Table " + input.getName() + " already exists");
+    }
+    databaseTables.put(input.getName(), toTable(request.getDatabaseName(), input));
+    partitions.put(request.getDatabaseName() + "." + input.getName(), new TreeMap<>());
+    return new CreateTableResult();
+  }
+
+  private UpdateTableResult updateTable(UpdateTableRequest request) {
+    Map<String, Table> databaseTables = databaseTables(request.getDatabaseName());
+    TableInput input = request.getTableInput();
+    if (!databaseTables.containsKey(input.getName())) {
+      throw new EntityNotFoundException("Table " + input.getName() + " not found");
+    }
+    databaseTables.put(input.getName(), toTable(request.getDatabaseName(), input));
+    return new UpdateTableResult();
+  }
+
+  private BatchDeleteTableResult batchDeleteTable(BatchDeleteTableRequest request) {
+    Map<String, Table> databaseTables = databaseTables(request.getDatabaseName());
+    List<TableError> errors = new ArrayList<>();
+    for (String tableName : request.getTablesToDelete()) {
+      if (databaseTables.remove(tableName) == null) {
+        errors.add(new TableError().withTableName(tableName).withErrorDetail(error("EntityNotFoundException")));
+      } else {
+        partitions.remove(request.getDatabaseName() + "." + tableName);
+      }
+    }
+    return new BatchDeleteTableResult().withErrors(errors);
+  }
+
+  private GetPartitionsResult getPartitions(GetPartitionsRequest request) {
+    List<Partition> tablePartitions = new ArrayList<>(
+        tablePartitions(request.getDatabaseName(), request.getTableName()).values());
+    return new GetPartitionsResult()
+        .withPartitions(page(tablePartitions, request.getMaxResults(), request.getNextToken()))
+        .withNextToken(nextToken(tablePartitions.size(), request.getMaxResults(), request.getNextToken()));
+  }
+
+  private BatchCreatePartitionResult batchCreatePartition(BatchCreatePartitionRequest request) {
+    Map<String, Partition> tablePartitions = tablePartitions(request.getDatabaseName(), request.getTableName());
+    List<PartitionError> errors = new ArrayList<>();
+    for (PartitionInput input : request.getPartitionInputList()) {
+      String key = String.valueOf(input.getValues());
+      if (tablePartitions.containsKey(key)) {
+        errors.add(new PartitionError()
+            .withPartitionValues(input.getValues())
+            .withErrorDetail(error("AlreadyExistsException")));
+      } else {
+        tablePartitions.put(key, toPartition(request.getDatabaseName(), request.getTableName(), input));
+      }
+    }
+    return new BatchCreatePartitionResult().withErrors(errors);
+  }
+
+  private BatchUpdatePartitionResult batchUpdatePartition(BatchUpdatePartitionRequest request) {
+    Map<String, Partition> tablePartitions = tablePartitions(request.getDatabaseName(), request.getTableName());
+    List<BatchUpdatePartitionFailureEntry> errors = new ArrayList<>();
+    for (BatchUpdatePartitionRequestEntry entry : request.getEntries()) {
+      String key = String.valueOf(entry.getPartitionValueList());
+      if (tablePartitions.containsKey(key)) {
+        tablePartitions.put(key,
+            toPartition(request.getDatabaseName(), request.getTableName(), entry.getPartitionInput()));
+      } else {
+        errors.add(new BatchUpdatePartitionFailureEntry()
+            .withPartitionValueList(entry.getPartitionValueList())
+            .withErrorDetail(error("EntityNotFoundException")));
+      }
+    }
+    return new BatchUpdatePartitionResult().withErrors(errors);
+  }
+
+  private BatchDeletePartitionResult batchDeletePartition(BatchDeletePartitionRequest request) {
+    Map<String, Partition> tablePartitions = tablePartitions(request.getDatabaseName(), request.getTableName());
+    List<PartitionError> errors = new ArrayList<>();
+    for (PartitionValueList values : request.getPartitionsToDelete()) {
+      if (tablePartitions.remove(String.valueOf(values.getValues())) == null) {
+        errors.add(new PartitionError()
+            .withPartitionValues(values.getValues())
+            .withErrorDetail(error("EntityNotFoundException")));
+      }
+    }
+    return new BatchDeletePartitionResult().withErrors(errors);
+  }
+
+  private Map<String, Table> databaseTables(String databaseName) {
+    Map<String, Table> databaseTables = tables.get(databaseName);
+    if (databaseTables == null) {
+      throw new EntityNotFoundException("Database " + databaseName + " not found");
+    }
+    return databaseTables;
+  }
+
+  private Map<String, Partition> tablePartitions(String databaseName, String tableName) {
+    Map<String, Partition> tablePartitions = partitions.get(databaseName + "." + tableName);
+    if (tablePartitions == null) {
+      throw new EntityNotFoundException("Table " + databaseName + "." + tableName + " not found");
+    }
+    return tablePartitions;
+  }
+
+  private static Database toDatabase(DatabaseInput input) {
+    return new Database()
+        .withName(input.getName())
+        .withDescription(input.getDescription())
+        .withLocationUri(input.getLocationUri())
+        .withParameters(input.getParameters());
+  }
+
+  private static Table toTable(String databaseName, TableInput input) {
+    return new Table()
+        .withDatabaseName(databaseName)
+        .withName(input.getName())
+        .withLastAccessTime(input.getLastAccessTime())
+        .withOwner(input.getOwner())
+        .withParameters(input.getParameters())
+        .withPartitionKeys(input.getPartitionKeys())
+        .withRetention(input.getRetention())
+        .withStorageDescriptor(input.getStorageDescriptor())
+        .withTableType(input.getTableType());
+  }
+
+  private static Partition toPartition(String databaseName, String tableName, PartitionInput input) {
+    return new Partition()
+        .withDatabaseName(databaseName)
+        .withTableName(tableName)
+        .withValues(input.getValues())
+        .withLastAccessTime(input.getLastAccessTime())
+        .withParameters(input.getParameters())
+        .withStorageDescriptor(input.getStorageDescriptor());
+  }
+
+  private static ErrorDetail error(String errorCode) {
+    return new ErrorDetail().withErrorCode(errorCode).withErrorMessage(errorCode);
+  }
+
+  private static <T> List<T> page(List<T> values, Integer maxResults, String nextToken) {
+    int from = nextToken == null ? 0 : Integer.parseInt(nextToken);
+    int to = maxResults == null ? values.size() : Math.min(from + maxResults, values.size());
+    return new ArrayList<>(values.subList(from, to));
+  }
+
+  private static String nextToken(int size, Integer maxResults, String nextToken) {
+    int from = nextToken == null ? 0 : Integer.parseInt(nextToken);
+    if (maxResults == null || from + maxResults >= size) {
+      return null;
+    }
+    return String.valueOf(from + maxResults);
+  }
+
+}
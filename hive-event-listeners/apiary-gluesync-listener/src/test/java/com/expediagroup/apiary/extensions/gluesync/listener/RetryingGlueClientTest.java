@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2018-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.expediagroup.apiary.extensions.gluesync.listener;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.SocketTimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.services.glue.AWSGlue;
+import com.amazonaws.services.glue.model.AWSGlueException;
+import com.amazonaws.services.glue.model.EntityNotFoundException;
+import com.amazonaws.services.glue.model.GetDatabaseRequest;
+import com.amazonaws.services.glue.model.GetDatabaseResult;
+
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricConstants;
+import com.expediagroup.apiary.extensions.gluesync.listener.metrics.MetricService;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueRateLimiter;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.GlueRateLimiter.ApiFamily;
+import com.expediagroup.apiary.extensions.gluesync.listener.service.RetryingGlueClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetryingGlueClientTest {
+
+  @Mock
+  private AWSGlue delegate;
+  @Mock
+  private MetricService metricService;
+
+  private final GetDatabaseRequest request = new GetDatabaseRequest().withName("db");
+  private AWSGlue glueClient;
+
+  @Before
+  public void setUp() {
+    glueClient = RetryingGlueClient.wrap(delegate, 2, 1L, 5L, metricService);
+  }
+
+  @Test
+  public void throttledCallsAreRetried() {
+    GetDatabaseResult result = new GetDatabaseResult();
+    when(delegate.getDatabase(request)).thenThrow(throttling(), throttling()).thenReturn(result);
+
+    assertThat(glueClient.getDatabase(request), is(sameInstance(result)));
+    verify(delegate, times(3)).getDatabase(request);
+    verify(metricService, times(2)).incrementCounter(MetricConstants.LISTENER_THROTTLED);
+  }
+
+  @Test
+  public void givesUpAfterMaxRetries() {
+    AWSGlueException throttling = throttling();
+    when(delegate.getDatabase(request)).thenThrow(throttling);
+
+    try {
+      glueClient.getDatabase(request);
+      fail("Expected AWSGlueException");
+    } catch (AWSGlueException e) {
+      assertThat(e, is(sameInstance(throttling)));
+    }
+    verify(delegate, times(3)).getDatabase(request);
+  }
+
+  @Test
+  public void serverAndConnectionErrorsAreRetried() {
+    AWSGlueException serverError = new AWSGlueException("Internal failure");
+    serverError.setStatusCode(500);
+    GetDatabaseResult result = new GetDatabaseResult();
+    when(delegate.getDatabase(request))
+        .thenThrow(serverError)
+        .thenThrow(new SdkClientException("Unable to execute HTTP request", new SocketTimeoutException()))
+        .thenReturn(result);
+
+    assertThat(glueClient.getDatabase(request), is(sameInstance(result)));
+    verify(delegate, times(3)).getDatabase(request);
+    verify(metricService, times(0)).incrementCounter(anyString());
+  }
+
+  @Test
+  public void clientConfigurationDisablesSdkRetries() {
+    assertThat(RetryingGlueClient.clientConfiguration().getRetryPolicy(),
+        is(sameInstance(PredefinedRetryPolicies.NO_RETRY_POLICY)));
+  }
+
+  @Test
+  public void otherErrorsAreNotRetried() {
+    when(delegate.getDatabase(any())).thenThrow(new EntityNotFoundException("not found"));
+
+    try {
+      glueClient.getDatabase(request);
+      fail("Expected EntityNotFoundException");
+    } catch (EntityNotFoundException e) {
+      verify(delegate).getDatabase(request);
+      verifyZeroInteractions(metricService);
+    }
+  }
+
+  @Test
+  public void throttledCallsLowerTheRate() {
+    GlueRateLimiter rateLimiter = new GlueRateLimiter(10, 10, 10, 1000L, metricService);
+    glueClient = RetryingGlueClient.wrap(delegate, 2, 1L, 5L, rateLimiter, metricService);
+    GetDatabaseResult result = new GetDatabaseResult();
+    when(delegate.getDatabase(request)).thenThrow(throttling()).thenReturn(result);
+
+    assertThat(glueClient.getDatabase(request), is(sameInstance(result)));
+    assertThat(rateLimiter.rate(ApiFamily.DATABASE) < 10.0, is(true));
+    assertThat(rateLimiter.rate(ApiFamily.TABLE), is(10.0));
+    verify(metricService, times(2)).incrementCounter(MetricConstants.LISTENER_DATABASE_RATE_LIMIT_PERMITS);
+    verify(metricService).incrementCounter(MetricConstants.LISTENER_DATABASE_RATE_LIMIT_THROTTLES);
+  }
+
+  private static AWSGlueException throttling() {
+    AWSGlueException e = new AWSGlueException("Rate exceeded");
+    e.setErrorCode("ThrottlingException");
+    e.setStatusCode(400);
+    return e;
+  }
+
+}